@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.common;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writer of a {@link Grid} which is streamed row by row instead of being held
+ * in memory as a whole. The start is written once, followed by any number of
+ * rows and finally the end.
+ */
+public interface GridStreamWriter
+{
+    /**
+     * Writes the start of the grid.
+     *
+     * @param headers the headers of the grid.
+     * @param metaData the meta data of the grid, can be null.
+     * @throws IOException if writing failed.
+     */
+    void writeStart( List<GridHeader> headers, Map<String, Object> metaData )
+        throws IOException;
+
+    /**
+     * Writes a row of the grid. The row is not retained by the writer and can
+     * be reused by the caller.
+     *
+     * @param row the values of the row, in the order of the headers.
+     * @throws IOException if writing failed, typically because the client
+     *         disconnected.
+     */
+    void writeRow( List<Object> row )
+        throws IOException;
+
+    /**
+     * Writes the end of the grid.
+     *
+     * @param refs the references collected for the written rows.
+     * @throws IOException if writing failed.
+     */
+    void writeEnd( List<Reference> refs )
+        throws IOException;
+}
@@ -341,6 +341,8 @@ public enum ErrorCode
     E7229( "Operator `{0}` does not allow missing value" ),
     E7230( "Header param `{0}` does not exist" ),
     E7231( "Legacy `{0}` can be updated only through event visualizations" ),
+    E7232( "Grid with `{0}` rows exceeds the max number of rows of the xls format: `{1}`, use xlsx instead" ),
+    E7233( "Grid with `{0}` rows exceeds the max number of rows of the xlsx format: `{1}`" ),
 
     /* Org unit analytics */
     E7300( "At least one organisation unit must be specified" ),
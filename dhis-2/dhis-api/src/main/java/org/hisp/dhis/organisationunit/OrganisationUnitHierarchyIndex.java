@@ -0,0 +1,370 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.organisationunit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Immutable in-memory snapshot of the organisation unit hierarchy.
+ * <p>
+ * Every organisation unit is assigned an int identifier equal to its position
+ * in a pre-order traversal of the hierarchy. The identifier of the last unit in
+ * the subtree of each unit is kept as well, so that the subtree of a unit
+ * occupies the closed interval [id, last[id]]. This allows for ancestor and
+ * descendant checks in constant time and for enumerating a subtree without
+ * walking the hierarchy or querying the database.
+ * <p>
+ * Units which are part of a cyclic reference are not reachable from any root
+ * and are not part of the index. Callers should fall back to
+ * {@link OrganisationUnit#isDescendant(OrganisationUnit)} for units where
+ * {@link #contains(String)} returns false.
+ */
+public final class OrganisationUnitHierarchyIndex
+{
+    private static final String PATH_SEP = "/";
+
+    public static final OrganisationUnitHierarchyIndex EMPTY = new OrganisationUnitHierarchyIndex(
+        Collections.emptyMap() );
+
+    /**
+     * Unit UIDs in pre-order, indexed by unit identifier.
+     */
+    private final String[] uids;
+
+    /**
+     * Mapping from unit UID to unit identifier.
+     */
+    private final Map<String, Integer> ids;
+
+    /**
+     * Identifier of the parent of each unit, -1 for roots.
+     */
+    private final int[] parents;
+
+    /**
+     * Hierarchy level of each unit, starting at 1 for roots.
+     */
+    private final int[] levels;
+
+    /**
+     * Identifier of the last unit in the subtree of each unit.
+     */
+    private final int[] last;
+
+    /**
+     * @param parentUids mapping from unit UID to parent UID, where the parent
+     *        UID is null for roots.
+     */
+    private OrganisationUnitHierarchyIndex( Map<String, String> parentUids )
+    {
+        Map<String, List<String>> children = new HashMap<>();
+        List<String> roots = new ArrayList<>();
+
+        for ( Map.Entry<String, String> entry : parentUids.entrySet() )
+        {
+            String parent = entry.getValue();
+
+            if ( parent == null || parent.equals( entry.getKey() ) || !parentUids.containsKey( parent ) )
+            {
+                roots.add( entry.getKey() );
+            }
+            else
+            {
+                children.computeIfAbsent( parent, key -> new ArrayList<>() ).add( entry.getKey() );
+            }
+        }
+
+        int size = parentUids.size();
+
+        String[] uidArray = new String[size];
+        int[] parentArray = new int[size];
+        int[] levelArray = new int[size];
+        Map<String, Integer> idMap = new HashMap<>( (int) (size / 0.75f) + 1 );
+
+        // Iterative depth-first traversal, a subtree is fully numbered before
+        // its next sibling is popped from the stack
+
+        int[] stackParents = new int[size];
+        String[] stack = new String[size];
+        int top = 0;
+        int next = 0;
+
+        for ( String root : roots )
+        {
+            stack[top] = root;
+            stackParents[top++] = -1;
+        }
+
+        while ( top > 0 )
+        {
+            String uid = stack[--top];
+            int parent = stackParents[top];
+            int id = next++;
+
+            uidArray[id] = uid;
+            parentArray[id] = parent;
+            levelArray[id] = parent < 0 ? 1 : levelArray[parent] + 1;
+            idMap.put( uid, id );
+
+            for ( String child : children.getOrDefault( uid, Collections.emptyList() ) )
+            {
+                stack[top] = child;
+                stackParents[top++] = id;
+            }
+        }
+
+        // Children are numbered after their parent, hence a reverse pass
+        // completes each subtree interval before it is propagated upwards
+
+        int[] lastArray = new int[next];
+
+        for ( int id = next - 1; id >= 0; id-- )
+        {
+            lastArray[id] = Math.max( lastArray[id], id );
+
+            if ( parentArray[id] >= 0 )
+            {
+                lastArray[parentArray[id]] = Math.max( lastArray[parentArray[id]], lastArray[id] );
+            }
+        }
+
+        this.uids = Arrays.copyOf( uidArray, next );
+        this.parents = Arrays.copyOf( parentArray, next );
+        this.levels = Arrays.copyOf( levelArray, next );
+        this.last = lastArray;
+        this.ids = idMap;
+    }
+
+    // -------------------------------------------------------------------------
+    // Factory methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Creates an index from the given mapping of unit UID to unit path, where
+     * the path is on the format "/rootUid/.../uid".
+     *
+     * @param paths mapping from unit UID to unit path.
+     * @return an {@link OrganisationUnitHierarchyIndex}.
+     */
+    public static OrganisationUnitHierarchyIndex fromPaths( Map<String, String> paths )
+    {
+        Map<String, String> parentUids = new HashMap<>( (int) (paths.size() / 0.75f) + 1 );
+
+        paths.forEach( ( uid, path ) -> parentUids.put( uid, getParentUid( uid, path ) ) );
+
+        return new OrganisationUnitHierarchyIndex( parentUids );
+    }
+
+    /**
+     * Creates a new index based on this index with the given changes applied.
+     * Only the parent of each changed unit is taken from its path, which means
+     * that descendants of a moved unit follow the unit regardless of whether
+     * their own paths are updated.
+     *
+     * @param changedPaths mapping from unit UID to unit path for units which
+     *        were added or updated.
+     * @param removedUids UIDs of units which were removed.
+     * @return a new {@link OrganisationUnitHierarchyIndex}.
+     */
+    public OrganisationUnitHierarchyIndex withChanges( Map<String, String> changedPaths,
+        Collection<String> removedUids )
+    {
+        Map<String, String> parentUids = new HashMap<>( (int) ((uids.length + changedPaths.size()) / 0.75f) + 1 );
+
+        for ( int id = 0; id < uids.length; id++ )
+        {
+            parentUids.put( uids[id], parents[id] < 0 ? null : uids[parents[id]] );
+        }
+
+        changedPaths.forEach( ( uid, path ) -> parentUids.put( uid, getParentUid( uid, path ) ) );
+        removedUids.forEach( parentUids::remove );
+
+        return new OrganisationUnitHierarchyIndex( parentUids );
+    }
+
+    // -------------------------------------------------------------------------
+    // Logic
+    // -------------------------------------------------------------------------
+
+    /**
+     * Returns the number of organisation units in the index.
+     */
+    public int size()
+    {
+        return uids.length;
+    }
+
+    /**
+     * Indicates whether the organisation unit with the given UID is part of the
+     * index.
+     *
+     * @param uid the organisation unit UID.
+     */
+    public boolean contains( String uid )
+    {
+        return uid != null && ids.containsKey( uid );
+    }
+
+    /**
+     * Indicates whether the organisation unit with the given UID is equal to or
+     * a descendant of the organisation unit with the given ancestor UID. This
+     * is consistent with {@link OrganisationUnit#isDescendant}.
+     *
+     * @param uid the organisation unit UID.
+     * @param ancestorUid the ancestor organisation unit UID.
+     * @return true if the unit is in the subtree of the ancestor, false if not
+     *         or if either unit is not part of the index.
+     */
+    public boolean isDescendant( String uid, String ancestorUid )
+    {
+        Integer id = getId( uid );
+        Integer ancestorId = getId( ancestorUid );
+
+        return id != null && ancestorId != null && ancestorId <= id && id <= last[ancestorId];
+    }
+
+    /**
+     * Indicates whether the organisation unit with the given UID is equal to or
+     * a descendant of any of the organisation units with the given ancestor
+     * UIDs.
+     *
+     * @param uid the organisation unit UID.
+     * @param ancestorUids the ancestor organisation unit UIDs.
+     * @return true if the unit is in the subtree of any of the ancestors.
+     */
+    public boolean isDescendant( String uid, Collection<String> ancestorUids )
+    {
+        Integer id = getId( uid );
+
+        if ( id == null || ancestorUids == null )
+        {
+            return false;
+        }
+
+        for ( String ancestorUid : ancestorUids )
+        {
+            Integer ancestorId = getId( ancestorUid );
+
+            if ( ancestorId != null && ancestorId <= id && id <= last[ancestorId] )
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the hierarchy level of the organisation unit with the given UID,
+     * where roots are at level 1.
+     *
+     * @param uid the organisation unit UID.
+     * @return the level, or 0 if the unit is not part of the index.
+     */
+    public int getLevel( String uid )
+    {
+        Integer id = getId( uid );
+
+        return id != null ? levels[id] : 0;
+    }
+
+    /**
+     * Returns the UID of the parent of the organisation unit with the given
+     * UID.
+     *
+     * @param uid the organisation unit UID.
+     * @return the parent UID, or null if the unit is a root or not part of the
+     *         index.
+     */
+    public String getParent( String uid )
+    {
+        Integer id = getId( uid );
+
+        return id != null && parents[id] >= 0 ? uids[parents[id]] : null;
+    }
+
+    /**
+     * Returns the UIDs of the organisation unit with the given UID and all of
+     * its descendants in pre-order. The returned list is an unmodifiable view
+     * backed by the index and is created in constant time.
+     *
+     * @param uid the organisation unit UID.
+     * @return a list of UIDs, empty if the unit is not part of the index.
+     */
+    public List<String> getDescendants( String uid )
+    {
+        Integer id = getId( uid );
+
+        if ( id == null )
+        {
+            return Collections.emptyList();
+        }
+
+        return Collections.unmodifiableList( Arrays.asList( uids ).subList( id, last[id] + 1 ) );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private Integer getId( String uid )
+    {
+        return uid != null ? ids.get( uid ) : null;
+    }
+
+    /**
+     * Returns the second to last segment of the given path, or null if the path
+     * represents a root or is blank.
+     */
+    private static String getParentUid( String uid, String path )
+    {
+        if ( StringUtils.isBlank( path ) )
+        {
+            return null;
+        }
+
+        String[] segments = StringUtils.split( path, PATH_SEP );
+
+        int index = segments.length - 1;
+
+        if ( index >= 0 && segments[index].equals( uid ) )
+        {
+            index--;
+        }
+
+        return index >= 0 ? segments[index] : null;
+    }
+}
@@ -123,6 +123,14 @@ public interface OrganisationUnitStore
      */
     List<OrganisationUnit> getWithinCoordinateArea( double[] box );
 
+    /**
+     * Returns a mapping between organisation unit UID and path for all
+     * organisation units.
+     *
+     * @return a map of organisation unit UID to path.
+     */
+    Map<String, String> getOrganisationUnitPaths();
+
     void updatePaths();
 
     void forceUpdatePaths();
@@ -66,6 +66,13 @@ public class ContinuousAnalyticsJobParameters
      */
     private Set<AnalyticsTableType> skipTableTypes = new HashSet<>();
 
+    /**
+     * Whether the full analytics table update should only rebuild the year
+     * partitions with data changed since the partition was last built. The
+     * number of last years is not applied when enabled.
+     */
+    private boolean changedPartitionsOnly;
+
     public ContinuousAnalyticsJobParameters()
     {
     }
@@ -115,6 +122,18 @@ public class ContinuousAnalyticsJobParameters
         this.skipTableTypes = skipTableTypes;
     }
 
+    @JsonProperty
+    @JacksonXmlProperty( namespace = DxfNamespaces.DXF_2_0 )
+    public boolean isChangedPartitionsOnly()
+    {
+        return changedPartitionsOnly;
+    }
+
+    public void setChangedPartitionsOnly( boolean changedPartitionsOnly )
+    {
+        this.changedPartitionsOnly = changedPartitionsOnly;
+    }
+
     @Override
     public Optional<ErrorReport> validate()
     {
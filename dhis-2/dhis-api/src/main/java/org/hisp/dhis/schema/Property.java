@@ -33,6 +33,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.Function;
 
 import org.hisp.dhis.common.DxfNamespaces;
 import org.hisp.dhis.common.EmbeddedObject;
@@ -85,6 +86,11 @@ public class Property implements Ordered, Klass
      */
     private Method setterMethod;
 
+    /**
+     * Accessor compiled from the getter method on first use.
+     */
+    private transient volatile Function<Object, Object> getter;
+
     /**
      * Name for this property, if this class is a collection, it is the name of
      * the items -inside- the collection and not the collection wrapper itself.
@@ -379,6 +385,35 @@ public class Property implements Ordered, Klass
     public void setGetterMethod( Method getterMethod )
     {
         this.getterMethod = getterMethod;
+        this.getter = null;
+    }
+
+    /**
+     * Reads the value of this property from the given object. Uses an accessor
+     * compiled from the getter method once, instead of invoking the getter
+     * method reflectively.
+     *
+     * @param target the object to read the value from
+     * @return the value, or null if the target is null or this property has
+     *         no accessible getter method
+     */
+    @SuppressWarnings( "unchecked" )
+    public <T> T readValue( Object target )
+    {
+        if ( target == null )
+        {
+            return null;
+        }
+
+        Function<Object, Object> accessor = getter;
+
+        if ( accessor == null )
+        {
+            accessor = PropertyAccessors.createGetter( getterMethod );
+            getter = accessor;
+        }
+
+        return (T) accessor.apply( target );
     }
 
     public Method getSetterMethod()
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.schema;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.Function;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Creates functions reading a property value through its getter method
+ * without reflection. The function is a lambda bound to the getter with
+ * {@link LambdaMetafactory}, hence invoking it is as fast as a direct method
+ * call once JIT compiled.
+ *
+ * If the getter can not be bound (i.e. it is declared by a class which is not
+ * accessible), the function falls back to invoking the getter reflectively.
+ */
+@Slf4j
+@NoArgsConstructor( access = AccessLevel.PRIVATE )
+final class PropertyAccessors
+{
+    private static final Function<Object, Object> NO_VALUE = target -> null;
+
+    /**
+     * Creates a function reading a value through the given getter. Consistent
+     * with reflective invocation, the function returns null for protected and
+     * private getters.
+     *
+     * @param getter the getter method, can be null
+     * @return a function taking the target object and returning the value
+     */
+    static Function<Object, Object> createGetter( Method getter )
+    {
+        if ( getter == null || Modifier.isProtected( getter.getModifiers() )
+            || Modifier.isPrivate( getter.getModifiers() ) )
+        {
+            return NO_VALUE;
+        }
+
+        try
+        {
+            return createLambdaGetter( getter );
+        }
+        catch ( Throwable ex )
+        {
+            log.debug( "Failed to create accessor for getter, falling back to reflection: " + getter, ex );
+
+            return target -> invokeGetter( getter, target );
+        }
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private static Function<Object, Object> createLambdaGetter( Method getter )
+        throws Throwable
+    {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodHandle handle = lookup.unreflect( getter );
+
+        CallSite site = LambdaMetafactory.metafactory( lookup, "apply",
+            MethodType.methodType( Function.class ),
+            MethodType.methodType( Object.class, Object.class ),
+            handle, handle.type() );
+
+        return (Function<Object, Object>) site.getTarget().invokeExact();
+    }
+
+    private static Object invokeGetter( Method getter, Object target )
+    {
+        try
+        {
+            return getter.invoke( target );
+        }
+        catch ( InvocationTargetException | IllegalAccessException ex )
+        {
+            throw new RuntimeException( ex );
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.organisationunit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+class OrganisationUnitHierarchyIndexTest
+{
+    private OrganisationUnitHierarchyIndex index;
+
+    @BeforeEach
+    void setUp()
+    {
+        // A
+        // |- B
+        // | |- D
+        // | |- E
+        // |- C
+        // | |- F
+        // G
+
+        Map<String, String> paths = new HashMap<>();
+        paths.put( "A", "/A" );
+        paths.put( "B", "/A/B" );
+        paths.put( "C", "/A/C" );
+        paths.put( "D", "/A/B/D" );
+        paths.put( "E", "/A/B/E" );
+        paths.put( "F", "/A/C/F" );
+        paths.put( "G", "/G" );
+
+        index = OrganisationUnitHierarchyIndex.fromPaths( paths );
+    }
+
+    @Test
+    void testSizeAndContains()
+    {
+        assertEquals( 7, index.size() );
+        assertTrue( index.contains( "A" ) );
+        assertTrue( index.contains( "F" ) );
+        assertFalse( index.contains( "X" ) );
+        assertFalse( index.contains( null ) );
+    }
+
+    @Test
+    void testIsDescendant()
+    {
+        assertTrue( index.isDescendant( "A", "A" ) );
+        assertTrue( index.isDescendant( "D", "A" ) );
+        assertTrue( index.isDescendant( "D", "B" ) );
+        assertTrue( index.isDescendant( "F", "C" ) );
+        assertFalse( index.isDescendant( "D", "C" ) );
+        assertFalse( index.isDescendant( "A", "B" ) );
+        assertFalse( index.isDescendant( "G", "A" ) );
+        assertFalse( index.isDescendant( "X", "A" ) );
+        assertFalse( index.isDescendant( "A", "X" ) );
+    }
+
+    @Test
+    void testIsDescendantOfAny()
+    {
+        assertTrue( index.isDescendant( "E", Lists.newArrayList( "C", "B" ) ) );
+        assertTrue( index.isDescendant( "G", Lists.newArrayList( "X", "G" ) ) );
+        assertFalse( index.isDescendant( "F", Lists.newArrayList( "B", "G" ) ) );
+        assertFalse( index.isDescendant( "F", Collections.emptyList() ) );
+    }
+
+    @Test
+    void testGetLevelAndParent()
+    {
+        assertEquals( 1, index.getLevel( "A" ) );
+        assertEquals( 2, index.getLevel( "C" ) );
+        assertEquals( 3, index.getLevel( "E" ) );
+        assertEquals( 0, index.getLevel( "X" ) );
+        assertEquals( "B", index.getParent( "D" ) );
+        assertNull( index.getParent( "A" ) );
+        assertNull( index.getParent( "X" ) );
+    }
+
+    @Test
+    void testGetDescendants()
+    {
+        assertEquals( Sets.newHashSet( "A", "B", "C", "D", "E", "F" ), new HashSet<>( index.getDescendants( "A" ) ) );
+        assertEquals( Sets.newHashSet( "B", "D", "E" ), new HashSet<>( index.getDescendants( "B" ) ) );
+        assertEquals( Lists.newArrayList( "F" ), index.getDescendants( "F" ) );
+        assertTrue( index.getDescendants( "X" ).isEmpty() );
+
+        List<String> descendants = index.getDescendants( "A" );
+        assertEquals( "A", descendants.get( 0 ) );
+    }
+
+    @Test
+    void testWithChanges()
+    {
+        // Move B with its children below G, remove F and add H below C
+
+        Map<String, String> changed = new HashMap<>();
+        changed.put( "B", "/G/B" );
+        changed.put( "H", "/A/C/H" );
+
+        OrganisationUnitHierarchyIndex changedIndex = index.withChanges( changed, Sets.newHashSet( "F" ) );
+
+        assertEquals( 7, changedIndex.size() );
+        assertTrue( changedIndex.isDescendant( "D", "G" ) );
+        assertFalse( changedIndex.isDescendant( "D", "A" ) );
+        assertEquals( 3, changedIndex.getLevel( "E" ) );
+        assertTrue( changedIndex.isDescendant( "H", "A" ) );
+        assertFalse( changedIndex.contains( "F" ) );
+
+        // Original index is unchanged
+
+        assertTrue( index.isDescendant( "D", "A" ) );
+        assertTrue( index.contains( "F" ) );
+    }
+
+    @Test
+    void testCyclicReferencesAreExcluded()
+    {
+        Map<String, String> paths = new HashMap<>();
+        paths.put( "A", "/A" );
+        paths.put( "B", "/C/B" );
+        paths.put( "C", "/B/C" );
+
+        OrganisationUnitHierarchyIndex cyclicIndex = OrganisationUnitHierarchyIndex.fromPaths( paths );
+
+        Set<String> expected = Sets.newHashSet( "A" );
+
+        assertEquals( 1, cyclicIndex.size() );
+        assertEquals( expected, new HashSet<>( cyclicIndex.getDescendants( "A" ) ) );
+        assertFalse( cyclicIndex.contains( "B" ) );
+    }
+}
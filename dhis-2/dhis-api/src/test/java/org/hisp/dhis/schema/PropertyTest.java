@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.schema;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.hisp.dhis.common.BaseIdentifiableObject;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.dataelement.DataElementDomain;
+import org.junit.jupiter.api.Test;
+
+class PropertyTest
+{
+    @Test
+    void testReadValue()
+        throws NoSuchMethodException
+    {
+        DataElement dataElement = new DataElement( "DataElementA" );
+        dataElement.setDomainType( DataElementDomain.TRACKER );
+
+        Property name = new Property( String.class, BaseIdentifiableObject.class.getMethod( "getName" ), null );
+        Property domainType = new Property( DataElementDomain.class,
+            DataElement.class.getMethod( "getDomainType" ), null );
+
+        assertEquals( "DataElementA", name.readValue( dataElement ) );
+        assertEquals( DataElementDomain.TRACKER, domainType.readValue( dataElement ) );
+    }
+
+    @Test
+    void testReadPrimitiveValue()
+        throws NoSuchMethodException
+    {
+        DataElement dataElement = new DataElement( "DataElementA" );
+        dataElement.setZeroIsSignificant( true );
+
+        Property property = new Property( boolean.class, DataElement.class.getMethod( "isZeroIsSignificant" ),
+            null );
+
+        assertTrue( property.<Boolean> readValue( dataElement ) );
+    }
+
+    @Test
+    void testReadValueOfNullTarget()
+        throws NoSuchMethodException
+    {
+        Property property = new Property( String.class, BaseIdentifiableObject.class.getMethod( "getName" ), null );
+
+        assertNull( property.readValue( null ) );
+    }
+
+    @Test
+    void testReadValueWithoutGetter()
+    {
+        Property property = new Property( String.class );
+
+        assertNull( property.readValue( new DataElement( "DataElementA" ) ) );
+    }
+
+    @Test
+    void testReadValueAfterGetterChange()
+        throws NoSuchMethodException
+    {
+        DataElement dataElement = new DataElement( "DataElementA" );
+        dataElement.setCode( "CodeA" );
+
+        Property property = new Property( String.class, BaseIdentifiableObject.class.getMethod( "getName" ), null );
+        assertEquals( "DataElementA", property.readValue( dataElement ) );
+
+        property.setGetterMethod( BaseIdentifiableObject.class.getMethod( "getCode" ) );
+        assertEquals( "CodeA", property.readValue( dataElement ) );
+    }
+}
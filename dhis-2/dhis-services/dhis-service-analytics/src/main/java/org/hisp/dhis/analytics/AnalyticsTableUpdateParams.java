@@ -70,6 +70,12 @@ public class AnalyticsTableUpdateParams
      */
     private Set<String> skipPrograms = new HashSet<>();
 
+    /**
+     * Indicates whether to only rebuild the year partitions with data changed
+     * since the partition was last built.
+     */
+    private boolean changedPartitionsOnly;
+
     /**
      * Job ID.
      */
@@ -119,6 +125,11 @@ public class AnalyticsTableUpdateParams
         return skipPrograms;
     }
 
+    public boolean isChangedPartitionsOnly()
+    {
+        return changedPartitionsOnly;
+    }
+
     public JobConfiguration getJobId()
     {
         return jobId;
@@ -157,6 +168,16 @@ public class AnalyticsTableUpdateParams
         return Objects.equals( lastYears, AnalyticsTablePartition.LATEST_PARTITION );
     }
 
+    /**
+     * Indicates whether this is an update of the year partitions with data
+     * changed since the partition was last built. Partitions without changes
+     * are kept as is.
+     */
+    public boolean isChangedPartitionsUpdate()
+    {
+        return changedPartitionsOnly && !isLatestUpdate();
+    }
+
     // -------------------------------------------------------------------------
     // toString
     // -------------------------------------------------------------------------
@@ -169,6 +190,7 @@ public class AnalyticsTableUpdateParams
             .add( "skip resource tables", skipResourceTables )
             .add( "skip table types", skipTableTypes )
             .add( "skip programs", skipPrograms )
+            .add( "changed partitions only", changedPartitionsOnly )
             .add( "start time", DateUtils.getLongDateString( startTime ) )
             .toString();
     }
@@ -212,6 +234,7 @@ public class AnalyticsTableUpdateParams
         params.skipResourceTables = this.skipResourceTables;
         params.skipTableTypes = new HashSet<>( this.skipTableTypes );
         params.skipPrograms = new HashSet<>( this.skipPrograms );
+        params.changedPartitionsOnly = this.changedPartitionsOnly;
         params.jobId = this.jobId;
         params.startTime = this.startTime;
         params.lastSuccessfulUpdate = this.lastSuccessfulUpdate;
@@ -276,6 +299,12 @@ public class AnalyticsTableUpdateParams
             return this;
         }
 
+        public Builder withChangedPartitionsOnly( boolean changedPartitionsOnly )
+        {
+            this.params.changedPartitionsOnly = changedPartitionsOnly;
+            return this;
+        }
+
         public Builder withJobId( JobConfiguration jobId )
         {
             this.params.jobId = jobId;
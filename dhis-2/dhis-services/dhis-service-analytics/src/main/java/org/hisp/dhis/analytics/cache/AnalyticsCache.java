@@ -29,7 +29,12 @@ package org.hisp.dhis.analytics.cache;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
 
 import lombok.extern.slf4j.Slf4j;
@@ -38,21 +43,44 @@ import org.apache.commons.lang3.SerializationUtils;
 import org.hisp.dhis.analytics.DataQueryParams;
 import org.hisp.dhis.cache.Cache;
 import org.hisp.dhis.cache.CacheProvider;
+import org.hisp.dhis.cache.CacheType;
 import org.hisp.dhis.common.Grid;
+import org.hisp.dhis.system.grid.ColumnarGrid;
 import org.springframework.stereotype.Component;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
 /**
  * This is a wrapper class responsible for keeping and isolating all cache
  * definitions related to the analytics.
+ * <p>
+ * Concurrent cache misses for the same key are coalesced, so that only one
+ * of them fetches the Grid while the others wait for its result. When the
+ * cache is shared between instances through Redis, the same applies across
+ * instances.
  */
 @Slf4j
 @Component
-public class AnalyticsCache
+public class AnalyticsCache implements MeterBinder
 {
+    private static final long IN_FLIGHT_POLL_INTERVAL_MILLIS = 100;
+
     private final AnalyticsCacheSettings analyticsCacheSettings;
 
     private Cache<Grid> queryCache;
 
+    private final Cache<Boolean> inFlightCache;
+
+    private final Map<String, CompletableFuture<Grid>> inFlightFetches = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder coalesced = new LongAdder();
+
     /**
      * Default constructor. Note that a default expiration time is set, as as
      * the TTL will always be overwritten during cache put operations.
@@ -64,6 +92,7 @@ public class AnalyticsCache
 
         this.analyticsCacheSettings = analyticsCacheSettings;
         this.queryCache = cacheProvider.createAnalyticsCache();
+        this.inFlightCache = cacheProvider.createAnalyticsInFlightCache();
     }
 
     public Optional<Grid> get( final String key )
@@ -75,7 +104,9 @@ public class AnalyticsCache
      * This method tries to retrieve, from the cache, the Grid related to the
      * given DataQueryParams. If the Grid is not found in the cache, the Grid
      * will be fetched by the function provided. In this case, the fetched Grid
-     * will be cached, so the next consumers can hit the cache only.
+     * will be cached, so the next consumers can hit the cache only. Consumers
+     * asking for the same Grid while it is being fetched wait for that fetch
+     * instead of starting their own.
      * <p>
      * f The TTL of the cached object will be set accordingly to the cache
      * settings available at
@@ -88,19 +119,148 @@ public class AnalyticsCache
      */
     public Grid getOrFetch( final DataQueryParams params, final Function<DataQueryParams, Grid> function )
     {
-        final Optional<Grid> cachedGrid = get( params.getKey() );
+        final String key = params.getKey();
+
+        final Optional<Grid> cachedGrid = queryCache.get( key );
 
         if ( cachedGrid.isPresent() )
         {
+            hits.increment();
+
             return getGridClone( cachedGrid.get() );
         }
-        else
+
+        final CompletableFuture<Grid> fetch = new CompletableFuture<>();
+        final CompletableFuture<Grid> inFlightFetch = inFlightFetches.putIfAbsent( key, fetch );
+
+        if ( inFlightFetch != null )
+        {
+            coalesced.increment();
+
+            return getGridClone( await( inFlightFetch ) );
+        }
+
+        try
+        {
+            // The Grid may have been cached since the lookup above by a fetch
+            // which completed in the meantime
+            final Grid grid = queryCache.get( key ).orElseGet( () -> fetchAndPut( params, function ) );
+
+            fetch.complete( grid );
+
+            return getGridClone( grid );
+        }
+        catch ( RuntimeException | Error ex )
+        {
+            fetch.completeExceptionally( ex );
+
+            throw ex;
+        }
+        finally
+        {
+            inFlightFetches.remove( key, fetch );
+        }
+    }
+
+    /**
+     * Fetches and caches the Grid for the given DataQueryParams. When the
+     * cache is shared with other instances and one of them is already fetching
+     * the same Grid, its result is awaited instead.
+     *
+     * @param params the current DataQueryParams.
+     * @param function that fetches a grid based on the given DataQueryParams.
+     * @return the fetched Grid.
+     */
+    private Grid fetchAndPut( final DataQueryParams params, final Function<DataQueryParams, Grid> function )
+    {
+        final String key = params.getKey();
+
+        final boolean shared = inFlightCache.getCacheType() == CacheType.REDIS;
+
+        final boolean owner = shared && inFlightCache.putIfAbsent( key, Boolean.TRUE );
+
+        if ( shared && !owner )
+        {
+            final Optional<Grid> grid = awaitInFlightCache( key );
+
+            if ( grid.isPresent() )
+            {
+                coalesced.increment();
+
+                return grid.get();
+            }
+        }
+
+        misses.increment();
+
+        try
         {
             final Grid grid = function.apply( params );
 
             put( params, grid );
 
-            return getGridClone( grid );
+            return grid;
+        }
+        finally
+        {
+            if ( owner )
+            {
+                inFlightCache.invalidate( key );
+            }
+        }
+    }
+
+    /**
+     * Waits for another instance to finish fetching the Grid for the given
+     * key. Gives up when the in-flight marker is removed or expires without
+     * the Grid being cached.
+     *
+     * @param key the cache key.
+     * @return the Grid cached by the other instance, or empty.
+     */
+    private Optional<Grid> awaitInFlightCache( final String key )
+    {
+        try
+        {
+            while ( inFlightCache.getIfPresent( key ).isPresent() )
+            {
+                Thread.sleep( IN_FLIGHT_POLL_INTERVAL_MILLIS );
+
+                final Optional<Grid> grid = queryCache.get( key );
+
+                if ( grid.isPresent() )
+                {
+                    return grid;
+                }
+            }
+        }
+        catch ( InterruptedException ex )
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        return queryCache.get( key );
+    }
+
+    private Grid await( final CompletableFuture<Grid> fetch )
+    {
+        try
+        {
+            return fetch.join();
+        }
+        catch ( CompletionException ex )
+        {
+            if ( ex.getCause() instanceof RuntimeException )
+            {
+                throw (RuntimeException) ex.getCause();
+            }
+
+            if ( ex.getCause() instanceof Error )
+            {
+                throw (Error) ex.getCause();
+            }
+
+            throw ex;
         }
     }
 
@@ -157,9 +317,29 @@ public class AnalyticsCache
         return analyticsCacheSettings.isCachingEnabled();
     }
 
+    @Override
+    public void bindTo( MeterRegistry registry )
+    {
+        bindCounter( registry, "hit", hits );
+        bindCounter( registry, "miss", misses );
+        bindCounter( registry, "coalesced", coalesced );
+    }
+
+    private void bindCounter( MeterRegistry registry, String result, LongAdder counter )
+    {
+        FunctionCounter.builder( "analytics.cache.requests", counter, LongAdder::sum )
+            .tag( "result", result )
+            .description( "Number of analytics cache lookups by result" )
+            .register( registry );
+    }
+
     private Grid getGridClone( Grid grid )
     {
-        if ( grid != null )
+        if ( grid instanceof ColumnarGrid )
+        {
+            return ((ColumnarGrid) grid).copy();
+        }
+        else if ( grid != null )
         {
             return SerializationUtils.clone( grid );
         }
@@ -169,6 +349,6 @@ public class AnalyticsCache
 
     private Optional<Grid> getGridClone( Optional<Grid> grid )
     {
-        return grid.map( SerializationUtils::clone );
+        return grid.map( this::getGridClone );
     }
 }
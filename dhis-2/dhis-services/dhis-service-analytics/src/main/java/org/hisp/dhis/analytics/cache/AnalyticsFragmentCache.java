@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.cache;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.commons.lang3.StringUtils;
+import org.hisp.dhis.analytics.DataQueryParams;
+import org.hisp.dhis.cache.Cache;
+import org.hisp.dhis.cache.CacheProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cache for the value maps of the individual queries which the query planner
+ * splits an analytics request into. Each entry is tagged with the analytics
+ * tables and partitions the query reads, so that entries can be invalidated
+ * per partition when the analytics tables are regenerated. Requests which
+ * share some of their planned queries, like pivot tables which differ by a
+ * single data item or filter, reuse the cached values of the shared queries.
+ * <p>
+ * The cache follows the TTL settings of the {@link AnalyticsCache}.
+ */
+@Slf4j
+@Component
+public class AnalyticsFragmentCache
+{
+    private static final char TABLE_SEP = ',';
+
+    private static final char KEY_SEP = '|';
+
+    private final AnalyticsCacheSettings analyticsCacheSettings;
+
+    private final Cache<HashMap<String, Object>> fragmentCache;
+
+    public AnalyticsFragmentCache( final CacheProvider cacheProvider,
+        final AnalyticsCacheSettings analyticsCacheSettings )
+    {
+        checkNotNull( cacheProvider );
+        checkNotNull( analyticsCacheSettings );
+
+        this.analyticsCacheSettings = analyticsCacheSettings;
+        this.fragmentCache = cacheProvider.createAnalyticsFragmentCache();
+    }
+
+    /**
+     * Returns the cached value map for the given query, or fetches and caches
+     * it if not present. A copy of the value map is returned, so callers are
+     * free to modify it.
+     *
+     * @param params the planned {@link DataQueryParams}.
+     * @param tableNames the names of the analytics tables and partitions read
+     *        by the query.
+     * @param queryKey the key uniquely identifying the query.
+     * @param fetch the supplier fetching the value map on a cache miss.
+     * @return the cached or fetched value map.
+     */
+    public Map<String, Object> getOrFetch( final DataQueryParams params, final Collection<String> tableNames,
+        final String queryKey, final Supplier<Map<String, Object>> fetch )
+    {
+        final String key = StringUtils.join( new TreeSet<>( tableNames ), TABLE_SEP ) + KEY_SEP + queryKey;
+
+        final Optional<HashMap<String, Object>> cachedMap = fragmentCache.get( key );
+
+        if ( cachedMap.isPresent() )
+        {
+            return new HashMap<>( cachedMap.get() );
+        }
+
+        final Map<String, Object> map = fetch.get();
+
+        fragmentCache.put( key, new HashMap<>( map ), getExpirationTime( params ) );
+
+        return map;
+    }
+
+    /**
+     * Removes the cached value maps of all queries which read any of the given
+     * analytics tables or partitions.
+     *
+     * @param tableNames the names of the analytics tables and partitions.
+     */
+    public void invalidate( final Collection<String> tableNames )
+    {
+        int count = 0;
+
+        for ( String key : fragmentCache.keys() )
+        {
+            final String tables = StringUtils.substringBefore( key, String.valueOf( KEY_SEP ) );
+
+            if ( Arrays.stream( StringUtils.split( tables, TABLE_SEP ) ).anyMatch( tableNames::contains ) )
+            {
+                fragmentCache.invalidate( key );
+                count++;
+            }
+        }
+
+        log.debug( "Invalidated {} analytics fragment cache entries for tables: {}", count, tableNames );
+    }
+
+    /**
+     * Clears the cache by removing all existing entries.
+     */
+    public void invalidateAll()
+    {
+        fragmentCache.invalidateAll();
+
+        log.info( "Analytics fragment cache cleared" );
+    }
+
+    public boolean isEnabled()
+    {
+        return analyticsCacheSettings.isCachingEnabled();
+    }
+
+    private long getExpirationTime( final DataQueryParams params )
+    {
+        return analyticsCacheSettings.isProgressiveCachingEnabled()
+            ? analyticsCacheSettings.progressiveExpirationTimeOrDefault( params.getLatestEndDate() )
+            : analyticsCacheSettings.fixedExpirationTimeOrDefault();
+    }
+}
@@ -0,0 +1,334 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.data;
+
+import static java.lang.Math.max;
+import static org.hisp.dhis.external.conf.ConfigurationKey.ANALYTICS_QUERY_MAX_CONCURRENT;
+import static org.hisp.dhis.external.conf.ConfigurationKey.ANALYTICS_QUERY_MAX_CONCURRENT_PER_USER;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PreDestroy;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import org.hisp.dhis.analytics.DataQueryParams;
+import org.hisp.dhis.common.RequestInfoService;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Admission control for analytics queries. Limits the number of queries
+ * executing concurrently, in total and per user, and queues the remaining
+ * queries. Queries submitted as part of a web request are interactive and are
+ * dispatched before queries submitted from background jobs such as scheduled
+ * reports and push analysis. Within a priority, cheaper queries are dispatched
+ * first. Queries which have been waiting for longer than
+ * {@link #COST_ORDER_MAX_WAIT_MILLIS} are dispatched before the others within
+ * their priority, in submission order, so that expensive queries are not
+ * starved.
+ */
+@Slf4j
+@Component
+public class AnalyticsQueryScheduler
+    implements MeterBinder
+{
+    private static final long COST_ORDER_MAX_WAIT_MILLIS = 5_000;
+
+    private static final String ANONYMOUS_USER = "anonymous";
+
+    private final RequestInfoService requestInfoService;
+
+    @Getter
+    private final int maxConcurrent;
+
+    @Getter
+    private final int maxConcurrentPerUser;
+
+    private final long costOrderMaxWaitMillis;
+
+    private final ExecutorService executor;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * Queued queries, guarded by this.
+     */
+    private final List<QueryTask<?>> queue = new ArrayList<>();
+
+    /**
+     * Number of executing queries per user, guarded by this.
+     */
+    private final Map<String, Integer> userInFlight = new HashMap<>();
+
+    /**
+     * Number of executing queries, guarded by this.
+     */
+    private int inFlight;
+
+    private final LongAdder waitCount = new LongAdder();
+
+    private final LongAdder waitNanos = new LongAdder();
+
+    @Autowired
+    public AnalyticsQueryScheduler( RequestInfoService requestInfoService, DhisConfigurationProvider config )
+    {
+        this( requestInfoService, config, COST_ORDER_MAX_WAIT_MILLIS );
+    }
+
+    AnalyticsQueryScheduler( RequestInfoService requestInfoService, DhisConfigurationProvider config,
+        long costOrderMaxWaitMillis )
+    {
+        this.requestInfoService = requestInfoService;
+        this.maxConcurrent = max( 1, Integer.parseInt( config.getProperty( ANALYTICS_QUERY_MAX_CONCURRENT ) ) );
+        this.maxConcurrentPerUser = max( 1,
+            Integer.parseInt( config.getProperty( ANALYTICS_QUERY_MAX_CONCURRENT_PER_USER ) ) );
+        this.costOrderMaxWaitMillis = costOrderMaxWaitMillis;
+        this.executor = Executors.newFixedThreadPool( maxConcurrent, new ThreadFactoryBuilder()
+            .setNameFormat( "ANALYTICS-QUERY-%d" )
+            .setDaemon( true )
+            .build() );
+    }
+
+    /**
+     * Submits the given analytics query task for execution. The task is
+     * executed when the global and per user limits allow, in priority order.
+     *
+     * @param params the {@link DataQueryParams} of the query.
+     * @param task the task executing the query.
+     * @return a {@link Future} holding the result of the task.
+     */
+    public <T> Future<T> submit( DataQueryParams params, Callable<T> task )
+    {
+        QueryTask<T> queryTask = new QueryTask<>( getUser( params ), getPriority(), getCost( params ),
+            sequence.incrementAndGet(), task );
+
+        synchronized ( this )
+        {
+            queue.add( queryTask );
+            dispatch();
+        }
+
+        return queryTask.future;
+    }
+
+    /**
+     * Returns the estimated cost of the given query, which is the product of
+     * the number of partitions, periods and organisation units.
+     *
+     * @param params the {@link DataQueryParams}.
+     * @return the estimated cost of the query.
+     */
+    public static long getCost( DataQueryParams params )
+    {
+        long partitions = params.getPartitions() != null ? params.getPartitions().getPartitions().size() : 0;
+
+        return max( 1, partitions ) * max( 1, params.getAllPeriods().size() ) *
+            max( 1, params.getAllOrganisationUnits().size() );
+    }
+
+    public synchronized int getQueueSize()
+    {
+        return queue.size();
+    }
+
+    public synchronized int getInFlight()
+    {
+        return inFlight;
+    }
+
+    @Override
+    public void bindTo( MeterRegistry registry )
+    {
+        Gauge.builder( "analytics.query.queue.size", this, AnalyticsQueryScheduler::getQueueSize )
+            .description( "Number of analytics queries waiting for execution" )
+            .register( registry );
+
+        Gauge.builder( "analytics.query.in_flight", this, AnalyticsQueryScheduler::getInFlight )
+            .description( "Number of executing analytics queries" )
+            .register( registry );
+
+        FunctionTimer.builder( "analytics.query.wait", this, s -> s.waitCount.sum(), s -> s.waitNanos.sum(),
+            TimeUnit.NANOSECONDS )
+            .description( "Time analytics queries waited for execution" )
+            .register( registry );
+    }
+
+    @PreDestroy
+    public void shutdown()
+    {
+        executor.shutdownNow();
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Dispatches queued tasks while the global limit allows. Tasks of users at
+     * the per user limit are skipped. Must be invoked while holding the lock.
+     */
+    private void dispatch()
+    {
+        while ( inFlight < maxConcurrent )
+        {
+            long now = System.currentTimeMillis();
+
+            QueryTask<?> next = queue.stream()
+                .filter( t -> userInFlight.getOrDefault( t.user, 0 ) < maxConcurrentPerUser )
+                .min( getOrder( now ) )
+                .orElse( null );
+
+            if ( next == null )
+            {
+                return;
+            }
+
+            queue.remove( next );
+            inFlight++;
+            userInFlight.merge( next.user, 1, Integer::sum );
+
+            waitCount.increment();
+            waitNanos.add( System.nanoTime() - next.queuedNanos );
+
+            executor.execute( () -> run( next ) );
+        }
+    }
+
+    private <T> void run( QueryTask<T> task )
+    {
+        try
+        {
+            task.future.complete( task.task.call() );
+        }
+        catch ( Exception ex )
+        {
+            task.future.completeExceptionally( ex );
+        }
+        finally
+        {
+            synchronized ( this )
+            {
+                inFlight--;
+                userInFlight.computeIfPresent( task.user, ( user, count ) -> count > 1 ? count - 1 : null );
+                dispatch();
+            }
+        }
+    }
+
+    /**
+     * Orders tasks by priority, then starved tasks before the others. Starved
+     * tasks are ordered by submission, the others by cost and then submission.
+     */
+    private Comparator<QueryTask<?>> getOrder( long now )
+    {
+        return Comparator.<QueryTask<?>, Priority> comparing( t -> t.priority )
+            .thenComparing( t -> !isStarved( t, now ) )
+            .thenComparingLong( t -> isStarved( t, now ) ? 0 : t.cost )
+            .thenComparingLong( t -> t.sequence );
+    }
+
+    private boolean isStarved( QueryTask<?> task, long now )
+    {
+        return now - task.queuedMillis > costOrderMaxWaitMillis;
+    }
+
+    private Priority getPriority()
+    {
+        return requestInfoService.getCurrentInfo() != null ? Priority.INTERACTIVE : Priority.BACKGROUND;
+    }
+
+    private String getUser( DataQueryParams params )
+    {
+        if ( params.getCurrentUser() != null )
+        {
+            return params.getCurrentUser().getUsername();
+        }
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        return authentication != null ? authentication.getName() : ANONYMOUS_USER;
+    }
+
+    private enum Priority
+    {
+        INTERACTIVE,
+        BACKGROUND
+    }
+
+    private static final class QueryTask<T>
+    {
+        private final String user;
+
+        private final Priority priority;
+
+        private final long cost;
+
+        private final long sequence;
+
+        private final Callable<T> task;
+
+        private final long queuedMillis = System.currentTimeMillis();
+
+        private final long queuedNanos = System.nanoTime();
+
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        private QueryTask( String user, Priority priority, long cost, long sequence, Callable<T> task )
+        {
+            this.user = user;
+            this.priority = priority;
+            this.cost = cost;
+            this.sequence = sequence;
+            this.task = task;
+        }
+    }
+}
@@ -0,0 +1,357 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.data;
+
+import static org.hisp.dhis.analytics.DataQueryParams.VALUE_ID;
+import static org.hisp.dhis.analytics.util.AnalyticsUtils.throwIllegalQueryEx;
+import static org.hisp.dhis.common.DimensionalObject.DIMENSION_SEP;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hisp.dhis.analytics.DataQueryParams;
+import org.hisp.dhis.analytics.DataType;
+import org.hisp.dhis.common.DimensionalObject;
+import org.hisp.dhis.feedback.ErrorCode;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+/**
+ * Collects aggregated analytics rows as they are streamed from the result set.
+ * Dimension item values are interned into a dictionary per dimension, so that
+ * each row is held as a compact tuple of int identifiers together with a
+ * primitive double value. Rows with equal keys replace each other, the last
+ * row read wins. The rows are converted to the string key form expected by the
+ * data handler only in {@link #getKeyValueMap()}.
+ */
+class AnalyticsValueCollector
+    implements RowCallbackHandler
+{
+    private static final int INITIAL_CAPACITY = 256;
+
+    private static final int NO_ROW = -1;
+
+    /**
+     * Column names per dimension, null for fixed dimensions.
+     */
+    private final String[] columns;
+
+    /**
+     * Query modifiers identifiers per dimension.
+     */
+    private final String[] queryModsIds;
+
+    /**
+     * Dimension item value to identifier mapping per dimension.
+     */
+    private final List<Map<String, Integer>> dictionaries;
+
+    /**
+     * Dimension item values indexed by identifier per dimension.
+     */
+    private final List<List<String>> items;
+
+    private final boolean text;
+
+    private final int maxLimit;
+
+    private final int width;
+
+    private final int[] tuple;
+
+    private int[] keys;
+
+    private double[] values;
+
+    private String[] textValues;
+
+    private int[] slots;
+
+    private int size = 0;
+
+    private int rowCount = 0;
+
+    /**
+     * @param params the {@link DataQueryParams}.
+     * @param maxLimit the max number of rows to read, 0 means unlimited.
+     */
+    AnalyticsValueCollector( DataQueryParams params, int maxLimit )
+    {
+        List<DimensionalObject> dimensions = params.getDimensions();
+
+        this.width = dimensions.size();
+        this.columns = new String[width];
+        this.queryModsIds = new String[width];
+        this.dictionaries = new ArrayList<>( width );
+        this.items = new ArrayList<>( width );
+        this.text = params.isDataType( DataType.TEXT );
+        this.maxLimit = maxLimit;
+        this.tuple = new int[width];
+
+        for ( int i = 0; i < width; i++ )
+        {
+            DimensionalObject dim = dimensions.get( i );
+
+            dictionaries.add( new HashMap<>() );
+            items.add( new ArrayList<>() );
+            queryModsIds[i] = params.getQueryModsId( dim );
+
+            if ( dim.isFixed() )
+            {
+                intern( i, dim.getDimensionName() );
+            }
+            else
+            {
+                columns[i] = dim.getDimensionName();
+            }
+        }
+
+        this.keys = new int[INITIAL_CAPACITY * width];
+        this.values = text ? null : new double[INITIAL_CAPACITY];
+        this.textValues = text ? new String[INITIAL_CAPACITY] : null;
+        this.slots = newSlots( INITIAL_CAPACITY * 2 );
+    }
+
+    // -------------------------------------------------------------------------
+    // RowCallbackHandler implementation
+    // -------------------------------------------------------------------------
+
+    @Override
+    public void processRow( ResultSet rs )
+        throws SQLException
+    {
+        if ( maxLimit > 0 && ++rowCount > maxLimit )
+        {
+            throwIllegalQueryEx( ErrorCode.E7128, maxLimit );
+        }
+
+        for ( int i = 0; i < width; i++ )
+        {
+            tuple[i] = columns[i] == null ? 0 : intern( i, rs.getString( columns[i] ) );
+        }
+
+        int row = findOrAddRow();
+
+        if ( text )
+        {
+            textValues[row] = rs.getString( VALUE_ID );
+        }
+        else // NUMERIC
+        {
+            values[row] = rs.getDouble( VALUE_ID );
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Result methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Returns the number of distinct keys collected so far.
+     */
+    int size()
+    {
+        return size;
+    }
+
+    /**
+     * Returns a mapping between the dimension key, which is the dimension item
+     * values separated by {@link DimensionalObject#DIMENSION_SEP}, and the
+     * value of each collected row.
+     */
+    Map<String, Object> getKeyValueMap()
+    {
+        Map<String, Object> map = new HashMap<>( (int) (size / 0.75f) + 1 );
+
+        StringBuilder key = new StringBuilder();
+
+        for ( int row = 0; row < size; row++ )
+        {
+            key.setLength( 0 );
+
+            int offset = row * width;
+
+            for ( int i = 0; i < width; i++ )
+            {
+                String item = items.get( i ).get( keys[offset + i] );
+
+                key.append( item ).append( queryModsIds[i] ).append( DIMENSION_SEP );
+            }
+
+            if ( key.length() > 0 )
+            {
+                key.deleteCharAt( key.length() - 1 );
+            }
+
+            map.put( key.toString(), text ? textValues[row] : Double.valueOf( values[row] ) );
+        }
+
+        return map;
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Returns the identifier of the given dimension item value, assigning the
+     * next identifier if the value was not seen before for the dimension.
+     */
+    private int intern( int dimension, String item )
+    {
+        Map<String, Integer> dictionary = dictionaries.get( dimension );
+
+        Integer id = dictionary.get( item );
+
+        if ( id == null )
+        {
+            List<String> dimensionItems = items.get( dimension );
+
+            id = dimensionItems.size();
+            dimensionItems.add( item );
+            dictionary.put( item, id );
+        }
+
+        return id;
+    }
+
+    /**
+     * Returns the row index of the current tuple, adding a new row if the tuple
+     * was not collected before.
+     */
+    private int findOrAddRow()
+    {
+        int mask = slots.length - 1;
+        int slot = hash( tuple, 0 ) & mask;
+
+        while ( slots[slot] != NO_ROW )
+        {
+            if ( equalsTuple( slots[slot] ) )
+            {
+                return slots[slot];
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        int row = size++;
+
+        ensureCapacity( size );
+
+        System.arraycopy( tuple, 0, keys, row * width, width );
+
+        slots[slot] = row;
+
+        if ( size * 2 > slots.length )
+        {
+            rehash( slots.length * 2 );
+        }
+
+        return row;
+    }
+
+    private boolean equalsTuple( int row )
+    {
+        int offset = row * width;
+
+        for ( int i = 0; i < width; i++ )
+        {
+            if ( keys[offset + i] != tuple[i] )
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private void ensureCapacity( int rows )
+    {
+        int capacity = text ? textValues.length : values.length;
+
+        if ( rows > capacity )
+        {
+            int newCapacity = capacity * 2;
+
+            keys = Arrays.copyOf( keys, newCapacity * width );
+
+            if ( text )
+            {
+                textValues = Arrays.copyOf( textValues, newCapacity );
+            }
+            else
+            {
+                values = Arrays.copyOf( values, newCapacity );
+            }
+        }
+    }
+
+    private void rehash( int slotCount )
+    {
+        slots = newSlots( slotCount );
+
+        int mask = slotCount - 1;
+
+        for ( int row = 0; row < size; row++ )
+        {
+            int slot = hash( keys, row * width ) & mask;
+
+            while ( slots[slot] != NO_ROW )
+            {
+                slot = (slot + 1) & mask;
+            }
+
+            slots[slot] = row;
+        }
+    }
+
+    private int hash( int[] array, int offset )
+    {
+        int hash = 1;
+
+        for ( int i = 0; i < width; i++ )
+        {
+            hash = 31 * hash + array[offset + i];
+        }
+
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int[] newSlots( int slotCount )
+    {
+        int[] slots = new int[slotCount];
+
+        Arrays.fill( slots, NO_ROW );
+
+        return slots;
+    }
+}
@@ -38,21 +38,20 @@ import static org.hisp.dhis.analytics.AggregationType.STDDEV;
 import static org.hisp.dhis.analytics.AggregationType.SUM;
 import static org.hisp.dhis.analytics.AggregationType.VARIANCE;
 import static org.hisp.dhis.analytics.DataQueryParams.LEVEL_PREFIX;
-import static org.hisp.dhis.analytics.DataQueryParams.VALUE_ID;
 import static org.hisp.dhis.analytics.DataType.TEXT;
 import static org.hisp.dhis.analytics.util.AnalyticsSqlUtils.ANALYTICS_TBL_ALIAS;
 import static org.hisp.dhis.analytics.util.AnalyticsSqlUtils.quote;
 import static org.hisp.dhis.analytics.util.AnalyticsSqlUtils.quoteAlias;
-import static org.hisp.dhis.analytics.util.AnalyticsUtils.throwIllegalQueryEx;
 import static org.hisp.dhis.common.DimensionalObject.DIMENSION_SEP;
 import static org.hisp.dhis.common.IdentifiableObjectUtils.getUids;
 import static org.hisp.dhis.commons.util.TextUtils.getQuotedCommaDelimitedString;
 import static org.hisp.dhis.commons.util.TextUtils.removeLastOr;
 import static org.hisp.dhis.util.DateUtils.getMediumDateString;
 
+import java.sql.ResultSet;
+import java.sql.Statement;
 import java.util.Collection;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -69,8 +68,10 @@ import org.hisp.dhis.analytics.AnalyticsTableType;
 import org.hisp.dhis.analytics.DataQueryParams;
 import org.hisp.dhis.analytics.DataType;
 import org.hisp.dhis.analytics.MeasureFilter;
+import org.hisp.dhis.analytics.QueryKey;
 import org.hisp.dhis.analytics.QueryPlanner;
 import org.hisp.dhis.analytics.analyze.ExecutionPlanStore;
+import org.hisp.dhis.analytics.cache.AnalyticsFragmentCache;
 import org.hisp.dhis.analytics.table.PartitionUtils;
 import org.hisp.dhis.analytics.util.AnalyticsSqlUtils;
 import org.hisp.dhis.analytics.util.AnalyticsUtils;
@@ -90,9 +91,8 @@ import org.hisp.dhis.period.PeriodType;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.support.rowset.SqlRowSet;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.AsyncResult;
 import org.springframework.stereotype.Component;
 import org.springframework.util.Assert;
@@ -130,16 +130,21 @@ public class JdbcAnalyticsManager
 
     private final ExecutionPlanStore executionPlanStore;
 
+    private final AnalyticsFragmentCache fragmentCache;
+
     public JdbcAnalyticsManager( QueryPlanner queryPlanner,
-        @Qualifier( "readOnlyJdbcTemplate" ) JdbcTemplate jdbcTemplate, ExecutionPlanStore executionPlanStore )
+        @Qualifier( "readOnlyJdbcTemplate" ) JdbcTemplate jdbcTemplate, ExecutionPlanStore executionPlanStore,
+        AnalyticsFragmentCache fragmentCache )
     {
         checkNotNull( queryPlanner );
         checkNotNull( jdbcTemplate );
         checkNotNull( executionPlanStore );
+        checkNotNull( fragmentCache );
 
         this.queryPlanner = queryPlanner;
         this.jdbcTemplate = jdbcTemplate;
         this.executionPlanStore = executionPlanStore;
+        this.fragmentCache = fragmentCache;
     }
 
     // -------------------------------------------------------------------------
@@ -147,7 +152,6 @@ public class JdbcAnalyticsManager
     // -------------------------------------------------------------------------
 
     @Override
-    @Async
     public Future<Map<String, Object>> getAggregatedDataValues( DataQueryParams params, AnalyticsTableType tableType,
         int maxLimit )
     {
@@ -192,7 +196,7 @@ public class JdbcAnalyticsManager
 
             try
             {
-                map = getKeyValueMap( params, sql, maxLimit );
+                map = getCachedKeyValueMap( params, sql, maxLimit );
             }
             catch ( BadSqlGrammarException ex )
             {
@@ -686,56 +690,111 @@ public class JdbcAnalyticsManager
     }
 
     /**
-     * Retrieves data from the database based on the given query and SQL and
-     * puts into a value key and value mapping.
+     * Returns the key value map for the given query from the fragment cache if
+     * enabled, or executes the query to get the map otherwise.
+     *
+     * @param params the {@link DataQueryParams}.
+     * @param sql the query SQL.
+     * @param maxLimit the max number of records to return, 0 means unlimited.
+     * @return a mapping between the dimension keys and the values.
      */
-    private Map<String, Object> getKeyValueMap( DataQueryParams params, String sql, int maxLimit )
+    private Map<String, Object> getCachedKeyValueMap( DataQueryParams params, String sql, int maxLimit )
     {
-        Map<String, Object> map = new HashMap<>();
+        if ( !fragmentCache.isEnabled() )
+        {
+            return getKeyValueMap( params, sql, maxLimit );
+        }
 
-        log.debug( String.format( "Analytics SQL: %s", sql ) );
+        return fragmentCache.getOrFetch( params, getSourceTableNames( params ),
+            getFragmentKey( params, sql, maxLimit ), () -> getKeyValueMap( params, sql, maxLimit ) );
+    }
 
-        SqlRowSet rowSet = jdbcTemplate.queryForRowSet( sql );
+    /**
+     * Returns a key identifying the key value map produced by the given query,
+     * which is made up of the query SQL and the properties used to map the
+     * query result rows to keys and values.
+     */
+    private String getFragmentKey( DataQueryParams params, String sql, int maxLimit )
+    {
+        QueryKey key = new QueryKey()
+            .add( "sql", sql )
+            .add( "maxLimit", maxLimit )
+            .add( "dataType", params.getDataType() );
 
-        int counter = 0;
+        for ( DimensionalObject dimension : params.getDimensions() )
+        {
+            key.add( dimension.isFixed() ? "fixedDimension" : "dimension", dimension.getDimensionName() )
+                .add( "queryMods", params.getQueryModsId( dimension ) );
+        }
 
-        while ( rowSet.next() )
+        return key.build();
+    }
+
+    /**
+     * Returns the names of the analytics tables or partitions the query reads
+     * from, corresponding to {@link #getFromSourceClause(DataQueryParams)}.
+     */
+    private Set<String> getSourceTableNames( DataQueryParams params )
+    {
+        if ( !params.isSkipPartitioning() && params.hasPartitions() )
         {
-            boolean exceedsMaxLimit = maxLimit > 0 && ++counter > maxLimit;
+            return params.getPartitions().getPartitions().stream()
+                .map( partition -> PartitionUtils.getPartitionName( params.getTableName(), partition ) )
+                .collect( Collectors.toSet() );
+        }
 
-            if ( exceedsMaxLimit )
-            {
-                throwIllegalQueryEx( ErrorCode.E7128, maxLimit );
-            }
+        return Set.of( params.getTableName() );
+    }
 
-            StringBuilder key = new StringBuilder();
+    /**
+     * Retrieves data from the database based on the given query and SQL and
+     * puts into a value key and value mapping. Rows are streamed from the
+     * result set using the fetch size of the JDBC template and collected by an
+     * {@link AnalyticsValueCollector}, which avoids holding a copy of the full
+     * result set in memory.
+     */
+    private Map<String, Object> getKeyValueMap( DataQueryParams params, String sql, int maxLimit )
+    {
+        log.debug( String.format( "Analytics SQL: %s", sql ) );
 
-            for ( DimensionalObject dim : params.getDimensions() )
-            {
-                String value = dim.isFixed() ? dim.getDimensionName() : rowSet.getString( dim.getDimensionName() );
+        AnalyticsValueCollector collector = new AnalyticsValueCollector( params, maxLimit );
 
-                String queryModsId = params.getQueryModsId( dim );
+        jdbcTemplate.execute( (ConnectionCallback<Void>) connection -> {
+            boolean autoCommit = connection.getAutoCommit();
 
-                key.append( value ).append( queryModsId ).append( DIMENSION_SEP );
-            }
+            // PostgreSQL only fetches rows in batches through a cursor when
+            // auto-commit is off, otherwise the whole result is read
 
-            key.deleteCharAt( key.length() - 1 );
+            if ( autoCommit )
+            {
+                connection.setAutoCommit( false );
+            }
 
-            if ( params.isDataType( TEXT ) )
+            try ( Statement statement = connection.createStatement() )
             {
-                String value = rowSet.getString( VALUE_ID );
+                statement.setFetchSize( jdbcTemplate.getFetchSize() );
 
-                map.put( key.toString(), value );
+                try ( ResultSet resultSet = statement.executeQuery( sql ) )
+                {
+                    while ( resultSet.next() )
+                    {
+                        collector.processRow( resultSet );
+                    }
+                }
             }
-            else // NUMERIC
+            finally
             {
-                Double value = rowSet.getDouble( VALUE_ID );
-
-                map.put( key.toString(), value );
+                if ( autoCommit )
+                {
+                    connection.rollback();
+                    connection.setAutoCommit( true );
+                }
             }
-        }
 
-        return map;
+            return null;
+        } );
+
+        return collector.getKeyValueMap();
     }
 
     /**
@@ -127,6 +127,7 @@ import org.hisp.dhis.analytics.QueryPlannerParams;
 import org.hisp.dhis.analytics.QueryValidator;
 import org.hisp.dhis.analytics.RawAnalyticsManager;
 import org.hisp.dhis.analytics.analyze.ExecutionPlanStore;
+import org.hisp.dhis.analytics.data.AnalyticsQueryScheduler;
 import org.hisp.dhis.analytics.event.EventAnalyticsService;
 import org.hisp.dhis.analytics.event.EventQueryParams;
 import org.hisp.dhis.analytics.resolver.ExpressionResolver;
@@ -189,11 +190,13 @@ public class DataHandler
 
     private final ExecutionPlanStore executionPlanStore;
 
+    private final AnalyticsQueryScheduler queryScheduler;
+
     public DataHandler( EventAnalyticsService eventAnalyticsService, RawAnalyticsManager rawAnalyticsManager,
         ExpressionResolvers resolvers, ExpressionService expressionService,
         QueryPlanner queryPlanner, QueryValidator queryValidator, SystemSettingManager systemSettingManager,
         AnalyticsManager analyticsManager, OrganisationUnitService organisationUnitService,
-        ExecutionPlanStore executionPlanStore )
+        ExecutionPlanStore executionPlanStore, AnalyticsQueryScheduler queryScheduler )
     {
         checkNotNull( eventAnalyticsService );
         checkNotNull( rawAnalyticsManager );
@@ -205,6 +208,7 @@ public class DataHandler
         checkNotNull( analyticsManager );
         checkNotNull( organisationUnitService );
         checkNotNull( executionPlanStore );
+        checkNotNull( queryScheduler );
 
         this.eventAnalyticsService = eventAnalyticsService;
         this.rawAnalyticsManager = rawAnalyticsManager;
@@ -216,6 +220,7 @@ public class DataHandler
         this.analyticsManager = analyticsManager;
         this.organisationUnitService = organisationUnitService;
         this.executionPlanStore = executionPlanStore;
+        this.queryScheduler = queryScheduler;
     }
 
     void addPerformanceMetrics( DataQueryParams params, Grid grid )
@@ -1130,7 +1135,8 @@ public class DataHandler
 
         for ( DataQueryParams query : queries )
         {
-            futures.add( analyticsManager.getAggregatedDataValues( query, tableType, maxLimit ) );
+            futures.add( queryScheduler.submit( query,
+                () -> analyticsManager.getAggregatedDataValues( query, tableType, maxLimit ).get() ) );
         }
 
         for ( Future<Map<String, Object>> future : futures )
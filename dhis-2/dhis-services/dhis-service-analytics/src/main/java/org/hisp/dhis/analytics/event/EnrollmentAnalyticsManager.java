@@ -27,6 +27,9 @@
  */
 package org.hisp.dhis.analytics.event;
 
+import java.util.List;
+import java.util.function.Consumer;
+
 import org.hisp.dhis.common.Grid;
 
 /**
@@ -54,6 +57,18 @@ public interface EnrollmentAnalyticsManager
      */
     void getEnrollments( EventQueryParams params, Grid grid, int maxLimit );
 
+    /**
+     * Retrieves enrollments through a server-side cursor and passes each row
+     * to the given consumer as it is read, without retaining rows in the grid.
+     * Paging is not applied.
+     *
+     * @param params the query to retrieve enrollments for.
+     * @param grid the grid with the headers of the rows.
+     * @param maxLimit the max number of records to retrieve.
+     * @param rowConsumer the consumer of each row.
+     */
+    void streamEnrollments( EventQueryParams params, Grid grid, int maxLimit, Consumer<List<Object>> rowConsumer );
+
     /**
      * Retreives count of enrollments based on params.
      *
@@ -27,7 +27,10 @@
  */
 package org.hisp.dhis.analytics.event;
 
+import java.io.IOException;
+
 import org.hisp.dhis.common.Grid;
+import org.hisp.dhis.common.GridStreamWriter;
 
 /**
  * This interface is responsible for retrieving aggregated event data. Data will
@@ -72,4 +75,17 @@ public interface EnrollmentAnalyticsService
      * @return enrollments with event data as a Grid object.
      */
     Grid getEnrollments( EventQueryParams params );
+
+    /**
+     * Writes the list of enrollments matching the given query to the given
+     * writer while the enrollments are read, without holding them in memory.
+     * Paging is not applied.
+     *
+     * @param params the event query parameters.
+     * @param writer the writer of the grid.
+     * @throws IOException if writing failed, in which case the query is
+     *         cancelled.
+     */
+    void streamEnrollments( EventQueryParams params, GridStreamWriter writer )
+        throws IOException;
 }
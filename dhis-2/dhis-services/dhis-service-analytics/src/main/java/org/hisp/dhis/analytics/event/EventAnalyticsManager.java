@@ -27,6 +27,9 @@
  */
 package org.hisp.dhis.analytics.event;
 
+import java.util.List;
+import java.util.function.Consumer;
+
 import org.hisp.dhis.analytics.Rectangle;
 import org.hisp.dhis.common.Grid;
 
@@ -39,6 +42,18 @@ public interface EventAnalyticsManager
 
     Grid getEvents( EventQueryParams params, Grid grid, int maxLimit );
 
+    /**
+     * Retrieves events through a server-side cursor and passes each row to the
+     * given consumer as it is read, without retaining rows in the grid. Paging
+     * is not applied.
+     *
+     * @param params the query to retrieve events for.
+     * @param grid the grid with the headers of the rows.
+     * @param maxLimit the max number of records to retrieve.
+     * @param rowConsumer the consumer of each row.
+     */
+    void streamEvents( EventQueryParams params, Grid grid, int maxLimit, Consumer<List<Object>> rowConsumer );
+
     Grid getEventClusters( EventQueryParams params, Grid grid, int maxLimit );
 
     long getEventCount( EventQueryParams params );
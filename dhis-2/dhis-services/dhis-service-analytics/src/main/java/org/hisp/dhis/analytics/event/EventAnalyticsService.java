@@ -27,12 +27,14 @@
  */
 package org.hisp.dhis.analytics.event;
 
+import java.io.IOException;
 import java.util.List;
 
 import org.hisp.dhis.analytics.AnalyticsMetaDataKey;
 import org.hisp.dhis.analytics.Rectangle;
 import org.hisp.dhis.common.AnalyticalObject;
 import org.hisp.dhis.common.Grid;
+import org.hisp.dhis.common.GridStreamWriter;
 
 /**
  * This interface is responsible for retrieving aggregated event data. Data will
@@ -129,6 +131,19 @@ public interface EventAnalyticsService
      */
     Grid getEvents( EventQueryParams params );
 
+    /**
+     * Writes the list of events matching the given query to the given writer
+     * while the events are read, without holding them in memory. Paging is
+     * not applied.
+     *
+     * @param params the event query parameters.
+     * @param writer the writer of the grid.
+     * @throws IOException if writing failed, in which case the query is
+     *         cancelled.
+     */
+    void streamEvents( EventQueryParams params, GridStreamWriter writer )
+        throws IOException;
+
     /**
      * Returns a list of event clusters matching the given query.
      *
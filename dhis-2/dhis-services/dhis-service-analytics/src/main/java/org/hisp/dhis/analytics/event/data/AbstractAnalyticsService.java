@@ -44,6 +44,8 @@ import static org.hisp.dhis.common.ValueType.COORDINATE;
 import static org.hisp.dhis.organisationunit.OrganisationUnit.getParentGraphMap;
 import static org.hisp.dhis.organisationunit.OrganisationUnit.getParentNameGraphMap;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -51,6 +53,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import org.hisp.dhis.analytics.AnalyticsSecurityManager;
@@ -65,13 +68,17 @@ import org.hisp.dhis.common.DimensionalItemObject;
 import org.hisp.dhis.common.DimensionalObject;
 import org.hisp.dhis.common.Grid;
 import org.hisp.dhis.common.GridHeader;
+import org.hisp.dhis.common.GridStreamWriter;
 import org.hisp.dhis.common.IdScheme;
+import org.hisp.dhis.common.IllegalQueryException;
 import org.hisp.dhis.common.MetadataItem;
 import org.hisp.dhis.common.Pager;
 import org.hisp.dhis.common.QueryItem;
 import org.hisp.dhis.common.RepeatableStageParams;
 import org.hisp.dhis.common.SlimPager;
 import org.hisp.dhis.common.ValueType;
+import org.hisp.dhis.feedback.ErrorCode;
+import org.hisp.dhis.feedback.ErrorMessage;
 import org.hisp.dhis.option.Option;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.period.PeriodType;
@@ -116,10 +123,7 @@ public abstract class AbstractAnalyticsService
 
         // keywords as well as their periods are removed in the next step,
         // params object is modified
-        List<DimensionItemKeywords.Keyword> periodKeywords = params.getDimensions().stream().map(
-            DimensionalObject::getDimensionItemKeywords )
-            .filter( dimensionItemKeywords -> dimensionItemKeywords != null && !dimensionItemKeywords.isEmpty() )
-            .flatMap( dk -> dk.getKeywords().stream() ).collect( Collectors.toList() );
+        List<DimensionItemKeywords.Keyword> periodKeywords = getPeriodKeywords( params );
 
         params = new EventQueryParams.Builder( params )
             .withStartEndDatesForPeriods()
@@ -131,6 +135,201 @@ public abstract class AbstractAnalyticsService
 
         Grid grid = createGridWithHeaders( params );
 
+        addHeaders( params, grid );
+
+        // ---------------------------------------------------------------------
+        // Data
+        // ---------------------------------------------------------------------
+
+        long count = 0;
+
+        if ( !params.isSkipData() || params.analyzeOnly() )
+        {
+            count = addEventData( grid, params );
+        }
+
+        // ---------------------------------------------------------------------
+        // Meta-data
+        // ---------------------------------------------------------------------
+
+        addMetadata( params, periodKeywords, grid );
+
+        // ---------------------------------------------------------------------
+        // Data ID scheme
+        // ---------------------------------------------------------------------
+
+        if ( params.hasDataIdScheme() )
+        {
+            substituteData( grid );
+        }
+
+        maybeApplyIdScheme( params, grid );
+
+        // ---------------------------------------------------------------------
+        // Paging
+        // ---------------------------------------------------------------------
+
+        maybeApplyPaging( params, count, grid );
+
+        maybeApplyHeaders( params, grid );
+
+        return grid;
+    }
+
+    /**
+     * Writes the grid for the given query to the given writer while rows are
+     * read from the database, without holding the rows in memory. Paging is
+     * not applied. As rows are not available when the meta data is written,
+     * option meta data contains all options of the query items matching the
+     * query filters rather than only the options present in the rows.
+     *
+     * @param params the {@link EventQueryParams}.
+     * @param writer the {@link GridStreamWriter}.
+     * @throws IOException if writing failed, typically because the client
+     *         disconnected, in which case the query is cancelled.
+     */
+    protected void streamGrid( EventQueryParams params, GridStreamWriter writer )
+        throws IOException
+    {
+        securityManager.decideAccessEventQuery( params );
+
+        params = securityManager.withUserConstraints( params );
+
+        queryValidator.validate( params );
+
+        List<DimensionItemKeywords.Keyword> periodKeywords = getPeriodKeywords( params );
+
+        params = new EventQueryParams.Builder( params )
+            .withStartEndDatesForPeriods()
+            .withPaging( false )
+            .build();
+
+        Grid grid = createGridWithHeaders( params );
+
+        addHeaders( params, grid );
+
+        addMetadata( params, periodKeywords, grid, false );
+
+        maybeApplyIdScheme( params, grid );
+
+        List<Integer> columns = getColumnIndexes( params, grid );
+
+        Map<Integer, Map<String, String>> substitutions = params.hasDataIdScheme()
+            ? getDataSubstitutions( grid )
+            : new HashMap<>();
+
+        writer.writeStart( columns.stream().map( grid.getHeaders()::get ).collect( Collectors.toList() ),
+            grid.getMetaData() );
+
+        if ( !params.isSkipData() || params.analyzeOnly() )
+        {
+            try
+            {
+                streamEventData( grid, params, row -> writeRow( writer, row, columns, substitutions ) );
+            }
+            catch ( UncheckedIOException ex )
+            {
+                throw ex.getCause();
+            }
+        }
+
+        writer.writeEnd( grid.getRefs() );
+    }
+
+    /**
+     * Writes the given columns of the given row to the given writer, with data
+     * substitutions applied.
+     *
+     * @param writer the {@link GridStreamWriter}.
+     * @param row the row.
+     * @param columns the indexes of the columns to write.
+     * @param substitutions the data substitutions by column index.
+     */
+    private void writeRow( GridStreamWriter writer, List<Object> row, List<Integer> columns,
+        Map<Integer, Map<String, String>> substitutions )
+    {
+        List<Object> values = new ArrayList<>( columns.size() );
+
+        for ( Integer column : columns )
+        {
+            Object value = row.get( column );
+            Map<String, String> substitution = substitutions.get( column );
+            Object substitute = substitution != null ? substitution.get( value ) : null;
+
+            values.add( substitute != null ? substitute : value );
+        }
+
+        try
+        {
+            writer.writeRow( values );
+        }
+        catch ( IOException ex )
+        {
+            throw new UncheckedIOException( ex );
+        }
+    }
+
+    /**
+     * Returns the indexes of the grid columns to output, in output order, based
+     * on the headers of the given query, or all columns if no headers are
+     * specified.
+     *
+     * @param params the {@link EventQueryParams}.
+     * @param grid the grid.
+     * @return a list of column indexes.
+     */
+    private List<Integer> getColumnIndexes( EventQueryParams params, Grid grid )
+    {
+        List<Integer> columns = new ArrayList<>();
+
+        if ( params.hasHeaders() )
+        {
+            for ( String header : params.getHeaders() )
+            {
+                int index = grid.getIndexOfHeader( header );
+
+                if ( index == -1 )
+                {
+                    throw new IllegalQueryException( new ErrorMessage( ErrorCode.E7230, header ) );
+                }
+
+                columns.add( index );
+            }
+        }
+        else
+        {
+            for ( int i = 0; i < grid.getHeaders().size(); i++ )
+            {
+                columns.add( i );
+            }
+        }
+
+        return columns;
+    }
+
+    /**
+     * Returns the period keywords of the dimensions of the given query.
+     *
+     * @param params the {@link EventQueryParams}.
+     * @return a list of {@link DimensionItemKeywords.Keyword}.
+     */
+    private List<DimensionItemKeywords.Keyword> getPeriodKeywords( EventQueryParams params )
+    {
+        return params.getDimensions().stream().map(
+            DimensionalObject::getDimensionItemKeywords )
+            .filter( dimensionItemKeywords -> dimensionItemKeywords != null && !dimensionItemKeywords.isEmpty() )
+            .flatMap( dk -> dk.getKeywords().stream() ).collect( Collectors.toList() );
+    }
+
+    /**
+     * Adds headers for the dimensions and items of the given query to the
+     * given grid.
+     *
+     * @param params the {@link EventQueryParams}.
+     * @param grid the grid.
+     */
+    private void addHeaders( EventQueryParams params, Grid grid )
+    {
         for ( DimensionalObject dimension : params.getDimensions() )
         {
             grid.addHeader( new GridHeader( dimension.getDimension(), dimension.getDimensionDisplayName(),
@@ -175,44 +374,6 @@ public abstract class AbstractAnalyticsService
                     false, true, item.getOptionSet(), item.getLegendSet() ) );
             }
         }
-
-        // ---------------------------------------------------------------------
-        // Data
-        // ---------------------------------------------------------------------
-
-        long count = 0;
-
-        if ( !params.isSkipData() || params.analyzeOnly() )
-        {
-            count = addEventData( grid, params );
-        }
-
-        // ---------------------------------------------------------------------
-        // Meta-data
-        // ---------------------------------------------------------------------
-
-        addMetadata( params, periodKeywords, grid );
-
-        // ---------------------------------------------------------------------
-        // Data ID scheme
-        // ---------------------------------------------------------------------
-
-        if ( params.hasDataIdScheme() )
-        {
-            substituteData( grid );
-        }
-
-        maybeApplyIdScheme( params, grid );
-
-        // ---------------------------------------------------------------------
-        // Paging
-        // ---------------------------------------------------------------------
-
-        maybeApplyPaging( params, count, grid );
-
-        maybeApplyHeaders( params, grid );
-
-        return grid;
     }
 
     /**
@@ -270,6 +431,17 @@ public abstract class AbstractAnalyticsService
 
     protected abstract long addEventData( Grid grid, EventQueryParams params );
 
+    /**
+     * Passes each row of event data for the given query to the given consumer
+     * as it is read. Rows are not retained in the given grid.
+     *
+     * @param grid the {@link Grid} with headers.
+     * @param params the {@link EventQueryParams}.
+     * @param rowConsumer the consumer of each row.
+     */
+    protected abstract void streamEventData( Grid grid, EventQueryParams params,
+        Consumer<List<Object>> rowConsumer );
+
     private void maybeApplyHeaders( final EventQueryParams params, final Grid grid )
     {
         if ( params.hasHeaders() )
@@ -299,6 +471,22 @@ public abstract class AbstractAnalyticsService
      * @param grid the grid.
      */
     protected void addMetadata( EventQueryParams params, List<DimensionItemKeywords.Keyword> periodKeywords, Grid grid )
+    {
+        addMetadata( params, periodKeywords, grid, !params.isSkipData() );
+    }
+
+    /**
+     * Adds meta data values to the given grid based on the given data query
+     * parameters.
+     *
+     * @param params the data query parameters.
+     * @param periodKeywords the period keywords.
+     * @param grid the grid.
+     * @param hasRows whether the grid holds the data rows, if so only options
+     *        present in the rows are included.
+     */
+    private void addMetadata( EventQueryParams params, List<DimensionItemKeywords.Keyword> periodKeywords, Grid grid,
+        boolean hasRows )
     {
         if ( !params.isSkipMeta() )
         {
@@ -306,9 +494,9 @@ public abstract class AbstractAnalyticsService
 
             List<Option> options = getItemOptions( grid );
 
-            metadata.put( ITEMS.getKey(), getMetadataItems( params, periodKeywords, options ) );
+            metadata.put( ITEMS.getKey(), getMetadataItems( params, periodKeywords, options, hasRows ) );
 
-            metadata.put( DIMENSIONS.getKey(), getDimensionItems( params, options ) );
+            metadata.put( DIMENSIONS.getKey(), getDimensionItems( params, options, hasRows ) );
 
             if ( params.isHierarchyMeta() || params.isShowHierarchy() )
             {
@@ -377,7 +565,7 @@ public abstract class AbstractAnalyticsService
      * @return a map.
      */
     private Map<String, MetadataItem> getMetadataItems( EventQueryParams params,
-        List<DimensionItemKeywords.Keyword> periodKeywords, List<Option> itemOptions )
+        List<DimensionItemKeywords.Keyword> periodKeywords, List<Option> itemOptions, boolean hasRows )
     {
         Map<String, MetadataItem> metadataItemMap = AnalyticsUtils.getDimensionMetadataItemMap( params );
 
@@ -397,7 +585,7 @@ public abstract class AbstractAnalyticsService
                 new MetadataItem( legend.getDisplayName(), includeDetails ? legend.getUid() : null,
                     legend.getCode() ) ) );
 
-        addMetadataItems( metadataItemMap, params, itemOptions );
+        addMetadataItems( metadataItemMap, params, itemOptions, hasRows );
 
         params.getItemsAndItemFilters().stream()
             .filter( Objects::nonNull )
@@ -462,13 +650,14 @@ public abstract class AbstractAnalyticsService
      * @param metadataItemMap MetadataItemMap.
      * @param params EventQueryParams.
      * @param itemOptions itemOtion list.
+     * @param hasRows whether the item options are based on data rows.
      */
     private void addMetadataItems( final Map<String, MetadataItem> metadataItemMap, final EventQueryParams params,
-        final List<Option> itemOptions )
+        final List<Option> itemOptions, final boolean hasRows )
     {
         boolean includeDetails = params.isIncludeMetadataDetails();
 
-        if ( !params.isSkipData() )
+        if ( hasRows )
         {
             // filtering if the rows in grid are there (skipData = false)
             itemOptions.forEach( option -> metadataItemMap.put( option.getUid(),
@@ -478,7 +667,7 @@ public abstract class AbstractAnalyticsService
         else
         {
             // filtering if the rows in grid are not there (skipData = true
-            // only)
+            // or streaming)
             // dimension=Zj7UnCAulEk.K6uUAvq500H:IN:A00;A60;A01 -> IN indicates
             // there is a filter
             // the stream contains all options if no filter or only options fit
@@ -504,7 +693,8 @@ public abstract class AbstractAnalyticsService
      * @param params the data query parameters.
      * @return a map.
      */
-    private Map<String, List<String>> getDimensionItems( EventQueryParams params, List<Option> itemOptions )
+    private Map<String, List<String>> getDimensionItems( EventQueryParams params, List<Option> itemOptions,
+        boolean hasRows )
     {
         Calendar calendar = PeriodType.getCalendar();
 
@@ -526,7 +716,7 @@ public abstract class AbstractAnalyticsService
 
             if ( item.hasOptionSet() )
             {
-                dimensionItems.put( itemUid, getDimensionItemUidList( params, item, itemOptions ) );
+                dimensionItems.put( itemUid, getDimensionItemUidList( item, itemOptions, hasRows ) );
             }
             else if ( item.hasLegendSet() )
             {
@@ -560,14 +750,14 @@ public abstract class AbstractAnalyticsService
     /**
      * Return list of dimension item uids
      *
-     * @param params EventQueryParams.
      * @param item QueryItem
      * @param itemOptions itemOtion list.
+     * @param hasRows whether the item options are based on data rows.
      * @return a list of uids.
      */
-    private List<String> getDimensionItemUidList( EventQueryParams params, QueryItem item, List<Option> itemOptions )
+    private List<String> getDimensionItemUidList( QueryItem item, List<Option> itemOptions, boolean hasRows )
     {
-        if ( params.isSkipData() )
+        if ( !hasRows )
         {
             return item.getOptionSetFilterItemsOrAll();
         }
@@ -586,21 +776,35 @@ public abstract class AbstractAnalyticsService
      */
     private void substituteData( Grid grid )
     {
+        getDataSubstitutions( grid ).forEach( ( i, map ) -> grid.substituteMetaData( i, i, map ) );
+    }
+
+    /**
+     * Returns the option and legend name substitutions of the given grid,
+     * mapped by column index.
+     *
+     * @param grid the {@link Grid}.
+     * @return a map of column index and substitutions.
+     */
+    private Map<Integer, Map<String, String>> getDataSubstitutions( Grid grid )
+    {
+        Map<Integer, Map<String, String>> substitutions = new HashMap<>();
+
         for ( int i = 0; i < grid.getHeaders().size(); i++ )
         {
             GridHeader header = grid.getHeaders().get( i );
 
             if ( header.hasOptionSet() )
             {
-                Map<String, String> optionMap = header.getOptionSetObject().getOptionCodePropertyMap( IdScheme.NAME );
-                grid.substituteMetaData( i, i, optionMap );
+                substitutions.put( i, header.getOptionSetObject().getOptionCodePropertyMap( IdScheme.NAME ) );
             }
             else if ( header.hasLegendSet() )
             {
-                Map<String, String> legendMap = header.getLegendSetObject().getLegendUidPropertyMap( IdScheme.NAME );
-                grid.substituteMetaData( i, i, legendMap );
+                substitutions.put( i, header.getLegendSetObject().getLegendUidPropertyMap( IdScheme.NAME ) );
             }
         }
+
+        return substitutions;
     }
 
     private boolean hasNonDefaultRepeatableProgramStageOffset( QueryItem item )
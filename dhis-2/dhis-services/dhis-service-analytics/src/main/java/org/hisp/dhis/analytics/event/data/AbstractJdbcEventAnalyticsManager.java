@@ -51,12 +51,15 @@ import static org.hisp.dhis.common.QueryOperator.IN;
 import static org.hisp.dhis.common.RequestTypeAware.EndpointItem.ENROLLMENT;
 import static org.hisp.dhis.system.util.MathUtils.getRounded;
 
+import java.sql.ResultSet;
+import java.sql.Statement;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collector;
 import java.util.stream.Stream;
 
@@ -97,7 +100,9 @@ import org.hisp.dhis.system.util.MathUtils;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.rowset.ResultSetWrappingSqlRowSet;
 import org.springframework.jdbc.support.rowset.SqlRowSet;
 import org.springframework.util.Assert;
 
@@ -119,6 +124,8 @@ public abstract class AbstractJdbcEventAnalyticsManager
 
     protected static final int COORD_DEC = 6;
 
+    protected static final int STREAM_FETCH_SIZE = 1000;
+
     protected static final int LAST_VALUE_YEARS_OFFSET = -10;
 
     private static final String _AND_ = " and ";
@@ -812,6 +819,70 @@ public abstract class AbstractJdbcEventAnalyticsManager
         }
     }
 
+    /**
+     * Executes the given SQL statement through a server-side cursor and hands
+     * each row to the given consumer as soon as it is read. Only one row is
+     * held in the given grid at any time, which means memory use does not
+     * depend on the size of the result. The cursor is closed when the consumer
+     * throws an exception, which is how a disconnected client cancels the
+     * query.
+     *
+     * @param sql the SQL statement.
+     * @param maxRows the max number of rows to read, 0 means no limit.
+     * @param grid the {@link Grid} with the headers of the rows.
+     * @param rowHandler adds the values of the current row of the
+     *        {@link SqlRowSet} to the current row of the grid.
+     * @param rowConsumer the consumer of each row.
+     */
+    void streamRows( String sql, int maxRows, Grid grid, Consumer<SqlRowSet> rowHandler,
+        Consumer<List<Object>> rowConsumer )
+    {
+        jdbcTemplate.execute( (ConnectionCallback<Void>) connection -> {
+            boolean autoCommit = connection.getAutoCommit();
+
+            // PostgreSQL only fetches rows in batches through a cursor when
+            // auto-commit is off, otherwise the whole result is read
+
+            if ( autoCommit )
+            {
+                connection.setAutoCommit( false );
+            }
+
+            try ( Statement statement = connection.createStatement() )
+            {
+                statement.setFetchSize( STREAM_FETCH_SIZE );
+
+                try ( ResultSet resultSet = statement.executeQuery( sql ) )
+                {
+                    SqlRowSet rowSet = new ResultSetWrappingSqlRowSet( resultSet );
+
+                    int rows = 0;
+
+                    while ( (maxRows <= 0 || rows++ < maxRows) && rowSet.next() )
+                    {
+                        grid.addRow();
+
+                        rowHandler.accept( rowSet );
+
+                        rowConsumer.accept( grid.getRow( grid.getHeight() - 1 ) );
+
+                        grid.removeCurrentWriteRow();
+                    }
+                }
+            }
+            finally
+            {
+                if ( autoCommit )
+                {
+                    connection.rollback();
+                    connection.setAutoCommit( true );
+                }
+            }
+
+            return null;
+        } );
+    }
+
     protected void addGridValue( Grid grid, GridHeader header, int index, SqlRowSet sqlRowSet, EventQueryParams params )
     {
         if ( Double.class.getName().equals( header.getType() ) && !header.hasLegendSet() )
@@ -32,6 +32,10 @@ import static org.hisp.dhis.common.ValueType.DATE;
 import static org.hisp.dhis.common.ValueType.NUMBER;
 import static org.hisp.dhis.common.ValueType.TEXT;
 
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Consumer;
+
 import org.hisp.dhis.analytics.AnalyticsSecurityManager;
 import org.hisp.dhis.analytics.data.handler.SchemaIdResponseMapper;
 import org.hisp.dhis.analytics.event.EnrollmentAnalyticsManager;
@@ -41,6 +45,7 @@ import org.hisp.dhis.analytics.event.EventQueryPlanner;
 import org.hisp.dhis.analytics.event.EventQueryValidator;
 import org.hisp.dhis.common.Grid;
 import org.hisp.dhis.common.GridHeader;
+import org.hisp.dhis.common.GridStreamWriter;
 import org.hisp.dhis.system.grid.ListGrid;
 import org.hisp.dhis.util.Timer;
 import org.springframework.stereotype.Service;
@@ -114,6 +119,13 @@ public class DefaultEnrollmentAnalyticsService
         return getGrid( params );
     }
 
+    @Override
+    public void streamEnrollments( EventQueryParams params, GridStreamWriter writer )
+        throws IOException
+    {
+        streamGrid( params, writer );
+    }
+
     @Override
     protected Grid createGridWithHeaders( EventQueryParams params )
     {
@@ -170,4 +182,12 @@ public class DefaultEnrollmentAnalyticsService
 
         return count;
     }
+
+    @Override
+    protected void streamEventData( Grid grid, EventQueryParams params, Consumer<List<Object>> rowConsumer )
+    {
+        params = queryPlanner.planEnrollmentQuery( params );
+
+        enrollmentAnalyticsManager.streamEnrollments( params, grid, queryValidator.getMaxLimit(), rowConsumer );
+    }
 }
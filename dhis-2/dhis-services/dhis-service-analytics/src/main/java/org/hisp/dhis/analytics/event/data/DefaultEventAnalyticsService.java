@@ -52,11 +52,13 @@ import static org.hisp.dhis.common.ValueType.DATE;
 import static org.hisp.dhis.common.ValueType.NUMBER;
 import static org.hisp.dhis.common.ValueType.TEXT;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import org.apache.commons.lang3.StringUtils;
 import org.hisp.dhis.analytics.AnalyticsSecurityManager;
@@ -80,6 +82,7 @@ import org.hisp.dhis.common.DimensionalObjectUtils;
 import org.hisp.dhis.common.EventAnalyticalObject;
 import org.hisp.dhis.common.Grid;
 import org.hisp.dhis.common.GridHeader;
+import org.hisp.dhis.common.GridStreamWriter;
 import org.hisp.dhis.common.IdentifiableObjectUtils;
 import org.hisp.dhis.common.MetadataItem;
 import org.hisp.dhis.common.QueryItem;
@@ -644,6 +647,13 @@ public class DefaultEventAnalyticsService
         return getGrid( params );
     }
 
+    @Override
+    public void streamEvents( EventQueryParams params, GridStreamWriter writer )
+        throws IOException
+    {
+        streamGrid( params, writer );
+    }
+
     @Override
     public Grid getEventClusters( EventQueryParams params )
     {
@@ -803,4 +813,15 @@ public class DefaultEventAnalyticsService
 
         return count;
     }
+
+    @Override
+    protected void streamEventData( Grid grid, EventQueryParams params, Consumer<List<Object>> rowConsumer )
+    {
+        params = queryPlanner.planEventQuery( params );
+
+        if ( params.getPartitions().hasAny() || params.isSkipPartitioning() )
+        {
+            eventAnalyticsManager.streamEvents( params, grid, queryValidator.getMaxLimit(), rowConsumer );
+        }
+    }
 }
@@ -41,6 +41,7 @@ import static org.hisp.dhis.commons.util.TextUtils.removeLastOr;
 
 import java.util.Date;
 import java.util.List;
+import java.util.function.Consumer;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -155,10 +156,43 @@ public class JdbcEnrollmentAnalyticsManager
 
             grid.addRow();
 
-            for ( int i = 0; i < grid.getHeaders().size(); ++i )
-            {
-                addGridValue( grid, grid.getHeaders().get( i ), i + 1, rowSet, params );
-            }
+            addEnrollmentValues( grid, rowSet, params );
+        }
+    }
+
+    @Override
+    public void streamEnrollments( EventQueryParams params, Grid grid, int maxLimit,
+        Consumer<List<Object>> rowConsumer )
+    {
+        String sql = getEventsOrEnrollmentsSql( params, maxLimit );
+
+        if ( params.analyzeOnly() )
+        {
+            executionPlanStore.addExecutionPlan( params.getExplainOrderId(), sql );
+        }
+        else
+        {
+            log.debug( String.format( "Analytics enrollment stream SQL: %s", sql ) );
+
+            withExceptionHandling(
+                () -> streamRows( sql, maxLimit, grid, rowSet -> addEnrollmentValues( grid, rowSet, params ),
+                    rowConsumer ) );
+        }
+    }
+
+    /**
+     * Adds the values of the current row of the given row set to the current
+     * row of the given grid.
+     *
+     * @param grid the {@link Grid}.
+     * @param rowSet the {@link SqlRowSet}.
+     * @param params the {@link EventQueryParams}.
+     */
+    private void addEnrollmentValues( Grid grid, SqlRowSet rowSet, EventQueryParams params )
+    {
+        for ( int i = 0; i < grid.getHeaders().size(); ++i )
+        {
+            addGridValue( grid, grid.getHeaders().get( i ), i + 1, rowSet, params );
         }
     }
 
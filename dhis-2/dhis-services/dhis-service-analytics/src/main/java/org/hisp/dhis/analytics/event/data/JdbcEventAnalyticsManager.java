@@ -51,6 +51,7 @@ import static org.postgresql.util.PSQLState.DIVISION_BY_ZERO;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import lombok.extern.slf4j.Slf4j;
@@ -170,22 +171,54 @@ public class JdbcEventAnalyticsManager
 
             grid.addRow();
 
-            int index = 1;
+            addEventValues( grid, rowSet, params );
+        }
+    }
 
-            for ( GridHeader header : grid.getHeaders() )
-            {
-                if ( ITEM_LONGITUDE.equals( header.getName() ) || ITEM_LATITUDE.equals( header.getName() ) )
-                {
-                    double val = rowSet.getDouble( index );
-                    grid.addValue( Precision.round( val, COORD_DEC ) );
-                }
-                else
-                {
-                    addGridValue( grid, header, index, rowSet, params );
-                }
+    @Override
+    public void streamEvents( EventQueryParams params, Grid grid, int maxLimit, Consumer<List<Object>> rowConsumer )
+    {
+        String sql = getEventsOrEnrollmentsSql( params, maxLimit );
+
+        if ( params.analyzeOnly() )
+        {
+            executionPlanStore.addExecutionPlan( params.getExplainOrderId(), sql );
+        }
+        else
+        {
+            log.debug( String.format( "Analytics event stream SQL: %s", sql ) );
 
-                index++;
+            withExceptionHandling(
+                () -> streamRows( sql, maxLimit, grid, rowSet -> addEventValues( grid, rowSet, params ),
+                    rowConsumer ) );
+        }
+    }
+
+    /**
+     * Adds the values of the current row of the given row set to the current
+     * row of the given grid.
+     *
+     * @param grid the {@link Grid}.
+     * @param rowSet the {@link SqlRowSet}.
+     * @param params the {@link EventQueryParams}.
+     */
+    private void addEventValues( Grid grid, SqlRowSet rowSet, EventQueryParams params )
+    {
+        int index = 1;
+
+        for ( GridHeader header : grid.getHeaders() )
+        {
+            if ( ITEM_LONGITUDE.equals( header.getName() ) || ITEM_LATITUDE.equals( header.getName() ) )
+            {
+                double val = rowSet.getDouble( index );
+                grid.addValue( Precision.round( val, COORD_DEC ) );
             }
+            else
+            {
+                addGridValue( grid, header, index, rowSet, params );
+            }
+
+            index++;
         }
     }
 
@@ -37,8 +37,11 @@ import static org.hisp.dhis.util.DateUtils.getLongDateString;
 
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import lombok.extern.slf4j.Slf4j;
@@ -210,13 +213,26 @@ public abstract class AbstractJdbcTableManager
     @Override
     public void swapTable( AnalyticsTableUpdateParams params, AnalyticsTable table )
     {
+        if ( params.isChangedPartitionsUpdate() && isCompatibleMasterTable( table ) )
+        {
+            log.info( "Swapping changed partitions into master table: '{}'", table.getTableName() );
+
+            table.getTablePartitions().forEach( p -> swapTable( params, table, p ) );
+
+            dropTableCascade( table.getTempTableName() );
+            dropTable( PartitionUtils.getPartitionName( table.getTableName(),
+                AnalyticsTablePartition.LATEST_PARTITION ) );
+
+            return;
+        }
+
         log.info( "Swapping master table including partitions: '{}'", table.getTableName() );
 
         swapTable( table );
 
         if ( getPartitionColumn() != null )
         {
-            table.getTablePartitions().forEach( p -> swapTable( table, p ) );
+            table.getTablePartitions().forEach( p -> swapTable( params, table, p ) );
         }
     }
 
@@ -335,6 +351,79 @@ public abstract class AbstractJdbcTableManager
         }
     }
 
+    /**
+     * Removes the partitions of the given table which are up to date for a
+     * changed partitions update. A partition is kept for rebuild if it does not
+     * exist, if it has no recorded build time, or if data for its year was
+     * updated after the partition was built. All partitions are kept if the
+     * master table does not exist or has different columns, as the master
+     * table must then be rebuilt.
+     *
+     * @param params the {@link AnalyticsTableUpdateParams}.
+     * @param table the {@link AnalyticsTable}.
+     * @param lastUpdatedProvider function which returns the latest last
+     *        updated time of data per year, for data updated at or after the
+     *        given date.
+     * @return the given {@link AnalyticsTable}.
+     */
+    protected AnalyticsTable removeUnchangedPartitions( AnalyticsTableUpdateParams params, AnalyticsTable table,
+        Function<Date, Map<Integer, Date>> lastUpdatedProvider )
+    {
+        if ( !params.isChangedPartitionsUpdate() || !table.hasPartitionTables() ||
+            !isCompatibleMasterTable( table ) )
+        {
+            return table;
+        }
+
+        Map<Integer, Date> buildTimes = new HashMap<>();
+
+        for ( AnalyticsTablePartition partition : table.getTablePartitions() )
+        {
+            Date buildTime = getPartitionBuildTime( partition.getTableName() );
+
+            if ( buildTime != null )
+            {
+                buildTimes.put( partition.getYear(), buildTime );
+            }
+        }
+
+        Date earliestBuildTime = buildTimes.values().stream().min( Date::compareTo ).orElse( null );
+
+        Map<Integer, Date> lastUpdated = earliestBuildTime != null ? lastUpdatedProvider.apply( earliestBuildTime )
+            : new HashMap<>();
+
+        table.getTablePartitions().removeIf( partition -> {
+            Date buildTime = buildTimes.get( partition.getYear() );
+            Date updated = lastUpdated.get( partition.getYear() );
+            return buildTime != null && (updated == null || updated.before( buildTime ));
+        } );
+
+        log.info( "Changed partitions for table: '{}': {}", table.getTableName(), table.getTablePartitions() );
+
+        return table;
+    }
+
+    /**
+     * Returns a mapping of year to the latest last updated time of the data
+     * returned by the given SQL query. The query must return the columns
+     * <code>year</code> and <code>lastupdated</code>.
+     *
+     * @param sql the SQL query.
+     * @return a mapping of year to latest last updated time.
+     */
+    protected Map<Integer, Date> getLastUpdatedByYear( String sql )
+    {
+        Map<Integer, Date> lastUpdated = new HashMap<>();
+
+        log.debug( "Last updated by year SQL: '{}'", sql );
+
+        jdbcTemplate.query( sql, rs -> {
+            lastUpdated.put( rs.getInt( "year" ), rs.getTimestamp( "lastupdated" ) );
+        } );
+
+        return lastUpdated;
+    }
+
     /**
      * Executes a SQL statement. Ignores existing tables/indexes when attempting
      * to create new.
@@ -585,12 +674,15 @@ public abstract class AbstractJdbcTableManager
 
     /**
      * Swaps a database table, meaning drops the real table and renames the
-     * temporary table to become the real table.
+     * temporary table to become the real table. The start time of the update
+     * is recorded as the build time of the partition.
      *
+     * @param params the {@link AnalyticsTableUpdateParams}.
      * @param mainTable the partition table.
      * @param tablePartition the partition.
      */
-    private void swapTable( AnalyticsTable mainTable, AnalyticsTablePartition tablePartition )
+    private void swapTable( AnalyticsTableUpdateParams params, AnalyticsTable mainTable,
+        AnalyticsTablePartition tablePartition )
     {
         String mainTableName = mainTable.getTableName();
         String realTableName = tablePartition.getTableName();
@@ -601,7 +693,8 @@ public abstract class AbstractJdbcTableManager
             " drop table if exists " + realTableName + " cascade",
             " alter table if exists " + tempTableName + " rename to " + realTableName,
             " alter table if exists " + mainTableName + " attach partition " + realTableName
-                + " for values in (" + tablePartition.getYear() + ")"
+                + " for values in (" + tablePartition.getYear() + ")",
+            " comment on table " + realTableName + " is '" + getLongDateString( params.getStartTime() ) + "'"
         };
 
         for ( int i = 0; i < sqlSteps.length; i++ )
@@ -694,6 +787,50 @@ public abstract class AbstractJdbcTableManager
         }
     }
 
+    /**
+     * Returns the build time of the given partition, i.e. the start time of the
+     * update which built the partition, or null if the partition does not
+     * exist or has no recorded build time.
+     *
+     * @param partitionName the partition table name.
+     */
+    private Date getPartitionBuildTime( String partitionName )
+    {
+        final String sql = "select obj_description(to_regclass('" + partitionName + "'), 'pg_class')";
+
+        String buildTime = jdbcTemplate.queryForObject( sql, String.class );
+
+        return buildTime != null ? DateUtils.parseDate( buildTime ) : null;
+    }
+
+    /**
+     * Indicates whether the master table of the given analytics table exists
+     * with the same columns, meaning that partitions can be swapped into the
+     * existing master table.
+     *
+     * @param table the {@link AnalyticsTable}.
+     */
+    private boolean isCompatibleMasterTable( AnalyticsTable table )
+    {
+        if ( !tableTypeIsPartitioned() || !partitionManager.tableExists( table.getTableName() ) )
+        {
+            return false;
+        }
+
+        final String sql = "select column_name from information_schema.columns " +
+            "where table_name = '" + table.getTableName() + "'";
+
+        Set<String> existingColumns = jdbcTemplate.queryForList( sql, String.class ).stream()
+            .map( String::toLowerCase )
+            .collect( Collectors.toSet() );
+
+        Set<String> columns = ListUtils.union( table.getDimensionColumns(), table.getValueColumns() ).stream()
+            .map( col -> StringUtils.remove( col.getName(), '"' ).toLowerCase() )
+            .collect( Collectors.toSet() );
+
+        return existingColumns.equals( columns );
+    }
+
     /**
      * Indicates whether this analytics table type is partitioned.
      */
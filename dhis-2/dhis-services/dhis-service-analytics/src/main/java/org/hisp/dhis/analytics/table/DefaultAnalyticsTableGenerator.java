@@ -92,7 +92,8 @@ public class DefaultAnalyticsTableGenerator
             getLongDateString( lastSuccessfulUpdate ) );
 
         progress.startingProcess( "Analytics table update process"
-            + (params.isLatestUpdate() ? "(latest partition)" : "") );
+            + (params.isLatestUpdate() ? "(latest partition)" : "")
+            + (params.isChangedPartitionsUpdate() ? "(changed partitions)" : "") );
 
         if ( !params.isSkipResourceTables() && !params.isLatestUpdate() )
         {
@@ -32,6 +32,7 @@ import static org.hisp.dhis.analytics.util.AnalyticsIndexHelper.getIndexes;
 import static org.hisp.dhis.util.DateUtils.getLongDateString;
 
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -45,6 +46,7 @@ import org.hisp.dhis.analytics.AnalyticsTablePartition;
 import org.hisp.dhis.analytics.AnalyticsTableService;
 import org.hisp.dhis.analytics.AnalyticsTableType;
 import org.hisp.dhis.analytics.AnalyticsTableUpdateParams;
+import org.hisp.dhis.analytics.cache.AnalyticsFragmentCache;
 import org.hisp.dhis.common.IdentifiableObjectUtils;
 import org.hisp.dhis.commons.util.SystemUtils;
 import org.hisp.dhis.dataelement.DataElementService;
@@ -73,6 +75,8 @@ public class DefaultAnalyticsTableService
 
     private final SystemSettingManager systemSettingManager;
 
+    private final AnalyticsFragmentCache fragmentCache;
+
     @Override
     public AnalyticsTableType getAnalyticsTableType()
     {
@@ -167,6 +171,8 @@ public class DefaultAnalyticsTableService
 
         swapTables( params, tables, progress );
 
+        invalidateFragmentCache( params, tables );
+
         clock.logTime( "Table update done: " + tableType.getTableName() );
     }
 
@@ -325,6 +331,33 @@ public class DefaultAnalyticsTableService
         resourceTableService.createAllSqlViews( progress );
     }
 
+    /**
+     * Invalidates the cached query fragments reading from the swapped tables
+     * and partitions. A latest partition update removes updated data from all
+     * partitions and a changed partitions update drops the latest partition,
+     * in which case the fragments of all tables of this type are invalidated.
+     *
+     * @param params the {@link AnalyticsTableUpdateParams}.
+     * @param tables the list of swapped {@link AnalyticsTable}.
+     */
+    private void invalidateFragmentCache( AnalyticsTableUpdateParams params, List<AnalyticsTable> tables )
+    {
+        Set<String> tableNames = new HashSet<>();
+
+        for ( AnalyticsTable table : tables )
+        {
+            tableNames.add( table.getTableName() );
+            table.getTablePartitions().forEach( partition -> tableNames.add( partition.getTableName() ) );
+        }
+
+        if ( params.isLatestUpdate() || params.isChangedPartitionsUpdate() )
+        {
+            tableNames.addAll( tableManager.getExistingDatabaseTables() );
+        }
+
+        fragmentCache.invalidate( tableNames );
+    }
+
     /**
      * Gets the number of available cores. Uses explicit number from system
      * setting if available. Detects number of cores from current server runtime
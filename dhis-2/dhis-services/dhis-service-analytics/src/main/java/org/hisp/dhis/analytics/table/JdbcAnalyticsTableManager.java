@@ -44,6 +44,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import lombok.extern.slf4j.Slf4j;
@@ -153,6 +154,8 @@ public class JdbcAnalyticsTableManager
             ? getLatestAnalyticsTable( params, getDimensionColumns(), getValueColumns() )
             : getRegularAnalyticsTable( params, getDataYears( params ), getDimensionColumns(), getValueColumns() );
 
+        removeUnchangedPartitions( params, table, since -> getLastUpdatedByYear( params, since ) );
+
         return table.hasPartitionTables() ? newArrayList( table ) : newArrayList();
     }
 
@@ -493,6 +496,19 @@ public class JdbcAnalyticsTableManager
         return jdbcTemplate.queryForList( sql, Integer.class );
     }
 
+    private Map<Integer, Date> getLastUpdatedByYear( AnalyticsTableUpdateParams params, Date since )
+    {
+        String sql = "select extract(year from pe.startdate) as year, max(dv.lastupdated) as lastupdated " +
+            "from datavalue dv " +
+            "inner join period pe on dv.periodid=pe.periodid " +
+            "where pe.startdate is not null " +
+            "and dv.lastupdated >= '" + getLongDateString( since ) + "' " +
+            "and dv.lastupdated < '" + getLongDateString( params.getStartTime() ) + "' " +
+            "group by extract(year from pe.startdate)";
+
+        return getLastUpdatedByYear( sql );
+    }
+
     @Override
     public void applyAggregationLevels( AnalyticsTablePartition partition,
         Collection<String> dataElements, int aggregationLevel )
@@ -40,6 +40,7 @@ import static org.hisp.dhis.util.DateUtils.getLongDateString;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.hisp.dhis.analytics.AnalyticsTable;
@@ -110,6 +111,8 @@ public class JdbcCompletenessTableManager
             ? getLatestAnalyticsTable( params, getDimensionColumns(), getValueColumns() )
             : getRegularAnalyticsTable( params, getDataYears( params ), getDimensionColumns(), getValueColumns() );
 
+        removeUnchangedPartitions( params, table, since -> getLastUpdatedByYear( params, since ) );
+
         return table.hasPartitionTables() ? Lists.newArrayList( table ) : Lists.newArrayList();
     }
 
@@ -304,6 +307,19 @@ public class JdbcCompletenessTableManager
         return jdbcTemplate.queryForList( sql, Integer.class );
     }
 
+    private Map<Integer, Date> getLastUpdatedByYear( AnalyticsTableUpdateParams params, Date since )
+    {
+        String sql = "select extract(year from pe.startdate) as year, max(cdr.lastupdated) as lastupdated " +
+            "from completedatasetregistration cdr " +
+            "inner join period pe on cdr.periodid=pe.periodid " +
+            "where pe.startdate is not null " +
+            "and cdr.lastupdated >= '" + getLongDateString( since ) + "' " +
+            "and cdr.lastupdated < '" + getLongDateString( params.getStartTime() ) + "' " +
+            "group by extract(year from pe.startdate)";
+
+        return getLastUpdatedByYear( sql );
+    }
+
     @Override
     public List<AnalyticsTableColumn> getFixedColumns()
     {
@@ -50,6 +50,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import lombok.extern.slf4j.Slf4j;
@@ -209,6 +210,8 @@ public class JdbcEventAnalyticsTableManager
                     PartitionUtils.getEndDate( calendar, year ) );
             }
 
+            removeUnchangedPartitions( params, table, since -> getLastUpdatedByYear( params, program, since ) );
+
             if ( table.hasPartitionTables() )
             {
                 tables.add( table );
@@ -612,6 +615,21 @@ public class JdbcEventAnalyticsTableManager
         return jdbcTemplate.queryForList( sql, Integer.class );
     }
 
+    private Map<Integer, Date> getLastUpdatedByYear( AnalyticsTableUpdateParams params, Program program,
+        Date since )
+    {
+        String sql = "select extract(year from psi.executiondate) as year, max(psi.lastupdated) as lastupdated " +
+            "from programstageinstance psi " +
+            "inner join programinstance pi on psi.programinstanceid = pi.programinstanceid " +
+            "where psi.lastupdated >= '" + getLongDateString( since ) + "' " +
+            "and psi.lastupdated <= '" + getLongDateString( params.getStartTime() ) + "' " +
+            "and pi.programid = " + program.getId() + " " +
+            "and psi.executiondate is not null " +
+            "group by extract(year from psi.executiondate)";
+
+        return getLastUpdatedByYear( sql );
+    }
+
     private AnalyticsTableColumn toCharColumn( String name, String prefix, Date created )
     {
         return new AnalyticsTableColumn( name, CHARACTER_11, prefix + "." + name ).withCreated( created );
@@ -39,6 +39,7 @@ import static org.hisp.dhis.util.DateUtils.getLongDateString;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.hisp.dhis.analytics.AnalyticsTable;
@@ -107,6 +108,8 @@ public class JdbcValidationResultTableManager
         AnalyticsTable table = params.isLatestUpdate() ? new AnalyticsTable()
             : getRegularAnalyticsTable( params, getDataYears( params ), getDimensionColumns(), getValueColumns() );
 
+        removeUnchangedPartitions( params, table, since -> getLastUpdatedByYear( params, since ) );
+
         return table.hasPartitionTables() ? Lists.newArrayList( table ) : Lists.newArrayList();
     }
 
@@ -213,6 +216,19 @@ public class JdbcValidationResultTableManager
         return jdbcTemplate.queryForList( sql, Integer.class );
     }
 
+    private Map<Integer, Date> getLastUpdatedByYear( AnalyticsTableUpdateParams params, Date since )
+    {
+        String sql = "select extract(year from pe.startdate) as year, max(vrs.created) as lastupdated " +
+            "from validationresult vrs " +
+            "inner join period pe on vrs.periodid=pe.periodid " +
+            "where pe.startdate is not null " +
+            "and vrs.created >= '" + getLongDateString( since ) + "' " +
+            "and vrs.created < '" + getLongDateString( params.getStartTime() ) + "' " +
+            "group by extract(year from pe.startdate)";
+
+        return getLastUpdatedByYear( sql );
+    }
+
     private List<AnalyticsTableColumn> getDimensionColumns()
     {
         List<AnalyticsTableColumn> columns = new ArrayList<>();
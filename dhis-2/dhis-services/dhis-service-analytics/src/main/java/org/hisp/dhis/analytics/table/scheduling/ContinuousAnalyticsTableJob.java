@@ -61,6 +61,10 @@ import com.google.common.base.Preconditions;
  * update is performed when the current time is after the next scheduled full
  * update time. Otherwise, a partial update of the latest analytics partition
  * table is performed.
+ * <p>
+ * When {@link ContinuousAnalyticsJobParameters#isChangedPartitionsOnly()} is
+ * enabled, the full update only rebuilds the year partitions with data changed
+ * since the partition was last built, for all years.
  *
  * @author Lars Helge Overland
  */
@@ -103,10 +107,13 @@ public class ContinuousAnalyticsTableJob implements Job
 
         if ( now.after( nextFullUpdate ) )
         {
-            log.info( "Performing full analytics table update" );
+            boolean changedPartitionsOnly = parameters.isChangedPartitionsOnly();
+
+            log.info( "Performing full analytics table update, changed partitions only: {}", changedPartitionsOnly );
 
             AnalyticsTableUpdateParams params = AnalyticsTableUpdateParams.newBuilder()
-                .withLastYears( parameters.getLastYears() )
+                .withLastYears( changedPartitionsOnly ? null : parameters.getLastYears() )
+                .withChangedPartitionsOnly( changedPartitionsOnly )
                 .withSkipResourceTables( false )
                 .withSkipTableTypes( parameters.getSkipTableTypes() )
                 .withJobId( jobConfiguration )
@@ -28,10 +28,16 @@
 package org.hisp.dhis.analytics.cache;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.hisp.dhis.analytics.DataQueryParams;
 import org.hisp.dhis.cache.Cache;
@@ -78,6 +84,8 @@ class AnalyticsCacheTest
 
         Mockito.<Cache<Grid>> when( cacheProvider.createAnalyticsCache() )
             .thenReturn( cache );
+        Mockito.<Cache<Boolean>> when( cacheProvider.createAnalyticsInFlightCache() )
+            .thenReturn( new LocalCache<>( new SimpleCacheBuilder<>() ) );
 
         final AnalyticsCache analyticsCache = new AnalyticsCache( cacheProvider, settings );
 
@@ -122,4 +130,101 @@ class AnalyticsCacheTest
 
         assertEquals( 2, optCachedGrid.get().getRows().size() );
     }
+
+    @Test
+    void concurrentMissesFetchGridOnce()
+        throws Exception
+    {
+        final AnalyticsCache analyticsCache = newAnalyticsCache();
+        final DataQueryParams params = newParams();
+        final AtomicInteger fetches = new AtomicInteger();
+        final CountDownLatch fetchStarted = new CountDownLatch( 1 );
+        final CountDownLatch fetchReleased = new CountDownLatch( 1 );
+
+        final ExecutorService executor = Executors.newFixedThreadPool( 2 );
+
+        try
+        {
+            final Future<Grid> first = executor.submit( () -> analyticsCache.getOrFetch( params, p -> {
+                fetches.incrementAndGet();
+                fetchStarted.countDown();
+                awaitUninterruptibly( fetchReleased );
+                return newGrid();
+            } ) );
+
+            fetchStarted.await();
+
+            final Future<Grid> second = executor.submit( () -> analyticsCache.getOrFetch( params, p -> {
+                fetches.incrementAndGet();
+                return newGrid();
+            } ) );
+
+            fetchReleased.countDown();
+
+            assertEquals( 2, first.get( 10, TimeUnit.SECONDS ).getRows().size() );
+            assertEquals( 2, second.get( 10, TimeUnit.SECONDS ).getRows().size() );
+            assertEquals( 1, fetches.get() );
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void failedFetchIsNotCached()
+    {
+        final AnalyticsCache analyticsCache = newAnalyticsCache();
+        final DataQueryParams params = newParams();
+
+        assertThrows( IllegalStateException.class, () -> analyticsCache.getOrFetch( params, p -> {
+            throw new IllegalStateException( "Query failed" );
+        } ) );
+
+        assertEquals( 2, analyticsCache.getOrFetch( params, p -> newGrid() ).getRows().size() );
+    }
+
+    private AnalyticsCache newAnalyticsCache()
+    {
+        final CacheBuilder<Grid> cacheBuilder = new SimpleCacheBuilder<>();
+
+        cacheBuilder.expireAfterWrite( 1L, TimeUnit.MINUTES );
+
+        Mockito.<Cache<Grid>> when( cacheProvider.createAnalyticsCache() )
+            .thenReturn( new LocalCache<>( cacheBuilder ) );
+        Mockito.<Cache<Boolean>> when( cacheProvider.createAnalyticsInFlightCache() )
+            .thenReturn( new LocalCache<>( new SimpleCacheBuilder<>() ) );
+
+        return new AnalyticsCache( cacheProvider, new AnalyticsCacheSettings( systemSettingManager ) );
+    }
+
+    private DataQueryParams newParams()
+    {
+        return DataQueryParams.newBuilder()
+            .withDataElements(
+                Lists.newArrayList( new DataElement( "dataElementA" ), new DataElement( "dataElementB" ) ) )
+            .build();
+    }
+
+    private Grid newGrid()
+    {
+        return new ListGrid()
+            .addHeader( new GridHeader( "Header1" ) )
+            .addRow()
+            .addValue( "Value11" )
+            .addRow()
+            .addValue( "Value21" );
+    }
+
+    private void awaitUninterruptibly( CountDownLatch latch )
+    {
+        try
+        {
+            latch.await();
+        }
+        catch ( InterruptedException ex )
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
 }
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hisp.dhis.analytics.DataQueryParams;
+import org.hisp.dhis.cache.Cache;
+import org.hisp.dhis.cache.CacheBuilder;
+import org.hisp.dhis.cache.DefaultCacheProvider;
+import org.hisp.dhis.cache.LocalCache;
+import org.hisp.dhis.cache.SimpleCacheBuilder;
+import org.hisp.dhis.setting.SystemSettingManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith( MockitoExtension.class )
+class AnalyticsFragmentCacheTest
+{
+    @Mock
+    private SystemSettingManager systemSettingManager;
+
+    @Mock
+    private DefaultCacheProvider cacheProvider;
+
+    private AnalyticsFragmentCache fragmentCache;
+
+    private final DataQueryParams params = DataQueryParams.newBuilder().build();
+
+    private final AtomicInteger fetches = new AtomicInteger();
+
+    @BeforeEach
+    void setUp()
+    {
+        final CacheBuilder<Object> cacheBuilder = new SimpleCacheBuilder<>();
+
+        cacheBuilder.expireAfterWrite( 1L, TimeUnit.MINUTES );
+
+        Mockito.<Cache<Object>> when( cacheProvider.createAnalyticsFragmentCache() )
+            .thenReturn( new LocalCache<>( cacheBuilder ) );
+
+        fragmentCache = new AnalyticsFragmentCache( cacheProvider, new AnalyticsCacheSettings( systemSettingManager ) );
+    }
+
+    @Test
+    void getOrFetchReusesCachedValues()
+    {
+        assertEquals( 1.0, getOrFetch( List.of( "analytics_2021" ), "query" ).get( "a" ) );
+        assertEquals( 1.0, getOrFetch( List.of( "analytics_2021" ), "query" ).get( "a" ) );
+
+        assertEquals( 1, fetches.get() );
+    }
+
+    @Test
+    void getOrFetchReturnsCopy()
+    {
+        getOrFetch( List.of( "analytics_2021" ), "query" ).put( "b", 2.0 );
+
+        assertEquals( Set.of( "a" ), getOrFetch( List.of( "analytics_2021" ), "query" ).keySet() );
+    }
+
+    @Test
+    void invalidateRemovesFragmentsOfGivenPartitions()
+    {
+        getOrFetch( List.of( "analytics_2020" ), "query" );
+        getOrFetch( List.of( "analytics_2020", "analytics_2021" ), "query" );
+        getOrFetch( List.of( "analytics_2021" ), "query" );
+
+        fragmentCache.invalidate( Set.of( "analytics_2020" ) );
+
+        getOrFetch( List.of( "analytics_2020" ), "query" );
+        getOrFetch( List.of( "analytics_2020", "analytics_2021" ), "query" );
+        getOrFetch( List.of( "analytics_2021" ), "query" );
+
+        assertEquals( 5, fetches.get() );
+    }
+
+    private Map<String, Object> getOrFetch( List<String> tableNames, String queryKey )
+    {
+        return fragmentCache.getOrFetch( params, tableNames, queryKey, () -> {
+            fetches.incrementAndGet();
+            return new HashMap<>( Map.of( "a", 1.0 ) );
+        } );
+    }
+}
@@ -46,6 +46,7 @@ import org.hisp.dhis.analytics.DataQueryParams;
 import org.hisp.dhis.analytics.DataType;
 import org.hisp.dhis.analytics.QueryPlanner;
 import org.hisp.dhis.analytics.analyze.ExecutionPlanStore;
+import org.hisp.dhis.analytics.cache.AnalyticsFragmentCache;
 import org.hisp.dhis.common.DimensionalItemObject;
 import org.hisp.dhis.common.ListMap;
 import org.hisp.dhis.period.Period;
@@ -74,6 +75,9 @@ class AnalyticsManagerTest extends DhisConvenienceTest
     @Mock
     private ExecutionPlanStore executionPlanStore;
 
+    @Mock
+    private AnalyticsFragmentCache fragmentCache;
+
     private AnalyticsManager analyticsManager;
 
     private static Stream<Arguments> data()
@@ -87,7 +91,7 @@ class AnalyticsManagerTest extends DhisConvenienceTest
     @MethodSource( "data" )
     public void testWeightedAverage( String financialYear, Double weightedAverage )
     {
-        analyticsManager = new JdbcAnalyticsManager( queryPlanner, jdbcTemplate, executionPlanStore );
+        analyticsManager = new JdbcAnalyticsManager( queryPlanner, jdbcTemplate, executionPlanStore, fragmentCache );
         AnalyticsAggregationType aggregationType = new AnalyticsAggregationType(
             AggregationType.SUM, AggregationType.AVERAGE, DataType.NUMERIC, true );
 
@@ -120,7 +124,8 @@ class AnalyticsManagerTest extends DhisConvenienceTest
     @Test
     void testReplaceDataPeriodsWithAggregationPeriods()
     {
-        AnalyticsManager analyticsManager = new JdbcAnalyticsManager( queryPlanner, jdbcTemplate, executionPlanStore );
+        AnalyticsManager analyticsManager = new JdbcAnalyticsManager( queryPlanner, jdbcTemplate, executionPlanStore,
+            fragmentCache );
         Period y2012 = createPeriod( "2012" );
 
         AnalyticsAggregationType aggregationType = new AnalyticsAggregationType(
@@ -0,0 +1,266 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hisp.dhis.analytics.DataQueryParams;
+import org.hisp.dhis.analytics.Partitions;
+import org.hisp.dhis.common.RequestInfo;
+import org.hisp.dhis.common.RequestInfoService;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.period.PeriodType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith( MockitoExtension.class )
+class AnalyticsQuerySchedulerTest
+{
+    @Mock
+    private RequestInfoService requestInfoService;
+
+    @Mock
+    private DhisConfigurationProvider config;
+
+    private AnalyticsQueryScheduler scheduler;
+
+    @AfterEach
+    void tearDown()
+    {
+        if ( scheduler != null )
+        {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    void perUserLimitIsRespected()
+        throws Exception
+    {
+        scheduler = getScheduler( 4, 1 );
+
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        List<Future<Integer>> futures = new CopyOnWriteArrayList<>();
+
+        for ( int i = 0; i < 3; i++ )
+        {
+            int value = i;
+
+            futures.add( scheduler.submit( DataQueryParams.newBuilder().build(), () -> {
+                maxRunning.accumulateAndGet( running.incrementAndGet(), Math::max );
+                Thread.sleep( 20 );
+                running.decrementAndGet();
+                return value;
+            } ) );
+        }
+
+        for ( int i = 0; i < 3; i++ )
+        {
+            assertEquals( i, futures.get( i ).get( 5, TimeUnit.SECONDS ) );
+        }
+
+        assertEquals( 1, maxRunning.get() );
+        assertEquals( 0, scheduler.getQueueSize() );
+        assertEquals( 0, scheduler.getInFlight() );
+    }
+
+    @Test
+    void interactiveQueriesAreDispatchedFirst()
+        throws Exception
+    {
+        scheduler = getScheduler( 1, 1 );
+
+        when( requestInfoService.getCurrentInfo() )
+            .thenReturn( null, null, RequestInfo.builder().build() );
+
+        CountDownLatch blocker = new CountDownLatch( 1 );
+        List<String> order = new CopyOnWriteArrayList<>();
+
+        Future<String> first = scheduler.submit( DataQueryParams.newBuilder().build(), () -> {
+            blocker.await( 5, TimeUnit.SECONDS );
+            return "first";
+        } );
+        Future<String> background = scheduler.submit( DataQueryParams.newBuilder().build(), () -> {
+            order.add( "background" );
+            return "background";
+        } );
+        Future<String> interactive = scheduler.submit( DataQueryParams.newBuilder().build(), () -> {
+            order.add( "interactive" );
+            return "interactive";
+        } );
+
+        assertEquals( 2, scheduler.getQueueSize() );
+
+        blocker.countDown();
+
+        assertEquals( "first", first.get( 5, TimeUnit.SECONDS ) );
+        assertEquals( "background", background.get( 5, TimeUnit.SECONDS ) );
+        assertEquals( "interactive", interactive.get( 5, TimeUnit.SECONDS ) );
+        assertEquals( List.of( "interactive", "background" ), order );
+    }
+
+    @Test
+    void failedQueryReleasesSlot()
+        throws Exception
+    {
+        scheduler = getScheduler( 1, 1 );
+
+        Future<Object> failed = scheduler.submit( DataQueryParams.newBuilder().build(), () -> {
+            throw new IllegalStateException( "Failed" );
+        } );
+
+        ExecutionException ex = assertThrows( ExecutionException.class, () -> failed.get( 5, TimeUnit.SECONDS ) );
+        assertTrue( ex.getCause() instanceof IllegalStateException );
+
+        assertEquals( "next", scheduler.submit( DataQueryParams.newBuilder().build(), () -> "next" )
+            .get( 5, TimeUnit.SECONDS ) );
+    }
+
+    @Test
+    void cheaperQueriesAreDispatchedFirst()
+        throws Exception
+    {
+        scheduler = getScheduler( 1, 3 );
+
+        assertEquals( List.of( "cost-1", "cost-2", "cost-3" ), getDispatchOrder( 0 ) );
+    }
+
+    @Test
+    void starvedQueriesAreDispatchedInSubmissionOrder()
+        throws Exception
+    {
+        scheduler = getScheduler( 1, 3, 1 );
+
+        assertEquals( List.of( "cost-3", "cost-1", "cost-2" ), getDispatchOrder( 50 ) );
+    }
+
+    @Test
+    void costIsProductOfPartitionsPeriodsAndOrgUnits()
+    {
+        assertEquals( 1, AnalyticsQueryScheduler.getCost( DataQueryParams.newBuilder().build() ) );
+
+        DataQueryParams params = DataQueryParams.newBuilder()
+            .withPartitions( new Partitions( Set.of( 2020, 2021 ) ) )
+            .withPeriods( List.of( PeriodType.getPeriodFromIsoString( "2020Q4" ),
+                PeriodType.getPeriodFromIsoString( "2021Q1" ) ) )
+            .withOrganisationUnits( List.of( new OrganisationUnit( "A" ), new OrganisationUnit( "B" ),
+                new OrganisationUnit( "C" ) ) )
+            .build();
+
+        assertEquals( 12, AnalyticsQueryScheduler.getCost( params ) );
+    }
+
+    /**
+     * Blocks the scheduler, queues queries of cost 3, 1 and 2 and returns the
+     * order in which they are dispatched once the scheduler is released after
+     * the given delay.
+     */
+    private List<String> getDispatchOrder( long delayMillis )
+        throws Exception
+    {
+        CountDownLatch blocker = new CountDownLatch( 1 );
+        List<String> order = new CopyOnWriteArrayList<>();
+
+        Future<String> first = scheduler.submit( DataQueryParams.newBuilder().build(), () -> {
+            blocker.await( 5, TimeUnit.SECONDS );
+            return "first";
+        } );
+
+        List<Future<String>> futures = new ArrayList<>();
+
+        for ( int cost : List.of( 3, 1, 2 ) )
+        {
+            futures.add( scheduler.submit( getParams( cost ), () -> {
+                order.add( "cost-" + cost );
+                return "cost-" + cost;
+            } ) );
+        }
+
+        assertEquals( 3, scheduler.getQueueSize() );
+
+        Thread.sleep( delayMillis );
+        blocker.countDown();
+
+        assertEquals( "first", first.get( 5, TimeUnit.SECONDS ) );
+
+        for ( Future<String> future : futures )
+        {
+            future.get( 5, TimeUnit.SECONDS );
+        }
+
+        return order;
+    }
+
+    private DataQueryParams getParams( int orgUnits )
+    {
+        List<OrganisationUnit> organisationUnits = new ArrayList<>();
+
+        for ( int i = 0; i < orgUnits; i++ )
+        {
+            organisationUnits.add( new OrganisationUnit( "OU" + i ) );
+        }
+
+        return DataQueryParams.newBuilder().withOrganisationUnits( organisationUnits ).build();
+    }
+
+    private AnalyticsQueryScheduler getScheduler( int maxConcurrent, int maxConcurrentPerUser )
+    {
+        return getScheduler( maxConcurrent, maxConcurrentPerUser, 5_000 );
+    }
+
+    private AnalyticsQueryScheduler getScheduler( int maxConcurrent, int maxConcurrentPerUser,
+        long costOrderMaxWaitMillis )
+    {
+        when( config.getProperty( ConfigurationKey.ANALYTICS_QUERY_MAX_CONCURRENT ) )
+            .thenReturn( String.valueOf( maxConcurrent ) );
+        when( config.getProperty( ConfigurationKey.ANALYTICS_QUERY_MAX_CONCURRENT_PER_USER ) )
+            .thenReturn( String.valueOf( maxConcurrentPerUser ) );
+
+        return new AnalyticsQueryScheduler( requestInfoService, config, costOrderMaxWaitMillis );
+    }
+}
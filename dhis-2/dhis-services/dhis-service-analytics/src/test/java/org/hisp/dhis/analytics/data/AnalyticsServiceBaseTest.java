@@ -49,7 +49,9 @@ import org.hisp.dhis.analytics.data.handler.MetadataHandler;
 import org.hisp.dhis.analytics.data.handler.SchemaIdResponseMapper;
 import org.hisp.dhis.analytics.event.EventAnalyticsService;
 import org.hisp.dhis.analytics.resolver.ExpressionResolvers;
+import org.hisp.dhis.common.RequestInfoService;
 import org.hisp.dhis.expression.ExpressionService;
+import org.hisp.dhis.external.conf.ConfigurationKey;
 import org.hisp.dhis.external.conf.DhisConfigurationProvider;
 import org.hisp.dhis.organisationunit.OrganisationUnitService;
 import org.hisp.dhis.setting.SettingKey;
@@ -118,6 +120,9 @@ abstract class AnalyticsServiceBaseTest
     @Mock
     private ExecutionPlanStore executionPlanStore;
 
+    @Mock
+    private RequestInfoService requestInfoService;
+
     DataAggregator target;
 
     @BeforeEach
@@ -127,9 +132,13 @@ abstract class AnalyticsServiceBaseTest
 
         HeaderHandler headerHandler = new HeaderHandler();
         MetadataHandler metadataHandler = new MetadataHandler( dataQueryService, schemaIdResponseMapper );
+        when( dhisConfig.getProperty( ConfigurationKey.ANALYTICS_QUERY_MAX_CONCURRENT ) ).thenReturn( "4" );
+        when( dhisConfig.getProperty( ConfigurationKey.ANALYTICS_QUERY_MAX_CONCURRENT_PER_USER ) ).thenReturn( "2" );
+
+        AnalyticsQueryScheduler queryScheduler = new AnalyticsQueryScheduler( requestInfoService, dhisConfig );
         DataHandler dataHandler = new DataHandler( eventAnalyticsService, rawAnalyticsManager,
             resolvers, expressionService, queryPlanner, queryValidator, systemSettingManager, analyticsManager,
-            organisationUnitService, executionPlanStore );
+            organisationUnitService, executionPlanStore, queryScheduler );
 
         target = new DataAggregator( headerHandler, metadataHandler, dataHandler );
         target.feedHandlers();
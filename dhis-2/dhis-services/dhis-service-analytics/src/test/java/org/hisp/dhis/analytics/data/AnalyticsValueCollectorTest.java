@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.data;
+
+import static org.hisp.dhis.analytics.DataQueryParams.VALUE_ID;
+import static org.hisp.dhis.common.DimensionalObject.DATA_X_DIM_ID;
+import static org.hisp.dhis.common.DimensionalObject.ORGUNIT_DIM_ID;
+import static org.hisp.dhis.common.DimensionalObject.PERIOD_DIM_ID;
+import static org.hisp.dhis.common.DimensionalObjectUtils.getList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+
+import org.hisp.dhis.DhisConvenienceTest;
+import org.hisp.dhis.analytics.DataQueryParams;
+import org.hisp.dhis.analytics.DataType;
+import org.hisp.dhis.common.BaseDimensionalObject;
+import org.hisp.dhis.common.DimensionType;
+import org.hisp.dhis.common.IllegalQueryException;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link AnalyticsValueCollector}.
+ */
+class AnalyticsValueCollectorTest extends DhisConvenienceTest
+{
+    @Test
+    void testCollectNumericValues()
+        throws SQLException
+    {
+        AnalyticsValueCollector collector = new AnalyticsValueCollector( createParams( DataType.NUMERIC ), 0 );
+
+        collector.processRow( mockRow( "deA", "201501", 1d, null ) );
+        collector.processRow( mockRow( "deA", "201502", 2d, null ) );
+        collector.processRow( mockRow( "deB", "201501", 3d, null ) );
+        collector.processRow( mockRow( "deA", "201501", 4d, null ) );
+
+        Map<String, Object> map = collector.getKeyValueMap();
+
+        assertEquals( 3, collector.size() );
+        assertEquals( 3, map.size() );
+        assertEquals( 4d, map.get( "deA-201501" ) );
+        assertEquals( 2d, map.get( "deA-201502" ) );
+        assertEquals( 3d, map.get( "deB-201501" ) );
+    }
+
+    @Test
+    void testCollectTextValues()
+        throws SQLException
+    {
+        AnalyticsValueCollector collector = new AnalyticsValueCollector( createParams( DataType.TEXT ), 0 );
+
+        collector.processRow( mockRow( "deA", "201501", 0d, "Male" ) );
+        collector.processRow( mockRow( "deA", "201502", 0d, "Female" ) );
+
+        Map<String, Object> map = collector.getKeyValueMap();
+
+        assertEquals( 2, map.size() );
+        assertEquals( "Male", map.get( "deA-201501" ) );
+        assertEquals( "Female", map.get( "deA-201502" ) );
+    }
+
+    @Test
+    void testCollectManyValues()
+        throws SQLException
+    {
+        AnalyticsValueCollector collector = new AnalyticsValueCollector( createParams( DataType.NUMERIC ), 0 );
+
+        for ( int i = 0; i < 1000; i++ )
+        {
+            collector.processRow( mockRow( "de" + (i % 50), "2015" + i, i, null ) );
+        }
+
+        Map<String, Object> map = collector.getKeyValueMap();
+
+        assertEquals( 1000, map.size() );
+        assertEquals( 721d, map.get( "de21-2015721" ) );
+    }
+
+    @Test
+    void testExceedsMaxLimit()
+        throws SQLException
+    {
+        AnalyticsValueCollector collector = new AnalyticsValueCollector( createParams( DataType.NUMERIC ), 2 );
+
+        collector.processRow( mockRow( "deA", "201501", 1d, null ) );
+        collector.processRow( mockRow( "deA", "201502", 2d, null ) );
+
+        ResultSet row = mockRow( "deA", "201503", 3d, null );
+
+        assertThrows( IllegalQueryException.class, () -> collector.processRow( row ) );
+    }
+
+    private DataQueryParams createParams( DataType dataType )
+    {
+        return DataQueryParams.newBuilder()
+            .withDataType( dataType )
+            .addDimension( new BaseDimensionalObject( DATA_X_DIM_ID, DimensionType.DATA_X,
+                getList( createDataElement( 'A' ) ) ) )
+            .addDimension( new BaseDimensionalObject( PERIOD_DIM_ID, DimensionType.PERIOD,
+                getList( createPeriod( "201501" ) ) ) )
+            .addFilter( new BaseDimensionalObject( ORGUNIT_DIM_ID, DimensionType.ORGANISATION_UNIT,
+                getList( createOrganisationUnit( 'A' ) ) ) )
+            .build();
+    }
+
+    private ResultSet mockRow( String dx, String pe, double value, String textValue )
+        throws SQLException
+    {
+        ResultSet rs = mock( ResultSet.class );
+
+        when( rs.getString( DATA_X_DIM_ID ) ).thenReturn( dx );
+        when( rs.getString( PERIOD_DIM_ID ) ).thenReturn( pe );
+
+        if ( textValue != null )
+        {
+            when( rs.getString( VALUE_ID ) ).thenReturn( textValue );
+        }
+        else
+        {
+            when( rs.getDouble( VALUE_ID ) ).thenReturn( value );
+        }
+
+        return rs;
+    }
+}
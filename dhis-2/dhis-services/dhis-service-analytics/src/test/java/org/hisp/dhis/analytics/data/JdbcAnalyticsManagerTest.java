@@ -35,8 +35,16 @@ import static org.hisp.dhis.common.DimensionalObject.DATA_X_DIM_ID;
 import static org.hisp.dhis.common.DimensionalObject.ORGUNIT_DIM_ID;
 import static org.hisp.dhis.common.DimensionalObject.PERIOD_DIM_ID;
 import static org.hisp.dhis.common.DimensionalObjectUtils.getList;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
 import org.hisp.dhis.analytics.AggregationType;
 import org.hisp.dhis.analytics.AnalyticsAggregationType;
 import org.hisp.dhis.analytics.AnalyticsTableType;
@@ -44,6 +52,7 @@ import org.hisp.dhis.analytics.DataQueryParams;
 import org.hisp.dhis.analytics.DataType;
 import org.hisp.dhis.analytics.QueryPlanner;
 import org.hisp.dhis.analytics.analyze.ExecutionPlanStore;
+import org.hisp.dhis.analytics.cache.AnalyticsFragmentCache;
 import org.hisp.dhis.analytics.partition.PartitionManager;
 import org.hisp.dhis.common.BaseDimensionalObject;
 import org.hisp.dhis.common.DimensionType;
@@ -58,10 +67,11 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.support.rowset.SqlRowSet;
 
 /**
  * @author Luciano Fiandesio
@@ -80,33 +90,42 @@ class JdbcAnalyticsManagerTest
     private JdbcTemplate jdbcTemplate;
 
     @Mock
-    private SqlRowSet rowSet;
+    private NestedIndicatorCyclicDependencyInspector nestedIndicatorCyclicDependencyInspector;
 
     @Mock
-    private NestedIndicatorCyclicDependencyInspector nestedIndicatorCyclicDependencyInspector;
+    private Connection connection;
+
+    @Mock
+    private Statement statement;
+
+    @Mock
+    private ResultSet resultSet;
 
     @Captor
     private ArgumentCaptor<String> sql;
 
+    @Captor
+    private ArgumentCaptor<ConnectionCallback<Void>> connectionCallback;
+
     private JdbcAnalyticsManager subject;
 
     @Mock
     private ExecutionPlanStore executionPlanStore;
 
+    @Mock
+    private AnalyticsFragmentCache fragmentCache;
+
     @BeforeEach
     public void setUp()
     {
         QueryPlanner queryPlanner = new DefaultQueryPlanner( partitionManager );
 
-        mockRowSet();
-
-        when( jdbcTemplate.queryForRowSet( sql.capture() ) ).thenReturn( rowSet );
-
-        subject = new JdbcAnalyticsManager( queryPlanner, jdbcTemplate, executionPlanStore );
+        subject = new JdbcAnalyticsManager( queryPlanner, jdbcTemplate, executionPlanStore, fragmentCache );
     }
 
     @Test
     void verifyQueryGeneratedWhenDataElementHasLastAggregationType()
+        throws SQLException
     {
         DataQueryParams params = createParams( AggregationType.LAST );
 
@@ -117,6 +136,7 @@ class JdbcAnalyticsManagerTest
 
     @Test
     void verifyQueryGeneratedWhenDataElementHasLastAvgOrgUnitAggregationType()
+        throws SQLException
     {
         DataQueryParams params = createParams( AggregationType.LAST_AVERAGE_ORG_UNIT );
 
@@ -127,6 +147,7 @@ class JdbcAnalyticsManagerTest
 
     @Test
     void verifyQueryGeneratedWhenDataElementHasLastInPeriodAggregationType()
+        throws SQLException
     {
         DataQueryParams params = createParams( AggregationType.LAST_IN_PERIOD );
 
@@ -137,6 +158,7 @@ class JdbcAnalyticsManagerTest
 
     @Test
     void verifyQueryGeneratedWhenDataElementHasLastInPeriodAvgOrgUnitAggregationType()
+        throws SQLException
     {
         DataQueryParams params = createParams( AggregationType.LAST_IN_PERIOD_AVERAGE_ORG_UNIT );
 
@@ -145,10 +167,40 @@ class JdbcAnalyticsManagerTest
         assertExpectedLastSql( "desc" );
     }
 
-    private void mockRowSet()
+    @Test
+    void verifyQueryStreamedWithAutoCommitOff()
+        throws SQLException
     {
-        // Simulate no rows
-        when( rowSet.next() ).thenReturn( false );
+        DataQueryParams params = createParams( AggregationType.SUM );
+
+        subject.getAggregatedDataValues( params, AnalyticsTableType.DATA_VALUE, 20000 );
+
+        executeQuery();
+
+        InOrder inOrder = inOrder( connection, statement );
+        inOrder.verify( connection ).setAutoCommit( false );
+        inOrder.verify( statement ).setFetchSize( 1000 );
+        inOrder.verify( statement ).executeQuery( any() );
+        inOrder.verify( connection ).rollback();
+        inOrder.verify( connection ).setAutoCommit( true );
+    }
+
+    /**
+     * Runs the connection callback passed to the JDBC template against a mock
+     * connection returning no rows, and captures the executed SQL.
+     */
+    private void executeQuery()
+        throws SQLException
+    {
+        when( jdbcTemplate.getFetchSize() ).thenReturn( 1000 );
+        when( connection.getAutoCommit() ).thenReturn( true );
+        when( connection.createStatement() ).thenReturn( statement );
+        when( statement.executeQuery( sql.capture() ) ).thenReturn( resultSet );
+        when( resultSet.next() ).thenReturn( false );
+
+        verify( jdbcTemplate ).execute( connectionCallback.capture() );
+
+        connectionCallback.getValue().doInConnection( connection );
     }
 
     private DataQueryParams createParams( AggregationType aggregationType )
@@ -167,7 +219,9 @@ class JdbcAnalyticsManagerTest
     }
 
     private void assertExpectedSql( String sortOrder )
+        throws SQLException
     {
+        executeQuery();
 
         String lastAggregationTypeSql = "(select \"year\",\"pestartdate\",\"peenddate\",\"oulevel\",\"daysxvalue\","
             + "\"daysno\",\"value\",\"textvalue\",\"dx\",cast('201501' as text) as \"pe\",\"ou\","
@@ -180,7 +234,9 @@ class JdbcAnalyticsManagerTest
     }
 
     private void assertExpectedLastSql( String sortOrder )
+        throws SQLException
     {
+        executeQuery();
 
         String lastAggregationTypeSql = "(select \"year\",\"pestartdate\",\"peenddate\",\"oulevel\",\"daysxvalue\","
             + "\"daysno\",\"value\",\"textvalue\",\"dx\",cast('201501' as text) as \"pe\",\"ou\","
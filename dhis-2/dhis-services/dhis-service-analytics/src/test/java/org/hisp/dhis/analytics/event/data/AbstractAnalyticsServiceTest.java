@@ -34,9 +34,15 @@ import static org.hamcrest.Matchers.hasSize;
 import static org.hisp.dhis.DhisConvenienceTest.createDataElement;
 import static org.hisp.dhis.DhisConvenienceTest.createOrganisationUnit;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.IOException;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.function.Consumer;
 
 import org.hisp.dhis.analytics.AggregationType;
 import org.hisp.dhis.analytics.AnalyticsSecurityManager;
@@ -49,6 +55,7 @@ import org.hisp.dhis.common.DimensionType;
 import org.hisp.dhis.common.DimensionalObject;
 import org.hisp.dhis.common.Grid;
 import org.hisp.dhis.common.GridHeader;
+import org.hisp.dhis.common.GridStreamWriter;
 import org.hisp.dhis.common.QueryItem;
 import org.hisp.dhis.common.ValueType;
 import org.hisp.dhis.dataelement.DataElement;
@@ -59,6 +66,7 @@ import org.hisp.dhis.system.grid.ListGrid;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.opengis.geometry.primitive.Point;
@@ -96,6 +104,9 @@ class AbstractAnalyticsServiceTest
     @Mock
     private SchemaIdResponseMapper schemaIdResponseMapper;
 
+    @Mock
+    private GridStreamWriter gridStreamWriter;
+
     @BeforeEach
     public void setUp()
     {
@@ -150,6 +161,44 @@ class AbstractAnalyticsServiceTest
         assertHeader( headers.get( 3 ), deC.getUid(), deC.getName(), ValueType.NUMBER, Double.class.getName() );
     }
 
+    @Test
+    @SuppressWarnings( "unchecked" )
+    void verifyStreamWritesSelectedColumnsOfEachRow()
+        throws IOException
+    {
+        // Given
+        DimensionalObject orgUnits = new BaseDimensionalObject( DimensionalObject.ORGUNIT_DIM_ID,
+            DimensionType.ORGANISATION_UNIT, "ouA", Lists.newArrayList( ouA ) );
+
+        QueryItem qiA = new QueryItem( deA, null, deA.getValueType(), deA.getAggregationType(), null );
+        QueryItem qiC = new QueryItem( deC, null, deC.getValueType(), deC.getAggregationType(), null );
+
+        EventQueryParams params = new EventQueryParams.Builder()
+            .addDimension( orgUnits )
+            .addItem( qiA ).addItem( qiC )
+            .withHeaders( new LinkedHashSet<>( Lists.newArrayList( deC.getUid(), "ou" ) ) )
+            .withSkipMeta( true )
+            .withApiVersion( DhisApiVersion.V33 )
+            .build();
+
+        when( securityManager.withUserConstraints( any( EventQueryParams.class ) ) ).thenReturn( params );
+
+        // When
+        dummyAnalyticsService.streamGrid( params, gridStreamWriter );
+
+        // Then
+        ArgumentCaptor<List<GridHeader>> headers = ArgumentCaptor.forClass( List.class );
+
+        verify( gridStreamWriter ).writeStart( headers.capture(), anyMap() );
+        assertThat( headers.getValue(), hasSize( 2 ) );
+        assertThat( headers.getValue().get( 0 ).getName(), is( deC.getUid() ) );
+        assertThat( headers.getValue().get( 1 ).getName(), is( "ou" ) );
+
+        verify( gridStreamWriter ).writeRow( Lists.<Object> newArrayList( 0, "ouA" ) );
+        verify( gridStreamWriter ).writeRow( Lists.<Object> newArrayList( 1, "ouA" ) );
+        verify( gridStreamWriter ).writeEnd( isNull() );
+    }
+
     private void assertHeader( GridHeader expected, String name, String column, ValueType valueType, String type )
     {
         assertThat( "Header name does not match", expected.getName(), is( name ) );
@@ -178,4 +227,17 @@ class DummyAnalyticsService extends AbstractAnalyticsService
     {
         return 0;
     }
+
+    @Override
+    protected void streamEventData( Grid grid, EventQueryParams params, Consumer<List<Object>> rowConsumer )
+    {
+        for ( int i = 0; i < 2; i++ )
+        {
+            grid.addRow().addValues( new Object[] { "ouA", "text", i } );
+
+            rowConsumer.accept( grid.getRow( grid.getHeight() - 1 ) );
+
+            grid.removeCurrentWriteRow();
+        }
+    }
 }
\ No newline at end of file
@@ -31,13 +31,22 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.sql.ResultSet;
+import java.sql.Timestamp;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
+import org.apache.commons.lang3.StringUtils;
 import org.hisp.dhis.analytics.AnalyticsTable;
 import org.hisp.dhis.analytics.AnalyticsTableHookService;
 import org.hisp.dhis.analytics.AnalyticsTableManager;
@@ -46,6 +55,7 @@ import org.hisp.dhis.analytics.AnalyticsTableUpdateParams;
 import org.hisp.dhis.analytics.partition.PartitionManager;
 import org.hisp.dhis.category.CategoryService;
 import org.hisp.dhis.common.IdentifiableObjectManager;
+import org.hisp.dhis.commons.collection.ListUtils;
 import org.hisp.dhis.dataapproval.DataApprovalLevelService;
 import org.hisp.dhis.jdbc.StatementBuilder;
 import org.hisp.dhis.organisationunit.OrganisationUnitService;
@@ -64,6 +74,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
@@ -82,6 +93,9 @@ class JdbcAnalyticsTableManagerTest
     @Mock
     private JdbcTemplate jdbcTemplate;
 
+    @Mock
+    private PartitionManager partitionManager;
+
     private AnalyticsTableManager subject;
 
     @BeforeEach
@@ -91,7 +105,7 @@ class JdbcAnalyticsTableManagerTest
             mock( OrganisationUnitService.class ),
             mock( CategoryService.class ), systemSettingManager, mock( DataApprovalLevelService.class ),
             mock( ResourceTableService.class ), mock( AnalyticsTableHookService.class ), mock( StatementBuilder.class ),
-            mock( PartitionManager.class ), mock( DatabaseInfo.class ), jdbcTemplate );
+            partitionManager, mock( DatabaseInfo.class ), jdbcTemplate );
     }
 
     @Test
@@ -187,4 +201,59 @@ class JdbcAnalyticsTableManagerTest
             .thenReturn( lastLatestPartitionUpdate );
         assertThrows( IllegalArgumentException.class, () -> subject.getAnalyticsTables( params ) );
     }
+
+    @Test
+    void testGetChangedPartitionsAnalyticsTable()
+        throws Exception
+    {
+        Date buildTime = new DateTime( 2019, 2, 1, 0, 0 ).toDate();
+        Date startTime = new DateTime( 2019, 3, 1, 10, 0 ).toDate();
+        List<Integer> dataYears = Lists.newArrayList( 2017, 2018, 2019 );
+
+        AnalyticsTableUpdateParams params = AnalyticsTableUpdateParams.newBuilder()
+            .withStartTime( startTime )
+            .withChangedPartitionsOnly( true )
+            .build();
+
+        when( jdbcTemplate.queryForList( Mockito.anyString(), ArgumentMatchers.<Class<Integer>> any() ) )
+            .thenReturn( dataYears );
+
+        AnalyticsTable fullTable = subject.getAnalyticsTables( AnalyticsTableUpdateParams.newBuilder()
+            .withStartTime( startTime ).build() ).get( 0 );
+
+        List<String> columns = ListUtils.union( fullTable.getDimensionColumns(), fullTable.getValueColumns() )
+            .stream()
+            .map( col -> StringUtils.remove( col.getName(), '"' ) )
+            .collect( Collectors.toList() );
+
+        when( partitionManager.tableExists( "analytics" ) ).thenReturn( true );
+        when( jdbcTemplate.queryForList( contains( "information_schema.columns" ), eq( String.class ) ) )
+            .thenReturn( columns );
+        when( jdbcTemplate.queryForObject( contains( "'analytics_2017'" ), eq( String.class ) ) )
+            .thenReturn( null );
+        when( jdbcTemplate.queryForObject( contains( "'analytics_2018'" ), eq( String.class ) ) )
+            .thenReturn( "2019-02-01T00:00:00" );
+        when( jdbcTemplate.queryForObject( contains( "'analytics_2019'" ), eq( String.class ) ) )
+            .thenReturn( "2019-02-01T00:00:00" );
+
+        ResultSet resultSet = mock( ResultSet.class );
+        when( resultSet.getInt( "year" ) ).thenReturn( 2019 );
+        when( resultSet.getTimestamp( "lastupdated" ) )
+            .thenReturn( new Timestamp( new DateTime( buildTime ).plusDays( 1 ).getMillis() ) );
+
+        doAnswer( invocation -> {
+            invocation.getArgument( 1, RowCallbackHandler.class ).processRow( resultSet );
+            return null;
+        } ).when( jdbcTemplate ).query( anyString(), any( RowCallbackHandler.class ) );
+
+        List<AnalyticsTable> tables = subject.getAnalyticsTables( params );
+
+        assertEquals( 1, tables.size() );
+
+        List<Integer> years = tables.get( 0 ).getTablePartitions().stream()
+            .map( AnalyticsTablePartition::getYear )
+            .collect( Collectors.toList() );
+
+        assertEquals( Lists.newArrayList( 2017, 2019 ), years );
+    }
 }
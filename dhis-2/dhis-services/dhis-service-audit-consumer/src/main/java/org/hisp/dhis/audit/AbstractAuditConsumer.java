@@ -28,11 +28,14 @@
 package org.hisp.dhis.audit;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 import javax.jms.TextMessage;
 
 import lombok.extern.slf4j.Slf4j;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 /**
@@ -54,24 +57,40 @@ public abstract class AbstractAuditConsumer
     {
         try
         {
-            org.hisp.dhis.artemis.audit.Audit auditMessage = objectMapper.readValue( message.getText(),
-                org.hisp.dhis.artemis.audit.Audit.class );
+            JsonNode messageNode = objectMapper.readTree( message.getText() );
 
-            if ( auditMessage.getData() != null && !(auditMessage.getData() instanceof String) )
+            List<org.hisp.dhis.audit.Audit> audits = new ArrayList<>();
+
+            if ( messageNode.has( "audits" ) )
             {
-                auditMessage.setData( objectMapper.writeValueAsString( auditMessage.getData() ) );
+                for ( JsonNode auditNode : messageNode.get( "audits" ) )
+                {
+                    audits.add( toAudit( auditNode ) );
+                }
+            }
+            else
+            {
+                audits.add( toAudit( messageNode ) );
             }
-
-            org.hisp.dhis.audit.Audit audit = auditMessage.toAudit();
 
             if ( isAuditLogEnabled )
             {
-                log.info( objectMapper.writeValueAsString( audit ) );
+                for ( org.hisp.dhis.audit.Audit audit : audits )
+                {
+                    log.info( objectMapper.writeValueAsString( audit ) );
+                }
             }
 
             if ( isAuditDatabaseEnabled )
             {
-                auditService.addAudit( audit );
+                if ( audits.size() == 1 )
+                {
+                    auditService.addAudit( audits.get( 0 ) );
+                }
+                else
+                {
+                    auditService.addAudits( audits );
+                }
             }
         }
         catch ( IOException e )
@@ -85,4 +104,18 @@ public abstract class AbstractAuditConsumer
             log.error( "An error occurred persisting an Audit message of type 'TRACKER'", e );
         }
     }
+
+    private org.hisp.dhis.audit.Audit toAudit( JsonNode auditNode )
+        throws IOException
+    {
+        org.hisp.dhis.artemis.audit.Audit auditMessage = objectMapper.treeToValue( auditNode,
+            org.hisp.dhis.artemis.audit.Audit.class );
+
+        if ( auditMessage.getData() != null && !(auditMessage.getData() instanceof String) )
+        {
+            auditMessage.setData( objectMapper.writeValueAsString( auditMessage.getData() ) );
+        }
+
+        return auditMessage.toAudit();
+    }
 }
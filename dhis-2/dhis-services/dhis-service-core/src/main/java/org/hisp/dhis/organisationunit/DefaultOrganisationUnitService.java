@@ -101,10 +101,13 @@ public class DefaultOrganisationUnitService
 
     private final UserSettingService userSettingService;
 
+    private final OrganisationUnitHierarchyIndexProvider hierarchyIndexProvider;
+
     public DefaultOrganisationUnitService( OrganisationUnitStore organisationUnitStore,
         IdentifiableObjectManager idObjectManager, OrganisationUnitLevelStore organisationUnitLevelStore,
         CurrentUserService currentUserService, ConfigurationService configurationService,
-        UserSettingService userSettingService, CacheProvider cacheProvider )
+        UserSettingService userSettingService, CacheProvider cacheProvider,
+        OrganisationUnitHierarchyIndexProvider hierarchyIndexProvider )
     {
         checkNotNull( organisationUnitStore );
         checkNotNull( idObjectManager );
@@ -113,6 +116,7 @@ public class DefaultOrganisationUnitService
         checkNotNull( configurationService );
         checkNotNull( userSettingService );
         checkNotNull( cacheProvider );
+        checkNotNull( hierarchyIndexProvider );
 
         this.organisationUnitStore = organisationUnitStore;
         this.idObjectManager = idObjectManager;
@@ -120,6 +124,7 @@ public class DefaultOrganisationUnitService
         this.currentUserService = currentUserService;
         this.configurationService = configurationService;
         this.userSettingService = userSettingService;
+        this.hierarchyIndexProvider = hierarchyIndexProvider;
         this.inUserOrgUnitHierarchyCache = cacheProvider.createInUserOrgUnitHierarchyCache();
         this.inUserOrgUnitSearchHierarchyCache = cacheProvider.createInUserSearchOrgUnitHierarchyCache();
         this.userCaptureOrgCountThresholdCache = cacheProvider.createUserCaptureOrgUnitThresholdCache();
@@ -492,7 +497,7 @@ public class DefaultOrganisationUnitService
             return false;
         }
 
-        return organisationUnit.isDescendant( user.getOrganisationUnits() );
+        return isDescendant( organisationUnit, user.getOrganisationUnits() );
     }
 
     @Override
@@ -519,7 +524,7 @@ public class DefaultOrganisationUnitService
             return false;
         }
 
-        return organisationUnit.isDescendant( user.getDataViewOrganisationUnitsWithFallback() );
+        return isDescendant( organisationUnit, user.getDataViewOrganisationUnitsWithFallback() );
     }
 
     @Override
@@ -566,13 +571,23 @@ public class DefaultOrganisationUnitService
             return false;
         }
 
-        return organisationUnit.isDescendant( user.getTeiSearchOrganisationUnitsWithFallback() );
+        return isDescendant( organisationUnit, user.getTeiSearchOrganisationUnitsWithFallback() );
     }
 
     @Override
     @Transactional( readOnly = true )
     public boolean isInUserHierarchy( String uid, Set<OrganisationUnit> organisationUnits )
     {
+        if ( hierarchyIndexProvider.isEnabled() )
+        {
+            OrganisationUnitHierarchyIndex index = hierarchyIndexProvider.getIndex();
+
+            if ( isIndexed( index, uid, organisationUnits ) )
+            {
+                return isDescendant( index, uid, organisationUnits );
+            }
+        }
+
         OrganisationUnit organisationUnit = organisationUnitStore.getByUid( uid );
 
         return organisationUnit != null && organisationUnit.isDescendant( organisationUnits );
@@ -985,4 +1000,45 @@ public class DefaultOrganisationUnitService
 
         return new ArrayList<>();
     }
+
+    /**
+     * Indicates whether the given organisation unit is equal to or a
+     * descendant of any of the given ancestors. The hierarchy index is used
+     * when enabled and when the unit and all ancestors are part of it, which
+     * avoids walking and lazily loading the parent graph.
+     */
+    private boolean isDescendant( OrganisationUnit organisationUnit, Set<OrganisationUnit> ancestors )
+    {
+        if ( hierarchyIndexProvider.isEnabled() )
+        {
+            OrganisationUnitHierarchyIndex index = hierarchyIndexProvider.getIndex();
+
+            if ( isIndexed( index, organisationUnit.getUid(), ancestors ) )
+            {
+                return isDescendant( index, organisationUnit.getUid(), ancestors );
+            }
+        }
+
+        return organisationUnit.isDescendant( ancestors );
+    }
+
+    private boolean isDescendant( OrganisationUnitHierarchyIndex index, String uid,
+        Set<OrganisationUnit> ancestors )
+    {
+        for ( OrganisationUnit ancestor : ancestors )
+        {
+            if ( index.isDescendant( uid, ancestor.getUid() ) )
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private boolean isIndexed( OrganisationUnitHierarchyIndex index, String uid, Set<OrganisationUnit> ancestors )
+    {
+        return ancestors != null && index.contains( uid )
+            && ancestors.stream().allMatch( ancestor -> ancestor != null && index.contains( ancestor.getUid() ) );
+    }
 }
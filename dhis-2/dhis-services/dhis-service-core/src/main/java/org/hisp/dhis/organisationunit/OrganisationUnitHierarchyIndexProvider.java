@@ -0,0 +1,249 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.organisationunit;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.hisp.dhis.external.conf.ConfigurationKey.DEBEZIUM_ENABLED;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.hisp.dhis.common.event.ApplicationCacheClearedEvent;
+import org.hisp.dhis.common.event.ExternalEntityChangedEvent;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Holds the shared {@link OrganisationUnitHierarchyIndex}. The index is loaded
+ * on first access. Changes to organisation units are registered by the
+ * Hibernate post-commit listeners and applied in bulk on the next access, so
+ * that a batch of changes such as a metadata import results in a single
+ * rebuild of the in-memory index rather than one per changed unit. The index
+ * is loaded in a separate transaction so that it only reflects committed
+ * organisation units.
+ * <p>
+ * The index is discarded when the application caches are cleared and when
+ * organisation units are changed on another instance in a cluster, as reported
+ * by the cache invalidation service. In a cluster without cache invalidation,
+ * changes committed on other instances are not reported and the index is
+ * disabled, so that hierarchy checks read the organisation units instead. The
+ * index is in any case reloaded from the database once it is older than the
+ * expiry of the user organisation unit hierarchy caches.
+ */
+@Slf4j
+@Component
+public class OrganisationUnitHierarchyIndexProvider
+{
+    private static final long MAX_AGE_MILLIS = TimeUnit.HOURS.toMillis( 1 );
+
+    /**
+     * Marker path for units which were removed, as the pending change map does
+     * not allow null values.
+     */
+    private static final String REMOVED = "";
+
+    private final OrganisationUnitStore organisationUnitStore;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean enabled;
+
+    private final Map<String, String> pendingChanges = new ConcurrentHashMap<>();
+
+    private volatile OrganisationUnitHierarchyIndex index;
+
+    private volatile long loaded;
+
+    public OrganisationUnitHierarchyIndexProvider( OrganisationUnitStore organisationUnitStore,
+        PlatformTransactionManager transactionManager, DhisConfigurationProvider config )
+    {
+        checkNotNull( organisationUnitStore );
+        checkNotNull( transactionManager );
+        checkNotNull( config );
+
+        this.organisationUnitStore = organisationUnitStore;
+        this.transactionTemplate = new TransactionTemplate( transactionManager );
+        this.transactionTemplate.setPropagationBehavior( TransactionDefinition.PROPAGATION_REQUIRES_NEW );
+        this.transactionTemplate.setReadOnly( true );
+        this.enabled = !config.isClusterEnabled() || config.isEnabled( DEBEZIUM_ENABLED );
+    }
+
+    /**
+     * Indicates whether the index is kept up to date with committed changes
+     * and may be used for hierarchy checks. This is not the case in a cluster
+     * without cache invalidation.
+     */
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * Returns the current {@link OrganisationUnitHierarchyIndex}, loading it or
+     * applying pending changes first if required.
+     */
+    public OrganisationUnitHierarchyIndex getIndex()
+    {
+        OrganisationUnitHierarchyIndex current = index;
+
+        if ( current != null && pendingChanges.isEmpty() && !isExpired() )
+        {
+            return current;
+        }
+
+        synchronized ( this )
+        {
+            if ( index == null || isExpired() )
+            {
+                // Changes committed while loading are applied again, which
+                // is harmless as changes are idempotent
+
+                pendingChanges.clear();
+                loadIndex();
+            }
+            else if ( !pendingChanges.isEmpty() )
+            {
+                applyPendingChanges();
+            }
+
+            return index;
+        }
+    }
+
+    /**
+     * Registers an added or updated organisation unit.
+     *
+     * @param uid the organisation unit UID.
+     * @param path the organisation unit path.
+     */
+    public void registerChange( String uid, String path )
+    {
+        if ( uid != null )
+        {
+            pendingChanges.put( uid, path != null ? path : REMOVED );
+        }
+    }
+
+    /**
+     * Registers a removed organisation unit.
+     *
+     * @param uid the organisation unit UID.
+     */
+    public void registerRemoval( String uid )
+    {
+        if ( uid != null )
+        {
+            pendingChanges.put( uid, REMOVED );
+        }
+    }
+
+    /**
+     * Discards the current index, which is loaded again on next access.
+     */
+    public void invalidate()
+    {
+        synchronized ( this )
+        {
+            index = null;
+            pendingChanges.clear();
+        }
+    }
+
+    @EventListener
+    public void handleApplicationCachesCleared( ApplicationCacheClearedEvent event )
+    {
+        invalidate();
+    }
+
+    @EventListener
+    public void handleExternalEntityChanged( ExternalEntityChangedEvent event )
+    {
+        if ( OrganisationUnit.class.equals( event.getEntityClass() ) )
+        {
+            invalidate();
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private boolean isExpired()
+    {
+        return System.currentTimeMillis() - loaded > MAX_AGE_MILLIS;
+    }
+
+    private void loadIndex()
+    {
+        long time = System.currentTimeMillis();
+
+        Map<String, String> paths = transactionTemplate.execute( status -> organisationUnitStore
+            .getOrganisationUnitPaths() );
+
+        index = OrganisationUnitHierarchyIndex.fromPaths( paths );
+        loaded = System.currentTimeMillis();
+
+        log.info( "Loaded organisation unit hierarchy index with {} units in {} ms",
+            index.size(), loaded - time );
+    }
+
+    private void applyPendingChanges()
+    {
+        Map<String, String> changedPaths = new HashMap<>();
+        List<String> removedUids = new ArrayList<>();
+
+        for ( String uid : pendingChanges.keySet() )
+        {
+            String path = pendingChanges.remove( uid );
+
+            if ( REMOVED.equals( path ) )
+            {
+                removedUids.add( uid );
+            }
+            else if ( path != null )
+            {
+                changedPaths.put( uid, path );
+            }
+        }
+
+        index = index.withChanges( changedPaths, removedUids );
+
+        log.debug( "Applied {} changed and {} removed units to organisation unit hierarchy index",
+            changedPaths.size(), removedUids.size() );
+    }
+}
@@ -332,6 +332,20 @@ public class HibernateOrganisationUnitStore
     // OrganisationUnitHierarchy
     // -------------------------------------------------------------------------
 
+    @Override
+    public Map<String, String> getOrganisationUnitPaths()
+    {
+        String sql = "select ou.uid, ou.path from organisationunit ou";
+
+        Map<String, String> map = new HashMap<>();
+
+        jdbcTemplate.query( sql, rs -> {
+            map.put( rs.getString( "uid" ), rs.getString( "path" ) );
+        } );
+
+        return map;
+    }
+
     @Override
     public void updatePaths()
     {
@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.jdbc.batchhandler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hisp.dhis.IntegrationTestBase;
+import org.hisp.dhis.category.CategoryOptionCombo;
+import org.hisp.dhis.category.CategoryService;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.dataelement.DataElementService;
+import org.hisp.dhis.datavalue.DataExportParams;
+import org.hisp.dhis.datavalue.DataValue;
+import org.hisp.dhis.datavalue.DataValueService;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.organisationunit.OrganisationUnitService;
+import org.hisp.dhis.period.MonthlyPeriodType;
+import org.hisp.dhis.period.Period;
+import org.hisp.dhis.period.PeriodService;
+import org.hisp.dhis.period.PeriodType;
+import org.hisp.quick.BatchHandlerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import com.google.common.collect.Sets;
+
+/**
+ * Tests the COPY path of the {@link CopyBatchHandler} against PostgreSQL.
+ */
+class CopyBatchHandlerTest extends IntegrationTestBase
+{
+    private static final int MAX_ROWS = 5;
+
+    @Autowired
+    private BatchHandlerFactory batchHandlerFactory;
+
+    @Autowired
+    private DataValueService dataValueService;
+
+    @Autowired
+    private DataElementService dataElementService;
+
+    @Autowired
+    private PeriodService periodService;
+
+    @Autowired
+    private OrganisationUnitService organisationUnitService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    private DataElement dataElementA;
+
+    private CategoryOptionCombo categoryOptionComboA;
+
+    private List<Period> periods;
+
+    private OrganisationUnit unitA;
+
+    private OrganisationUnit unitB;
+
+    @Override
+    public void setUpTest()
+    {
+        dataElementA = createDataElement( 'A' );
+        dataElementService.addDataElement( dataElementA );
+        categoryOptionComboA = categoryService.getDefaultCategoryOptionCombo();
+        PeriodType periodType = PeriodType.getPeriodTypeByName( MonthlyPeriodType.NAME );
+        periods = new ArrayList<>();
+
+        for ( int month = 1; month <= 12; month++ )
+        {
+            Period period = periodType.createPeriod( getDate( 2000, month, 1 ) );
+            periodService.addPeriod( period );
+            periods.add( period );
+        }
+
+        unitA = createOrganisationUnit( 'A' );
+        unitB = createOrganisationUnit( 'B' );
+        organisationUnitService.addOrganisationUnit( unitA );
+        organisationUnitService.addOrganisationUnit( unitB );
+    }
+
+    @Test
+    void testAddObjectCopiesRowsInSeveralBatches()
+    {
+        CopyBatchHandler<DataValue> batchHandler = createCopyBatchHandler();
+        assertTrue( batchHandler.isCopy() );
+
+        for ( Period period : periods )
+        {
+            assertTrue( batchHandler.addObject( createDataValue( period, unitA, "1" ) ) );
+            assertTrue( batchHandler.addObject( createDataValue( period, unitB, "2" ) ) );
+        }
+
+        batchHandler.flush();
+
+        assertEquals( 24, batchHandler.getAddObjectCount() );
+        assertEquals( 24, getDataValues().size() );
+    }
+
+    @Test
+    void testAddObjectSkipsDuplicateWithinBatch()
+    {
+        CopyBatchHandler<DataValue> batchHandler = createCopyBatchHandler();
+
+        assertTrue( batchHandler.addObject( createDataValue( periods.get( 0 ), unitA, "1" ) ) );
+        assertFalse( batchHandler.addObject( createDataValue( periods.get( 0 ), unitA, "2" ) ) );
+
+        batchHandler.flush();
+
+        List<DataValue> values = getDataValues();
+        assertEquals( 1, values.size() );
+        assertEquals( "1", values.get( 0 ).getValue() );
+    }
+
+    @Test
+    void testAddObjectUpdatesDuplicateFromEarlierBatch()
+    {
+        CopyBatchHandler<DataValue> batchHandler = createCopyBatchHandler();
+
+        for ( int i = 0; i < MAX_ROWS; i++ )
+        {
+            batchHandler.addObject( createDataValue( periods.get( i ), unitA, "1" ) );
+        }
+
+        assertTrue( batchHandler.addObject( createDataValue( periods.get( 0 ), unitA, "2" ) ) );
+
+        batchHandler.flush();
+
+        List<DataValue> values = getDataValues();
+        assertEquals( MAX_ROWS, values.size() );
+        assertEquals( "2", getDataValue( periods.get( 0 ) ).getValue() );
+    }
+
+    @Test
+    void testAddObjectEscapesText()
+    {
+        CopyBatchHandler<DataValue> batchHandler = createCopyBatchHandler();
+        DataValue dataValue = createDataValue( periods.get( 0 ), unitA, "1" );
+        dataValue.setComment( "Tab\tnew line\nback slash\\ \\N" );
+
+        batchHandler.addObject( dataValue );
+        batchHandler.flush();
+
+        assertEquals( "Tab\tnew line\nback slash\\ \\N",
+            getDataValue( periods.get( 0 ) ).getComment() );
+    }
+
+    @Test
+    void testFlushThrowsDataAccessExceptionAndRollsBack()
+    {
+        CopyBatchHandler<DataValue> batchHandler = createCopyBatchHandler();
+        Period unsavedPeriod = PeriodType.getPeriodTypeByName( MonthlyPeriodType.NAME )
+            .createPeriod( getDate( 2001, 1, 1 ) );
+
+        batchHandler.addObject( createDataValue( periods.get( 0 ), unitA, "1" ) );
+        batchHandler.addObject( createDataValue( unsavedPeriod, unitA, "1" ) );
+
+        assertThrows( DataIntegrityViolationException.class, batchHandler::flush );
+        assertTrue( getDataValues().isEmpty() );
+
+        batchHandler.addObject( createDataValue( periods.get( 1 ), unitA, "1" ) );
+        batchHandler.flush();
+
+        assertEquals( 1, getDataValues().size() );
+    }
+
+    private CopyBatchHandler<DataValue> createCopyBatchHandler()
+    {
+        CopyBatchHandler<DataValue> batchHandler = new CopyBatchHandler<>(
+            (DataValueBatchHandler) batchHandlerFactory.createBatchHandler( DataValueBatchHandler.class ), MAX_ROWS );
+        batchHandler.init();
+        return batchHandler;
+    }
+
+    private DataValue createDataValue( Period period, OrganisationUnit unit, String value )
+    {
+        return createDataValue( dataElementA, period, unit, categoryOptionComboA, categoryOptionComboA, value );
+    }
+
+    private DataValue getDataValue( Period period )
+    {
+        return dataValueService.getDataValue( dataElementA, period, unitA, categoryOptionComboA );
+    }
+
+    private List<DataValue> getDataValues()
+    {
+        return dataValueService.getDataValues( new DataExportParams()
+            .setDataElements( Sets.newHashSet( dataElementA ) ).setPeriods( Sets.newHashSet( periods ) )
+            .setOrganisationUnits( Sets.newHashSet( unitA, unitB ) ) );
+    }
+}
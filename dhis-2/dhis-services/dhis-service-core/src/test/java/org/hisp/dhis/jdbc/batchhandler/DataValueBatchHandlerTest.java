@@ -55,6 +55,7 @@ import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 
 /**
@@ -202,6 +203,25 @@ class DataValueBatchHandlerTest extends DhisTest
         assertTrue( values.contains( dataValueD ) );
     }
 
+    @Test
+    void testAddObjectCopyBatchHandlerFallback()
+    {
+        CopyBatchHandler<DataValue> copyBatchHandler = new CopyBatchHandler<>(
+            (DataValueBatchHandler) batchHandlerFactory.createBatchHandler( DataValueBatchHandler.class ) );
+        copyBatchHandler.init();
+        assertFalse( copyBatchHandler.isCopy() );
+        copyBatchHandler.addObject( dataValueA );
+        copyBatchHandler.addObject( dataValueB );
+        copyBatchHandler.addObject( dataValueE );
+        copyBatchHandler.flush();
+        List<DataValue> values = dataValueService.getDataValues( new DataExportParams()
+            .setDataElements( Sets.newHashSet( dataElementA ) ).setPeriods( Sets.newHashSet( periodA, periodB ) )
+            .setOrganisationUnits( Sets.newHashSet( unitA, unitB ) ) );
+        assertEquals( 2, values.size() );
+        assertTrue( values.contains( dataValueA ) );
+        assertTrue( values.contains( dataValueB ) );
+    }
+
     @Test
     void testFindObject()
     {
@@ -219,6 +239,21 @@ class DataValueBatchHandlerTest extends DhisTest
         assertNull( retrievedDataValueB );
     }
 
+    @Test
+    void testFindObjects()
+    {
+        dataValueService.addDataValue( dataValueA );
+        dataValueService.addDataValue( dataValueC );
+        List<DataValue> retrievedDataValues = ((DataValueBatchHandler) batchHandler)
+            .findObjects( Lists.newArrayList( dataValueA, dataValueB, dataValueC, dataValueD ) );
+        assertEquals( 4, retrievedDataValues.size() );
+        assertEquals( dataValueA.getValue(), retrievedDataValues.get( 0 ).getValue() );
+        assertEquals( dataValueA.getStoredBy(), retrievedDataValues.get( 0 ).getStoredBy() );
+        assertNull( retrievedDataValues.get( 1 ) );
+        assertEquals( dataValueC.getValue(), retrievedDataValues.get( 2 ).getValue() );
+        assertNull( retrievedDataValues.get( 3 ) );
+    }
+
     @Test
     void testObjectExists()
     {
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.organisationunit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Map;
+
+import org.hisp.dhis.common.event.ApplicationCacheClearedEvent;
+import org.hisp.dhis.common.event.ExternalEntityChangedEvent;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith( MockitoExtension.class )
+class OrganisationUnitHierarchyIndexProviderTest
+{
+    @Mock
+    private OrganisationUnitStore organisationUnitStore;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private DhisConfigurationProvider config;
+
+    private OrganisationUnitHierarchyIndexProvider provider;
+
+    @BeforeEach
+    void setUp()
+    {
+        provider = new OrganisationUnitHierarchyIndexProvider( organisationUnitStore, transactionManager, config );
+    }
+
+    @Test
+    void testIndexIsLoadedOnce()
+    {
+        when( organisationUnitStore.getOrganisationUnitPaths() ).thenReturn( Map.of( "A", "/A", "B", "/A/B" ) );
+
+        OrganisationUnitHierarchyIndex index = provider.getIndex();
+
+        assertTrue( index.isDescendant( "B", "A" ) );
+        assertSame( index, provider.getIndex() );
+        verify( organisationUnitStore, times( 1 ) ).getOrganisationUnitPaths();
+    }
+
+    @Test
+    void testPendingChangesAreApplied()
+    {
+        when( organisationUnitStore.getOrganisationUnitPaths() ).thenReturn( Map.of( "A", "/A", "B", "/A/B" ) );
+
+        provider.getIndex();
+        provider.registerChange( "C", "/A/B/C" );
+        provider.registerRemoval( "B" );
+
+        OrganisationUnitHierarchyIndex index = provider.getIndex();
+
+        assertTrue( index.isDescendant( "C", "A" ) );
+        assertFalse( index.contains( "B" ) );
+        verify( organisationUnitStore, times( 1 ) ).getOrganisationUnitPaths();
+    }
+
+    @Test
+    void testIndexIsReloadedWhenCachesAreCleared()
+    {
+        when( organisationUnitStore.getOrganisationUnitPaths() ).thenReturn( Map.of( "A", "/A" ),
+            Map.of( "A", "/A", "B", "/A/B" ) );
+
+        OrganisationUnitHierarchyIndex index = provider.getIndex();
+
+        provider.handleApplicationCachesCleared( new ApplicationCacheClearedEvent() );
+
+        assertNotSame( index, provider.getIndex() );
+        assertTrue( provider.getIndex().isDescendant( "B", "A" ) );
+        verify( organisationUnitStore, times( 2 ) ).getOrganisationUnitPaths();
+    }
+
+    @Test
+    void testIndexIsReloadedOnExternalOrganisationUnitChange()
+    {
+        when( organisationUnitStore.getOrganisationUnitPaths() ).thenReturn( Map.of( "A", "/A" ),
+            Map.of( "A", "/A", "B", "/A/B" ) );
+
+        OrganisationUnitHierarchyIndex index = provider.getIndex();
+
+        provider.handleExternalEntityChanged( new ExternalEntityChangedEvent( this, DataElement.class ) );
+
+        assertSame( index, provider.getIndex() );
+
+        provider.handleExternalEntityChanged( new ExternalEntityChangedEvent( this, OrganisationUnit.class ) );
+
+        assertTrue( provider.getIndex().isDescendant( "B", "A" ) );
+        verify( organisationUnitStore, times( 2 ) ).getOrganisationUnitPaths();
+    }
+
+    @Test
+    void testEnabled()
+    {
+        assertTrue( provider.isEnabled() );
+
+        when( config.isClusterEnabled() ).thenReturn( true );
+        when( config.isEnabled( ConfigurationKey.DEBEZIUM_ENABLED ) ).thenReturn( false );
+
+        assertFalse( new OrganisationUnitHierarchyIndexProvider( organisationUnitStore, transactionManager, config )
+            .isEnabled() );
+
+        when( config.isEnabled( ConfigurationKey.DEBEZIUM_ENABLED ) ).thenReturn( true );
+
+        assertTrue( new OrganisationUnitHierarchyIndexProvider( organisationUnitStore, transactionManager, config )
+            .isEnabled() );
+    }
+}
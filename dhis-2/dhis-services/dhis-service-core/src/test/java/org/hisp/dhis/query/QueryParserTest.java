@@ -41,6 +41,7 @@ import org.hisp.dhis.dataelement.DataElement;
 import org.hisp.dhis.mock.MockCurrentUserService;
 import org.hisp.dhis.organisationunit.DefaultOrganisationUnitService;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.organisationunit.OrganisationUnitHierarchyIndexProvider;
 import org.hisp.dhis.organisationunit.OrganisationUnitLevelStore;
 import org.hisp.dhis.organisationunit.OrganisationUnitService;
 import org.hisp.dhis.organisationunit.OrganisationUnitStore;
@@ -84,6 +85,9 @@ class QueryParserTest extends IntegrationTestBase
     @Autowired
     private CacheProvider cacheProvider;
 
+    @Autowired
+    private OrganisationUnitHierarchyIndexProvider hierarchyIndexProvider;
+
     @Override
     public boolean emptyDatabaseAfterTest()
     {
@@ -99,7 +103,8 @@ class QueryParserTest extends IntegrationTestBase
         user.addOrganisationUnit( orgUnitA );
         CurrentUserService currentUserService = new MockCurrentUserService( user );
         this.organisationUnitService = new DefaultOrganisationUnitService( organisationUnitStore, idObjectManager,
-            organisationUnitLevelStore, currentUserService, configurationService, userSettingService, cacheProvider );
+            organisationUnitLevelStore, currentUserService, configurationService, userSettingService, cacheProvider,
+            hierarchyIndexProvider );
         organisationUnitService.addOrganisationUnit( orgUnitA );
         idObjectManager.save( orgUnitA );
         queryParser = new DefaultJpaQueryParser( schemaService );
@@ -114,6 +114,24 @@ public class ImportOptions
      */
     private boolean skipCache = false;
 
+    /**
+     * If true, data values are parsed on a separate thread ahead of validation
+     * and writing.
+     */
+    private boolean pipelined;
+
+    /**
+     * If true, events are imported with a work context per batch, where the
+     * context of the next batch is loaded while the current one is written.
+     */
+    private boolean pipelinedEvents;
+
+    /**
+     * If true, data values, audits and complete data set registrations are
+     * written through PostgreSQL COPY. Has no effect on other databases.
+     */
+    private boolean copyWrite;
+
     // --------------------------------------------------------------------------
     // Constructors
     // --------------------------------------------------------------------------
@@ -157,6 +175,9 @@ public class ImportOptions
         options.skipLastUpdated = this.skipLastUpdated;
         options.skipCache = this.skipCache;
         options.mergeDataValues = this.mergeDataValues;
+        options.pipelined = this.pipelined;
+        options.pipelinedEvents = this.pipelinedEvents;
+        options.copyWrite = this.copyWrite;
 
         return options;
     }
@@ -394,6 +415,27 @@ public class ImportOptions
         return firstRowIsHeader;
     }
 
+    @JsonProperty
+    @JacksonXmlProperty( namespace = DxfNamespaces.DXF_2_0 )
+    public boolean isPipelined()
+    {
+        return pipelined;
+    }
+
+    @JsonProperty
+    @JacksonXmlProperty( namespace = DxfNamespaces.DXF_2_0 )
+    public boolean isPipelinedEvents()
+    {
+        return pipelinedEvents;
+    }
+
+    @JsonProperty
+    @JacksonXmlProperty( namespace = DxfNamespaces.DXF_2_0 )
+    public boolean isCopyWrite()
+    {
+        return copyWrite;
+    }
+
     @JsonProperty
     @JacksonXmlProperty( namespace = DxfNamespaces.DXF_2_0 )
     public boolean isSkipLastUpdated()
@@ -634,6 +676,24 @@ public class ImportOptions
         return this;
     }
 
+    public ImportOptions setPipelined( boolean pipelined )
+    {
+        this.pipelined = pipelined;
+        return this;
+    }
+
+    public ImportOptions setPipelinedEvents( boolean pipelinedEvents )
+    {
+        this.pipelinedEvents = pipelinedEvents;
+        return this;
+    }
+
+    public ImportOptions setCopyWrite( boolean copyWrite )
+    {
+        this.copyWrite = copyWrite;
+        return this;
+    }
+
     public ImportOptions setSkipLastUpdated( boolean skipLastUpdated )
     {
         this.skipLastUpdated = skipLastUpdated;
@@ -677,6 +737,9 @@ public class ImportOptions
             .add( "skipLastUpdated", skipLastUpdated )
             .add( "skipCache", skipCache )
             .add( "skipDataValueMandatoryValidationCheck", mergeDataValues )
+            .add( "pipelined", pipelined )
+            .add( "pipelinedEvents", pipelinedEvents )
+            .add( "copyWrite", copyWrite )
             .toString();
     }
 }
@@ -72,6 +72,7 @@ import org.hisp.dhis.i18n.I18n;
 import org.hisp.dhis.i18n.I18nManager;
 import org.hisp.dhis.importexport.ImportStrategy;
 import org.hisp.dhis.jdbc.batchhandler.CompleteDataSetRegistrationBatchHandler;
+import org.hisp.dhis.jdbc.batchhandler.CopyBatchHandler;
 import org.hisp.dhis.message.MessageService;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.organisationunit.OrganisationUnitGroup;
@@ -90,6 +91,7 @@ import org.hisp.dhis.user.User;
 import org.hisp.dhis.util.DateUtils;
 import org.hisp.quick.BatchHandler;
 import org.hisp.quick.BatchHandlerFactory;
+import org.hisp.quick.batchhandler.AbstractBatchHandler;
 import org.hisp.staxwax.factory.XMLFactory;
 import org.springframework.stereotype.Service;
 
@@ -509,7 +511,11 @@ public class DefaultCompleteDataSetRegistrationExchangeService
         final I18n i18n = i18nManager.getI18n();
 
         BatchHandler<CompleteDataSetRegistration> batchHandler = batchHandlerFactory
-            .createBatchHandler( CompleteDataSetRegistrationBatchHandler.class ).init();
+            .createBatchHandler( CompleteDataSetRegistrationBatchHandler.class );
+
+        batchHandler = config.isCopyWrite() && batchHandler instanceof AbstractBatchHandler
+            ? new CopyBatchHandler<>( (AbstractBatchHandler<CompleteDataSetRegistration>) batchHandler ).init()
+            : batchHandler.init();
 
         int importCount = 0, updateCount = 0, deleteCount = 0, totalCount = 0;
 
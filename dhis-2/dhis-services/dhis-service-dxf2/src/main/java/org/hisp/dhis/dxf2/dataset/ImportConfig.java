@@ -70,6 +70,8 @@ final class ImportConfig
 
     private final boolean skipNotifications;
 
+    private final boolean copyWrite;
+
     private final CategoryOptionCombo fallbackCatOptCombo;
 
     ImportConfig( SystemSettingManager systemSettingManager, CategoryService categoryService,
@@ -97,6 +99,8 @@ final class ImportConfig
 
         skipExistingCheck = options.isSkipExistingCheck();
 
+        copyWrite = options.isCopyWrite();
+
         strictPeriods = options.isStrictPeriods()
             || systemSettingManager.getBoolSetting( SettingKey.DATA_IMPORT_STRICT_PERIODS );
 
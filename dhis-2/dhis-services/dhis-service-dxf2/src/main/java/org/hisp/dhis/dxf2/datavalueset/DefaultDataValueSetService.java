@@ -42,13 +42,17 @@ import java.io.OutputStream;
 import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.Callable;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import org.apache.commons.lang3.BooleanUtils;
@@ -87,6 +91,7 @@ import org.hisp.dhis.fileresource.FileResource;
 import org.hisp.dhis.fileresource.FileResourceService;
 import org.hisp.dhis.i18n.I18nManager;
 import org.hisp.dhis.importexport.ImportStrategy;
+import org.hisp.dhis.jdbc.batchhandler.CopyBatchHandler;
 import org.hisp.dhis.jdbc.batchhandler.DataValueAuditBatchHandler;
 import org.hisp.dhis.jdbc.batchhandler.DataValueBatchHandler;
 import org.hisp.dhis.node.types.CollectionNode;
@@ -117,7 +122,9 @@ import org.hisp.dhis.user.CurrentUserServiceTarget;
 import org.hisp.dhis.user.User;
 import org.hisp.dhis.util.DateUtils;
 import org.hisp.dhis.util.ObjectUtils;
+import org.hisp.quick.BatchHandler;
 import org.hisp.quick.BatchHandlerFactory;
+import org.hisp.quick.batchhandler.AbstractBatchHandler;
 import org.hisp.staxwax.factory.XMLFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -140,6 +147,8 @@ public class DefaultDataValueSetService
 
     private static final int CACHE_MISS_THRESHOLD = 250;
 
+    private static final int EXISTING_VALUE_CHUNK_SIZE = 500;
+
     private final IdentifiableObjectManager identifiableObjectManager;
 
     private final CategoryService categoryService;
@@ -629,7 +638,9 @@ public class DefaultDataValueSetService
     private ImportSummary importDataValueSet( ImportOptions options, JobConfiguration id,
         Callable<DataValueSetReader> createReader )
     {
-        try ( DataValueSetReader reader = createReader.call() )
+        try ( DataValueSetReader reader = options != null && options.isPipelined()
+            ? new PipelinedDataValueSetReader( createReader.call() )
+            : createReader.call() )
         {
             return importDataValueSet( options, id, reader );
         }
@@ -717,21 +728,24 @@ public class DefaultDataValueSetService
         notifier.notify( id, notificationLevel, "Importing data values" );
 
         List<? extends DataValueEntry> values = dataValueSet.getDataValues();
+        List<PendingDataValue> chunk = new ArrayList<>( EXISTING_VALUE_CHUNK_SIZE );
         int index = 0;
         if ( values != null && !values.isEmpty() )
         {
             for ( DataValueEntry dataValue : values )
             {
-                importDataValue( context, dataSetContext, importCount, now, index++, dataValue );
+                importDataValue( context, dataSetContext, importCount, now, index++, dataValue, chunk );
             }
         }
         DataValueEntry dataValue = reader.readNext();
         while ( dataValue != null )
         {
-            importDataValue( context, dataSetContext, importCount, now, index++, dataValue );
+            importDataValue( context, dataSetContext, importCount, now, index++, dataValue, chunk );
             dataValue = reader.readNext();
         }
 
+        importDataValues( context, importCount, chunk );
+
         context.getDataValueBatchHandler().flush();
 
         if ( !context.isSkipAudit() )
@@ -754,8 +768,13 @@ public class DefaultDataValueSetService
         return context.getSummary();
     }
 
+    /**
+     * Validates the given data value and adds it to the chunk of data values
+     * pending import. The chunk is imported when it reaches
+     * {@link #EXISTING_VALUE_CHUNK_SIZE} data values.
+     */
     private void importDataValue( ImportContext context, DataSetContext dataSetContext, ImportCount importCount,
-        Date now, int index, DataValueEntry dataValue )
+        Date now, int index, DataValueEntry dataValue, List<PendingDataValue> chunk )
     {
         ImportContext.DataValueContext valueContext = createDataValueContext( index, dataValue, context,
             dataSetContext );
@@ -780,24 +799,60 @@ public class DefaultDataValueSetService
         // -----------------------------------------------------------------
         DataValue internalValue = createDataValue( dataValue, context, valueContext, now );
 
+        chunk.add( new PendingDataValue( valueContext, internalValue, dataValue.getValue(), dataValue.hasCreated() ) );
+
+        if ( chunk.size() >= EXISTING_VALUE_CHUNK_SIZE )
+        {
+            importDataValues( context, importCount, chunk );
+        }
+    }
+
+    /**
+     * Resolves the existing data values of the given chunk of pending data
+     * values with a single lookup, then saves, updates or deletes each data
+     * value in input order. The chunk is cleared afterwards.
+     */
+    private void importDataValues( ImportContext context, ImportCount importCount, List<PendingDataValue> chunk )
+    {
+        if ( chunk.isEmpty() )
+        {
+            return;
+        }
+
+        Map<DataValue, DataValue> existingValues = context.isSkipExistingCheck()
+            ? new HashMap<>()
+            : findExistingValues( context, chunk );
+
+        for ( PendingDataValue pending : chunk )
+        {
+            importDataValue( context, importCount, pending, existingValues );
+        }
+
+        chunk.clear();
+    }
+
+    private void importDataValue( ImportContext context, ImportCount importCount, PendingDataValue pending,
+        Map<DataValue, DataValue> existingValues )
+    {
+        ImportContext.DataValueContext valueContext = pending.getValueContext();
+        DataValue internalValue = pending.getInternalValue();
+
         // -----------------------------------------------------------------
         // Save, update or delete data value
         // -----------------------------------------------------------------
-        DataValue existingValue = !context.isSkipExistingCheck()
-            ? context.getDataValueBatchHandler().findObject( internalValue )
-            : null;
+        DataValue existingValue = existingValues.get( internalValue );
 
         // -----------------------------------------------------------------
         // Preserve any existing created date unless overwritten by import
         // -----------------------------------------------------------------
-        if ( existingValue != null && !dataValue.hasCreated() )
+        if ( existingValue != null && !pending.isHasCreated() )
         {
             internalValue.setCreated( existingValue.getCreated() );
         }
 
         final ImportStrategy strategy = context.getStrategy();
         boolean zeroAndInsignificant = ValidationUtils.dataValueIsZeroAndInsignificant(
-            dataValue.getValue(), valueContext.getDataElement() );
+            pending.getValue(), valueContext.getDataElement() );
         if ( zeroAndInsignificant && (existingValue == null || strategy.isCreate()) )
         {
             // Ignore value
@@ -812,11 +867,13 @@ public class DefaultDataValueSetService
         {
             if ( strategy.isCreateAndUpdate() || strategy.isUpdate() )
             {
-                saveDataValueUpdate( context, importCount, dataValue, valueContext, internalValue, existingValue );
+                saveDataValueUpdate( context, importCount, pending, existingValue );
+                updateExistingValue( context, existingValues, internalValue );
             }
             else if ( strategy.isDelete() )
             {
-                saveDataValueDelete( context, importCount, dataValue, valueContext, internalValue, existingValue );
+                saveDataValueDelete( context, importCount, pending, existingValue );
+                updateExistingValue( context, existingValues, internalValue );
             }
             else
             {
@@ -828,6 +885,11 @@ public class DefaultDataValueSetService
             if ( strategy.isCreateAndUpdate() || strategy.isCreate() )
             {
                 saveDataValueCreate( context, importCount, valueContext, internalValue, existingValue );
+
+                if ( existingValue != null && !internalValue.isNullValue() )
+                {
+                    updateExistingValue( context, existingValues, internalValue );
+                }
             }
             else
             {
@@ -836,6 +898,56 @@ public class DefaultDataValueSetService
         }
     }
 
+    /**
+     * Looks up the existing data values of the given chunk of pending data
+     * values in one batch handler call.
+     *
+     * @return a mapping from the data value key to the existing data value.
+     */
+    private Map<DataValue, DataValue> findExistingValues( ImportContext context, List<PendingDataValue> chunk )
+    {
+        List<DataValue> internalValues = chunk.stream()
+            .map( PendingDataValue::getInternalValue )
+            .collect( Collectors.toList() );
+
+        BatchHandler<DataValue> batchHandler = context.getDataValueBatchHandler();
+
+        if ( batchHandler instanceof CopyBatchHandler )
+        {
+            batchHandler = ((CopyBatchHandler<DataValue>) batchHandler).getBatchHandler();
+        }
+
+        List<DataValue> persistedValues = batchHandler instanceof DataValueBatchHandler
+            ? ((DataValueBatchHandler) batchHandler).findObjects( internalValues )
+            : internalValues.stream().map( batchHandler::findObject ).collect( Collectors.toList() );
+
+        Map<DataValue, DataValue> existingValues = new HashMap<>();
+
+        for ( int i = 0; i < internalValues.size(); i++ )
+        {
+            if ( persistedValues.get( i ) != null )
+            {
+                existingValues.putIfAbsent( internalValues.get( i ), persistedValues.get( i ) );
+            }
+        }
+
+        return existingValues;
+    }
+
+    /**
+     * Keeps the existing data values of the chunk in line with the updates
+     * written to the database, as a data value set may contain the same data
+     * value more than once.
+     */
+    private void updateExistingValue( ImportContext context, Map<DataValue, DataValue> existingValues,
+        DataValue internalValue )
+    {
+        if ( !context.isDryRun() )
+        {
+            existingValues.put( internalValue, internalValue );
+        }
+    }
+
     private void saveDataValueCreate( ImportContext context, ImportCount importCount,
         ImportContext.DataValueContext valueContext, DataValue internalValue, DataValue existingValue )
     {
@@ -886,9 +998,11 @@ public class DefaultDataValueSetService
     }
 
     private void saveDataValueDelete( ImportContext context, ImportCount importCount,
-        DataValueEntry dataValue, ImportContext.DataValueContext valueContext,
-        DataValue internalValue, DataValue existingValue )
+        PendingDataValue pending, DataValue existingValue )
     {
+        ImportContext.DataValueContext valueContext = pending.getValueContext();
+        DataValue internalValue = pending.getInternalValue();
+
         internalValue.setDeleted( true );
 
         importCount.incrementDeleted();
@@ -908,7 +1022,7 @@ public class DefaultDataValueSetService
             if ( !context.isSkipAudit() )
             {
                 DataValueAudit auditValue = new DataValueAudit( internalValue, existingValue.getValue(),
-                    context.getStoredBy( dataValue ), AuditType.DELETE );
+                    internalValue.getStoredBy(), AuditType.DELETE );
 
                 context.getAuditBatchHandler().addObject( auditValue );
             }
@@ -916,12 +1030,14 @@ public class DefaultDataValueSetService
     }
 
     private void saveDataValueUpdate( ImportContext context, ImportCount importCount,
-        DataValueEntry dataValue, ImportContext.DataValueContext valueContext,
-        DataValue internalValue, DataValue existingValue )
+        PendingDataValue pending, DataValue existingValue )
     {
+        ImportContext.DataValueContext valueContext = pending.getValueContext();
+        DataValue internalValue = pending.getInternalValue();
+
         AuditType auditType = AuditType.UPDATE;
         if ( internalValue.isNullValue() || internalValue.isDeleted()
-            || dataValueIsZeroAndInsignificant( dataValue.getValue(), valueContext.getDataElement() ) )
+            || dataValueIsZeroAndInsignificant( pending.getValue(), valueContext.getDataElement() ) )
         {
             internalValue.setDeleted( true );
 
@@ -946,7 +1062,7 @@ public class DefaultDataValueSetService
             if ( !context.isSkipAudit() )
             {
                 DataValueAudit auditValue = new DataValueAudit( internalValue, existingValue.getValue(),
-                    context.getStoredBy( dataValue ), auditType );
+                    internalValue.getStoredBy(), auditType );
 
                 context.getAuditBatchHandler().addObject( auditValue );
             }
@@ -1089,14 +1205,27 @@ public class DefaultDataValueSetService
                 trimToNull( data.getPeriod() ) ) )
 
             // data processing
-            .dataValueBatchHandler( batchHandlerFactory
-                .createBatchHandler( DataValueBatchHandler.class ).init() )
+            .dataValueBatchHandler( createBatchHandler( DataValueBatchHandler.class, options ) )
             .auditBatchHandler( skipAudit ? null
-                : batchHandlerFactory.createBatchHandler( DataValueAuditBatchHandler.class ).init() )
+                : createBatchHandler( DataValueAuditBatchHandler.class, options ) )
             .singularNameForType( klass -> schemaService.getDynamicSchema( klass ).getSingular() )
             .build();
     }
 
+    /**
+     * Creates and initializes a batch handler of the given type. The batch
+     * handler writes through PostgreSQL COPY if requested in the import
+     * options.
+     */
+    private <T> BatchHandler<T> createBatchHandler( Class<? extends BatchHandler<T>> type, ImportOptions options )
+    {
+        BatchHandler<T> batchHandler = batchHandlerFactory.createBatchHandler( type );
+
+        return options.isCopyWrite() && batchHandler instanceof AbstractBatchHandler
+            ? new CopyBatchHandler<>( (AbstractBatchHandler<T>) batchHandler ).init()
+            : batchHandler.init();
+    }
+
     private void logDataValueSetImportContextInfo( ImportContext context )
     {
         log.info( String.format( "Is ISO calendar: %b, skip lock exception check: %b",
@@ -1240,4 +1369,24 @@ public class DefaultDataValueSetService
         summary.setDataSetComplete( DateUtils.getMediumDateString( completeDate ) );
     }
 
+    /**
+     * A validated data value waiting for the existing data value lookup of its
+     * chunk. Holds a copy of the properties of the {@link DataValueEntry} which
+     * are needed after the lookup, as readers reuse the entry instance.
+     */
+    @Getter
+    @AllArgsConstructor
+    private static final class PendingDataValue
+    {
+        private final ImportContext.DataValueContext valueContext;
+
+        private final DataValue internalValue;
+
+        /**
+         * The value as provided in the data value set.
+         */
+        private final String value;
+
+        private final boolean hasCreated;
+    }
 }
@@ -0,0 +1,260 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.dxf2.datavalueset;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.hisp.dhis.dxf2.datavalue.DataValue;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * A {@link DataValueSetReader} which parses the data values of a delegate
+ * reader on a separate thread, ahead of the thread which validates and writes
+ * them. Parsed data values are handed over through a bounded queue in input
+ * order, so that the import summary and its conflicts stay deterministic.
+ * <p>
+ * As readers reuse their {@link DataValueEntry} instance, each entry is copied
+ * to a {@link DataValue} before it is queued.
+ */
+@Slf4j
+public final class PipelinedDataValueSetReader implements DataValueSetReader, Runnable
+{
+    /**
+     * Number of parsed data values which can be buffered ahead of the
+     * consumer. Keeps memory bounded for large payloads.
+     */
+    private static final int QUEUE_SIZE = 1000;
+
+    private static final long CLOSE_TIMEOUT_SECONDS = 10;
+
+    private static final DataValueEntry END_OF_DATA = new DataValue();
+
+    /**
+     * Parser threads are daemon threads so that a parser which never finishes
+     * does not keep the JVM from shutting down.
+     */
+    private static final ThreadFactory THREAD_FACTORY = new ThreadFactoryBuilder()
+        .setNameFormat( "DATA-VALUE-SET-PARSER-%d" )
+        .setDaemon( true )
+        .build();
+
+    private final DataValueSetReader reader;
+
+    private final BlockingQueue<DataValueEntry> queue;
+
+    private ExecutorService executor;
+
+    private volatile Throwable producerException;
+
+    private volatile boolean closed = false;
+
+    private boolean endOfData = false;
+
+    public PipelinedDataValueSetReader( DataValueSetReader reader )
+    {
+        this.reader = reader;
+        this.queue = new ArrayBlockingQueue<>( QUEUE_SIZE );
+    }
+
+    // -------------------------------------------------------------------------
+    // DataValueSetReader implementation
+    // -------------------------------------------------------------------------
+
+    @Override
+    public DataValueSet readHeader()
+    {
+        return reader.readHeader();
+    }
+
+    @Override
+    public DataValueEntry readNext()
+    {
+        if ( endOfData )
+        {
+            return null;
+        }
+
+        if ( executor == null )
+        {
+            executor = Executors.newSingleThreadExecutor( THREAD_FACTORY );
+            executor.execute( this ); // Invoke run() on another thread
+            executor.shutdown();
+        }
+
+        DataValueEntry entry = dequeue();
+
+        if ( entry == END_OF_DATA )
+        {
+            endOfData = true;
+
+            rethrowProducerException();
+
+            return null;
+        }
+
+        return entry;
+    }
+
+    @Override
+    public void close()
+    {
+        closed = true;
+
+        if ( executor != null )
+        {
+            executor.shutdownNow(); // Wake up parser thread if blocked
+
+            try
+            {
+                executor.awaitTermination( CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS );
+            }
+            catch ( InterruptedException ex )
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        reader.close();
+    }
+
+    // -------------------------------------------------------------------------
+    // Runnable implementation
+    // -------------------------------------------------------------------------
+
+    /**
+     * In a separate thread, parses all data values of the delegate reader.
+     */
+    @Override
+    public void run()
+    {
+        try
+        {
+            DataValueEntry entry = reader.readNext();
+
+            while ( entry != null && !closed )
+            {
+                queue.put( copyOf( entry ) );
+
+                entry = reader.readNext();
+            }
+        }
+        catch ( InterruptedException ex )
+        {
+            Thread.currentThread().interrupt(); // Reader was closed
+        }
+        catch ( Throwable ex )
+        {
+            log.error( "Failed to parse data values", ex );
+
+            producerException = ex; // Tell the consumer thread
+        }
+        finally
+        {
+            queueEndOfDataMarker(); // Consumer must never wait forever
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private DataValueEntry dequeue()
+    {
+        try
+        {
+            return queue.take();
+        }
+        catch ( InterruptedException ex )
+        {
+            Thread.currentThread().interrupt();
+
+            throw new IllegalStateException( "Interrupted while reading data values", ex );
+        }
+    }
+
+    private void rethrowProducerException()
+    {
+        Throwable ex = producerException;
+
+        if ( ex instanceof RuntimeException )
+        {
+            throw (RuntimeException) ex;
+        }
+        else if ( ex instanceof Error )
+        {
+            throw (Error) ex;
+        }
+        else if ( ex != null )
+        {
+            throw new IllegalStateException( "Failed to parse data values", ex );
+        }
+    }
+
+    private void queueEndOfDataMarker()
+    {
+        if ( queue.offer( END_OF_DATA ) )
+        {
+            return;
+        }
+
+        try
+        {
+            queue.put( END_OF_DATA );
+        }
+        catch ( InterruptedException ex )
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static DataValue copyOf( DataValueEntry entry )
+    {
+        DataValue value = new DataValue();
+        value.setDataElement( entry.getDataElement() );
+        value.setPeriod( entry.getPeriod() );
+        value.setOrgUnit( entry.getOrgUnit() );
+        value.setCategoryOptionCombo( entry.getCategoryOptionCombo() );
+        value.setAttributeOptionCombo( entry.getAttributeOptionCombo() );
+        value.setValue( entry.getValue() );
+        value.setStoredBy( entry.getStoredBy() );
+        value.setCreated( entry.getCreated() );
+        value.setLastUpdated( entry.getLastUpdated() );
+        value.setComment( entry.getComment() );
+        value.setFollowup( entry.getFollowup() );
+        value.setDeleted( entry.getDeleted() );
+        return value;
+    }
+}
@@ -35,6 +35,13 @@ import static org.hisp.dhis.dxf2.metadata.feedback.ImportReportMode.ERRORS;
 import static org.hisp.dhis.system.notification.NotificationLevel.INFO;
 
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -46,7 +53,10 @@ import org.hisp.dhis.dxf2.importsummary.ImportSummaries;
 import org.hisp.dhis.scheduling.JobConfiguration;
 import org.hisp.dhis.system.notification.Notifier;
 import org.hisp.dhis.system.util.Clock;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @Slf4j
 @Component
@@ -87,22 +97,24 @@ public class EventImporter
         notifier.clear( jobConfiguration ).notify( jobConfiguration, "Importing events" );
         final Clock clock = new Clock( log ).startClock();
 
-        long now = nanoTime();
-
-        final WorkContext context = workContextLoader.load( importOptions, events );
-
-        log.debug( "::: event tracker import context load took : " + (nanoTime() - now) );
-
         final List<List<Event>> partitions = partition( events, BATCH_SIZE );
 
-        for ( final List<Event> batch : partitions )
+        if ( importOptions.isPipelinedEvents() && partitions.size() > 1 )
         {
-            final ImportStrategyAccumulator accumulator = new ImportStrategyAccumulator().partitionEvents( batch,
-                importOptions.getImportStrategy(), context.getProgramStageInstanceMap() );
+            importPipelined( partitions, importOptions, importSummaries );
+        }
+        else
+        {
+            long now = nanoTime();
+
+            final WorkContext context = workContextLoader.load( importOptions, events );
 
-            importSummaries.addImportSummaries( eventManager.addEvents( accumulator.getCreate(), context ) );
-            importSummaries.addImportSummaries( eventManager.updateEvents( accumulator.getUpdate(), context ) );
-            importSummaries.addImportSummaries( eventManager.deleteEvents( accumulator.getDelete(), context ) );
+            log.debug( "::: event tracker import context load took : " + (nanoTime() - now) );
+
+            for ( final List<Event> batch : partitions )
+            {
+                importBatch( batch, importOptions, context, importSummaries );
+            }
         }
 
         if ( jobConfiguration != null )
@@ -122,4 +134,107 @@ public class EventImporter
 
         return importSummaries;
     }
+
+    /**
+     * Imports the partitions with a work context per partition instead of one
+     * context for the whole payload. The context of the next partition is
+     * loaded on another thread while the current partition is written, so at
+     * most two contexts are held in memory. Partitions are written in order on
+     * the calling thread, which keeps the import summaries ordered.
+     *
+     * Within a surrounding transaction, e.g. an enrollment import with
+     * embedded events, another thread would not see the uncommitted changes of
+     * the transaction. The contexts are then loaded on the calling thread.
+     * The same applies to a partition which shares events with the previous
+     * one, as its context must reflect the writes of the previous partition.
+     * Its context is loaded on the calling thread once that partition is
+     * written.
+     */
+    private void importPipelined( List<List<Event>> partitions, ImportOptions importOptions,
+        ImportSummaries importSummaries )
+    {
+        final boolean prefetch = !TransactionSynchronizationManager.isActualTransactionActive();
+
+        final ExecutorService executor = prefetch ? new DelegatingSecurityContextExecutorService(
+            Executors.newSingleThreadExecutor(), SecurityContextHolder.getContext() ) : null;
+
+        try
+        {
+            // The first context is loaded on the calling thread, which sets
+            // the current user on the import options for the following loads
+
+            WorkContext context = workContextLoader.load( importOptions, partitions.get( 0 ) );
+
+            for ( int i = 0; i < partitions.size(); i++ )
+            {
+                final boolean hasNext = i + 1 < partitions.size();
+                final List<Event> nextBatch = hasNext ? partitions.get( i + 1 ) : null;
+
+                final Future<WorkContext> nextContext = hasNext && prefetch
+                    && !sharesEvents( partitions.get( i ), nextBatch )
+                        ? executor.submit( () -> workContextLoader.load( importOptions, nextBatch ) )
+                        : null;
+
+                importBatch( partitions.get( i ), importOptions, context, importSummaries );
+
+                if ( nextContext != null )
+                {
+                    context = getWorkContext( nextContext );
+                }
+                else if ( hasNext )
+                {
+                    context = workContextLoader.load( importOptions, nextBatch );
+                }
+            }
+        }
+        finally
+        {
+            if ( executor != null )
+            {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    private boolean sharesEvents( List<Event> batch, List<Event> nextBatch )
+    {
+        final Set<String> uids = batch.stream().map( Event::getEvent ).filter( Objects::nonNull )
+            .collect( Collectors.toSet() );
+
+        return nextBatch.stream().map( Event::getEvent ).anyMatch( uids::contains );
+    }
+
+    private void importBatch( List<Event> batch, ImportOptions importOptions, WorkContext context,
+        ImportSummaries importSummaries )
+    {
+        final ImportStrategyAccumulator accumulator = new ImportStrategyAccumulator().partitionEvents( batch,
+            importOptions.getImportStrategy(), context.getProgramStageInstanceMap() );
+
+        importSummaries.addImportSummaries( eventManager.addEvents( accumulator.getCreate(), context ) );
+        importSummaries.addImportSummaries( eventManager.updateEvents( accumulator.getUpdate(), context ) );
+        importSummaries.addImportSummaries( eventManager.deleteEvents( accumulator.getDelete(), context ) );
+    }
+
+    private WorkContext getWorkContext( Future<WorkContext> future )
+    {
+        try
+        {
+            return future.get();
+        }
+        catch ( InterruptedException ex )
+        {
+            Thread.currentThread().interrupt();
+
+            throw new IllegalStateException( "interrupted while loading event import context", ex );
+        }
+        catch ( ExecutionException ex )
+        {
+            if ( ex.getCause() instanceof RuntimeException )
+            {
+                throw (RuntimeException) ex.getCause();
+            }
+
+            throw new IllegalStateException( ex.getCause() );
+        }
+    }
 }
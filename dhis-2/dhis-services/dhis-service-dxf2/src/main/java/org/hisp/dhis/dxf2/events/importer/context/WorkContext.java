@@ -144,6 +144,13 @@ public class WorkContext
      */
     private final Map<Long, List<Long>> programWithOrgUnitsMap;
 
+    /**
+     * Holds the time each supplier took to load its part of this context.
+     *
+     * Map: key -> supplier name value -> milliseconds
+     */
+    private final Map<String, Long> supplierTimings;
+
     /**
      * Services / components
      */
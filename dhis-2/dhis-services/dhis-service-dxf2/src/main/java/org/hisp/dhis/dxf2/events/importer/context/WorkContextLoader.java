@@ -29,20 +29,44 @@ package org.hisp.dhis.dxf2.events.importer.context;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.annotation.PreDestroy;
 
 import lombok.extern.slf4j.Slf4j;
 
 import org.apache.commons.lang3.tuple.Pair;
 import org.hibernate.SessionFactory;
+import org.hisp.dhis.category.CategoryOptionCombo;
+import org.hisp.dhis.commons.timer.Timer;
+import org.hisp.dhis.dataelement.DataElement;
 import org.hisp.dhis.dxf2.common.ImportOptions;
 import org.hisp.dhis.dxf2.events.event.Event;
+import org.hisp.dhis.dxf2.events.event.Note;
+import org.hisp.dhis.eventdatavalue.EventDataValue;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
 import org.hisp.dhis.hibernate.HibernateProxyUtils;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.program.Program;
+import org.hisp.dhis.program.ProgramInstance;
 import org.hisp.dhis.program.ProgramStageInstance;
 import org.hisp.dhis.trackedentity.TrackedEntityInstance;
 import org.hisp.dhis.user.User;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 /**
  * @author Luciano Fiandesio
@@ -75,8 +99,28 @@ public class WorkContextLoader
 
     private final static UidGenerator uidGen = new UidGenerator();
 
+    /**
+     * Number of suppliers which are loaded on other threads.
+     */
+    private static final int CONCURRENT_SUPPLIERS = 7;
+
     private final SessionFactory sessionFactory;
 
+    private final DhisConfigurationProvider config;
+
+    /**
+     * Runs the suppliers which are loaded concurrently. Bounded, so that
+     * concurrent imports queue their queries rather than take an unbounded
+     * number of connections, and separate from the common pool, which is
+     * shared with unrelated work. Tasks run with the security context of the
+     * importing user.
+     */
+    private final ExecutorService executor = new DelegatingSecurityContextExecutorService(
+        Executors.newFixedThreadPool( CONCURRENT_SUPPLIERS, new ThreadFactoryBuilder()
+            .setNameFormat( "EVENT-IMPORT-CONTEXT-%d" )
+            .setDaemon( true )
+            .build() ) );
+
     public WorkContextLoader(
     // @formatter:off
         ProgramSupplier programSupplier,
@@ -90,7 +134,8 @@ public class WorkContextLoader
         AssignedUserSupplier assignedUserSupplier,
         ServiceDelegatorSupplier serviceDelegatorSupplier,
         ProgramOrgUnitSupplier programOrgUnitSupplier,
-        SessionFactory sessionFactory
+        SessionFactory sessionFactory,
+        DhisConfigurationProvider config
     // @formatter:on
     )
     {
@@ -106,6 +151,7 @@ public class WorkContextLoader
         this.programOrgUnitSupplier = programOrgUnitSupplier;
         this.serviceDelegatorSupplier = serviceDelegatorSupplier;
         this.sessionFactory = sessionFactory;
+        this.config = config;
     }
 
     @Transactional( readOnly = true )
@@ -125,32 +171,168 @@ public class WorkContextLoader
         // Make sure all events have the 'uid' field populated
         events = uidGen.assignUidToEvents( events );
 
-        final Map<String, ProgramStageInstance> programStageInstanceMap = programStageInstanceSupplier
-            .get( localImportOptions, events );
+        final Map<String, Long> supplierTimings = new ConcurrentHashMap<>();
+
+        final WorkContext context = isParallel()
+            ? loadConcurrently( localImportOptions, events, supplierTimings )
+            : loadSequentially( localImportOptions, events, supplierTimings );
+
+        log.debug( "::: event import context supplier timings (ms) : " + new TreeMap<>( supplierTimings ) );
+
+        return context;
+    }
+
+    private WorkContext loadSequentially( ImportOptions importOptions, List<Event> events,
+        Map<String, Long> timings )
+    {
+        final Map<String, ProgramStageInstance> programStageInstanceMap = timed( "programStageInstances", timings,
+            () -> programStageInstanceSupplier.get( importOptions, events ) );
 
-        final Map<String, Pair<TrackedEntityInstance, Boolean>> teiMap = trackedEntityInstanceSupplier
-            .get( localImportOptions, events );
+        final Map<String, Pair<TrackedEntityInstance, Boolean>> teiMap = timed( "trackedEntityInstances", timings,
+            () -> trackedEntityInstanceSupplier.get( importOptions, events ) );
 
-        final Map<String, OrganisationUnit> orgUniMap = organisationUnitSupplier.get( localImportOptions, events );
+        final Map<String, OrganisationUnit> orgUniMap = timed( "organisationUnits", timings,
+            () -> organisationUnitSupplier.get( importOptions, events ) );
 
         return WorkContext.builder()
-            .importOptions( localImportOptions )
-            .programsMap( programSupplier.get( localImportOptions, events ) )
+            .importOptions( importOptions )
+            .programsMap( timed( "programs", timings, () -> programSupplier.get( importOptions, events ) ) )
             .programStageInstanceMap( programStageInstanceMap )
             .organisationUnitMap( orgUniMap )
             .trackedEntityInstanceMap( teiMap )
-            .programInstanceMap( programInstanceSupplier.get( localImportOptions, teiMap, events ) )
-            .categoryOptionComboMap( categoryOptionComboSupplier.get( localImportOptions, events ) )
-            .dataElementMap( dataElementSupplier.get( localImportOptions, events ) )
-            .notesMap( noteSupplier.get( localImportOptions, events ) )
-            .assignedUserMap( assignedUserSupplier.get( localImportOptions, events ) )
+            .programInstanceMap( timed( "programInstances", timings,
+                () -> programInstanceSupplier.get( importOptions, teiMap, events ) ) )
+            .categoryOptionComboMap( timed( "categoryOptionCombos", timings,
+                () -> categoryOptionComboSupplier.get( importOptions, events ) ) )
+            .dataElementMap( timed( "dataElements", timings, () -> dataElementSupplier.get( importOptions, events ) ) )
+            .notesMap( timed( "notes", timings, () -> noteSupplier.get( importOptions, events ) ) )
+            .assignedUserMap( timed( "assignedUsers", timings,
+                () -> assignedUserSupplier.get( importOptions, events ) ) )
             .eventDataValueMap( new EventDataValueAggregator().aggregateDataValues( events, programStageInstanceMap,
-                localImportOptions ) )
-            .programWithOrgUnitsMap( programOrgUnitSupplier.get( localImportOptions, events, orgUniMap ) )
+                importOptions ) )
+            .programWithOrgUnitsMap( timed( "programOrgUnits", timings,
+                () -> programOrgUnitSupplier.get( importOptions, events, orgUniMap ) ) )
+            .serviceDelegator( serviceDelegatorSupplier.get() )
+            .supplierTimings( timings )
+            .build();
+    }
+
+    /**
+     * Loads the context with the JDBC-only suppliers running on other threads.
+     * Programs are loaded first, as most suppliers read them from the program
+     * cache. Tracked entity instances (write access check against the user)
+     * and data elements are resolved through the Hibernate session and are
+     * therefore loaded on the calling thread while the other queries run.
+     */
+    private WorkContext loadConcurrently( ImportOptions importOptions, List<Event> events,
+        Map<String, Long> timings )
+    {
+        final Map<String, Program> programsMap = timed( "programs", timings,
+            () -> programSupplier.get( importOptions, events ) );
+
+        final CompletableFuture<Map<String, ProgramStageInstance>> programStageInstances = async(
+            "programStageInstances", timings, () -> programStageInstanceSupplier.get( importOptions, events ) );
+
+        final CompletableFuture<Map<String, OrganisationUnit>> orgUnits = async( "organisationUnits", timings,
+            () -> organisationUnitSupplier.get( importOptions, events ) );
+
+        final CompletableFuture<Map<Long, List<Long>>> programOrgUnits = orgUnits.thenApplyAsync(
+            orgUnitMap -> timed( "programOrgUnits", timings,
+                () -> programOrgUnitSupplier.get( importOptions, events, orgUnitMap ) ),
+            executor );
+
+        final CompletableFuture<Map<String, CategoryOptionCombo>> categoryOptionCombos = async(
+            "categoryOptionCombos", timings, () -> categoryOptionComboSupplier.get( importOptions, events ) );
+
+        final CompletableFuture<Map<String, Note>> notes = async( "notes", timings,
+            () -> noteSupplier.get( importOptions, events ) );
+
+        final CompletableFuture<Map<String, User>> assignedUsers = async( "assignedUsers", timings,
+            () -> assignedUserSupplier.get( importOptions, events ) );
+
+        final CompletableFuture<Map<String, Set<EventDataValue>>> eventDataValues = programStageInstances
+            .thenApply( programStageInstanceMap -> new EventDataValueAggregator().aggregateDataValues( events,
+                programStageInstanceMap, importOptions ) );
+
+        final Map<String, Pair<TrackedEntityInstance, Boolean>> teiMap = timed( "trackedEntityInstances", timings,
+            () -> trackedEntityInstanceSupplier.get( importOptions, events ) );
+
+        final CompletableFuture<Map<String, ProgramInstance>> programInstances = async( "programInstances",
+            timings, () -> programInstanceSupplier.get( importOptions, teiMap, events ) );
+
+        final Map<String, DataElement> dataElementMap = timed( "dataElements", timings,
+            () -> dataElementSupplier.get( importOptions, events ) );
+
+        return WorkContext.builder()
+            .importOptions( importOptions )
+            .programsMap( programsMap )
+            .programStageInstanceMap( join( programStageInstances ) )
+            .organisationUnitMap( join( orgUnits ) )
+            .trackedEntityInstanceMap( teiMap )
+            .programInstanceMap( join( programInstances ) )
+            .categoryOptionComboMap( join( categoryOptionCombos ) )
+            .dataElementMap( dataElementMap )
+            .notesMap( join( notes ) )
+            .assignedUserMap( join( assignedUsers ) )
+            .eventDataValueMap( join( eventDataValues ) )
+            .programWithOrgUnitsMap( join( programOrgUnits ) )
             .serviceDelegator( serviceDelegatorSupplier.get() )
+            .supplierTimings( timings )
             .build();
     }
 
+    /**
+     * Suppliers running on other threads use their own database connections
+     * and cannot see changes which are not yet committed by the calling
+     * thread. The context is therefore only loaded concurrently when it is not
+     * part of a larger read-write transaction, e.g. an enrollment import with
+     * embedded events.
+     */
+    private boolean isParallel()
+    {
+        return config.isEnabled( ConfigurationKey.EVENT_IMPORT_CONTEXT_PARALLEL )
+            && TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    private <T> CompletableFuture<T> async( String supplier, Map<String, Long> timings, Supplier<T> loader )
+    {
+        return CompletableFuture.supplyAsync( () -> timed( supplier, timings, loader ), executor );
+    }
+
+    private <T> T timed( String supplier, Map<String, Long> timings, Supplier<T> loader )
+    {
+        final Timer timer = Timer.startTimer();
+
+        final T result = loader.get();
+
+        timings.put( supplier, TimeUnit.NANOSECONDS.toMillis( timer.stop().duration() ) );
+
+        return result;
+    }
+
+    private <T> T join( CompletableFuture<T> future )
+    {
+        try
+        {
+            return future.join();
+        }
+        catch ( CompletionException ex )
+        {
+            if ( ex.getCause() instanceof RuntimeException )
+            {
+                throw (RuntimeException) ex.getCause();
+            }
+
+            throw new IllegalStateException( "Failed to load event import context", ex.getCause() );
+        }
+    }
+
+    @PreDestroy
+    public void shutdown()
+    {
+        executor.shutdownNow();
+    }
+
     /**
      * Make sure that the {@see User} object's properties are properly
      * initialized, to avoid running into Hibernate-related issues during
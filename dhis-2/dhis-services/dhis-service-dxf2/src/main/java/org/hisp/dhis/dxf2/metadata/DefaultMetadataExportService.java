@@ -27,6 +27,8 @@
  */
 package org.hisp.dhis.dxf2.metadata;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
@@ -40,6 +42,7 @@ import javax.annotation.Nonnull;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.hibernate.Hibernate;
 import org.hisp.dhis.attribute.Attribute;
 import org.hisp.dhis.attribute.AttributeService;
 import org.hisp.dhis.category.Category;
@@ -47,6 +50,7 @@ import org.hisp.dhis.category.CategoryCombo;
 import org.hisp.dhis.category.CategoryOption;
 import org.hisp.dhis.category.CategoryOptionCombo;
 import org.hisp.dhis.common.IdentifiableObject;
+import org.hisp.dhis.common.IdentifiableObjectManager;
 import org.hisp.dhis.common.InterpretableObject;
 import org.hisp.dhis.common.SetMap;
 import org.hisp.dhis.commons.timer.SystemTimer;
@@ -92,8 +96,10 @@ import org.hisp.dhis.programrule.ProgramRuleAction;
 import org.hisp.dhis.programrule.ProgramRuleService;
 import org.hisp.dhis.programrule.ProgramRuleVariable;
 import org.hisp.dhis.programrule.ProgramRuleVariableService;
+import org.hisp.dhis.query.Order;
 import org.hisp.dhis.query.Query;
 import org.hisp.dhis.query.QueryService;
+import org.hisp.dhis.query.planner.QueryPlanner;
 import org.hisp.dhis.report.Report;
 import org.hisp.dhis.schema.Schema;
 import org.hisp.dhis.schema.SchemaService;
@@ -106,9 +112,13 @@ import org.hisp.dhis.user.CurrentUserService;
 import org.hisp.dhis.user.User;
 import org.hisp.dhis.util.DateUtils;
 import org.hisp.dhis.visualization.Visualization;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 
 /**
@@ -119,6 +129,8 @@ import com.google.common.collect.Sets;
 @Service( "org.hisp.dhis.dxf2.metadata.MetadataExportService" )
 public class DefaultMetadataExportService implements MetadataExportService
 {
+    private static final int STREAMING_PAGE_SIZE = 1000;
+
     private final SchemaService schemaService;
 
     private final QueryService queryService;
@@ -137,54 +149,27 @@ public class DefaultMetadataExportService implements MetadataExportService
 
     private final AttributeService attributeService;
 
+    private final QueryPlanner queryPlanner;
+
+    private final IdentifiableObjectManager manager;
+
+    @Qualifier( "jsonMapper" )
+    private final ObjectMapper jsonMapper;
+
     @Override
-    @SuppressWarnings( "unchecked" )
     public Map<Class<? extends IdentifiableObject>, List<? extends IdentifiableObject>> getMetadata(
         MetadataExportParams params )
     {
         Timer timer = new SystemTimer().start();
         Map<Class<? extends IdentifiableObject>, List<? extends IdentifiableObject>> metadata = new HashMap<>();
 
-        if ( params.getUser() == null )
-        {
-            params.setUser( currentUserService.getCurrentUser() );
-        }
-
-        if ( params.getClasses().isEmpty() )
-        {
-            schemaService.getMetadataSchemas().stream()
-                .filter( schema -> schema.isIdentifiableObject() && schema.isPersisted() )
-                .filter( s -> !s.isSecondaryMetadata() )
-                .forEach( schema -> params.getClasses()
-                    .add( (Class<? extends IdentifiableObject>) schema.getKlass() ) );
-        }
+        initParams( params );
 
         log.info( "(" + params.getUsername() + ") Export:Start" );
 
         for ( Class<? extends IdentifiableObject> klass : params.getClasses() )
         {
-            Query query;
-
-            if ( params.getQuery( klass ) != null )
-            {
-                query = params.getQuery( klass );
-            }
-            else
-            {
-                OrderParams orderParams = new OrderParams( Sets.newHashSet( params.getDefaultOrder() ) );
-                query = queryService.getQueryFromUrl( klass, params.getDefaultFilter(),
-                    orderParams.getOrders( schemaService.getDynamicSchema( klass ) ) );
-            }
-
-            if ( query.getUser() == null )
-            {
-                query.setUser( params.getUser() );
-            }
-
-            query.setDefaultOrder();
-            query.setDefaults( params.getDefaults() );
-
-            List<? extends IdentifiableObject> objects = queryService.query( query );
+            List<? extends IdentifiableObject> objects = queryService.query( getQuery( klass, params ) );
 
             if ( !objects.isEmpty() )
             {
@@ -247,6 +232,13 @@ public class DefaultMetadataExportService implements MetadataExportService
         system.addChild( new SimpleNode( "version", systemInfo.getVersion() ) );
         system.addChild( new SimpleNode( "date", systemInfo.getServerDate() ) );
 
+        if ( params.isStreaming() )
+        {
+            addStreamingCollectionNodes( rootNode, params );
+
+            return rootNode;
+        }
+
         Map<Class<? extends IdentifiableObject>, List<? extends IdentifiableObject>> metadata = getMetadata( params );
 
         for ( Class<? extends IdentifiableObject> klass : metadata.keySet() )
@@ -298,6 +290,42 @@ public class DefaultMetadataExportService implements MetadataExportService
         return rootNode;
     }
 
+    @Override
+    public void writeMetadataWithDependencies( IdentifiableObject object, @Nonnull MetadataExportParams params,
+        OutputStream outputStream )
+        throws IOException
+    {
+        SetMap<Class<? extends IdentifiableObject>, IdentifiableObject> metadata = getMetadataWithDependencies(
+            object );
+
+        try ( JsonGenerator generator = createGenerator( outputStream ) )
+        {
+            generator.writeStartObject();
+            generator.writeStringField( "date", DateUtils.getIso8601( new Date() ) );
+
+            for ( Class<? extends IdentifiableObject> klass : metadata.keySet() )
+            {
+                List<IdentifiableObject> objects = new ArrayList<>( metadata.get( klass ) );
+
+                if ( objects.isEmpty() )
+                {
+                    continue;
+                }
+
+                generator.writeArrayFieldStart( schemaService.getDynamicSchema( klass ).getPlural() );
+
+                for ( List<IdentifiableObject> page : Lists.partition( objects, STREAMING_PAGE_SIZE ) )
+                {
+                    writeObjects( generator, page, List.of( ":owner" ), params );
+                }
+
+                generator.writeEndArray();
+            }
+
+            generator.writeEndObject();
+        }
+    }
+
     @Override
     public void validate( MetadataExportParams params )
     {
@@ -354,6 +382,12 @@ public class DefaultMetadataExportService implements MetadataExportService
             parameters.remove( "skipSharing" );
         }
 
+        if ( parameters.containsKey( "streaming" ) )
+        {
+            params.setStreaming( Boolean.parseBoolean( parameters.get( "streaming" ).get( 0 ) ) );
+            parameters.remove( "streaming" );
+        }
+
         for ( String parameterKey : parameters.keySet() )
         {
             String[] parameter = parameterKey.split( ":" );
@@ -486,6 +520,159 @@ public class DefaultMetadataExportService implements MetadataExportService
     // Utility Methods
     // -----------------------------------------------------------------------------------
 
+    @SuppressWarnings( "unchecked" )
+    private void initParams( MetadataExportParams params )
+    {
+        if ( params.getUser() == null )
+        {
+            params.setUser( currentUserService.getCurrentUser() );
+        }
+
+        if ( params.getClasses().isEmpty() )
+        {
+            schemaService.getMetadataSchemas().stream()
+                .filter( schema -> schema.isIdentifiableObject() && schema.isPersisted() )
+                .filter( s -> !s.isSecondaryMetadata() )
+                .forEach( schema -> params.getClasses()
+                    .add( (Class<? extends IdentifiableObject>) schema.getKlass() ) );
+        }
+    }
+
+    /**
+     * The user is used for sharing checks after the session has been cleared
+     * between pages, so the collections needed for these checks are loaded up
+     * front.
+     */
+    private void initUser( User user )
+    {
+        if ( user != null )
+        {
+            user.isSuper();
+            Hibernate.initialize( user.getGroups() );
+        }
+    }
+
+    private Query getQuery( Class<? extends IdentifiableObject> klass, MetadataExportParams params )
+    {
+        Query query;
+
+        if ( params.getQuery( klass ) != null )
+        {
+            query = params.getQuery( klass );
+        }
+        else
+        {
+            OrderParams orderParams = new OrderParams( Sets.newHashSet( params.getDefaultOrder() ) );
+            query = queryService.getQueryFromUrl( klass, params.getDefaultFilter(),
+                orderParams.getOrders( schemaService.getDynamicSchema( klass ) ) );
+        }
+
+        if ( query.getUser() == null )
+        {
+            query.setUser( params.getUser() );
+        }
+
+        query.setDefaultOrder();
+        query.setDefaults( params.getDefaults() );
+
+        return query;
+    }
+
+    /**
+     * Adds a collection node per class, which loads the objects of the class
+     * page by page while the root node is serialized. The nodes are built by
+     * the same field filter as in the non-streaming export, so defaults, the
+     * inclusion strategy and the output format apply in the same way.
+     *
+     * Pages are read in order of id, so a class exported in the default order
+     * is written in order of id rather than of name. Classes with in-memory
+     * filters, or with an explicit order other than by id, cannot be paged by
+     * the database and are loaded at once when serialized.
+     */
+    private void addStreamingCollectionNodes( RootNode rootNode, MetadataExportParams params )
+    {
+        initParams( params );
+        initUser( params.getUser() );
+
+        log.info( "(" + params.getUsername() + ") Export:Start streaming" );
+
+        for ( Class<? extends IdentifiableObject> klass : params.getClasses() )
+        {
+            Query query = getQuery( klass, params );
+
+            boolean paged = queryPlanner.planQuery( query ).getNonPersistedQuery().isEmpty()
+                && orderById( query );
+
+            PagedQuery objects = new PagedQuery( queryService, manager, query, paged ? STREAMING_PAGE_SIZE : 0 );
+
+            if ( objects.isEmpty() )
+            {
+                continue;
+            }
+
+            org.hisp.dhis.fieldfilter.FieldFilterParams fieldFilterParams = new org.hisp.dhis.fieldfilter.FieldFilterParams(
+                new ArrayList<>(), params.getFields( klass ), params.getDefaults(), params.getSkipSharing() );
+            fieldFilterParams.setUser( params.getUser() );
+
+            rootNode.addChild( oldFieldFilterService.toStreamingCollectionNode( klass, objects, fieldFilterParams ) );
+        }
+    }
+
+    /**
+     * Replaces the default order of the query by the order of id, which is
+     * unique and lets pages be read by keyset.
+     *
+     * @return false if the query has an explicit order other than by id
+     */
+    private boolean orderById( Query query )
+    {
+        Schema schema = query.getSchema();
+
+        if ( !schema.havePersistedProperty( "id" ) )
+        {
+            return false;
+        }
+
+        List<Order> idOrder = List.of( Order.asc( schema.getPersistedProperty( "id" ) ) );
+
+        if ( !query.getOrders().equals( idOrder )
+            && !query.getOrders().equals( Query.from( schema ).setDefaultOrder().getOrders() ) )
+        {
+            return false;
+        }
+
+        query.clearOrders();
+        query.addOrders( idOrder );
+
+        return true;
+    }
+
+    private void writeObjects( JsonGenerator generator, List<? extends IdentifiableObject> objects,
+        List<String> fields, MetadataExportParams params )
+        throws IOException
+    {
+        FieldFilterParams<?> fieldFilterParams = FieldFilterParams.builder()
+            .objects( new ArrayList<>( objects ) )
+            .filters( new HashSet<>( fields ) )
+            .user( params.getUser() )
+            .skipSharing( params.getSkipSharing() )
+            .build();
+
+        for ( ObjectNode objectNode : fieldFilterService.toObjectNodes( fieldFilterParams ) )
+        {
+            generator.writeTree( objectNode );
+        }
+
+        generator.flush();
+    }
+
+    private JsonGenerator createGenerator( OutputStream outputStream )
+        throws IOException
+    {
+        return jsonMapper.getFactory().createGenerator( outputStream )
+            .disable( JsonGenerator.Feature.AUTO_CLOSE_TARGET );
+    }
+
     private boolean isSelectedClass( @Nonnull List<String> values )
     {
         if ( values.stream().anyMatch( "false"::equalsIgnoreCase ) )
@@ -104,6 +104,14 @@ public class MetadataExportParams
      */
     private boolean skipSharing;
 
+    /**
+     * Indicates whether the objects should be loaded page by page while the
+     * export is serialized instead of being loaded as a whole up front. Pages
+     * are read in order of id, so objects in the default order are exported
+     * in order of id instead of name.
+     */
+    private boolean streaming;
+
     public MetadataExportParams()
     {
     }
@@ -246,4 +254,14 @@ public class MetadataExportParams
     {
         return this.skipSharing;
     }
+
+    public boolean isStreaming()
+    {
+        return streaming;
+    }
+
+    public void setStreaming( boolean streaming )
+    {
+        this.streaming = streaming;
+    }
 }
\ No newline at end of file
@@ -27,6 +27,8 @@
  */
 package org.hisp.dhis.dxf2.metadata;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -61,6 +63,14 @@ public interface MetadataExportService
      */
     ObjectNode getMetadataAsNode( MetadataExportParams params );
 
+    /**
+     * Exports metadata as a root node. With streaming enabled in the params,
+     * the objects are not loaded up front but page by page while the root node
+     * is serialized.
+     *
+     * @param params Export parameters
+     * @return RootNode instance with children containing all exported objects
+     */
     RootNode getMetadataAsRootNode( MetadataExportParams params );
 
     /**
@@ -101,4 +111,18 @@ public interface MetadataExportService
      *         RootNode
      */
     ObjectNode getMetadataWithDependenciesAsNode( IdentifiableObject object, @Nonnull MetadataExportParams params );
+
+    /**
+     * Writes the same result as getMetadataWithDependenciesAsNode as JSON to
+     * the given output stream, one class at a time. The dependencies are
+     * collected in memory before writing starts, so only the JSON output is
+     * streamed, not the loading of the objects.
+     *
+     * @param object Object to export including dependencies
+     * @param params Parameters that affect the export.
+     * @param outputStream Stream to write the JSON to
+     */
+    void writeMetadataWithDependencies( IdentifiableObject object, @Nonnull MetadataExportParams params,
+        OutputStream outputStream )
+        throws IOException;
 }
@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.dxf2.metadata;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.hisp.dhis.common.IdentifiableObject;
+import org.hisp.dhis.common.IdentifiableObjectManager;
+import org.hisp.dhis.fieldfilter.Defaults;
+import org.hisp.dhis.preheat.Preheat;
+import org.hisp.dhis.query.Junction;
+import org.hisp.dhis.query.Query;
+import org.hisp.dhis.query.QueryService;
+import org.hisp.dhis.query.Restrictions;
+
+/**
+ * Result of a metadata export query which loads its objects while being
+ * iterated. Each iteration runs the query again, a page of objects at a time,
+ * and clears the session before every page, so only the objects of the
+ * current page are held.
+ *
+ * Pages are read by keyset rather than by offset: the query must be ordered by
+ * id only, and each page is restricted to the objects after the id of the last
+ * object of the previous page. The database can then start every page at the
+ * right place of the id index, instead of reading and skipping all objects of
+ * the previous pages.
+ */
+class PagedQuery implements Iterable<IdentifiableObject>
+{
+    /**
+     * Size of the page loaded to check whether the result is empty. A class
+     * has at most one default object, so two objects are enough to find a non
+     * default one.
+     */
+    private static final int PROBE_SIZE = 2;
+
+    private final QueryService queryService;
+
+    private final IdentifiableObjectManager manager;
+
+    private final Query query;
+
+    private final int pageSize;
+
+    private final boolean excludeDefaults;
+
+    /**
+     * @param queryService the query service to run the query with.
+     * @param manager the manager to clear the session with.
+     * @param query the query, ordered by id only if paged.
+     * @param pageSize the number of objects per page, or 0 to load all objects
+     *        at once, e.g. for queries with in-memory filters.
+     */
+    PagedQuery( QueryService queryService, IdentifiableObjectManager manager, Query query, int pageSize )
+    {
+        this.queryService = queryService;
+        this.manager = manager;
+        this.query = query;
+        this.pageSize = pageSize;
+        this.excludeDefaults = Defaults.EXCLUDE == query.getDefaults()
+            && Preheat.isDefaultClass( query.getSchema().getKlass() );
+
+        // Default objects are removed per page, as removing them in the query
+        // service would hide the last id of a page
+
+        query.setDefaults( Defaults.INCLUDE );
+    }
+
+    /**
+     * Checks whether the query has any results by loading at most a couple of
+     * objects, without clearing the session.
+     */
+    boolean isEmpty()
+    {
+        return loadPage( null, pageSize > 0 ? PROBE_SIZE : 0 ).objects.isEmpty();
+    }
+
+    @Override
+    public Iterator<IdentifiableObject> iterator()
+    {
+        return new PageIterator();
+    }
+
+    private Page loadPage( String lastId, int max )
+    {
+        List<IdentifiableObject> objects = new ArrayList<>( queryService.query( getPageQuery( lastId, max ) ) );
+
+        // A short page is the last one. The id of its last object is taken
+        // before the default object is removed, as the next page starts there
+
+        Page page = new Page( objects, max == 0 || objects.size() < max );
+
+        if ( excludeDefaults )
+        {
+            objects.removeIf( object -> "default".equals( object.getName() ) );
+        }
+
+        return page;
+    }
+
+    private Query getPageQuery( String lastId, int max )
+    {
+        if ( max == 0 )
+        {
+            return query;
+        }
+
+        Query pageQuery = Query.from( query.getSchema() );
+        pageQuery.setUser( query.getUser() );
+        pageQuery.setLocale( query.getLocale() );
+        pageQuery.setDefaults( Defaults.INCLUDE );
+        pageQuery.addOrders( query.getOrders() );
+        pageQuery.setMaxResults( max );
+
+        // The keyset restriction must hold for every object, whichever the
+        // root junction of the original restrictions is
+
+        if ( query.getRootJunctionType() == Junction.Type.OR )
+        {
+            pageQuery.addDisjunction().add( query.getCriterions() );
+        }
+        else
+        {
+            pageQuery.add( query.getCriterions() );
+        }
+
+        if ( lastId != null )
+        {
+            pageQuery.add( Restrictions.gt( "id", lastId ) );
+        }
+
+        return pageQuery;
+    }
+
+    private static class Page
+    {
+        private final List<IdentifiableObject> objects;
+
+        private final String lastId;
+
+        private final boolean last;
+
+        Page( List<IdentifiableObject> objects, boolean last )
+        {
+            this.objects = objects;
+            this.lastId = objects.isEmpty() ? null : objects.get( objects.size() - 1 ).getUid();
+            this.last = last;
+        }
+    }
+
+    private class PageIterator implements Iterator<IdentifiableObject>
+    {
+        private Page page;
+
+        private Iterator<IdentifiableObject> objects;
+
+        @Override
+        public boolean hasNext()
+        {
+            while ( (objects == null || !objects.hasNext()) && (page == null || !page.last) )
+            {
+                // Objects of the previous page, or loaded before the
+                // iteration, have been written and are no longer needed
+
+                manager.clear();
+
+                page = loadPage( page == null ? null : page.lastId, pageSize );
+                objects = page.objects.iterator();
+            }
+
+            return objects.hasNext();
+        }
+
+        @Override
+        public IdentifiableObject next()
+        {
+            if ( !hasNext() )
+            {
+                throw new NoSuchElementException();
+            }
+
+            return objects.next();
+        }
+    }
+}
@@ -28,6 +28,7 @@
 package org.hisp.dhis.dxf2.metadata.objectbundle;
 
 import static java.util.stream.Collectors.toList;
+import static org.hisp.dhis.external.conf.ConfigurationKey.METADATA_IMPORT_JDBC_BATCH_SIZE;
 import static org.hisp.dhis.dxf2.metadata.objectbundle.EventReportCompatibilityGuard.handleDeprecationIfEventReport;
 
 import java.util.HashMap;
@@ -47,6 +48,7 @@ import org.hisp.dhis.common.MergeMode;
 import org.hisp.dhis.dbms.DbmsManager;
 import org.hisp.dhis.dxf2.metadata.FlushMode;
 import org.hisp.dhis.dxf2.metadata.objectbundle.feedback.ObjectBundleCommitReport;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
 import org.hisp.dhis.feedback.ObjectReport;
 import org.hisp.dhis.feedback.TypeReport;
 import org.hisp.dhis.preheat.Preheat;
@@ -89,6 +91,8 @@ public class DefaultObjectBundleService implements ObjectBundleService
 
     private final ObjectBundleHooks objectBundleHooks;
 
+    private final DhisConfigurationProvider config;
+
     @Override
     @Transactional( readOnly = true )
     public ObjectBundle create( ObjectBundleParams params )
@@ -127,17 +131,32 @@ public class DefaultObjectBundleService implements ObjectBundleService
         List<Class<? extends IdentifiableObject>> klasses = getSortedClasses( bundle );
         Session session = sessionFactory.getCurrentSession();
 
-        List<ObjectBundleHook<?>> commitHooks = objectBundleHooks.getCommitHooks( klasses );
-        commitHooks.forEach( hook -> hook.preCommit( bundle ) );
+        Integer sessionBatchSize = session.getJdbcBatchSize();
+        int jdbcBatchSize = Integer.parseInt( config.getProperty( METADATA_IMPORT_JDBC_BATCH_SIZE ) );
 
-        for ( Class<? extends IdentifiableObject> klass : klasses )
+        if ( jdbcBatchSize > 0 )
         {
-            commitObjectType( bundle, typeReports, session, klass );
+            session.setJdbcBatchSize( jdbcBatchSize );
         }
 
-        if ( !bundle.getImportMode().isDelete() )
+        try
+        {
+            List<ObjectBundleHook<?>> commitHooks = objectBundleHooks.getCommitHooks( klasses );
+            commitHooks.forEach( hook -> hook.preCommit( bundle ) );
+
+            for ( Class<? extends IdentifiableObject> klass : klasses )
+            {
+                commitObjectType( bundle, typeReports, session, klass );
+            }
+
+            if ( !bundle.getImportMode().isDelete() )
+            {
+                commitHooks.forEach( hook -> hook.postCommit( bundle ) );
+            }
+        }
+        finally
         {
-            commitHooks.forEach( hook -> hook.postCommit( bundle ) );
+            session.setJdbcBatchSize( sessionBatchSize );
         }
 
         dbmsManager.clearSession();
@@ -548,6 +548,33 @@ class DataValueSetServiceTest extends TransactionalIntegrationTest
         assertImportDataValues( summary );
     }
 
+    @Test
+    void testImportDataValuesCsvPipelined()
+        throws Exception
+    {
+        in = new ClassPathResource( "datavalueset/dataValueSetB.csv" ).getInputStream();
+        ImportSummary summary = dataValueSetService.importDataValueSetCsv( in,
+            ImportOptions.getDefaultImportOptions().setPipelined( true ), null );
+        assertEquals( 12, summary.getImportCount().getImported() );
+        assertEquals( 0, summary.getImportCount().getUpdated() );
+        assertEquals( 0, summary.getImportCount().getDeleted() );
+        assertEquals( ImportStatus.SUCCESS, summary.getStatus() );
+        assertImportDataValues( summary );
+    }
+
+    @Test
+    void testImportDataValuesBooleanCsvPipelined()
+        throws Exception
+    {
+        in = new ClassPathResource( "datavalueset/dataValueSetBooleanTest.csv" ).getInputStream();
+        ImportConflicts summary = dataValueSetService.importDataValueSetCsv( in,
+            ImportOptions.getDefaultImportOptions().setPipelined( true ), null );
+        String description = summary.getConflictsDescription();
+        assertEquals( 4, summary.getTotalConflictOccurrenceCount(), description );
+        assertEquals( 4, summary.getConflictOccurrenceCount( ErrorCode.E7619 ), description );
+        assertEquals( 2, summary.getConflictCount(), description );
+    }
+
     @Test
     void testImportDataValuesBooleanCsv()
         throws Exception
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.dxf2.datavalueset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+
+import org.hisp.dhis.dxf2.datavalue.DataValue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the {@link PipelinedDataValueSetReader}.
+ */
+class PipelinedDataValueSetReaderTest
+{
+    private static final Duration TIMEOUT = Duration.ofSeconds( 10 );
+
+    private DataValueSetReader delegate;
+
+    private PipelinedDataValueSetReader reader;
+
+    @BeforeEach
+    void setUp()
+    {
+        delegate = mock( DataValueSetReader.class );
+        reader = new PipelinedDataValueSetReader( delegate );
+    }
+
+    @Test
+    void testReadNextInInputOrder()
+    {
+        when( delegate.readNext() ).thenReturn( createDataValue( "A" ), createDataValue( "B" ), null );
+
+        assertTimeoutPreemptively( TIMEOUT, () -> {
+            assertEquals( "A", reader.readNext().getDataElement() );
+            assertEquals( "B", reader.readNext().getDataElement() );
+            assertNull( reader.readNext() );
+            assertNull( reader.readNext() );
+        } );
+
+        reader.close();
+
+        verify( delegate ).close();
+    }
+
+    @Test
+    void testReadNextRethrowsRuntimeException()
+    {
+        when( delegate.readNext() ).thenReturn( createDataValue( "A" ) )
+            .thenThrow( new IllegalArgumentException( "Invalid payload" ) );
+
+        assertTimeoutPreemptively( TIMEOUT, () -> {
+            assertEquals( "A", reader.readNext().getDataElement() );
+            assertThrows( IllegalArgumentException.class, reader::readNext );
+        } );
+
+        reader.close();
+    }
+
+    @Test
+    void testReadNextRethrowsErrorInsteadOfBlocking()
+    {
+        when( delegate.readNext() ).thenReturn( createDataValue( "A" ) ).thenThrow( new StackOverflowError() );
+
+        assertTimeoutPreemptively( TIMEOUT, () -> {
+            assertEquals( "A", reader.readNext().getDataElement() );
+            assertThrows( StackOverflowError.class, reader::readNext );
+            assertNull( reader.readNext() );
+        } );
+
+        reader.close();
+    }
+
+    private static DataValue createDataValue( String dataElement )
+    {
+        DataValue value = new DataValue();
+        value.setDataElement( dataElement );
+        value.setValue( "1" );
+        return value;
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.dxf2.events.importer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.hisp.dhis.common.CodeGenerator;
+import org.hisp.dhis.dxf2.common.ImportOptions;
+import org.hisp.dhis.dxf2.events.event.Event;
+import org.hisp.dhis.dxf2.events.importer.context.WorkContext;
+import org.hisp.dhis.dxf2.events.importer.context.WorkContextLoader;
+import org.hisp.dhis.dxf2.importsummary.ImportSummaries;
+import org.hisp.dhis.dxf2.importsummary.ImportSummary;
+import org.hisp.dhis.system.notification.Notifier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@ExtendWith( MockitoExtension.class )
+class EventImporterTest
+{
+    private static final int EVENTS = 250;
+
+    @Mock
+    private EventManager eventManager;
+
+    @Mock
+    private WorkContextLoader workContextLoader;
+
+    @Mock
+    private Notifier notifier;
+
+    private final Map<WorkContext, List<Event>> loadedBatches = new ConcurrentHashMap<>();
+
+    private final List<Thread> loadThreads = new ArrayList<>();
+
+    private final List<Boolean> loadTransactions = new ArrayList<>();
+
+    private final List<String> steps = Collections.synchronizedList( new ArrayList<>() );
+
+    private ImportOptions importOptions;
+
+    private List<Event> events;
+
+    private EventImporter importer;
+
+    @BeforeEach
+    void setUp()
+    {
+        importer = new EventImporter( eventManager, workContextLoader, notifier );
+
+        importOptions = ImportOptions.getDefaultImportOptions().setPipelinedEvents( true );
+
+        events = IntStream.range( 0, EVENTS ).mapToObj( i -> {
+            Event event = new Event();
+            event.setUid( CodeGenerator.generateUid() );
+            event.setEvent( event.getUid() );
+            return event;
+        } ).collect( Collectors.toList() );
+
+        when( notifier.clear( null ) ).thenReturn( notifier );
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        TransactionSynchronizationManager.setActualTransactionActive( false );
+    }
+
+    @Test
+    void testImportPipelinedKeepsPayloadOrder()
+    {
+        mockLoad();
+        mockWrite();
+
+        ImportSummaries summaries = importer.importAll( events, importOptions, null );
+
+        assertEquals( getUids( events ), summaries.getImportSummaries().stream()
+            .map( ImportSummary::getReference ).collect( Collectors.toList() ) );
+        assertEquals( 3, loadThreads.size() );
+        assertEquals( Thread.currentThread(), loadThreads.get( 0 ) );
+        assertNotEquals( Thread.currentThread(), loadThreads.get( 1 ) );
+        assertNotEquals( Thread.currentThread(), loadThreads.get( 2 ) );
+    }
+
+    @Test
+    void testImportPipelinedLoadsContextAfterWriteWhenBatchesShareEvents()
+    {
+        // the second batch updates an event created by the first batch
+
+        events.get( 100 ).setUid( events.get( 0 ).getUid() );
+        events.get( 100 ).setEvent( events.get( 0 ).getEvent() );
+
+        mockLoad();
+        mockWrite();
+
+        importer.importAll( events, importOptions, null );
+
+        assertEquals( 3, loadThreads.size() );
+        assertEquals( Thread.currentThread(), loadThreads.get( 1 ) );
+        assertNotEquals( Thread.currentThread(), loadThreads.get( 2 ) );
+        assertTrue( steps.indexOf( "write 0" ) < steps.indexOf( "load 1" ) );
+    }
+
+    @Test
+    void testImportPipelinedPropagatesPrefetchFailure()
+    {
+        IllegalStateException failure = new IllegalStateException( "prefetch failed" );
+
+        when( workContextLoader.load( any( ImportOptions.class ), anyList() ) ).thenAnswer( i -> {
+            List<Event> batch = i.getArgument( 1 );
+
+            if ( batch.get( 0 ) == events.get( 100 ) )
+            {
+                throw failure;
+            }
+
+            return getWorkContext( batch );
+        } );
+        mockWrite();
+
+        assertSame( failure, assertThrows( IllegalStateException.class,
+            () -> importer.importAll( events, importOptions, null ) ) );
+    }
+
+    @Test
+    void testImportPipelinedLoadsOnCallingThreadInTransaction()
+    {
+        TransactionSynchronizationManager.setActualTransactionActive( true );
+
+        mockLoad();
+        mockWrite();
+
+        ImportSummaries summaries = importer.importAll( events, importOptions, null );
+
+        assertEquals( EVENTS, summaries.getImportSummaries().size() );
+        assertEquals( List.of( Thread.currentThread(), Thread.currentThread(), Thread.currentThread() ),
+            loadThreads );
+        assertEquals( List.of( true, true, true ), loadTransactions );
+    }
+
+    private void mockLoad()
+    {
+        when( workContextLoader.load( any( ImportOptions.class ), anyList() ) ).thenAnswer( i -> {
+            synchronized ( loadThreads )
+            {
+                loadThreads.add( Thread.currentThread() );
+                loadTransactions.add( TransactionSynchronizationManager.isActualTransactionActive() );
+            }
+
+            steps.add( "load " + getBatchIndex( i.getArgument( 1 ) ) );
+
+            return getWorkContext( i.getArgument( 1 ) );
+        } );
+    }
+
+    /**
+     * Writes a summary per event and checks that each batch is written with
+     * the work context that was loaded for it.
+     */
+    private void mockWrite()
+    {
+        when( eventManager.addEvents( anyList(), any( WorkContext.class ) ) ).thenAnswer( i -> {
+            List<Event> batch = i.getArgument( 0 );
+            WorkContext context = i.getArgument( 1 );
+
+            assertEquals( loadedBatches.get( context ), batch );
+            steps.add( "write " + getBatchIndex( batch ) );
+
+            ImportSummaries summaries = new ImportSummaries();
+            batch.forEach( event -> summaries.addImportSummary( new ImportSummary( event.getUid() ) ) );
+            return summaries;
+        } );
+        when( eventManager.updateEvents( anyList(), any( WorkContext.class ) ) ).thenReturn( new ImportSummaries() );
+        when( eventManager.deleteEvents( anyList(), any( WorkContext.class ) ) ).thenReturn( new ImportSummaries() );
+    }
+
+    private WorkContext getWorkContext( List<Event> batch )
+    {
+        WorkContext context = WorkContext.builder().importOptions( importOptions )
+            .programStageInstanceMap( Map.of() ).build();
+
+        loadedBatches.put( context, batch );
+
+        return context;
+    }
+
+    private int getBatchIndex( List<Event> batch )
+    {
+        return IntStream.range( 0, EVENTS ).filter( i -> events.get( i ) == batch.get( 0 ) ).findFirst()
+            .getAsInt() / 100;
+    }
+
+    private List<String> getUids( List<Event> events )
+    {
+        return events.stream().map( Event::getUid ).collect( Collectors.toList() );
+    }
+}
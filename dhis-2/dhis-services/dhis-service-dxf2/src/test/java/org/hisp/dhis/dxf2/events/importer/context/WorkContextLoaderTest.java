@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.dxf2.events.importer.context;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hisp.dhis.category.CategoryOptionCombo;
+import org.hisp.dhis.common.CodeGenerator;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.dxf2.common.ImportOptions;
+import org.hisp.dhis.dxf2.events.event.Event;
+import org.hisp.dhis.dxf2.events.event.Note;
+import org.hisp.dhis.dxf2.events.importer.ServiceDelegator;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.program.Program;
+import org.hisp.dhis.program.ProgramInstance;
+import org.hisp.dhis.program.ProgramStageInstance;
+import org.hisp.dhis.trackedentity.TrackedEntityInstance;
+import org.hisp.dhis.user.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@ExtendWith( MockitoExtension.class )
+class WorkContextLoaderTest
+{
+    @Mock
+    private ProgramSupplier programSupplier;
+
+    @Mock
+    private OrganisationUnitSupplier organisationUnitSupplier;
+
+    @Mock
+    private TrackedEntityInstanceSupplier trackedEntityInstanceSupplier;
+
+    @Mock
+    private ProgramInstanceSupplier programInstanceSupplier;
+
+    @Mock
+    private ProgramStageInstanceSupplier programStageInstanceSupplier;
+
+    @Mock
+    private CategoryOptionComboSupplier categoryOptionComboSupplier;
+
+    @Mock
+    private DataElementSupplier dataElementSupplier;
+
+    @Mock
+    private NoteSupplier noteSupplier;
+
+    @Mock
+    private AssignedUserSupplier assignedUserSupplier;
+
+    @Mock
+    private ServiceDelegatorSupplier serviceDelegatorSupplier;
+
+    @Mock
+    private ProgramOrgUnitSupplier programOrgUnitSupplier;
+
+    @Mock
+    private SessionFactory sessionFactory;
+
+    @Mock
+    private Session session;
+
+    @Mock
+    private DhisConfigurationProvider config;
+
+    @Mock
+    private ServiceDelegator serviceDelegator;
+
+    private final Map<String, Thread> supplierThreads = new ConcurrentHashMap<>();
+
+    private ImportOptions importOptions;
+
+    private List<Event> events;
+
+    private WorkContextLoader loader;
+
+    @BeforeEach
+    void setUp()
+    {
+        loader = new WorkContextLoader( programSupplier, organisationUnitSupplier, trackedEntityInstanceSupplier,
+            programInstanceSupplier, programStageInstanceSupplier, categoryOptionComboSupplier, dataElementSupplier,
+            noteSupplier, assignedUserSupplier, serviceDelegatorSupplier, programOrgUnitSupplier, sessionFactory,
+            config );
+
+        importOptions = ImportOptions.getDefaultImportOptions();
+        importOptions.setUser( new User() );
+
+        Event eventA = new Event();
+        eventA.setUid( CodeGenerator.generateUid() );
+        Event eventB = new Event();
+        eventB.setUid( CodeGenerator.generateUid() );
+        events = List.of( eventA, eventB );
+
+        Map<String, Pair<TrackedEntityInstance, Boolean>> teiMap = Map.of( "tei",
+            Pair.of( new TrackedEntityInstance(), true ) );
+        Map<String, OrganisationUnit> orgUnitMap = Map.of( "ou", new OrganisationUnit() );
+
+        when( sessionFactory.getCurrentSession() ).thenReturn( session );
+        when( serviceDelegatorSupplier.get() ).thenReturn( serviceDelegator );
+        when( programSupplier.get( importOptions, events ) )
+            .thenAnswer( i -> recordThread( "programs", Map.of( "program", new Program() ) ) );
+        when( programStageInstanceSupplier.get( importOptions, events ) )
+            .thenAnswer( i -> recordThread( "programStageInstances",
+                Map.<String, ProgramStageInstance> of() ) );
+        when( trackedEntityInstanceSupplier.get( importOptions, events ) )
+            .thenAnswer( i -> recordThread( "trackedEntityInstances", teiMap ) );
+        when( organisationUnitSupplier.get( importOptions, events ) )
+            .thenAnswer( i -> recordThread( "organisationUnits", orgUnitMap ) );
+        when( programInstanceSupplier.get( importOptions, teiMap, events ) )
+            .thenAnswer( i -> recordThread( "programInstances", Map.of( "pi", new ProgramInstance() ) ) );
+        when( categoryOptionComboSupplier.get( importOptions, events ) )
+            .thenAnswer( i -> recordThread( "categoryOptionCombos", Map.of( "coc", new CategoryOptionCombo() ) ) );
+        when( dataElementSupplier.get( importOptions, events ) )
+            .thenAnswer( i -> recordThread( "dataElements", Map.of( "de", new DataElement() ) ) );
+        when( noteSupplier.get( importOptions, events ) )
+            .thenAnswer( i -> recordThread( "notes", Map.of( "note", new Note() ) ) );
+        when( assignedUserSupplier.get( importOptions, events ) )
+            .thenAnswer( i -> recordThread( "assignedUsers", Map.of( "user", new User() ) ) );
+        when( programOrgUnitSupplier.get( importOptions, events, orgUnitMap ) )
+            .thenAnswer( i -> recordThread( "programOrgUnits", Map.of( 1L, List.of( 2L ) ) ) );
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly( false );
+        loader.shutdown();
+    }
+
+    @Test
+    void testLoadConcurrentlyMatchesLoadSequentially()
+    {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly( true );
+
+        WorkContext sequential = loader.load( importOptions, events );
+
+        assertTrue( supplierThreads.values().stream().allMatch( Thread.currentThread()::equals ) );
+
+        supplierThreads.clear();
+        when( config.isEnabled( ConfigurationKey.EVENT_IMPORT_CONTEXT_PARALLEL ) ).thenReturn( true );
+
+        WorkContext concurrent = loader.load( importOptions, events );
+
+        assertEquals( sequential.getProgramsMap(), concurrent.getProgramsMap() );
+        assertEquals( sequential.getProgramStageInstanceMap(), concurrent.getProgramStageInstanceMap() );
+        assertEquals( sequential.getOrganisationUnitMap(), concurrent.getOrganisationUnitMap() );
+        assertEquals( sequential.getTrackedEntityInstanceMap(), concurrent.getTrackedEntityInstanceMap() );
+        assertEquals( sequential.getProgramInstanceMap(), concurrent.getProgramInstanceMap() );
+        assertEquals( sequential.getCategoryOptionComboMap(), concurrent.getCategoryOptionComboMap() );
+        assertEquals( sequential.getDataElementMap(), concurrent.getDataElementMap() );
+        assertEquals( sequential.getNotesMap(), concurrent.getNotesMap() );
+        assertEquals( sequential.getAssignedUserMap(), concurrent.getAssignedUserMap() );
+        assertEquals( sequential.getEventDataValueMap(), concurrent.getEventDataValueMap() );
+        assertEquals( sequential.getProgramWithOrgUnitsMap(), concurrent.getProgramWithOrgUnitsMap() );
+        assertEquals( sequential.getSupplierTimings().keySet(), concurrent.getSupplierTimings().keySet() );
+
+        assertEquals( Thread.currentThread(), supplierThreads.get( "programs" ) );
+        assertEquals( Thread.currentThread(), supplierThreads.get( "trackedEntityInstances" ) );
+        assertEquals( Thread.currentThread(), supplierThreads.get( "dataElements" ) );
+
+        for ( String supplier : Set.of( "programStageInstances", "organisationUnits", "programOrgUnits",
+            "categoryOptionCombos", "notes", "assignedUsers", "programInstances" ) )
+        {
+            assertNotEquals( Thread.currentThread(), supplierThreads.get( supplier ) );
+            assertTrue( supplierThreads.get( supplier ).getName().startsWith( "EVENT-IMPORT-CONTEXT-" ) );
+        }
+    }
+
+    @Test
+    void testLoadSequentiallyInReadWriteTransaction()
+    {
+        when( config.isEnabled( ConfigurationKey.EVENT_IMPORT_CONTEXT_PARALLEL ) ).thenReturn( true );
+
+        loader.load( importOptions, events );
+
+        assertTrue( supplierThreads.values().stream().allMatch( Thread.currentThread()::equals ) );
+    }
+
+    private <T> T recordThread( String supplier, T result )
+    {
+        supplierThreads.put( supplier, Thread.currentThread() );
+
+        return result;
+    }
+}
@@ -106,4 +106,19 @@ class DefaultMetadataExportServiceTest
         Assertions.assertFalse( exportParams.getClasses().contains( JobConfiguration.class ) );
         Assertions.assertTrue( exportParams.getClasses().contains( Option.class ) );
     }
-}
\ No newline at end of file
+
+    @Test
+    void getParamsFromMapStreaming()
+    {
+        Mockito.when( schemaService.getSchemaByPluralName( Mockito.eq( "options" ) ) )
+            .thenReturn( new Schema( Option.class, "option", "options" ) );
+
+        final Map<String, List<String>> params = new HashMap<>();
+        params.put( "options", Collections.singletonList( "true" ) );
+        params.put( "streaming", Collections.singletonList( "true" ) );
+
+        MetadataExportParams exportParams = service.getParamsFromMap( params );
+        Assertions.assertTrue( exportParams.isStreaming() );
+        Assertions.assertEquals( Collections.singleton( Option.class ), exportParams.getClasses() );
+    }
+}
@@ -29,14 +29,23 @@ package org.hisp.dhis.dxf2.metadata;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 
+import org.hibernate.SessionFactory;
 import org.hisp.dhis.TransactionalIntegrationTest;
+import org.hisp.dhis.category.CategoryCombo;
+import org.hisp.dhis.common.CodeGenerator;
 import org.hisp.dhis.common.IdentifiableObject;
 import org.hisp.dhis.common.IdentifiableObjectManager;
 import org.hisp.dhis.dataelement.DataElement;
 import org.hisp.dhis.dataelement.DataElementGroup;
+import org.hisp.dhis.fieldfilter.Defaults;
+import org.hisp.dhis.node.NodeService;
+import org.hisp.dhis.node.config.InclusionStrategy;
+import org.hisp.dhis.node.types.RootNode;
 import org.hisp.dhis.query.Disjunction;
 import org.hisp.dhis.query.Query;
 import org.hisp.dhis.query.Restrictions;
@@ -48,6 +57,8 @@ import org.hisp.dhis.user.UserGroupAccess;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.collect.Sets;
 
 /**
@@ -65,6 +76,12 @@ class MetadataExportServiceTest extends TransactionalIntegrationTest
     @Autowired
     private SchemaService schemaService;
 
+    @Autowired
+    private NodeService nodeService;
+
+    @Autowired
+    private SessionFactory sessionFactory;
+
     @Test
     void testValidate()
     {
@@ -159,6 +176,39 @@ class MetadataExportServiceTest extends TransactionalIntegrationTest
         assertEquals( 2, metadata.get( DataElement.class ).size() );
     }
 
+    @Test
+    void testStreamingMetadataExportMatchesMetadataExport()
+        throws Exception
+    {
+        createDataElements();
+
+        assertStreamingExportEquals( "application/json", Defaults.INCLUDE, InclusionStrategy.Include.NON_NULL );
+        assertStreamingExportEquals( "application/json", Defaults.EXCLUDE, InclusionStrategy.Include.NON_EMPTY );
+        assertStreamingExportEquals( "application/xml", Defaults.EXCLUDE, InclusionStrategy.Include.NON_NULL );
+    }
+
+    @Test
+    void testStreamingMetadataExportInDefaultOrderIsOrderedById()
+        throws Exception
+    {
+        createDataElements();
+
+        String export = serialize( getMetadataAsRootNode( false, List.of( "id:asc" ), Defaults.INCLUDE,
+            InclusionStrategy.Include.NON_NULL ), "application/json" );
+
+        manager.clear();
+
+        String streamingExport = serialize( getMetadataAsRootNode( true, List.of(), Defaults.INCLUDE,
+            InclusionStrategy.Include.NON_NULL ), "application/json" );
+
+        assertTrue( sessionFactory.getCurrentSession().getStatistics().getEntityCount() < 1000 );
+
+        ObjectMapper jsonMapper = new ObjectMapper();
+        assertEquals( 1200, jsonMapper.readTree( export ).get( "dataElements" ).size() );
+        assertEquals( jsonMapper.readTree( export ).get( "dataElements" ).findValues( "id" ),
+            jsonMapper.readTree( streamingExport ).get( "dataElements" ).findValues( "id" ) );
+    }
+
     // @Test
     // TODO Fix this
     public void testSkipSharing()
@@ -200,6 +250,84 @@ class MetadataExportServiceTest extends TransactionalIntegrationTest
         // assertFalse( object.getExternalAccess() );
     }
 
+    /**
+     * Exports the data elements and category combos ordered by id with and
+     * without streaming and compares the serialized exports, apart from the
+     * system info which contains the time of the export. The streaming export
+     * loads the data elements in pages and clears the session in between, so
+     * it ends with fewer data elements in the session than exported.
+     */
+    private void assertStreamingExportEquals( String contentType, Defaults defaults,
+        InclusionStrategy inclusionStrategy )
+        throws Exception
+    {
+        List<String> order = List.of( "id:asc" );
+        String export = serialize( getMetadataAsRootNode( false, order, defaults, inclusionStrategy ), contentType );
+
+        manager.clear();
+
+        String streamingExport = serialize( getMetadataAsRootNode( true, order, defaults, inclusionStrategy ),
+            contentType );
+
+        assertTrue( sessionFactory.getCurrentSession().getStatistics().getEntityCount() < 1000 );
+
+        if ( contentType.endsWith( "json" ) )
+        {
+            ObjectMapper jsonMapper = new ObjectMapper();
+            ObjectNode exportNode = (ObjectNode) jsonMapper.readTree( export );
+            ObjectNode streamingExportNode = (ObjectNode) jsonMapper.readTree( streamingExport );
+
+            assertEquals( 1200, exportNode.get( "dataElements" ).size() );
+            assertEquals( exportNode.without( "system" ), streamingExportNode.without( "system" ) );
+        }
+        else
+        {
+            String system = "(?s)<system>.*?</system>";
+
+            assertTrue( export.contains( "dataElements" ) );
+            assertEquals( export.replaceAll( system, "" ), streamingExport.replaceAll( system, "" ) );
+        }
+    }
+
+    private void createDataElements()
+    {
+        createUserAndInjectSecurityContext( true );
+        CategoryCombo categoryCombo = categoryService.getDefaultCategoryCombo();
+
+        for ( int i = 0; i < 1200; i++ )
+        {
+            DataElement dataElement = createDataElement( 'A', categoryCombo );
+            dataElement.setUid( CodeGenerator.generateUid() );
+            dataElement.setName( "DataElement" + i );
+            dataElement.setShortName( "DataElementShort" + i );
+            dataElement.setCode( "DataElementCode" + i );
+            manager.save( dataElement );
+        }
+
+        manager.flush();
+    }
+
+    private RootNode getMetadataAsRootNode( boolean streaming, List<String> order, Defaults defaults,
+        InclusionStrategy inclusionStrategy )
+    {
+        MetadataExportParams params = new MetadataExportParams();
+        params.setClasses( Sets.newHashSet( DataElement.class, CategoryCombo.class ) );
+        params.setDefaultOrder( order );
+        params.setDefaults( defaults );
+        params.setInclusionStrategy( inclusionStrategy );
+        params.setStreaming( streaming );
+
+        return metadataExportService.getMetadataAsRootNode( params );
+    }
+
+    private String serialize( RootNode rootNode, String contentType )
+    {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        nodeService.serialize( rootNode, contentType, outputStream );
+
+        return outputStream.toString( StandardCharsets.UTF_8 );
+    }
+
     @Override
     public boolean emptyDatabaseAfterTest()
     {
@@ -28,11 +28,13 @@
 package org.hisp.dhis.dxf2.metadata.objectbundle;
 
 import static org.hisp.dhis.dxf2.metadata.AtomicMode.NONE;
+import static org.hisp.dhis.external.conf.ConfigurationKey.METADATA_IMPORT_JDBC_BATCH_SIZE;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
@@ -41,6 +43,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.stream.StreamSupport;
 
+import javax.persistence.PersistenceException;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
 import org.hisp.dhis.TransactionalIntegrationTest;
 import org.hisp.dhis.category.Category;
 import org.hisp.dhis.category.CategoryCombo;
@@ -57,7 +63,9 @@ import org.hisp.dhis.dataset.DataSet;
 import org.hisp.dhis.dataset.DataSetElement;
 import org.hisp.dhis.dataset.Section;
 import org.hisp.dhis.dxf2.metadata.AtomicMode;
+import org.hisp.dhis.dxf2.metadata.objectbundle.feedback.ObjectBundleCommitReport;
 import org.hisp.dhis.dxf2.metadata.objectbundle.feedback.ObjectBundleValidationReport;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
 import org.hisp.dhis.feedback.ErrorCode;
 import org.hisp.dhis.importexport.ImportStrategy;
 import org.hisp.dhis.indicator.Indicator;
@@ -104,6 +112,12 @@ class ObjectBundleServiceTest extends TransactionalIntegrationTest
     @Autowired
     private UserService _userService;
 
+    @Autowired
+    private DhisConfigurationProvider config;
+
+    @Autowired
+    private SessionFactory sessionFactory;
+
     @Override
     protected void setUpTest()
         throws Exception
@@ -112,6 +126,12 @@ class ObjectBundleServiceTest extends TransactionalIntegrationTest
         userService = _userService;
     }
 
+    @Override
+    protected void tearDownTest()
+    {
+        config.getProperties().remove( METADATA_IMPORT_JDBC_BATCH_SIZE.getKey() );
+    }
+
     @Test
     void testCreateObjectBundle()
     {
@@ -826,6 +846,41 @@ class ObjectBundleServiceTest extends TransactionalIntegrationTest
         assertEquals( 2, indicators.size() );
     }
 
+    @Test
+    void testCreateSimpleMetadataWithJdbcBatching()
+        throws IOException
+    {
+        config.getProperties().put( METADATA_IMPORT_JDBC_BATCH_SIZE.getKey(), "50" );
+        Session session = sessionFactory.getCurrentSession();
+        Integer sessionBatchSize = session.getJdbcBatchSize();
+        ObjectBundle bundle = createSimpleMetadataBundle();
+        assertFalse( objectBundleValidationService.validate( bundle ).hasErrorReports() );
+        ObjectBundleCommitReport commitReport = objectBundleService.commit( bundle );
+        assertFalse( commitReport.hasErrorReports() );
+        assertEquals( ObjectBundleStatus.COMMITTED, bundle.getObjectBundleStatus() );
+        assertEquals( sessionBatchSize, session.getJdbcBatchSize() );
+        assertEquals( 1, manager.getAll( OrganisationUnit.class ).size() );
+        assertEquals( 1, manager.getAll( DataSet.class ).size() );
+        assertEquals( 2, manager.getAll( DataElement.class ).size() );
+        assertFalse( manager.getAll( UserRole.class ).isEmpty() );
+        assertEquals( "admin", manager.getAll( User.class ).get( 0 ).getUsername() );
+    }
+
+    @Test
+    void testCommitRestoresJdbcBatchSizeOnFailure()
+        throws IOException
+    {
+        config.getProperties().put( METADATA_IMPORT_JDBC_BATCH_SIZE.getKey(), "50" );
+        Session session = sessionFactory.getCurrentSession();
+        Integer sessionBatchSize = session.getJdbcBatchSize();
+        ObjectBundle bundle = createSimpleMetadataBundle();
+        assertFalse( objectBundleValidationService.validate( bundle ).hasErrorReports() );
+        // not-null violation after validation makes the commit fail
+        bundle.getObjects( DataElement.class, false ).get( 0 ).setName( null );
+        assertThrows( PersistenceException.class, () -> objectBundleService.commit( bundle ) );
+        assertEquals( sessionBatchSize, session.getJdbcBatchSize() );
+    }
+
     @Test
     void testCreateMetadataWithValidationRules()
         throws IOException
@@ -1380,6 +1435,18 @@ class ObjectBundleServiceTest extends TransactionalIntegrationTest
         assertEquals( objectUid, organisationUnits.get( 0 ).getUid() );
     }
 
+    private ObjectBundle createSimpleMetadataBundle()
+        throws IOException
+    {
+        Map<Class<? extends IdentifiableObject>, List<IdentifiableObject>> metadata = renderService
+            .fromMetadata( new ClassPathResource( "dxf2/simple_metadata.json" ).getInputStream(), RenderFormat.JSON );
+        ObjectBundleParams params = new ObjectBundleParams();
+        params.setObjectBundleMode( ObjectBundleMode.COMMIT );
+        params.setImportStrategy( ImportStrategy.CREATE );
+        params.setObjects( metadata );
+        return objectBundleService.create( params );
+    }
+
     private void defaultSetup()
     {
         DataElement de1 = createDataElement( 'A' );
@@ -47,7 +47,6 @@ import org.hisp.dhis.schema.PropertyType;
 import org.hisp.dhis.schema.Schema;
 import org.hisp.dhis.schema.SchemaService;
 import org.hisp.dhis.security.acl.Access;
-import org.hisp.dhis.system.util.ReflectionUtils;
 import org.hisp.dhis.user.sharing.Sharing;
 import org.hisp.dhis.user.sharing.UserAccess;
 import org.hisp.dhis.user.sharing.UserGroupAccess;
@@ -287,7 +286,7 @@ public class FieldPathHelper
 
         if ( property.isCollection() )
         {
-            Collection<?> currentObjects = ReflectionUtils.invokeMethod( object, property.getGetterMethod() );
+            Collection<?> currentObjects = property.readValue( object );
 
             for ( Object o : currentObjects )
             {
@@ -296,7 +295,7 @@ public class FieldPathHelper
         }
         else
         {
-            Object currentObject = ReflectionUtils.invokeMethod( object, property.getGetterMethod() );
+            Object currentObject = property.readValue( object );
             visitFieldPath( currentObject, new ArrayList<>( paths ), objectConsumer );
         }
     }
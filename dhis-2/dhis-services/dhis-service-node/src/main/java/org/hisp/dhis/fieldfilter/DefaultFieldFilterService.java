@@ -65,6 +65,7 @@ import org.hisp.dhis.node.Preset;
 import org.hisp.dhis.node.types.CollectionNode;
 import org.hisp.dhis.node.types.ComplexNode;
 import org.hisp.dhis.node.types.SimpleNode;
+import org.hisp.dhis.node.types.StreamingCollectionNode;
 import org.hisp.dhis.period.PeriodType;
 import org.hisp.dhis.preheat.Preheat;
 import org.hisp.dhis.schema.Property;
@@ -193,8 +194,6 @@ public class DefaultFieldFilterService implements FieldFilterService
     @Override
     public CollectionNode toCollectionNode( Class<?> wrapper, FieldFilterParams params )
     {
-        String fields = params.getFields() == null ? "" : Joiner.on( "," ).join( params.getFields() );
-
         Schema rootSchema = schemaService.getDynamicSchema( wrapper );
 
         CollectionNode collectionNode = new CollectionNode( rootSchema.getCollectionName() );
@@ -202,40 +201,22 @@ public class DefaultFieldFilterService implements FieldFilterService
 
         List<?> objects = params.getObjects();
 
-        if ( params.getSkipSharing() )
-        {
-            final List<String> fieldList = CollectionUtils.isEmpty( params.getFields() )
-                ? Collections.singletonList( "*" )
-                : params.getFields();
-            // excludes must be preserved (e.g. when field collections like
-            // :owner are used, which is not expanded by modify filter)
-            fields = Stream
-                .concat( fieldParser.modifyFilter( fieldList, SHARING_FIELDS ).stream(), SHARING_FIELDS.stream() )
-                .filter( org.apache.commons.lang3.StringUtils::isNotBlank ).distinct()
-                .collect( Collectors.joining( "," ) );
-        }
-
-        if ( params.getObjects().isEmpty() || objects.stream().allMatch( Objects::isNull ) )
+        if ( params.getObjects().isEmpty() )
         {
             return collectionNode;
         }
 
-        FieldMap fieldMap = new FieldMap();
-        Schema schema = schemaService.getDynamicSchema( HibernateProxyUtils.getRealClass( objects.get( 0 ) ) );
-
-        if ( StringUtils.isEmpty( fields ) )
+        if ( params.isStreaming() )
         {
-            for ( Property property : schema.getProperties() )
-            {
-                fieldMap.put( property.getName(), new FieldMap() );
-            }
+            return toStreamingCollectionNode( wrapper, objects, params );
         }
-        else
+
+        if ( objects.stream().allMatch( Objects::isNull ) )
         {
-            fieldMap = fieldParser.parse( fields );
+            return collectionNode;
         }
 
-        final FieldMap finalFieldMap = fieldMap;
+        FieldMap fieldMap = getFieldMap( HibernateProxyUtils.getRealClass( objects.get( 0 ) ), params );
 
         if ( params.getUser() == null )
         {
@@ -243,7 +224,7 @@ public class DefaultFieldFilterService implements FieldFilterService
         }
 
         objects.forEach( object -> {
-            AbstractNode node = buildNode( finalFieldMap, wrapper, object, params.getUser(), params.getDefaults() );
+            AbstractNode node = buildNode( fieldMap, wrapper, object, params.getUser(), params.getDefaults() );
 
             if ( node != null )
             {
@@ -254,6 +235,66 @@ public class DefaultFieldFilterService implements FieldFilterService
         return collectionNode;
     }
 
+    @Override
+    public CollectionNode toStreamingCollectionNode( Class<?> wrapper, Iterable<?> objects,
+        FieldFilterParams params )
+    {
+        Schema rootSchema = schemaService.getDynamicSchema( wrapper );
+
+        final FieldMap fieldMap = getFieldMap( wrapper, params );
+
+        if ( params.getUser() == null )
+        {
+            params.setUser( currentUserService.getCurrentUser() );
+        }
+
+        final User user = params.getUser();
+        final Defaults defaults = params.getDefaults();
+
+        CollectionNode streamingNode = new StreamingCollectionNode( rootSchema.getCollectionName(), objects,
+            object -> buildNode( fieldMap, wrapper, object, user, defaults ) );
+        streamingNode.setNamespace( rootSchema.getNamespace() );
+
+        return streamingNode;
+    }
+
+    /**
+     * Parses the fields of the given parameters, or uses all properties of the
+     * schema of the given class if no fields are given.
+     */
+    private FieldMap getFieldMap( Class<?> klass, FieldFilterParams params )
+    {
+        String fields = params.getFields() == null ? "" : Joiner.on( "," ).join( params.getFields() );
+
+        if ( params.getSkipSharing() )
+        {
+            final List<String> fieldList = CollectionUtils.isEmpty( params.getFields() )
+                ? Collections.singletonList( "*" )
+                : params.getFields();
+            // excludes must be preserved (e.g. when field collections like
+            // :owner are used, which is not expanded by modify filter)
+            fields = Stream
+                .concat( fieldParser.modifyFilter( fieldList, SHARING_FIELDS ).stream(), SHARING_FIELDS.stream() )
+                .filter( org.apache.commons.lang3.StringUtils::isNotBlank ).distinct()
+                .collect( Collectors.joining( "," ) );
+        }
+
+        if ( !StringUtils.isEmpty( fields ) )
+        {
+            return fieldParser.parse( fields );
+        }
+
+        FieldMap fieldMap = new FieldMap();
+        Schema schema = schemaService.getDynamicSchema( klass );
+
+        for ( Property property : schema.getProperties() )
+        {
+            fieldMap.put( property.getName(), new FieldMap() );
+        }
+
+        return fieldMap;
+    }
+
     @Override
     public CollectionNode toConcreteClassCollectionNode( final Class<?> klass, final FieldFilterParams params,
         final String collectionName, final String namespace )
@@ -419,7 +460,7 @@ public class DefaultFieldFilterService implements FieldFilterService
                 continue;
             }
 
-            Object returnValue = ReflectionUtils.invokeMethod( object, property.getGetterMethod() );
+            Object returnValue = property.readValue( object );
 
             Class<?> propertyClass = property.getKlass();
             Schema propertySchema = schemaService.getDynamicSchema( propertyClass );
@@ -784,7 +825,7 @@ public class DefaultFieldFilterService implements FieldFilterService
                 continue;
             }
 
-            Object returnValue = ReflectionUtils.invokeMethod( object, property.getGetterMethod() );
+            Object returnValue = property.readValue( object );
 
             SimpleNode simpleNode = new SimpleNode( field, returnValue );
             simpleNode.setAttribute( property.isAttribute() );
@@ -55,6 +55,12 @@ public final class FieldFilterParams
      */
     private boolean skipSharing;
 
+    /**
+     * Build the nodes of the collection one object at a time while it is being
+     * serialized, instead of building all of them up front.
+     */
+    private boolean streaming;
+
     private Defaults defaults = Defaults.INCLUDE;
 
     public FieldFilterParams( List<?> objects, List<String> fields )
@@ -131,4 +137,15 @@ public final class FieldFilterParams
     {
         this.skipSharing = skipSharing;
     }
+
+    public boolean isStreaming()
+    {
+        return streaming;
+    }
+
+    public FieldFilterParams setStreaming( boolean streaming )
+    {
+        this.streaming = streaming;
+        return this;
+    }
 }
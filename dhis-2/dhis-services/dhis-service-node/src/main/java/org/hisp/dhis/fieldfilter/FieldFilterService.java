@@ -51,6 +51,18 @@ public interface FieldFilterService
      */
     CollectionNode toCollectionNode( Class<?> wrapper, FieldFilterParams params );
 
+    /**
+     * Perform inclusion/exclusion on objects which are only iterated while the
+     * returned node is serialized. The objects of the parameters are ignored,
+     * and all properties of the wrapper are included if no fields are given.
+     *
+     * @param wrapper the class of the objects
+     * @param objects the objects, which may be loaded while being iterated
+     * @param params the fields, user and defaults to filter with
+     * @return a collection node which builds its child nodes on demand
+     */
+    CollectionNode toStreamingCollectionNode( Class<?> wrapper, Iterable<?> objects, FieldFilterParams params );
+
     /**
      * This method will build and return a CollectionNode based on the given
      * parameters. This method works with POJO/DTO without nested objects. It's
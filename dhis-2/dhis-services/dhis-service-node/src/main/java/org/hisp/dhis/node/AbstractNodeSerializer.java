@@ -28,12 +28,14 @@
 package org.hisp.dhis.node;
 
 import java.io.OutputStream;
+import java.util.Collections;
 
 import org.hisp.dhis.node.config.Config;
 import org.hisp.dhis.node.types.CollectionNode;
 import org.hisp.dhis.node.types.ComplexNode;
 import org.hisp.dhis.node.types.RootNode;
 import org.hisp.dhis.node.types.SimpleNode;
+import org.hisp.dhis.node.types.StreamingCollectionNode;
 import org.joda.time.format.DateTimeFormat;
 import org.joda.time.format.DateTimeFormatter;
 
@@ -141,6 +143,12 @@ public abstract class AbstractNodeSerializer implements NodeSerializer
     protected void writeCollectionNode( CollectionNode collectionNode )
         throws Exception
     {
+        if ( collectionNode instanceof StreamingCollectionNode )
+        {
+            writeStreamingCollectionNode( (StreamingCollectionNode) collectionNode );
+            return;
+        }
+
         if ( !config.getInclusionStrategy().include( collectionNode.getChildren() ) )
         {
             return;
@@ -160,6 +168,28 @@ public abstract class AbstractNodeSerializer implements NodeSerializer
     protected abstract void endWriteCollectionNode( CollectionNode collectionNode )
         throws Exception;
 
+    private void writeStreamingCollectionNode( StreamingCollectionNode collectionNode )
+        throws Exception
+    {
+        // The objects are not necessarily a collection, so the inclusion
+        // strategy is applied to an empty collection in their place
+
+        if ( !config.getInclusionStrategy().include( Collections.emptyList() ) && collectionNode.isEmpty() )
+        {
+            return;
+        }
+
+        startWriteCollectionNode( collectionNode );
+
+        for ( Node node : collectionNode.streamChildren() )
+        {
+            dispatcher( node );
+            flushStream();
+        }
+
+        endWriteCollectionNode( collectionNode );
+    }
+
     protected void dispatcher( Node node )
         throws Exception
     {
@@ -47,6 +47,7 @@ import org.hisp.dhis.node.types.CollectionNode;
 import org.hisp.dhis.node.types.ComplexNode;
 import org.hisp.dhis.node.types.RootNode;
 import org.hisp.dhis.node.types.SimpleNode;
+import org.hisp.dhis.node.types.StreamingCollectionNode;
 import org.hisp.dhis.util.DateUtils;
 import org.springframework.context.annotation.Scope;
 import org.springframework.context.annotation.ScopedProxyMode;
@@ -210,7 +211,7 @@ public class StAXNodeSerializer extends AbstractNodeSerializer
     protected void startWriteCollectionNode( CollectionNode collectionNode )
         throws Exception
     {
-        if ( collectionNode.isWrapping() && !collectionNode.getChildren().isEmpty() )
+        if ( collectionNode.isWrapping() && !isEmpty( collectionNode ) )
         {
             writeStartElement( collectionNode );
         }
@@ -220,12 +221,22 @@ public class StAXNodeSerializer extends AbstractNodeSerializer
     protected void endWriteCollectionNode( CollectionNode collectionNode )
         throws Exception
     {
-        if ( collectionNode.isWrapping() && !collectionNode.getChildren().isEmpty() )
+        if ( collectionNode.isWrapping() && !isEmpty( collectionNode ) )
         {
             writer.writeEndElement();
         }
     }
 
+    private boolean isEmpty( CollectionNode collectionNode )
+    {
+        if ( collectionNode instanceof StreamingCollectionNode )
+        {
+            return ((StreamingCollectionNode) collectionNode).isEmpty();
+        }
+
+        return collectionNode.getChildren().isEmpty();
+    }
+
     private void writeStartElement( Node node )
         throws XMLStreamException
     {
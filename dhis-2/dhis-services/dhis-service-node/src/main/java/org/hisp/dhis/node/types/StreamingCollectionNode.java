@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.node.types;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+import org.hisp.dhis.node.Node;
+
+/**
+ * Collection node which builds its child nodes on demand while being
+ * serialized, instead of holding all of them. Only the child currently being
+ * written is attached to this node, so the memory needed to serialize the
+ * collection is bound by the size of a single child rather than by the size of
+ * the whole collection. The objects only need to be iterable, so they can be
+ * loaded while being iterated, and are iterated once per serialization.
+ *
+ * @deprecated No new usage of this class and its children should happen, we
+ *             should instead directly use Jackson ObjectMappers or Jackson
+ *             object factory if we need dynamically created objects.
+ */
+@Deprecated
+public class StreamingCollectionNode extends CollectionNode
+{
+    private final Iterable<?> objects;
+
+    private final Function<Object, ? extends Node> nodeBuilder;
+
+    private Boolean empty;
+
+    private Iterator<?> pendingIterator;
+
+    public StreamingCollectionNode( String name, Iterable<?> objects, Function<Object, ? extends Node> nodeBuilder )
+    {
+        super( name );
+        this.objects = objects;
+        this.nodeBuilder = nodeBuilder;
+    }
+
+    /**
+     * @return the objects the child nodes are built from
+     */
+    public Iterable<?> getObjects()
+    {
+        return objects;
+    }
+
+    /**
+     * Checks whether there are any objects to build child nodes from. The
+     * check is done once, and the iteration it starts is continued by the next
+     * call to {@link #streamChildren()}, so the objects are not iterated an
+     * extra time.
+     *
+     * @return true if there are no objects
+     */
+    public boolean isEmpty()
+    {
+        if ( empty == null )
+        {
+            pendingIterator = objects.iterator();
+            empty = !pendingIterator.hasNext();
+        }
+
+        return empty;
+    }
+
+    /**
+     * Returns the child nodes, building each one when it is requested. The
+     * previously returned child is detached from this node when the next one
+     * is built. Objects for which no node is built are skipped.
+     *
+     * @return an iterable over the child nodes, which can be iterated once per
+     *         serialization
+     */
+    public Iterable<Node> streamChildren()
+    {
+        return () -> new Iterator<Node>()
+        {
+            private final Iterator<?> objectIterator = getObjectIterator();
+
+            private Node next;
+
+            @Override
+            public boolean hasNext()
+            {
+                while ( next == null && objectIterator.hasNext() )
+                {
+                    setChildren( new ArrayList<>( 1 ) );
+                    next = addChild( nodeBuilder.apply( objectIterator.next() ) );
+                }
+
+                return next != null;
+            }
+
+            @Override
+            public Node next()
+            {
+                if ( !hasNext() )
+                {
+                    throw new NoSuchElementException();
+                }
+
+                Node node = next;
+                next = null;
+                return node;
+            }
+        };
+    }
+
+    private Iterator<?> getObjectIterator()
+    {
+        Iterator<?> iterator = pendingIterator != null ? pendingIterator : objects.iterator();
+        pendingIterator = null;
+        return iterator;
+    }
+}
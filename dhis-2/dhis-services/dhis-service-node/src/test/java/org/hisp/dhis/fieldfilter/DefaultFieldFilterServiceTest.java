@@ -38,6 +38,7 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.annotation.Nonnull;
 
@@ -54,6 +55,7 @@ import org.hisp.dhis.node.transformers.PluckNodeTransformer;
 import org.hisp.dhis.node.types.CollectionNode;
 import org.hisp.dhis.node.types.ComplexNode;
 import org.hisp.dhis.node.types.SimpleNode;
+import org.hisp.dhis.node.types.StreamingCollectionNode;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.schema.DefaultPropertyIntrospectorService;
 import org.hisp.dhis.schema.DefaultSchemaService;
@@ -164,6 +166,40 @@ class DefaultFieldFilterServiceTest
         assertThat( ouIds, Matchers.containsInAnyOrder( "abc1", "abc2" ) );
     }
 
+    @Test
+    void streamingCollectionNodeIteratesObjectsWhenSerialized()
+    {
+        final CategoryOption option1 = new CategoryOption();
+        option1.setUid( "def1" );
+
+        final CategoryOption option2 = new CategoryOption();
+        option2.setUid( "def2" );
+
+        final AtomicInteger iterations = new AtomicInteger();
+        final Iterable<CategoryOption> options = () -> {
+            iterations.incrementAndGet();
+            return Arrays.asList( option1, option2 ).iterator();
+        };
+
+        final CollectionNode collectionNode = service.toStreamingCollectionNode( CategoryOption.class, options,
+            new FieldFilterParams( Collections.emptyList(), Collections.singletonList( "id" ) ) );
+
+        Assertions.assertTrue( collectionNode instanceof StreamingCollectionNode );
+        Assertions.assertEquals( "categoryOptions", collectionNode.getName() );
+        Assertions.assertEquals( 0, iterations.get() );
+
+        final List<String> ids = new ArrayList<>();
+
+        for ( Node child : ((StreamingCollectionNode) collectionNode).streamChildren() )
+        {
+            ids.add( String.valueOf(
+                ((SimpleNode) getNamedNode( ((ComplexNode) child).getUnorderedChildren(), "id" )).getValue() ) );
+        }
+
+        Assertions.assertEquals( Arrays.asList( "def1", "def2" ), ids );
+        Assertions.assertEquals( 1, iterations.get() );
+    }
+
     @Test
     void baseIdentifiableName()
     {
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.node.types;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hisp.dhis.node.Node;
+import org.hisp.dhis.node.config.InclusionStrategy;
+import org.hisp.dhis.node.serializers.Jackson2JsonNodeSerializer;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Unit tests for {@link StreamingCollectionNode}.
+ */
+class StreamingCollectionNodeTest
+{
+    @Test
+    void streamChildrenBuildsNodesOnDemand()
+    {
+        AtomicInteger built = new AtomicInteger();
+        StreamingCollectionNode collectionNode = new StreamingCollectionNode( "tests", Arrays.asList( "a", "b" ),
+            object -> {
+                built.incrementAndGet();
+                return toNode( object );
+            } );
+
+        assertEquals( 0, built.get() );
+
+        List<Node> children = new ArrayList<>();
+
+        for ( Node child : collectionNode.streamChildren() )
+        {
+            assertEquals( children.size() + 1, built.get() );
+            assertEquals( 1, collectionNode.getUnorderedChildren().size() );
+            assertSame( collectionNode, child.getParent() );
+            children.add( child );
+        }
+
+        assertEquals( 2, children.size() );
+    }
+
+    @Test
+    void streamChildrenSkipsObjectsWithoutNode()
+    {
+        StreamingCollectionNode collectionNode = new StreamingCollectionNode( "tests",
+            Arrays.asList( "a", null, "b" ), object -> object == null ? null : toNode( object ) );
+
+        List<Node> children = new ArrayList<>();
+        collectionNode.streamChildren().forEach( children::add );
+
+        assertEquals( 2, children.size() );
+    }
+
+    @Test
+    void serializesSameAsCollectionNode()
+        throws Exception
+    {
+        List<String> objects = Arrays.asList( "a", "b", "c" );
+
+        CollectionNode collectionNode = new CollectionNode( "tests" );
+        objects.forEach( object -> collectionNode.addChild( toNode( object ) ) );
+
+        assertEquals( serialize( collectionNode ),
+            serialize( new StreamingCollectionNode( "tests", objects, this::toNode ) ) );
+    }
+
+    @Test
+    void serializesEmptyCollection()
+        throws Exception
+    {
+        String json = serialize( new StreamingCollectionNode( "tests", new ArrayList<>(), this::toNode ) );
+
+        assertTrue( json.contains( "\"tests\":[]" ) );
+    }
+
+    @Test
+    void serializesIterableInSingleIteration()
+        throws Exception
+    {
+        AtomicInteger iterations = new AtomicInteger();
+        List<String> objects = Arrays.asList( "a", "b", "c" );
+        Iterable<String> iterable = () -> {
+            iterations.incrementAndGet();
+            return objects.iterator();
+        };
+
+        CollectionNode collectionNode = new CollectionNode( "tests" );
+        objects.forEach( object -> collectionNode.addChild( toNode( object ) ) );
+
+        assertEquals( serialize( collectionNode, InclusionStrategy.Include.NON_EMPTY ),
+            serialize( new StreamingCollectionNode( "tests", iterable, this::toNode ),
+                InclusionStrategy.Include.NON_EMPTY ) );
+        assertEquals( 1, iterations.get() );
+    }
+
+    @Test
+    void skipsEmptyIterableWhenNonEmptyIsRequired()
+        throws Exception
+    {
+        Iterable<String> iterable = () -> new ArrayList<String>().iterator();
+
+        String json = serialize( new StreamingCollectionNode( "tests", iterable, this::toNode ),
+            InclusionStrategy.Include.NON_EMPTY );
+
+        assertFalse( json.contains( "tests" ) );
+    }
+
+    private Node toNode( Object object )
+    {
+        ComplexNode complexNode = new ComplexNode( "test" );
+        complexNode.addChild( new SimpleNode( "id", object ) );
+        complexNode.addChild( new SimpleNode( "name", "Name " + object ) );
+        return complexNode;
+    }
+
+    private String serialize( CollectionNode collectionNode )
+        throws Exception
+    {
+        return serialize( collectionNode, InclusionStrategy.Include.NON_NULL );
+    }
+
+    private String serialize( CollectionNode collectionNode, InclusionStrategy inclusionStrategy )
+        throws Exception
+    {
+        RootNode rootNode = new RootNode( "metadata" );
+        rootNode.getConfig().setInclusionStrategy( inclusionStrategy );
+        rootNode.addChild( collectionNode );
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        new Jackson2JsonNodeSerializer( new ObjectMapper() ).serialize( rootNode, outputStream );
+
+        return outputStream.toString( "UTF-8" );
+    }
+}
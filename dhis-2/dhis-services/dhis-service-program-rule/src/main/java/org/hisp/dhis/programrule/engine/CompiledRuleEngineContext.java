@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.programrule.engine;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import lombok.Value;
+
+import org.hisp.dhis.rules.models.Rule;
+import org.hisp.dhis.rules.models.RuleVariable;
+
+/**
+ * The parts of a rule engine context which only depend on metadata, being the
+ * mapped program rules and program rule variables of a program or program
+ * stage, the constants and the organisation unit groups referenced by the rule
+ * conditions. Instances are immutable and shared between evaluations.
+ */
+@Value
+public class CompiledRuleEngineContext
+{
+    public static final CompiledRuleEngineContext EMPTY = new CompiledRuleEngineContext( Collections.emptyList(),
+        Collections.emptyList(), Collections.emptyMap(), Collections.emptyList() );
+
+    private final List<Rule> rules;
+
+    private final List<RuleVariable> ruleVariables;
+
+    private final Map<String, String> constants;
+
+    /**
+     * UIDs of organisation unit groups referenced by d2:inOrgUnitGroup, for
+     * which the members are looked up for every evaluation.
+     */
+    private final List<String> orgUnitGroups;
+
+    public boolean isEmpty()
+    {
+        return rules.isEmpty();
+    }
+}
@@ -27,7 +27,10 @@
  */
 package org.hisp.dhis.programrule.engine;
 
+import static org.hisp.dhis.commons.util.TextUtils.joinHyphen;
+
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import lombok.NonNull;
@@ -74,6 +77,9 @@ public class ProgramRuleEngine
     @NonNull
     private final SupplementaryDataProvider supplementaryDataProvider;
 
+    @NonNull
+    private final RuleEngineContextCache ruleEngineContextCache;
+
     public List<RuleEffect> evaluate( ProgramInstance enrollment, Set<ProgramStageInstance> events )
     {
         return evaluateProgramRules( enrollment, null, enrollment.getProgram(), Collections.emptyList(),
@@ -83,13 +89,45 @@ public class ProgramRuleEngine
     public List<RuleEffects> evaluateEnrollmentAndEvents( ProgramInstance enrollment, Set<ProgramStageInstance> events,
         List<TrackedEntityAttributeValue> trackedEntityAttributeValues )
     {
-        return evaluateProgramRulesForMultipleTrackerObjects( enrollment, events.stream().findAny().orElse( null ),
-            enrollment.getProgram(), trackedEntityAttributeValues, getRuleEvents( events, null ) );
+        return prepareEnrollmentAndEvents( enrollment, events, trackedEntityAttributeValues ).get();
     }
 
     public List<RuleEffects> evaluateProgramEvents( Set<ProgramStageInstance> events, Program program )
     {
-        return evaluateProgramRulesForMultipleTrackerObjects( null, null, program, null,
+        return prepareProgramEvents( events, program ).get();
+    }
+
+    /**
+     * Prepares the evaluation of the program rules for the given enrollment
+     * and events. Everything which depends on the persistence session or the
+     * current user is done on the calling thread, whereas the returned
+     * supplier only runs the rule engine and can be invoked on any thread.
+     *
+     * @param enrollment the {@link ProgramInstance}.
+     * @param events the events of the enrollment.
+     * @param trackedEntityAttributeValues the attribute values of the tracked
+     *        entity.
+     * @return a supplier of the rule effects.
+     */
+    public Supplier<List<RuleEffects>> prepareEnrollmentAndEvents( ProgramInstance enrollment,
+        Set<ProgramStageInstance> events, List<TrackedEntityAttributeValue> trackedEntityAttributeValues )
+    {
+        return prepareProgramRulesForMultipleTrackerObjects( enrollment, events.stream().findAny().orElse( null ),
+            enrollment.getProgram(), trackedEntityAttributeValues, getRuleEvents( events, null ) );
+    }
+
+    /**
+     * Prepares the evaluation of the program rules for the given program
+     * events, see
+     * {@link #prepareEnrollmentAndEvents(ProgramInstance, Set, List)}.
+     *
+     * @param events the program events.
+     * @param program the {@link Program}.
+     * @return a supplier of the rule effects.
+     */
+    public Supplier<List<RuleEffects>> prepareProgramEvents( Set<ProgramStageInstance> events, Program program )
+    {
+        return prepareProgramRulesForMultipleTrackerObjects( null, null, program, null,
             getRuleEvents( events, null ) );
     }
 
@@ -124,25 +162,39 @@ public class ProgramRuleEngine
         }
     }
 
-    private List<RuleEffects> evaluateProgramRulesForMultipleTrackerObjects( ProgramInstance enrollment,
+    private Supplier<List<RuleEffects>> prepareProgramRulesForMultipleTrackerObjects( ProgramInstance enrollment,
         ProgramStageInstance programStageInstance, Program program,
         List<TrackedEntityAttributeValue> trackedEntityAttributeValues, List<RuleEvent> ruleEvents )
     {
+        RuleEngine ruleEngine;
+
         try
         {
-            RuleEngine ruleEngine = getRuleEngine( programStageInstance, program, enrollment,
+            ruleEngine = getRuleEngine( programStageInstance, program, enrollment,
                 trackedEntityAttributeValues, ruleEvents );
-            if ( ruleEngine == null )
-            {
-                return Collections.emptyList();
-            }
-            return ruleEngine.evaluate().call();
         }
         catch ( Exception e )
         {
             log.error( DebugUtils.getStackTrace( e ) );
-            return Collections.emptyList();
+            return Collections::emptyList;
+        }
+
+        if ( ruleEngine == null )
+        {
+            return Collections::emptyList;
         }
+
+        return () -> {
+            try
+            {
+                return ruleEngine.evaluate().call();
+            }
+            catch ( Exception e )
+            {
+                log.error( DebugUtils.getStackTrace( e ) );
+                return Collections.emptyList();
+            }
+        };
     }
 
     private RuleEngine getRuleEngine( ProgramStageInstance programStageInstance, Program program,
@@ -153,20 +205,19 @@ public class ProgramRuleEngine
         String programStageUid = Optional.ofNullable( programStageInstance ).map( p -> p.getProgramStage().getUid() )
             .orElse( null );
 
-        List<ProgramRule> programRules = implementableRuleService.getProgramRules( program, programStageUid );
+        CompiledRuleEngineContext compiledContext = getCompiledRuleEngineContext( program, programStageUid );
 
-        if ( programRules.isEmpty() )
+        if ( compiledContext.isEmpty() )
         {
             return null;
         }
 
         RuleEnrollment ruleEnrollment = getRuleEnrollment( enrollment, trackedEntityAttributeValues );
 
-        RuleEngine.Builder builder = getRuleEngineContext( program,
-            programRules )
-                .toEngineBuilder()
-                .triggerEnvironment( TriggerEnvironment.SERVER )
-                .events( ruleEvents );
+        RuleEngine.Builder builder = getRuleEngineContext( compiledContext )
+            .toEngineBuilder()
+            .triggerEnvironment( TriggerEnvironment.SERVER )
+            .events( ruleEvents );
 
         if ( ruleEnrollment != null )
         {
@@ -222,8 +273,40 @@ public class ProgramRuleEngine
             RuleEngineIntent.DESCRIPTION ).build();
     }
 
-    private RuleEngineContext getRuleEngineContext( Program program, List<ProgramRule> programRules )
+    private RuleEngineContext getRuleEngineContext( CompiledRuleEngineContext compiledContext )
+    {
+        Map<String, List<String>> supplementaryData = supplementaryDataProvider
+            .getSupplementaryDataForOrgUnitGroups( compiledContext.getOrgUnitGroups() );
+
+        return RuleEngineContext.builder()
+            .supplementaryData( supplementaryData )
+            .rules( compiledContext.getRules() )
+            .ruleVariables( compiledContext.getRuleVariables() )
+            .constantsValue( compiledContext.getConstants() )
+            .build();
+    }
+
+    /**
+     * Returns the compiled context for the given program and program stage.
+     * The key includes the implementable rule service as the rule engines for
+     * notifications and for the tracker importer select different rules.
+     */
+    private CompiledRuleEngineContext getCompiledRuleEngineContext( Program program, String programStageUid )
+    {
+        String key = joinHyphen( implementableRuleService.getClass().getName(), program.getUid(), programStageUid );
+
+        return ruleEngineContextCache.get( key, () -> compileRuleEngineContext( program, programStageUid ) );
+    }
+
+    private CompiledRuleEngineContext compileRuleEngineContext( Program program, String programStageUid )
     {
+        List<ProgramRule> programRules = implementableRuleService.getProgramRules( program, programStageUid );
+
+        if ( programRules.isEmpty() )
+        {
+            return CompiledRuleEngineContext.EMPTY;
+        }
+
         List<ProgramRuleVariable> programRuleVariables = programRuleVariableService
             .getProgramRuleVariable( program );
 
@@ -231,14 +314,12 @@ public class ProgramRuleEngine
             .stream()
             .collect( Collectors.toMap( Map.Entry::getKey, v -> v.getValue().toString() ) );
 
-        Map<String, List<String>> supplementaryData = supplementaryDataProvider.getSupplementaryData( programRules );
-
-        return RuleEngineContext.builder()
-            .supplementaryData( supplementaryData )
-            .rules( programRuleEntityMapperService.toMappedProgramRules( programRules ) )
-            .ruleVariables( programRuleEntityMapperService.toMappedProgramRuleVariables( programRuleVariables ) )
-            .constantsValue( constantMap )
-            .build();
+        return new CompiledRuleEngineContext(
+            Collections.unmodifiableList( programRuleEntityMapperService.toMappedProgramRules( programRules ) ),
+            Collections.unmodifiableList(
+                programRuleEntityMapperService.toMappedProgramRuleVariables( programRuleVariables ) ),
+            Collections.unmodifiableMap( constantMap ),
+            Collections.unmodifiableList( supplementaryDataProvider.getOrgUnitGroups( programRules ) ) );
     }
 
     private RuleEngine.Builder ruleEngineBuilder( List<ProgramRule> programRules,
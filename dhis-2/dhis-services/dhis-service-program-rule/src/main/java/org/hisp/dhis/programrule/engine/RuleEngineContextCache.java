@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.programrule.engine;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.hisp.dhis.cache.Cache;
+import org.hisp.dhis.cache.CacheProvider;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Cache of {@link CompiledRuleEngineContext} per rule engine, program and
+ * program stage. The cache is shared by all {@link ProgramRuleEngine}
+ * instances and is invalidated when program rules, program rule actions,
+ * program rule variables or constants change.
+ */
+@Component
+public class RuleEngineContextCache implements MeterBinder
+{
+    private final Cache<CompiledRuleEngineContext> cache;
+
+    /**
+     * Incremented on every invalidation, so that contexts compiled from
+     * metadata read before an invalidation are not put into the cache.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder invalidations = new LongAdder();
+
+    public RuleEngineContextCache( CacheProvider cacheProvider )
+    {
+        this.cache = cacheProvider.createProgramRuleEngineContextCache();
+    }
+
+    /**
+     * Returns the context for the given key, compiling it with the given
+     * loader if it is not cached.
+     *
+     * @param key the cache key.
+     * @param loader the loader which compiles the context.
+     * @return a {@link CompiledRuleEngineContext}.
+     */
+    public CompiledRuleEngineContext get( String key, Supplier<CompiledRuleEngineContext> loader )
+    {
+        Optional<CompiledRuleEngineContext> cached = cache.getIfPresent( key );
+
+        if ( cached.isPresent() )
+        {
+            hits.increment();
+            return cached.get();
+        }
+
+        misses.increment();
+
+        long currentGeneration = generation.get();
+
+        CompiledRuleEngineContext context = loader.get();
+
+        if ( currentGeneration == generation.get() )
+        {
+            cache.put( key, context );
+        }
+
+        return context;
+    }
+
+    /**
+     * Removes all compiled contexts.
+     */
+    public void invalidateAll()
+    {
+        generation.incrementAndGet();
+        invalidations.increment();
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void bindTo( MeterRegistry registry )
+    {
+        bindCounter( registry, "hit", hits );
+        bindCounter( registry, "miss", misses );
+
+        FunctionCounter.builder( "programrule.context.cache.invalidations", invalidations, LongAdder::sum )
+            .description( "Number of program rule engine context cache invalidations" )
+            .register( registry );
+    }
+
+    private void bindCounter( MeterRegistry registry, String result, LongAdder counter )
+    {
+        FunctionCounter.builder( "programrule.context.cache.requests", counter, LongAdder::sum )
+            .tag( "result", result )
+            .description( "Number of program rule engine context cache lookups by result" )
+            .register( registry );
+    }
+}
@@ -65,6 +65,18 @@ public class SupplementaryDataProvider
     private final CurrentUserService currentUserService;
 
     public Map<String, List<String>> getSupplementaryData( List<ProgramRule> programRules )
+    {
+        return getSupplementaryDataForOrgUnitGroups( getOrgUnitGroups( programRules ) );
+    }
+
+    /**
+     * Returns the UIDs of the organisation unit groups referenced by
+     * d2:inOrgUnitGroup in the conditions of the given program rules.
+     *
+     * @param programRules the program rules.
+     * @return a list of organisation unit group UIDs.
+     */
+    public List<String> getOrgUnitGroups( List<ProgramRule> programRules )
     {
         List<String> orgUnitGroups = new ArrayList<>();
 
@@ -78,6 +90,19 @@ public class SupplementaryDataProvider
             }
         }
 
+        return orgUnitGroups;
+    }
+
+    /**
+     * Returns the supplementary data for the given organisation unit groups,
+     * being the members of each group and the user roles of the current user.
+     * Must be called on the thread of the current user.
+     *
+     * @param orgUnitGroups the organisation unit group UIDs.
+     * @return a map of supplementary data.
+     */
+    public Map<String, List<String>> getSupplementaryDataForOrgUnitGroups( List<String> orgUnitGroups )
+    {
         Map<String, List<String>> supplementaryData = Maps.newHashMap();
 
         if ( !orgUnitGroups.isEmpty() )
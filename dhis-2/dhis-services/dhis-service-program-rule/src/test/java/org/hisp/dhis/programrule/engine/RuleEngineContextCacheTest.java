@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.programrule.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hisp.dhis.cache.Cache;
+import org.hisp.dhis.cache.CacheProvider;
+import org.hisp.dhis.cache.LocalCache;
+import org.hisp.dhis.cache.SimpleCacheBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith( MockitoExtension.class )
+class RuleEngineContextCacheTest
+{
+    @Mock
+    private CacheProvider cacheProvider;
+
+    private RuleEngineContextCache contextCache;
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp()
+    {
+        Mockito.<Cache<Object>> when( cacheProvider.createProgramRuleEngineContextCache() )
+            .thenReturn( new LocalCache<>( new SimpleCacheBuilder<>() ) );
+
+        contextCache = new RuleEngineContextCache( cacheProvider );
+    }
+
+    @Test
+    void getReusesCompiledContext()
+    {
+        CompiledRuleEngineContext first = contextCache.get( "programA", this::load );
+        CompiledRuleEngineContext second = contextCache.get( "programA", this::load );
+
+        assertSame( first, second );
+        assertEquals( 1, loads.get() );
+    }
+
+    @Test
+    void invalidateAllRemovesCompiledContexts()
+    {
+        contextCache.get( "programA", this::load );
+        contextCache.invalidateAll();
+        contextCache.get( "programA", this::load );
+
+        assertEquals( 2, loads.get() );
+    }
+
+    @Test
+    void contextLoadedDuringInvalidationIsNotCached()
+    {
+        contextCache.get( "programA", () -> {
+            contextCache.invalidateAll();
+            return load();
+        } );
+        contextCache.get( "programA", this::load );
+
+        assertEquals( 2, loads.get() );
+    }
+
+    private CompiledRuleEngineContext load()
+    {
+        loads.incrementAndGet();
+
+        return new CompiledRuleEngineContext( Collections.emptyList(), Collections.emptyList(),
+            Collections.emptyMap(), Collections.emptyList() );
+    }
+}
@@ -28,6 +28,8 @@
 package org.hisp.dhis.predictor;
 
 import static com.google.common.base.MoreObjects.firstNonNull;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
 import static java.lang.String.format;
 import static org.hisp.dhis.common.OrganisationUnitDescendants.DESCENDANTS;
 import static org.hisp.dhis.expression.MissingValueStrategy.NEVER_SKIP;
@@ -35,18 +37,26 @@ import static org.hisp.dhis.expression.ParseType.PREDICTOR_EXPRESSION;
 import static org.hisp.dhis.expression.ParseType.PREDICTOR_SKIP_TEST;
 import static org.hisp.dhis.predictor.PredictionFormatter.formatPrediction;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.hibernate.Hibernate;
 import org.hisp.dhis.analytics.AnalyticsService;
 import org.hisp.dhis.analytics.AnalyticsServiceTarget;
 import org.hisp.dhis.analytics.DataType;
@@ -58,6 +68,7 @@ import org.hisp.dhis.common.IdentifiableObjectManager;
 import org.hisp.dhis.common.ListMap;
 import org.hisp.dhis.common.MapMap;
 import org.hisp.dhis.commons.util.DebugUtils;
+import org.hisp.dhis.commons.util.SystemUtils;
 import org.hisp.dhis.dataelement.DataElement;
 import org.hisp.dhis.dataelement.DataElementOperand;
 import org.hisp.dhis.datavalue.DataValue;
@@ -79,6 +90,7 @@ import org.hisp.dhis.user.CurrentUserServiceTarget;
 import org.hisp.dhis.user.User;
 import org.hisp.dhis.util.DateUtils;
 import org.hisp.quick.BatchHandlerFactory;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -202,10 +214,7 @@ public class DefaultPredictionService
     @Override
     public void predict( Predictor predictor, Date startDate, Date endDate, PredictionSummary predictionSummary )
     {
-        Expression generator = predictor.getGenerator();
-        Expression skipTest = predictor.getSampleSkipTest();
         DataElement outputDataElement = predictor.getOutput();
-        DataType expressionDataType = DataType.fromValueType( outputDataElement.getValueType() );
 
         ExpressionInfo exInfo = new ExpressionInfo();
         ExpressionParams baseExParams = getBaseExParams( predictor, exInfo );
@@ -224,7 +233,7 @@ public class DefaultPredictionService
             : predictor.getOutputCombo();
         DataElementOperand outputDataElementOperand = new DataElementOperand( outputDataElement, outputOptionCombo );
 
-        boolean requireData = generator.getMissingValueStrategy() != NEVER_SKIP && (!items.isEmpty());
+        boolean requireData = predictor.getGenerator().getMissingValueStrategy() != NEVER_SKIP && (!items.isEmpty());
         DimensionalItemObject forwardReference = addOutputToItems( outputDataElementOperand, items );
 
         Set<OrganisationUnit> currentUserOrgUnits = new HashSet<>();
@@ -235,10 +244,24 @@ public class DefaultPredictionService
             currentUserOrgUnits = currentUser.getOrganisationUnits();
         }
 
-        PredictionDataConsolidator consolidator = new PredictionDataConsolidator( items,
-            predictor.getOrganisationUnitDescendants().equals( DESCENDANTS ),
-            new PredictionDataValueFetcher( dataValueService, categoryService ),
-            new PredictionAnalyticsDataFetcher( analyticsService, categoryService ) );
+        PredictionRunContext context = PredictionRunContext.newBuilder()
+            .withPredictor( predictor )
+            .withItems( items )
+            .withOutputPeriods( outputPeriods )
+            .withExistingOutputPeriods( existingOutputPeriods )
+            .withSamplePeriodsMap( samplePeriodsMap )
+            .withAllSamplePeriods( allSamplePeriods )
+            .withAnalyticsQueryPeriods( analyticsQueryPeriods )
+            .withDataValueQueryPeriods( dataValueQueryPeriods )
+            .withExInfo( exInfo )
+            .withBaseExParams( baseExParams )
+            .withOutputDataElementOperand( outputDataElementOperand )
+            .withOutputOptionCombo( outputOptionCombo )
+            .withDefaultCategoryOptionCombo( defaultCategoryOptionCombo )
+            .withForwardReference( forwardReference )
+            .withRequireData( requireData )
+            .withCurrentUser( currentUser )
+            .build();
 
         PredictionWriter predictionWriter = new PredictionWriter( dataValueService, batchHandlerFactory );
 
@@ -251,59 +274,232 @@ public class DefaultPredictionService
             List<OrganisationUnit> orgUnits = organisationUnitService
                 .getOrganisationUnitsAtOrgUnitLevels( Lists.newArrayList( orgUnitLevel ), currentUserOrgUnits );
 
-            consolidator.init( currentUserOrgUnits, orgUnitLevel.getLevel(), orgUnits,
-                dataValueQueryPeriods, analyticsQueryPeriods, existingOutputPeriods, outputDataElementOperand );
+            predictOrgUnitLevel( context, orgUnitLevel.getLevel(), orgUnits, predictionWriter );
+        }
 
-            PredictionData data;
+        predictionWriter.flush();
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive Methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Predicts the organisation units of one level in chunks of
+     * {@link PredictionRunContext#ORG_UNITS_PER_TASK}.
+     * <p>
+     * The data of each chunk is fetched by this thread, as inflating data
+     * values and fetching analytics data use Hibernate and the security
+     * context of the current user. If there is more than one chunk, the
+     * predictions of each fetched chunk are evaluated on a bounded thread pool
+     * while this thread fetches the next chunk. Only a limited number of
+     * chunks are in progress at any time, so memory use stays bounded. The
+     * predictions are written by this thread in chunk order, so the writer and
+     * the prediction summary are only ever used from one thread.
+     */
+    private void predictOrgUnitLevel( PredictionRunContext context, int orgUnitLevel,
+        List<OrganisationUnit> orgUnits, PredictionWriter predictionWriter )
+    {
+        List<List<OrganisationUnit>> chunks = Lists.partition( orgUnits, PredictionRunContext.ORG_UNITS_PER_TASK );
+
+        int threadPoolSize = getThreadPoolSize( chunks.size() );
+
+        if ( threadPoolSize <= 1 )
+        {
+            for ( List<OrganisationUnit> chunk : chunks )
+            {
+                writeChunkPredictions( predictChunk( context, fetchChunk( context, orgUnitLevel, chunk ) ),
+                    predictionWriter );
+            }
+
+            return;
+        }
+
+        initializeOrgUnitMemberships( context.getBaseExParams() );
+
+        ExecutorService executor = new DelegatingSecurityContextExecutorService(
+            Executors.newFixedThreadPool( threadPoolSize ) );
+
+        try
+        {
+            Queue<Future<ChunkPredictions>> pending = new ArrayDeque<>();
 
-            while ( (data = consolidator.getData()) != null )
+            for ( List<OrganisationUnit> chunk : chunks )
             {
-                List<DataValue> predictions = new ArrayList<>();
+                List<PredictionData> chunkData = fetchChunk( context, orgUnitLevel, chunk );
 
-                List<PredictionContext> contexts = PredictionContextGenerator.getContexts(
-                    outputPeriods, data.getValues(), defaultCategoryOptionCombo );
+                pending.add( executor.submit( () -> predictChunk( context, chunkData ) ) );
 
-                for ( PredictionContext c : contexts )
+                if ( pending.size() >= threadPoolSize * 2 )
                 {
-                    List<Period> samplePeriods = new ArrayList<>( samplePeriodsMap.get( c.getOutputPeriod() ) );
-
-                    samplePeriods.removeAll( getSkippedPeriods( allSamplePeriods, baseExParams, c.getPeriodValueMap(),
-                        skipTest, data.getOrgUnit() ) );
-
-                    if ( !isEvaluationRequired( requireData, exInfo, samplePeriods, c.getValueMap(),
-                        c.getPeriodValueMap(), baseExParams.getItemMap() ) )
-                    {
-                        continue;
-                    }
-
-                    Object value = expressionService.getExpressionValue( baseExParams.toBuilder()
-                        .expression( predictor.getGenerator().getExpression() )
-                        .parseType( PREDICTOR_EXPRESSION )
-                        .dataType( expressionDataType )
-                        .valueMap( c.getValueMap() )
-                        .days( c.getOutputPeriod().getDaysInPeriod() )
-                        .missingValueStrategy( generator.getMissingValueStrategy() )
-                        .orgUnit( data.getOrgUnit() )
-                        .samplePeriods( samplePeriods )
-                        .periodValueMap( c.getPeriodValueMap() )
-                        .build() );
-
-                    DataValue prediction = processPrediction( predictor, c, value, currentUser, outputOptionCombo,
-                        data.getOrgUnit() );
-
-                    rememberPredictedValue( prediction, predictions, contexts, forwardReference );
+                    writeChunkPredictions( getChunkPredictions( pending.poll() ), predictionWriter );
                 }
+            }
 
-                predictionWriter.write( predictions, data.getOldPredictions() );
+            while ( !pending.isEmpty() )
+            {
+                writeChunkPredictions( getChunkPredictions( pending.poll() ), predictionWriter );
             }
         }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
 
-        predictionWriter.flush();
+    /**
+     * Fetches the data for a chunk of organisation units. Uses its own data
+     * fetchers, which only query the organisation units of the chunk.
+     */
+    private List<PredictionData> fetchChunk( PredictionRunContext context, int orgUnitLevel,
+        List<OrganisationUnit> orgUnits )
+    {
+        Predictor predictor = context.getPredictor();
+
+        PredictionDataConsolidator consolidator = new PredictionDataConsolidator( context.getItems(),
+            predictor.getOrganisationUnitDescendants().equals( DESCENDANTS ),
+            new PredictionDataValueFetcher( dataValueService, categoryService ),
+            new PredictionAnalyticsDataFetcher( analyticsService, categoryService ) );
+
+        consolidator.init( new HashSet<>( orgUnits ), orgUnitLevel, orgUnits, context.getDataValueQueryPeriods(),
+            context.getAnalyticsQueryPeriods(), context.getExistingOutputPeriods(),
+            context.getOutputDataElementOperand() );
+
+        List<PredictionData> chunkData = new ArrayList<>();
+
+        PredictionData data;
+
+        while ( (data = consolidator.getData()) != null )
+        {
+            chunkData.add( data );
+        }
+
+        return chunkData;
     }
 
-    // -------------------------------------------------------------------------
-    // Supportive Methods
-    // -------------------------------------------------------------------------
+    /**
+     * Evaluates the predictions for the fetched data of a chunk of
+     * organisation units. Only evaluates expressions on data which is already
+     * loaded, so that chunks can be evaluated on different threads.
+     */
+    private ChunkPredictions predictChunk( PredictionRunContext context, List<PredictionData> chunkData )
+    {
+        ChunkPredictions result = new ChunkPredictions( new ArrayList<>(), new ArrayList<>() );
+
+        for ( PredictionData data : chunkData )
+        {
+            result.getPredictions().addAll( predictOrgUnit( context, data ) );
+
+            result.getOldPredictions().addAll( data.getOldPredictions() );
+        }
+
+        return result;
+    }
+
+    private void writeChunkPredictions( ChunkPredictions result, PredictionWriter predictionWriter )
+    {
+        predictionWriter.write( result.getPredictions(), result.getOldPredictions() );
+    }
+
+    /**
+     * Initializes the members of the organisation unit groups, data sets and
+     * programs referenced by the expressions on this thread, as the Hibernate
+     * session must not be used by the threads evaluating the expressions.
+     */
+    private void initializeOrgUnitMemberships( ExpressionParams baseExParams )
+    {
+        baseExParams.getOrgUnitGroupMap().values().forEach( group -> Hibernate.initialize( group.getMembers() ) );
+        baseExParams.getDataSetMap().values().forEach( dataSet -> Hibernate.initialize( dataSet.getSources() ) );
+        baseExParams.getProgramMap().values()
+            .forEach( program -> Hibernate.initialize( program.getOrganisationUnits() ) );
+    }
+
+    /**
+     * Evaluates the predictions for one organisation unit.
+     */
+    private List<DataValue> predictOrgUnit( PredictionRunContext context, PredictionData data )
+    {
+        Predictor predictor = context.getPredictor();
+        Expression generator = predictor.getGenerator();
+        Expression skipTest = predictor.getSampleSkipTest();
+        DataType expressionDataType = DataType.fromValueType( predictor.getOutput().getValueType() );
+        ExpressionParams baseExParams = context.getBaseExParams();
+
+        List<DataValue> predictions = new ArrayList<>();
+
+        List<PredictionContext> contexts = PredictionContextGenerator.getContexts(
+            context.getOutputPeriods(), data.getValues(), context.getDefaultCategoryOptionCombo() );
+
+        for ( PredictionContext c : contexts )
+        {
+            List<Period> samplePeriods = new ArrayList<>( context.getSamplePeriodsMap().get( c.getOutputPeriod() ) );
+
+            samplePeriods.removeAll( getSkippedPeriods( context.getAllSamplePeriods(), baseExParams,
+                c.getPeriodValueMap(), skipTest, data.getOrgUnit() ) );
+
+            if ( !isEvaluationRequired( context.isRequireData(), context.getExInfo(), samplePeriods, c.getValueMap(),
+                c.getPeriodValueMap(), baseExParams.getItemMap() ) )
+            {
+                continue;
+            }
+
+            Object value = expressionService.getExpressionValue( baseExParams.toBuilder()
+                .expression( generator.getExpression() )
+                .parseType( PREDICTOR_EXPRESSION )
+                .dataType( expressionDataType )
+                .valueMap( c.getValueMap() )
+                .days( c.getOutputPeriod().getDaysInPeriod() )
+                .missingValueStrategy( generator.getMissingValueStrategy() )
+                .orgUnit( data.getOrgUnit() )
+                .samplePeriods( samplePeriods )
+                .periodValueMap( c.getPeriodValueMap() )
+                .build() );
+
+            DataValue prediction = processPrediction( predictor, c, value, context.getCurrentUser(),
+                context.getOutputOptionCombo(), data.getOrgUnit() );
+
+            rememberPredictedValue( prediction, predictions, contexts, context.getForwardReference() );
+        }
+
+        return predictions;
+    }
+
+    /**
+     * Waits for the predictions of a chunk evaluated on another thread. Any
+     * exception from the evaluation is re-thrown on this thread so that it is
+     * reported by the caller.
+     */
+    private ChunkPredictions getChunkPredictions( Future<ChunkPredictions> future )
+    {
+        try
+        {
+            return future.get();
+        }
+        catch ( InterruptedException ex )
+        {
+            Thread.currentThread().interrupt();
+
+            throw new IllegalStateException( "interrupted while predicting organisation units", ex );
+        }
+        catch ( ExecutionException ex )
+        {
+            if ( ex.getCause() instanceof RuntimeException )
+            {
+                throw (RuntimeException) ex.getCause();
+            }
+
+            throw new IllegalStateException( ex.getCause() );
+        }
+    }
+
+    /**
+     * Determines how many threads to use for predicting the chunks of one
+     * organisation unit level.
+     */
+    private int getThreadPoolSize( int chunkCount )
+    {
+        return min( max( 2, SystemUtils.getCpuCores() - 1 ), chunkCount );
+    }
 
     private DataValue processPrediction( Predictor predictor, PredictionContext c, Object value, User currentUser,
         CategoryOptionCombo outputOptionCombo, OrganisationUnit orgUnit )
@@ -639,4 +835,17 @@ public class DefaultPredictionService
         }
         return false;
     }
+
+    /**
+     * Predictions and existing predicted values for a chunk of organisation
+     * units.
+     */
+    @Getter
+    @AllArgsConstructor
+    private static class ChunkPredictions
+    {
+        private final List<DataValue> predictions;
+
+        private final List<DataValue> oldPredictions;
+    }
 }
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.predictor;
+
+import java.util.List;
+import java.util.Set;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import org.hisp.dhis.category.CategoryOptionCombo;
+import org.hisp.dhis.common.DimensionalItemObject;
+import org.hisp.dhis.common.ListMap;
+import org.hisp.dhis.dataelement.DataElementOperand;
+import org.hisp.dhis.expression.ExpressionInfo;
+import org.hisp.dhis.expression.ExpressionParams;
+import org.hisp.dhis.period.Period;
+import org.hisp.dhis.user.User;
+
+/**
+ * Holds the state of one predictor run that is shared by all the organisation
+ * unit chunks being predicted. Once built, the contents are only read, so the
+ * context may be shared by chunks evaluated on different threads.
+ */
+@Getter
+@Builder( setterPrefix = "with", builderClassName = "Builder", builderMethodName = "newBuilder" )
+public class PredictionRunContext
+{
+    /**
+     * Maximum number of organisation units fetched and evaluated together.
+     */
+    public static final int ORG_UNITS_PER_TASK = 500;
+
+    private final Predictor predictor;
+
+    private final Set<DimensionalItemObject> items;
+
+    private final List<Period> outputPeriods;
+
+    private final Set<Period> existingOutputPeriods;
+
+    private final ListMap<Period, Period> samplePeriodsMap;
+
+    private final Set<Period> allSamplePeriods;
+
+    private final Set<Period> analyticsQueryPeriods;
+
+    private final Set<Period> dataValueQueryPeriods;
+
+    private final ExpressionInfo exInfo;
+
+    private final ExpressionParams baseExParams;
+
+    private final DataElementOperand outputDataElementOperand;
+
+    private final CategoryOptionCombo outputOptionCombo;
+
+    private final CategoryOptionCombo defaultCategoryOptionCombo;
+
+    private final DimensionalItemObject forwardReference;
+
+    private final boolean requireData;
+
+    private final User currentUser;
+}
@@ -29,13 +29,17 @@ package org.hisp.dhis.predictor;
 
 import static com.google.common.collect.Sets.newHashSet;
 import static org.hisp.dhis.common.OrganisationUnitDescendants.SELECTED;
+import static org.hisp.dhis.common.OrganisationUnitSelectionMode.DESCENDANTS;
 import static org.hisp.dhis.expression.ExpressionService.SYMBOL_DAYS;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.hisp.dhis.IntegrationTestBase;
 import org.hisp.dhis.analytics.AggregationType;
@@ -378,6 +382,42 @@ class PredictionServiceTest extends IntegrationTestBase
         return null;
     }
 
+    private List<OrganisationUnit> createChildren( OrganisationUnit parent, String prefix, int count,
+        OrganisationUnitGroup group )
+    {
+        List<OrganisationUnit> children = new ArrayList<>();
+        for ( int i = 0; i < count; i++ )
+        {
+            OrganisationUnit child = createOrganisationUnit( prefix + i, parent );
+            organisationUnitService.addOrganisationUnit( child );
+            if ( i % 3 == 0 )
+            {
+                group.addOrganisationUnit( child );
+            }
+            children.add( child );
+        }
+        return children;
+    }
+
+    private void setCurrentUserOrgUnits( OrganisationUnit... orgUnits )
+    {
+        Set<OrganisationUnit> units = newHashSet( orgUnits );
+        setDependency( CurrentUserServiceTarget.class, CurrentUserServiceTarget::setCurrentUserService,
+            new MockCurrentUserService( true, units, units ), predictionService );
+    }
+
+    private Map<Long, String> getDataValuesBySource( DataElement dataElement, OrganisationUnit parent,
+        Period period )
+    {
+        DataExportParams params = new DataExportParams()
+            .setDataElements( Sets.newHashSet( dataElement ) )
+            .setOrganisationUnits( Sets.newHashSet( parent ) )
+            .setPeriods( Sets.newHashSet( periodService.reloadPeriod( period ) ) );
+        params.setOuMode( DESCENDANTS );
+        return dataValueService.getDeflatedDataValues( params ).stream()
+            .collect( Collectors.toMap( DeflatedDataValue::getSourceId, DeflatedDataValue::getValue ) );
+    }
+
     private String shortSummary( PredictionSummary summary )
     {
         return "Pred " + summary.getPredictors() + " Ins " + summary.getInserted() + " Upd " + summary.getUpdated()
@@ -1303,6 +1343,52 @@ class PredictionServiceTest extends IntegrationTestBase
         assertEquals( "32.0", getDataValue( dataElementX, defaultCombo, sourceF, makeMonth( 2021, 8 ) ) );
     }
 
+    @Test
+    void testPredictOrgUnitLevelInParallelChunks()
+    {
+        int serialCount = PredictionRunContext.ORG_UNITS_PER_TASK - 200;
+        int parallelCount = 2 * PredictionRunContext.ORG_UNITS_PER_TASK + 100;
+        OrganisationUnitGroup ouGroupC = createOrganisationUnitGroup( 'C' );
+        List<OrganisationUnit> serialUnits = createChildren( sourceA, "Serial", serialCount, ouGroupC );
+        List<OrganisationUnit> parallelUnits = createChildren( sourceG, "Parallel", parallelCount, ouGroupC );
+        organisationUnitGroupService.addOrganisationUnitGroup( ouGroupC );
+        for ( int i = 0; i < parallelCount; i++ )
+        {
+            if ( i < serialCount )
+            {
+                useDataValue( dataElementA, makeMonth( 2021, 7 ), serialUnits.get( i ), i % 13 + 1 );
+            }
+            useDataValue( dataElementA, makeMonth( 2021, 7 ), parallelUnits.get( i ), i % 13 + 1 );
+        }
+        dataValueBatchHandler.flush();
+        Expression expression = new Expression( "avg(#{" + dataElementA.getUid() + "})+if(orgUnit.group("
+            + ouGroupC.getUid() + "),100,0)", "description" );
+        Predictor predictor = createPredictor( dataElementX, defaultCombo, "A", expression, null, periodTypeMonthly,
+            orgUnitLevel2, 1, 0, 0 );
+        // A has a single chunk of children, which is predicted serially
+        setCurrentUserOrgUnits( sourceA );
+        predictionService.predict( predictor, monthStart( 2021, 8 ), monthStart( 2021, 9 ), summary );
+        assertEquals( "Pred 1 Ins " + serialCount + " Upd 0 Del 0 Unch 0", shortSummary( summary ) );
+        // G has several chunks of children, which are predicted in parallel
+        setCurrentUserOrgUnits( sourceG );
+        summary = new PredictionSummary();
+        predictionService.predict( predictor, monthStart( 2021, 8 ), monthStart( 2021, 9 ), summary );
+        assertEquals( "Pred 1 Ins " + parallelCount + " Upd 0 Del 0 Unch 0", shortSummary( summary ) );
+        Map<Long, String> serialValues = getDataValuesBySource( dataElementX, sourceA, makeMonth( 2021, 8 ) );
+        Map<Long, String> parallelValues = getDataValuesBySource( dataElementX, sourceG, makeMonth( 2021, 8 ) );
+        assertEquals( serialCount, serialValues.size() );
+        assertEquals( parallelCount, parallelValues.size() );
+        for ( int i = 0; i < parallelCount; i++ )
+        {
+            String value = parallelValues.get( parallelUnits.get( i ).getId() );
+            assertEquals( (i % 13 + 1 + (i % 3 == 0 ? 100 : 0)) + ".0", value );
+            if ( i < serialCount )
+            {
+                assertEquals( serialValues.get( serialUnits.get( i ).getId() ), value );
+            }
+        }
+    }
+
     @Test
     void testPredictOrgUnitDataSet()
     {
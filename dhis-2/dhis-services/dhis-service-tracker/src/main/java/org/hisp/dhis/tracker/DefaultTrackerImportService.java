@@ -147,6 +147,12 @@ public class DefaultTrackerImportService
         TrackerBundle trackerBundle = opsTimer.exec( PREHEAT_OPS,
             () -> preheatBundle( params ) );
 
+        if ( trackerBundle.getPreheat() != null )
+        {
+            trackerBundle.getPreheat().getSupplierTimings()
+                .forEach( timing -> opsTimer.set( PREHEAT_OPS + "." + timing.name, timing.totalTime ) );
+        }
+
         notifyOps( params, PREHEAT_OPS, opsTimer );
 
         return trackerBundle;
@@ -83,6 +83,13 @@ public class TrackerIdentifierCollector
 {
     public static final String ID_WILDCARD = "*";
 
+    /**
+     * Classes of which all entities are preloaded in the Preheat, using
+     * {@link #ID_WILDCARD} as identifier.
+     */
+    public static final Set<Class<?>> WILDCARD_CLASSES = ImmutableSet.of( TrackedEntityType.class,
+        RelationshipType.class );
+
     private final ProgramRuleService programRuleService;
 
     public Map<Class<?>, Set<String>> collect( TrackerImportParams params,
@@ -96,8 +103,7 @@ public class TrackerIdentifierCollector
         collectRelationships( identifiers, params.getRelationships() );
         // Using "*" signals that all the entities of the given type have to be
         // preloaded in the Preheat
-        identifiers.put( TrackedEntityType.class, ImmutableSet.of( ID_WILDCARD ) );
-        identifiers.put( RelationshipType.class, ImmutableSet.of( ID_WILDCARD ) );
+        WILDCARD_CLASSES.forEach( klass -> identifiers.put( klass, ImmutableSet.of( ID_WILDCARD ) ) );
         collectDefaults( identifiers, defaults );
 
         collectProgramRulesFields( identifiers );
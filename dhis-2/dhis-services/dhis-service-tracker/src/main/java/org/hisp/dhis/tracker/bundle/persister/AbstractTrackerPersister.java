@@ -175,22 +175,7 @@ public abstract class AbstractTrackerPersister<T extends TrackerDto, V extends B
             }
             catch ( Exception e )
             {
-                final String msg = "A Tracker Entity of type '" + getType().getName() + "' (" + trackerDto.getUid()
-                    + ") failed to persist.";
-
-                if ( bundle.getAtomicMode().equals( AtomicMode.ALL ) )
-                {
-                    throw new PersistenceException( msg, e );
-                }
-                else
-                {
-                    // TODO currently we do not keep track of the failed entity
-                    // in the TrackerObjectReport
-
-                    log.warn( msg + "\nThe Import process will process remaining entities.", e );
-
-                    typeReport.getStats().incIgnored();
-                }
+                handlePersistFailure( bundle, typeReport, trackerDto, e );
             }
         }
 
@@ -199,6 +184,32 @@ public abstract class AbstractTrackerPersister<T extends TrackerDto, V extends B
         return typeReport;
     }
 
+    /**
+     * Handles an entity which failed to persist. Rethrows the failure as
+     * {@link PersistenceException} when the atomic mode is ALL, otherwise
+     * counts the entity as ignored.
+     */
+    protected void handlePersistFailure( TrackerBundle bundle, TrackerTypeReport typeReport, T trackerDto,
+        Exception e )
+    {
+        final String msg = "A Tracker Entity of type '" + getType().getName() + "' (" + trackerDto.getUid()
+            + ") failed to persist.";
+
+        if ( bundle.getAtomicMode().equals( AtomicMode.ALL ) )
+        {
+            throw new PersistenceException( msg, e );
+        }
+        else
+        {
+            // TODO currently we do not keep track of the failed entity
+            // in the TrackerObjectReport
+
+            log.warn( msg + "\nThe Import process will process remaining entities.", e );
+
+            typeReport.getStats().incIgnored();
+        }
+    }
+
     // // // // // // // //
     // // // // // // // //
     // TEMPLATE METHODS //
@@ -28,11 +28,14 @@
 package org.hisp.dhis.tracker.bundle.persister;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static org.hisp.dhis.external.conf.ConfigurationKey.TRACKER_IMPORT_EVENT_BULK_INSERT;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
@@ -45,6 +48,7 @@ import org.hibernate.Session;
 import org.hisp.dhis.common.AuditType;
 import org.hisp.dhis.dataelement.DataElement;
 import org.hisp.dhis.eventdatavalue.EventDataValue;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
 import org.hisp.dhis.program.ProgramStageInstance;
 import org.hisp.dhis.reservedvalue.ReservedValueService;
 import org.hisp.dhis.trackedentityattributevalue.TrackedEntityAttributeValueAuditService;
@@ -52,6 +56,7 @@ import org.hisp.dhis.trackedentitycomment.TrackedEntityComment;
 import org.hisp.dhis.trackedentitycomment.TrackedEntityCommentService;
 import org.hisp.dhis.trackedentitydatavalue.TrackedEntityDataValueAudit;
 import org.hisp.dhis.trackedentitydatavalue.TrackedEntityDataValueAuditService;
+import org.hisp.dhis.tracker.FlushMode;
 import org.hisp.dhis.tracker.TrackerType;
 import org.hisp.dhis.tracker.bundle.TrackerBundle;
 import org.hisp.dhis.tracker.converter.TrackerConverterService;
@@ -60,6 +65,8 @@ import org.hisp.dhis.tracker.domain.DataValue;
 import org.hisp.dhis.tracker.domain.Event;
 import org.hisp.dhis.tracker.job.TrackerSideEffectDataBundle;
 import org.hisp.dhis.tracker.preheat.TrackerPreheat;
+import org.hisp.dhis.tracker.report.TrackerObjectReport;
+import org.hisp.dhis.tracker.report.TrackerTypeReport;
 import org.hisp.dhis.util.DateUtils;
 import org.springframework.stereotype.Component;
 
@@ -69,6 +76,8 @@ import org.springframework.stereotype.Component;
 @Component
 public class EventPersister extends AbstractTrackerPersister<Event, ProgramStageInstance>
 {
+    private static final int BULK_INSERT_CHUNK_SIZE = 1000;
+
     private final TrackerConverterService<Event, ProgramStageInstance> eventConverter;
 
     private final TrackedEntityCommentService trackedEntityCommentService;
@@ -77,18 +86,134 @@ public class EventPersister extends AbstractTrackerPersister<Event, ProgramStage
 
     private final TrackedEntityDataValueAuditService trackedEntityDataValueAuditService;
 
+    private final JdbcEventBatchWriter eventBatchWriter;
+
+    private final DhisConfigurationProvider config;
+
     public EventPersister( ReservedValueService reservedValueService,
         TrackerConverterService<Event, ProgramStageInstance> eventConverter,
         TrackedEntityCommentService trackedEntityCommentService,
         TrackerSideEffectConverterService sideEffectConverterService,
         TrackedEntityAttributeValueAuditService trackedEntityAttributeValueAuditService,
-        TrackedEntityDataValueAuditService trackedEntityDataValueAuditService )
+        TrackedEntityDataValueAuditService trackedEntityDataValueAuditService,
+        JdbcEventBatchWriter eventBatchWriter,
+        DhisConfigurationProvider config )
     {
         super( reservedValueService, trackedEntityAttributeValueAuditService );
         this.eventConverter = eventConverter;
         this.trackedEntityCommentService = trackedEntityCommentService;
         this.sideEffectConverterService = sideEffectConverterService;
         this.trackedEntityDataValueAuditService = trackedEntityDataValueAuditService;
+        this.eventBatchWriter = eventBatchWriter;
+        this.config = config;
+    }
+
+    @Override
+    public TrackerTypeReport persist( Session session, TrackerBundle bundle )
+    {
+        if ( isBulkInsert( bundle ) )
+        {
+            return persistBulk( session, bundle );
+        }
+
+        return super.persist( session, bundle );
+    }
+
+    /**
+     * Bulk insert applies to bundles with the CREATE strategy in which all
+     * events are new. Events with notes are written through Hibernate, since
+     * notes are stored in a join table managed by the entity mapping.
+     */
+    private boolean isBulkInsert( TrackerBundle bundle )
+    {
+        return config.isEnabled( TRACKER_IMPORT_EVENT_BULK_INSERT )
+            && bundle.getImportStrategy().isCreate()
+            && bundle.getEvents().stream()
+                .allMatch( event -> isNew( bundle.getPreheat(), event ) && event.getNotes().isEmpty() );
+    }
+
+    /**
+     * Persists the events of the bundle in chunks, writing each chunk with a
+     * single batched JDBC statement. Produces the same report and side effects
+     * as {@link AbstractTrackerPersister#persist(Session, TrackerBundle)}.
+     */
+    private TrackerTypeReport persistBulk( Session session, TrackerBundle bundle )
+    {
+        TrackerTypeReport typeReport = new TrackerTypeReport( getType() );
+
+        List<Event> events = bundle.getEvents();
+
+        //
+        // Enrollments referenced by the events must be written before the
+        // JDBC statement runs
+        //
+        session.flush();
+
+        for ( int offset = 0; offset < events.size(); offset += BULK_INSERT_CHUNK_SIZE )
+        {
+            List<Event> chunk = events.subList( offset, Math.min( offset + BULK_INSERT_CHUNK_SIZE, events.size() ) );
+
+            List<ProgramStageInstance> programStageInstances = new ArrayList<>();
+
+            List<TrackerObjectReport> objectReports = new ArrayList<>();
+
+            List<TrackedEntityDataValueAudit> audits = new ArrayList<>();
+
+            for ( int idx = 0; idx < chunk.size(); idx++ )
+            {
+                Event event = chunk.get( idx );
+
+                try
+                {
+                    ProgramStageInstance programStageInstance = convert( bundle, event );
+
+                    audits.addAll(
+                        handleDataValues( session, bundle.getPreheat(), event.getDataValues(), programStageInstance ) );
+
+                    programStageInstances.add( programStageInstance );
+                    objectReports.add( new TrackerObjectReport( getType(), event.getUid(), offset + idx ) );
+                }
+                catch ( Exception e )
+                {
+                    handlePersistFailure( bundle, typeReport, event, e );
+                }
+            }
+
+            try
+            {
+                eventBatchWriter.insert( session, programStageInstances );
+            }
+            catch ( Exception e )
+            {
+                // a failed batch aborts the transaction, the remaining
+                // entities cannot be processed
+                throw new PersistenceException( "A batch of " + programStageInstances.size()
+                    + " Tracker Entities of type '" + getType().getName() + "' failed to persist.", e );
+            }
+
+            audits.forEach( trackedEntityDataValueAuditService::addTrackedEntityDataValueAudit );
+
+            for ( TrackerObjectReport objectReport : objectReports )
+            {
+                typeReport.getStats().incCreated();
+                typeReport.addObjectReport( objectReport );
+            }
+
+            bundle.getPreheat().putEvents( programStageInstances );
+
+            if ( !bundle.isSkipSideEffects() )
+            {
+                programStageInstances.forEach( programStageInstance -> typeReport.getSideEffectDataBundles()
+                    .add( handleSideEffects( bundle, programStageInstance ) ) );
+            }
+
+            if ( FlushMode.OBJECT == bundle.getFlushMode() )
+            {
+                session.flush();
+            }
+        }
+
+        return typeReport;
     }
 
     @Override
@@ -157,12 +282,21 @@ public class EventPersister extends AbstractTrackerPersister<Event, ProgramStage
     protected void updateDataValues( Session session, TrackerPreheat preheat,
         Event event, ProgramStageInstance programStageInstance )
     {
-        handleDataValues( session, preheat, event.getDataValues(), programStageInstance );
+        handleDataValues( session, preheat, event.getDataValues(), programStageInstance )
+            .forEach( trackedEntityDataValueAuditService::addTrackedEntityDataValueAudit );
     }
 
-    private void handleDataValues( Session session, TrackerPreheat preheat, Set<DataValue> payloadDataValues,
-        ProgramStageInstance psi )
+    /**
+     * Applies the payload data values to the given event.
+     *
+     * @return the audits of the changed data values, to be saved once the event
+     *         is persisted
+     */
+    private List<TrackedEntityDataValueAudit> handleDataValues( Session session, TrackerPreheat preheat,
+        Set<DataValue> payloadDataValues, ProgramStageInstance psi )
     {
+        List<TrackedEntityDataValueAudit> audits = new ArrayList<>();
+
         String persistedDataValue = "";
 
         Map<String, EventDataValue> dataValueDBMap = psi
@@ -221,9 +355,14 @@ public class EventPersister extends AbstractTrackerPersister<Event, ProgramStage
                 }
             }
 
-            logTrackedEntityDataValueHistory( preheat.getUsername(), eventDataValue, dateElement, psi, auditType,
-                today );
+            if ( auditType != null )
+            {
+                audits.add( createTrackedEntityDataValueAudit( preheat.getUsername(), eventDataValue, dateElement,
+                    psi, auditType, today ) );
+            }
         }
+
+        return audits;
     }
 
     private void handleDataValueCreatedUpdatedDates( DataValue dv, EventDataValue eventDataValue )
@@ -240,22 +379,19 @@ public class EventPersister extends AbstractTrackerPersister<Event, ProgramStage
             .orElseGet( Date::new );
     }
 
-    private void logTrackedEntityDataValueHistory( String userName,
+    private TrackedEntityDataValueAudit createTrackedEntityDataValueAudit( String userName,
         EventDataValue eventDataValue, DataElement de, ProgramStageInstance psi, AuditType auditType, Date created )
     {
-        if ( auditType != null )
-        {
-            TrackedEntityDataValueAudit valueAudit = new TrackedEntityDataValueAudit();
-            valueAudit.setProgramStageInstance( psi );
-            valueAudit.setValue( eventDataValue.getValue() );
-            valueAudit.setAuditType( auditType );
-            valueAudit.setDataElement( de );
-            valueAudit.setModifiedBy( userName );
-            valueAudit.setProvidedElsewhere( eventDataValue.getProvidedElsewhere() );
-            valueAudit.setCreated( created );
-
-            trackedEntityDataValueAuditService.addTrackedEntityDataValueAudit( valueAudit );
-        }
+        TrackedEntityDataValueAudit valueAudit = new TrackedEntityDataValueAudit();
+        valueAudit.setProgramStageInstance( psi );
+        valueAudit.setValue( eventDataValue.getValue() );
+        valueAudit.setAuditType( auditType );
+        valueAudit.setDataElement( de );
+        valueAudit.setModifiedBy( userName );
+        valueAudit.setProvidedElsewhere( eventDataValue.getProvidedElsewhere() );
+        valueAudit.setCreated( created );
+
+        return valueAudit;
     }
 
     @Override
@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.tracker.bundle.persister;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import lombok.RequiredArgsConstructor;
+
+import org.hibernate.Session;
+import org.hibernate.event.service.spi.EventListenerGroup;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hisp.dhis.common.IdentifiableObject;
+import org.hisp.dhis.eventdatavalue.EventDataValue;
+import org.hisp.dhis.program.ProgramStageInstance;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Writes new {@link ProgramStageInstance} rows, including their event data
+ * values, using a single batched JDBC statement. The statement runs on the
+ * connection of the given Hibernate {@link Session}, hence it participates in
+ * the ongoing import transaction. Written events are not attached to the
+ * session.
+ *
+ * As the rows bypass Hibernate, the post insert and post commit insert event
+ * listeners, such as the audit listener, are invoked for the written events in
+ * the same way as Hibernate invokes them for persisted entities.
+ *
+ * PostgreSQL only.
+ */
+@Component
+@RequiredArgsConstructor
+public class JdbcEventBatchWriter
+{
+    private static final String NEXT_IDS_SQL = "select nextval('programstageinstance_sequence') "
+        + "from generate_series( 1, ? )";
+
+    private static final String INSERT_EVENT_SQL = "insert into programstageinstance "
+        + "(programstageinstanceid, uid, code, created, createdbyuserinfo, lastupdated, lastupdatedbyuserinfo, "
+        + "createdatclient, lastupdatedatclient, programinstanceid, programstageid, attributeoptioncomboid, "
+        + "deleted, storedby, duedate, executiondate, organisationunitid, status, completedby, completeddate, "
+        + "geometry, assigneduserid, eventdatavalues) "
+        + "values (?, ?, ?, ?, ?::jsonb, ?, ?::jsonb, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, "
+        + "ST_GeomFromText( ?, 4326 ), ?, ?::jsonb)";
+
+    @Qualifier( "dataValueJsonMapper" )
+    private final ObjectMapper jsonMapper;
+
+    /**
+     * Inserts the given events and assigns the generated primary keys to them.
+     *
+     * @param session the Hibernate session of the import
+     * @param events the events to insert, which must not exist yet
+     */
+    public void insert( Session session, List<ProgramStageInstance> events )
+    {
+        if ( events.isEmpty() )
+        {
+            return;
+        }
+
+        session.doWork( connection -> {
+            List<Long> ids = nextIds( connection, events.size() );
+
+            try ( PreparedStatement ps = connection.prepareStatement( INSERT_EVENT_SQL ) )
+            {
+                for ( int i = 0; i < events.size(); i++ )
+                {
+                    ProgramStageInstance event = events.get( i );
+                    event.setId( ids.get( i ) );
+                    bindEventParams( ps, event );
+                    ps.addBatch();
+                }
+
+                ps.executeBatch();
+            }
+        } );
+
+        firePostInsertEvents( session.unwrap( EventSource.class ), events );
+    }
+
+    /**
+     * Invokes the post insert listeners for the given events right away, and
+     * the post commit insert listeners once the transaction completes.
+     */
+    private void firePostInsertEvents( EventSource eventSource, List<ProgramStageInstance> events )
+    {
+        EventListenerRegistry registry = eventSource.getFactory().getServiceRegistry()
+            .getService( EventListenerRegistry.class );
+        EventListenerGroup<PostInsertEventListener> postInsert = registry
+            .getEventListenerGroup( EventType.POST_INSERT );
+        EventListenerGroup<PostInsertEventListener> postCommitInsert = registry
+            .getEventListenerGroup( EventType.POST_COMMIT_INSERT );
+
+        if ( postInsert.isEmpty() && postCommitInsert.isEmpty() )
+        {
+            return;
+        }
+
+        EntityPersister persister = eventSource.getFactory().getMetamodel()
+            .entityPersister( ProgramStageInstance.class );
+
+        List<PostInsertEvent> postInsertEvents = events.stream()
+            .map( event -> new PostInsertEvent( event, event.getId(), persister.getPropertyValues( event ),
+                persister, eventSource ) )
+            .collect( Collectors.toList() );
+
+        for ( PostInsertEvent event : postInsertEvents )
+        {
+            postInsert.listeners().forEach( listener -> listener.onPostInsert( event ) );
+        }
+
+        if ( postCommitInsert.isEmpty() )
+        {
+            return;
+        }
+
+        eventSource.getActionQueue().registerProcess( ( success, session ) -> {
+            for ( PostInsertEvent event : postInsertEvents )
+            {
+                for ( PostInsertEventListener listener : postCommitInsert.listeners() )
+                {
+                    if ( success )
+                    {
+                        listener.onPostInsert( event );
+                    }
+                    else if ( listener instanceof PostCommitInsertEventListener )
+                    {
+                        ((PostCommitInsertEventListener) listener).onPostInsertCommitFailed( event );
+                    }
+                }
+            }
+        } );
+    }
+
+    private List<Long> nextIds( Connection connection, int count )
+        throws SQLException
+    {
+        List<Long> ids = new ArrayList<>( count );
+
+        try ( PreparedStatement ps = connection.prepareStatement( NEXT_IDS_SQL ) )
+        {
+            ps.setInt( 1, count );
+
+            try ( ResultSet rs = ps.executeQuery() )
+            {
+                while ( rs.next() )
+                {
+                    ids.add( rs.getLong( 1 ) );
+                }
+            }
+        }
+
+        return ids;
+    }
+
+    private void bindEventParams( PreparedStatement ps, ProgramStageInstance event )
+        throws SQLException
+    {
+        Date now = new Date();
+
+        // @formatter:off
+        ps.setLong(         1, event.getId() );
+        ps.setString(       2, event.getUid() );
+        ps.setString(       3, event.getCode() );
+        ps.setTimestamp(    4, toTimestamp( event.getCreated() != null ? event.getCreated() : now ) );
+        ps.setString(       5, toJson( event.getCreatedByUserInfo() ) );
+        ps.setTimestamp(    6, toTimestamp( event.getLastUpdated() != null ? event.getLastUpdated() : now ) );
+        ps.setString(       7, toJson( event.getLastUpdatedByUserInfo() ) );
+        ps.setTimestamp(    8, toTimestamp( event.getCreatedAtClient() ) );
+        ps.setTimestamp(    9, toTimestamp( event.getLastUpdatedAtClient() ) );
+        ps.setLong(         10, event.getProgramInstance().getId() );
+        ps.setLong(         11, event.getProgramStage().getId() );
+        setId(          ps, 12, event.getAttributeOptionCombo() );
+        ps.setBoolean(      13, event.isDeleted() );
+        ps.setString(       14, event.getStoredBy() );
+        ps.setTimestamp(    15, toTimestamp( event.getDueDate() ) );
+        ps.setTimestamp(    16, toTimestamp( event.getExecutionDate() ) );
+        setId(          ps, 17, event.getOrganisationUnit() );
+        ps.setString(       18, event.getStatus().toString() );
+        ps.setString(       19, event.getCompletedBy() );
+        ps.setTimestamp(    20, toTimestamp( event.getCompletedDate() ) );
+        ps.setString(       21, event.getGeometry() != null ? event.getGeometry().toText() : null );
+        setId(          ps, 22, event.getAssignedUser() );
+        ps.setString(       23, toJson( event.getEventDataValues().stream()
+            .collect( Collectors.toMap( EventDataValue::getDataElement, Function.identity() ) ) ) );
+        // @formatter:on
+    }
+
+    private void setId( PreparedStatement ps, int index, IdentifiableObject object )
+        throws SQLException
+    {
+        if ( object != null )
+        {
+            ps.setLong( index, object.getId() );
+        }
+        else
+        {
+            ps.setNull( index, Types.BIGINT );
+        }
+    }
+
+    private Timestamp toTimestamp( Date date )
+    {
+        return date != null ? new Timestamp( date.getTime() ) : null;
+    }
+
+    private String toJson( Object object )
+    {
+        if ( object == null )
+        {
+            return null;
+        }
+
+        try
+        {
+            return jsonMapper.writeValueAsString( object );
+        }
+        catch ( JsonProcessingException e )
+        {
+            throw new IllegalArgumentException( e );
+        }
+    }
+}
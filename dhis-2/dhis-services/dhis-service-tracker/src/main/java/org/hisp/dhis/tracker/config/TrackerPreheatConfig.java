@@ -31,6 +31,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+import org.hisp.dhis.common.IdentifiableObjectManager;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.hisp.dhis.tracker.preheat.cache.PreheatCacheService;
+import org.hisp.dhis.tracker.preheat.cache.PreheatCacheWarmUpRoutine;
 import org.hisp.dhis.tracker.preheat.supplier.*;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -67,4 +71,15 @@ public class TrackerPreheatConfig
     {
         return new PreheatStrategyScanner().scanSupplierStrategies();
     }
+
+    @Bean
+    public PreheatCacheWarmUpRoutine preheatCacheWarmUpRoutine( PreheatCacheService preheatCacheService,
+        IdentifiableObjectManager manager, DhisConfigurationProvider config )
+    {
+        PreheatCacheWarmUpRoutine routine = new PreheatCacheWarmUpRoutine( preheatCacheService, manager, config );
+        routine.setName( "PreheatCacheWarmUpRoutine" );
+        routine.setRunlevel( 20 );
+        routine.setSkipInTests( true );
+        return routine;
+    }
 }
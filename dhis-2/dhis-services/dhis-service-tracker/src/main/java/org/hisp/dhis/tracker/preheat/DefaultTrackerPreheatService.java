@@ -30,23 +30,45 @@ package org.hisp.dhis.tracker.preheat;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.beans.Introspector;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import javax.annotation.PreDestroy;
 
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 
 import org.hisp.dhis.common.IdentifiableObjectManager;
+import org.hisp.dhis.commons.timer.Timer;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
 import org.hisp.dhis.preheat.PreheatException;
 import org.hisp.dhis.tracker.TrackerImportParams;
+import org.hisp.dhis.tracker.preheat.supplier.JdbcAbstractPreheatSupplier;
 import org.hisp.dhis.tracker.preheat.supplier.PreheatSupplier;
+import org.hisp.dhis.tracker.preheat.supplier.SupplierDependsOn;
+import org.hisp.dhis.tracker.report.Timing;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
+import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 /**
  * @author Morten Olav Hansen <mortenoh@gmail.com>
  */
@@ -58,6 +80,9 @@ public class DefaultTrackerPreheatService implements TrackerPreheatService, Appl
     @NonNull
     private final IdentifiableObjectManager manager;
 
+    @NonNull
+    private final DhisConfigurationProvider config;
+
     private ApplicationContext ctx;
 
     @Override
@@ -73,6 +98,33 @@ public class DefaultTrackerPreheatService implements TrackerPreheatService, Appl
     // TODO this flag should be configurable
     private final static boolean FAIL_FAST_ON_PREHEAT_ERROR = false;
 
+    private static final int CONCURRENT_QUERIES = 4;
+
+    /**
+     * Runs the queries of JDBC suppliers. Bounded, so that concurrent imports
+     * queue their queries rather than take an unbounded number of
+     * connections, and separate from the common pool, which is shared with
+     * unrelated work.
+     */
+    private final ExecutorService executor = Executors.newFixedThreadPool( CONCURRENT_QUERIES,
+        new ThreadFactoryBuilder()
+            .setNameFormat( "TRACKER-PREHEAT-%d" )
+            .setDaemon( true )
+            .build() );
+
+    /**
+     * Runs the preheat suppliers in the order of their dependencies, as
+     * declared by {@link SupplierDependsOn}, and otherwise in the configured
+     * order.
+     * <p>
+     * Suppliers using the persistence session run on the calling thread. When
+     * {@link ConfigurationKey#TRACKER_IMPORT_PREHEAT_PARALLEL} is enabled, the
+     * queries of {@link JdbcAbstractPreheatSupplier JDBC suppliers} run on
+     * other threads, concurrently with the remaining suppliers. Their results
+     * are added to the preheat by the calling thread, before any supplier
+     * depending on them runs, so the preheat is only ever populated by one
+     * thread.
+     */
     @Override
     @Transactional( readOnly = true )
     public TrackerPreheat preheat( TrackerImportParams params )
@@ -84,28 +136,180 @@ public class DefaultTrackerPreheatService implements TrackerPreheatService, Appl
 
         checkNotNull( preheat.getUser(), "TrackerPreheat is missing the user object." );
 
+        boolean parallel = config.isEnabled( ConfigurationKey.TRACKER_IMPORT_PREHEAT_PARALLEL );
+
+        Map<PreheatSupplier, PendingQuery> pendingQueries = new LinkedHashMap<>();
+
+        for ( Map.Entry<String, PreheatSupplier> entry : getSuppliersInDependencyOrder().entrySet() )
+        {
+            String supplierName = entry.getKey();
+            PreheatSupplier supplier = entry.getValue();
+
+            completeDependencies( supplier, pendingQueries, preheat );
+
+            try
+            {
+                if ( parallel && supplier instanceof JdbcAbstractPreheatSupplier )
+                {
+                    pendingQueries.put( supplier, startQuery( supplierName,
+                        ((JdbcAbstractPreheatSupplier) supplier).prepare( params, preheat ) ) );
+                }
+                else
+                {
+                    Timer timer = Timer.startTimer();
+
+                    supplier.add( params, preheat );
+
+                    preheat.getSupplierTimings().add( new Timing( supplierName, timer.toString() ) );
+                }
+            }
+            catch ( Exception e )
+            {
+                processException( "An error occurred while executing a preheat supplier with name "
+                    + supplierName, e, supplierName );
+            }
+        }
+
+        pendingQueries.values().forEach( query -> completeQuery( query, preheat ) );
+
+        preheat.createReferenceTree();
+
+        return preheat;
+    }
+
+    /**
+     * Gets the preheat supplier beans, sorted so that every supplier comes
+     * after the supplier it depends on. Suppliers without dependencies between
+     * them keep their configured order.
+     */
+    private Map<String, PreheatSupplier> getSuppliersInDependencyOrder()
+    {
+        Map<String, PreheatSupplier> unsorted = new LinkedHashMap<>();
+
         for ( String supplier : preheatSuppliers )
         {
             final String beanName = Introspector.decapitalize( supplier );
             try
             {
-                ctx.getBean( beanName, PreheatSupplier.class ).add( params, preheat );
+                unsorted.put( supplier, ctx.getBean( beanName, PreheatSupplier.class ) );
             }
             catch ( BeansException beanException )
             {
                 processException( "Unable to find a preheat supplier with name " + beanName
                     + " in the Spring context. Skipping supplier.", beanException, supplier );
             }
-            catch ( Exception e )
+        }
+
+        Map<String, PreheatSupplier> sorted = new LinkedHashMap<>();
+
+        while ( !unsorted.isEmpty() )
+        {
+            int sortedCount = sorted.size();
+
+            Iterator<Map.Entry<String, PreheatSupplier>> it = unsorted.entrySet().iterator();
+
+            while ( it.hasNext() )
             {
-                processException( "An error occurred while executing a preheat supplier with name "
-                    + supplier, e, supplier );
+                Map.Entry<String, PreheatSupplier> entry = it.next();
+
+                Class<?> dependency = getDependency( entry.getValue() );
+
+                if ( dependency == null || unsorted.values().stream().noneMatch( dependency::isInstance ) )
+                {
+                    sorted.put( entry.getKey(), entry.getValue() );
+                    it.remove();
+                    break;
+                }
+            }
+
+            if ( sorted.size() == sortedCount )
+            {
+                throw new PreheatException( "Preheat suppliers have cyclic dependencies: " + unsorted.keySet() );
             }
         }
 
-        preheat.createReferenceTree();
+        return sorted;
+    }
 
-        return preheat;
+    /**
+     * Adds the results of any pending query the given supplier depends on to
+     * the preheat.
+     */
+    private void completeDependencies( PreheatSupplier supplier, Map<PreheatSupplier, PendingQuery> pendingQueries,
+        TrackerPreheat preheat )
+    {
+        Class<?> dependency = getDependency( supplier );
+
+        if ( dependency == null )
+        {
+            return;
+        }
+
+        List<PreheatSupplier> completed = new ArrayList<>();
+
+        pendingQueries.forEach( ( pendingSupplier, query ) -> {
+            if ( dependency.isInstance( pendingSupplier ) )
+            {
+                completeQuery( query, preheat );
+                completed.add( pendingSupplier );
+            }
+        } );
+
+        completed.forEach( pendingQueries::remove );
+    }
+
+    private Class<?> getDependency( PreheatSupplier supplier )
+    {
+        SupplierDependsOn dependsOn = AnnotationUtils.findAnnotation( supplier.getClass(), SupplierDependsOn.class );
+
+        return dependsOn == null ? null : dependsOn.value();
+    }
+
+    /**
+     * Starts the query of a JDBC supplier on another thread.
+     */
+    private PendingQuery startQuery( String supplierName, Supplier<Consumer<TrackerPreheat>> query )
+    {
+        return new PendingQuery( supplierName, CompletableFuture.supplyAsync( () -> {
+            Timer timer = Timer.startTimer();
+
+            Consumer<TrackerPreheat> addToPreheat = query.get();
+
+            return new QueryResult( addToPreheat, new Timing( supplierName, timer.toString() ) );
+        }, executor ) );
+    }
+
+    /**
+     * Waits for a query started by {@link #startQuery} and adds its results to
+     * the preheat.
+     */
+    private void completeQuery( PendingQuery query, TrackerPreheat preheat )
+    {
+        try
+        {
+            QueryResult result = query.getFuture().join();
+
+            result.getAddToPreheat().accept( preheat );
+
+            preheat.getSupplierTimings().add( result.getTiming() );
+        }
+        catch ( CompletionException e )
+        {
+            processException( "An error occurred while executing a preheat supplier with name "
+                + query.getSupplierName(), e.getCause() instanceof Exception ? (Exception) e.getCause() : e,
+                query.getSupplierName() );
+        }
+        catch ( Exception e )
+        {
+            processException( "An error occurred while executing a preheat supplier with name "
+                + query.getSupplierName(), e, query.getSupplierName() );
+        }
+    }
+
+    @PreDestroy
+    public void shutdown()
+    {
+        executor.shutdownNow();
     }
 
     private void processException( String message, Exception e, String supplier )
@@ -120,4 +324,20 @@ public class DefaultTrackerPreheatService implements TrackerPreheatService, Appl
             log.warn( message, e );
         }
     }
+
+    @Value
+    private static class PendingQuery
+    {
+        String supplierName;
+
+        CompletableFuture<QueryResult> future;
+    }
+
+    @Value
+    private static class QueryResult
+    {
+        Consumer<TrackerPreheat> addToPreheat;
+
+        Timing timing;
+    }
 }
@@ -78,6 +78,7 @@ import org.hisp.dhis.tracker.TrackerType;
 import org.hisp.dhis.tracker.domain.Enrollment;
 import org.hisp.dhis.tracker.domain.Event;
 import org.hisp.dhis.tracker.domain.MetadataIdentifier;
+import org.hisp.dhis.tracker.report.Timing;
 import org.hisp.dhis.user.User;
 
 import com.google.common.collect.ArrayListMultimap;
@@ -361,6 +362,12 @@ public class TrackerPreheat
     @Setter
     private Map<String, List<String>> programWithOrgUnitsMap;
 
+    /**
+     * Time spent in each preheat supplier, in execution order.
+     */
+    @Getter
+    private final List<Timing> supplierTimings = new ArrayList<>();
+
     public TrackerPreheat()
     {
     }
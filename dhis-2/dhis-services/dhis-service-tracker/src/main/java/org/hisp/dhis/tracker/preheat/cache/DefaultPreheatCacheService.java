@@ -27,25 +27,34 @@
  */
 package org.hisp.dhis.tracker.preheat.cache;
 
+import static org.hisp.dhis.commons.util.SystemUtils.isTestRun;
+
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 import lombok.RequiredArgsConstructor;
 
 import org.cache2k.Cache;
 import org.cache2k.Cache2kBuilder;
+import org.cache2k.event.CacheEntryEvictedListener;
 import org.hisp.dhis.common.IdentifiableObject;
 import org.hisp.dhis.common.event.ApplicationCacheClearedEvent;
+import org.hisp.dhis.external.conf.ConfigurationKey;
 import org.hisp.dhis.external.conf.DhisConfigurationProvider;
 import org.hisp.dhis.tracker.TrackerIdScheme;
 import org.springframework.context.event.EventListener;
 import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Service;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
 /**
  * Pre-heat cache implementation for metadata objects.
  *
@@ -53,8 +62,13 @@ import org.springframework.stereotype.Service;
  */
 @RequiredArgsConstructor
 @Service
-public class DefaultPreheatCacheService implements PreheatCacheService
+public class DefaultPreheatCacheService implements PreheatCacheService, MeterBinder
 {
+    /**
+     * Capacity of caches which are created without an explicit capacity.
+     */
+    private static final long DEFAULT_CAPACITY = 1000;
+
     private final DhisConfigurationProvider config;
 
     private final Environment environment;
@@ -71,14 +85,25 @@ public class DefaultPreheatCacheService implements PreheatCacheService
      * objects, if different {@link TrackerIdScheme} are used during different
      * imports.
      */
-    private static Map<String, Cache<String, IdentifiableObject>> cache = new HashMap<>();
+    private static final Map<String, PreheatCache> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Registry to which the metrics of each cache are bound, null if metrics
+     * are not enabled.
+     */
+    private volatile MeterRegistry registry;
 
     @Override
     public Optional<IdentifiableObject> get( final String cacheKey, final String id )
     {
-        if ( isCacheEnabled() && cache.containsKey( cacheKey ) )
+        if ( isCacheEnabled() )
         {
-            return Optional.ofNullable( cache.get( cacheKey ).get( id ) );
+            PreheatCache preheatCache = cache.get( cacheKey );
+
+            if ( preheatCache != null )
+            {
+                return preheatCache.get( id );
+            }
         }
 
         return Optional.empty();
@@ -93,10 +118,15 @@ public class DefaultPreheatCacheService implements PreheatCacheService
     public List<IdentifiableObject> getAll( String cacheKey )
     {
         List<IdentifiableObject> res = new ArrayList<>();
-        if ( hasKey( cacheKey ) )
+        PreheatCache preheatCache = cache.get( cacheKey );
+        if ( preheatCache != null )
         {
-            cache.get( cacheKey ).keys().forEach( k -> {
-                res.add( cache.get( cacheKey ).get( k ) );
+            preheatCache.getCache().keys().forEach( k -> {
+                IdentifiableObject object = preheatCache.getCache().peek( k );
+                if ( object != null )
+                {
+                    res.add( object );
+                }
             } );
         }
         return res;
@@ -112,29 +142,8 @@ public class DefaultPreheatCacheService implements PreheatCacheService
 
         if ( isCacheEnabled() )
         {
-            if ( cache.containsKey( cacheKey ) )
-            {
-                cache.get( cacheKey ).put( id, object );
-            }
-            else
-            {
-                Cache<String, IdentifiableObject> c = new Cache2kBuilder<String, IdentifiableObject>()
-                {
-                }
-                    .expireAfterWrite( cacheTTL, TimeUnit.MINUTES )
-                    .name( cacheKey )
-                    .permitNullValues( false )
-                    .entryCapacity( capacity == -1 ? Long.MAX_VALUE : capacity )
-                    .resilienceDuration( 30, TimeUnit.SECONDS ) // cope with at
-                                                                // most 30
-                                                                // seconds
-                    // outage before propagating exceptions
-                    .build();
-
-                c.put( id, object );
-
-                cache.put( cacheKey, c );
-            }
+            cache.computeIfAbsent( cacheKey, key -> createCache( key, cacheTTL, capacity ) )
+                .getCache().put( id, object );
         }
     }
 
@@ -148,18 +157,111 @@ public class DefaultPreheatCacheService implements PreheatCacheService
     @Override
     public void invalidateCache()
     {
-        cache.values().forEach( Cache::removeAll );
+        cache.values().forEach( c -> c.getCache().removeAll() );
+    }
+
+    @Override
+    public boolean isCacheEnabled()
+    {
+        return !isTestRun( this.environment.getActiveProfiles() )
+            && config.isEnabled( ConfigurationKey.TRACKER_IMPORT_PREHEAT_CACHE_ENABLED );
     }
 
-    private boolean isCacheEnabled()
+    // -------------------------------------------------------------------------
+    // MeterBinder implementation
+    // -------------------------------------------------------------------------
+
+    @Override
+    public void bindTo( MeterRegistry registry )
+    {
+        this.registry = registry;
+
+        cache.forEach( ( key, preheatCache ) -> preheatCache.bindTo( key, registry ) );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private PreheatCache createCache( String cacheKey, int cacheTTL, long capacity )
     {
-        return false;
-
-        // Due to concerns and issues with the current cache implementation, we
-        // decided to
-        // deactivate the cache in the preheat completely for now.
-        // return !isTestRun( this.environment.getActiveProfiles() )
-        // && config.isEnabled(
-        // ConfigurationKey.TRACKER_IMPORT_PREHEAT_CACHE_ENABLED );
+        PreheatCache preheatCache = new PreheatCache( cacheKey, cacheTTL,
+            capacity <= 0 ? DEFAULT_CAPACITY : capacity );
+
+        MeterRegistry meterRegistry = this.registry;
+
+        if ( meterRegistry != null )
+        {
+            preheatCache.bindTo( cacheKey, meterRegistry );
+        }
+
+        return preheatCache;
+    }
+
+    /**
+     * A bounded Cache2K cache holding the objects of one metadata class,
+     * together with hit, miss and eviction counters.
+     */
+    private static final class PreheatCache
+    {
+        private static final String GETS_DESCRIPTION = "The number of tracker preheat cache lookups";
+
+        private final LongAdder hits = new LongAdder();
+
+        private final LongAdder misses = new LongAdder();
+
+        private final LongAdder evictions = new LongAdder();
+
+        private final Cache<String, IdentifiableObject> cache;
+
+        PreheatCache( String cacheKey, int cacheTTL, long capacity )
+        {
+            this.cache = new Cache2kBuilder<String, IdentifiableObject>()
+            {
+            }
+                .expireAfterWrite( cacheTTL, TimeUnit.MINUTES )
+                .name( cacheKey )
+                .permitNullValues( false )
+                .entryCapacity( capacity )
+                .resilienceDuration( 30, TimeUnit.SECONDS ) // cope with at
+                                                            // most 30
+                                                            // seconds
+                // outage before propagating exceptions
+                .addListener( (CacheEntryEvictedListener<String, IdentifiableObject>) ( c,
+                    entry ) -> evictions.increment() )
+                .build();
+        }
+
+        Cache<String, IdentifiableObject> getCache()
+        {
+            return cache;
+        }
+
+        Optional<IdentifiableObject> get( String id )
+        {
+            IdentifiableObject object = cache.peek( id );
+
+            (object != null ? hits : misses).increment();
+
+            return Optional.ofNullable( object );
+        }
+
+        void bindTo( String cacheKey, MeterRegistry registry )
+        {
+            FunctionCounter.builder( "tracker.preheat.cache.gets", hits, LongAdder::doubleValue )
+                .tags( "cache", cacheKey, "result", "hit" )
+                .description( GETS_DESCRIPTION )
+                .register( registry );
+
+            FunctionCounter.builder( "tracker.preheat.cache.gets", misses, LongAdder::doubleValue )
+                .tags( "cache", cacheKey, "result", "miss" )
+                .description( GETS_DESCRIPTION )
+                .register( registry );
+
+            FunctionCounter.builder( "tracker.preheat.cache.evictions", evictions, LongAdder::doubleValue )
+                .tags( "cache", cacheKey )
+                .description( "The number of objects evicted from the tracker preheat cache" )
+                .register( registry );
+        }
     }
 }
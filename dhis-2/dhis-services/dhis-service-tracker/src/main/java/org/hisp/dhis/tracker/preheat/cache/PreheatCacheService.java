@@ -72,10 +72,17 @@ public interface PreheatCacheService
      * @param id the identifier of the object being cached, used as cache key
      * @param object The object being cached
      * @param cacheTTL The amount of **minutes**
-     * @param capacity The maximum number of entries hold by the cache.
+     * @param capacity The maximum number of entries hold by the cache. A
+     *        default capacity is used if not positive.
      */
     void put( String cacheKey, String id, IdentifiableObject object, int cacheTTL, long capacity );
 
+    /**
+     * Check whether the pre-heat cache is enabled. If not, objects are neither
+     * cached nor returned from the cache.
+     */
+    boolean isCacheEnabled();
+
     /**
      * Invalidates all caches.
      */
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.tracker.preheat.cache;
+
+import java.util.List;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.hisp.dhis.common.IdentifiableObject;
+import org.hisp.dhis.common.IdentifiableObjectManager;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.hisp.dhis.system.startup.TransactionContextStartupRoutine;
+import org.hisp.dhis.tracker.TrackerIdentifierCollector;
+import org.hisp.dhis.tracker.preheat.mappers.CopyMapper;
+import org.hisp.dhis.tracker.preheat.mappers.PreheatMapper;
+import org.hisp.dhis.tracker.preheat.supplier.PreheatStrategyScanner;
+import org.hisp.dhis.tracker.preheat.supplier.strategy.StrategyFor;
+import org.mapstruct.factory.Mappers;
+
+/**
+ * Loads the metadata classes which are declared as cacheable by the preheat
+ * strategies into the {@link PreheatCacheService} on startup, so that the first
+ * tracker imports after a restart do not have to fetch them from the database.
+ * At most as many objects as the cache of a strategy can hold are loaded for
+ * each class. Classes of which all objects are preloaded are skipped, as these
+ * are always fetched from the database.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class PreheatCacheWarmUpRoutine
+    extends TransactionContextStartupRoutine
+{
+    private final PreheatCacheService cache;
+
+    private final IdentifiableObjectManager manager;
+
+    private final DhisConfigurationProvider config;
+
+    @Override
+    @SuppressWarnings( { "unchecked", "rawtypes" } )
+    public void executeInTransaction()
+    {
+        if ( !config.isEnabled( ConfigurationKey.TRACKER_IMPORT_PREHEAT_CACHE_WARMUP ) || !cache.isCacheEnabled() )
+        {
+            return;
+        }
+
+        for ( StrategyFor strategy : new PreheatStrategyScanner().scanCacheableStrategies() )
+        {
+            Class<? extends IdentifiableObject> klass = (Class<? extends IdentifiableObject>) strategy.value();
+
+            if ( TrackerIdentifierCollector.WILDCARD_CLASSES.contains( klass ) )
+            {
+                continue;
+            }
+
+            PreheatMapper mapper = CopyMapper.class.isAssignableFrom( strategy.mapper() ) ? null
+                : Mappers.getMapper( strategy.mapper() );
+
+            int capacity = (int) Math.min( strategy.capacity(), Integer.MAX_VALUE );
+
+            List<? extends IdentifiableObject> objects = manager.getBetweenSorted( klass, 0, capacity );
+
+            for ( IdentifiableObject object : objects )
+            {
+                IdentifiableObject cached = mapper != null ? (IdentifiableObject) mapper.map( object ) : object;
+
+                cache.put( klass.getSimpleName(), object.getUid(), cached, strategy.ttl(), strategy.capacity() );
+            }
+
+            log.info( "Warmed up preheat cache for {} with {} objects", klass.getSimpleName(), objects.size() );
+        }
+    }
+}
@@ -27,21 +27,54 @@
  */
 package org.hisp.dhis.tracker.preheat.supplier;
 
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.hisp.dhis.tracker.TrackerImportParams;
+import org.hisp.dhis.tracker.preheat.TrackerPreheat;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 
 /**
  * Allows a {@link PreheatSupplier} to access the database using JDBC.
+ * <p>
+ * The work of the supplier is split into three steps, so that the query can
+ * run on another thread, concurrently with other suppliers: collecting the
+ * query input from the preheat, running the query, and adding the query
+ * results to the preheat. Only the first and the last step access the preheat,
+ * and they are always called by the thread populating the preheat.
  *
  * @author Luciano Fiandesio
  */
 public abstract class JdbcAbstractPreheatSupplier extends AbstractPreheatSupplier
 {
+    /**
+     * Query to return when there is nothing to fetch.
+     */
+    protected static final Supplier<Consumer<TrackerPreheat>> NO_QUERY = () -> preheat -> {
+    };
+
     protected final NamedParameterJdbcTemplate jdbcTemplate;
 
     protected JdbcAbstractPreheatSupplier( @Qualifier( "readOnlyJdbcTemplate" ) JdbcTemplate jdbcTemplate )
     {
         this.jdbcTemplate = new NamedParameterJdbcTemplate( jdbcTemplate );
     }
+
+    @Override
+    public void preheatAdd( TrackerImportParams params, TrackerPreheat preheat )
+    {
+        prepare( params, preheat ).get().accept( preheat );
+    }
+
+    /**
+     * Collects the query input from the import params and the preheat.
+     *
+     * @param params the import params
+     * @param preheat the preheat being populated
+     * @return the query, which only uses JDBC and returns the action adding its
+     *         results to the preheat
+     */
+    public abstract Supplier<Consumer<TrackerPreheat>> prepare( TrackerImportParams params, TrackerPreheat preheat );
 }
@@ -27,7 +27,9 @@
  */
 package org.hisp.dhis.tracker.preheat.supplier;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.hisp.dhis.tracker.preheat.supplier.strategy.StrategyFor;
@@ -66,6 +68,33 @@ public class PreheatStrategyScanner
         return classMap;
     }
 
+    /**
+     * Returns the {@see StrategyFor} annotations of the strategies which
+     * declare their domain object class as cacheable.
+     */
+    public List<StrategyFor> scanCacheableStrategies()
+    {
+        List<StrategyFor> strategies = new ArrayList<>();
+        final String annotation = StrategyFor.class.getName();
+        try ( ScanResult scanResult = new ClassGraph()
+            .enableClassInfo()
+            .acceptPackages( getCurrentPackage() )
+            .enableAnnotationInfo()
+            .scan() )
+        {
+            for ( ClassInfo classInfo : scanResult.getClassesWithAnnotation( annotation ) )
+            {
+                StrategyFor strategyFor = classInfo.loadClass().getAnnotation( StrategyFor.class );
+
+                if ( strategyFor.cache() )
+                {
+                    strategies.add( strategyFor );
+                }
+            }
+        }
+        return strategies;
+    }
+
     private String getCurrentPackage()
     {
         return this.getClass().getPackage().getName();
@@ -30,6 +30,8 @@ package org.hisp.dhis.tracker.preheat.supplier;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import org.hisp.dhis.common.BaseIdentifiableObject;
@@ -48,6 +50,7 @@ import org.springframework.stereotype.Component;
  * @author Luciano Fiandesio
  */
 @Component
+@SupplierDependsOn( ClassBasedSupplier.class )
 public class ProgramInstancesWithAtLeastOneEventSupplier extends JdbcAbstractPreheatSupplier
 {
     private final static String COLUMN = "uid";
@@ -66,14 +69,18 @@ public class ProgramInstancesWithAtLeastOneEventSupplier extends JdbcAbstractPre
     }
 
     @Override
-    public void preheatAdd( TrackerImportParams params, TrackerPreheat preheat )
+    public Supplier<Consumer<TrackerPreheat>> prepare( TrackerImportParams params, TrackerPreheat preheat )
     {
         final Map<String, ProgramInstance> enrollments = preheat.getEnrollments();
         List<Long> programStageIds = enrollments.values().stream().map( BaseIdentifiableObject::getId )
             .collect( Collectors.toList() );
 
-        if ( !programStageIds.isEmpty() )
+        if ( programStageIds.isEmpty() )
         {
+            return NO_QUERY;
+        }
+
+        return () -> {
             List<String> uids = new ArrayList<>();
 
             MapSqlParameterSource parameters = new MapSqlParameterSource();
@@ -81,7 +88,7 @@ public class ProgramInstancesWithAtLeastOneEventSupplier extends JdbcAbstractPre
             jdbcTemplate.query( SQL, parameters, rs -> {
                 uids.add( rs.getString( COLUMN ) );
             } );
-            preheat.setProgramInstanceWithOneOrMoreNonDeletedEvent( uids );
-        }
+            return p -> p.setProgramInstanceWithOneOrMoreNonDeletedEvent( uids );
+        };
     }
 }
@@ -28,6 +28,8 @@
 package org.hisp.dhis.tracker.preheat.supplier;
 
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import org.hisp.dhis.common.IdentifiableObject;
@@ -51,6 +53,7 @@ import org.springframework.stereotype.Component;
  * @author Luciano Fiandesio
  */
 @Component
+@SupplierDependsOn( ClassBasedSupplier.class )
 public class ProgramOrgUnitsSupplier extends JdbcAbstractPreheatSupplier
 {
     protected ProgramOrgUnitsSupplier( JdbcTemplate jdbcTemplate )
@@ -59,7 +62,7 @@ public class ProgramOrgUnitsSupplier extends JdbcAbstractPreheatSupplier
     }
 
     @Override
-    public void preheatAdd( TrackerImportParams params, TrackerPreheat preheat )
+    public Supplier<Consumer<TrackerPreheat>> prepare( TrackerImportParams params, TrackerPreheat preheat )
     {
         // fetch all existing Org Units from payload
         final List<Long> orgUnitIds = preheat.getAll( OrganisationUnit.class )
@@ -70,7 +73,7 @@ public class ProgramOrgUnitsSupplier extends JdbcAbstractPreheatSupplier
 
         if ( orgUnitIds.isEmpty() )
         {
-            return;
+            return NO_QUERY;
         }
 
         final String sql = "SELECT p.uid AS programuid, ou.uid AS organisationunituid " +
@@ -82,27 +85,31 @@ public class ProgramOrgUnitsSupplier extends JdbcAbstractPreheatSupplier
         MapSqlParameterSource parameters = new MapSqlParameterSource();
         parameters.addValue( "ids", orgUnitIds );
 
-        preheat.setProgramWithOrgUnitsMap( jdbcTemplate.query( sql, parameters, rs -> {
-            Map<String, List<String>> map = new HashMap<>();
+        return () -> {
+            Map<String, List<String>> programWithOrgUnitsMap = jdbcTemplate.query( sql, parameters, rs -> {
+                Map<String, List<String>> map = new HashMap<>();
 
-            while ( rs.next() )
-            {
-                final String pid = rs.getString( "programuid" );
-                final String ouid = rs.getString( "organisationunituid" );
-
-                if ( map.containsKey( pid ) )
-                {
-                    map.get( pid ).add( ouid );
-                }
-                else
+                while ( rs.next() )
                 {
-                    List<String> ouids = new ArrayList<>();
-                    ouids.add( ouid );
-                    map.put( pid, ouids );
+                    final String pid = rs.getString( "programuid" );
+                    final String ouid = rs.getString( "organisationunituid" );
+
+                    if ( map.containsKey( pid ) )
+                    {
+                        map.get( pid ).add( ouid );
+                    }
+                    else
+                    {
+                        List<String> ouids = new ArrayList<>();
+                        ouids.add( ouid );
+                        map.put( pid, ouids );
+                    }
                 }
-            }
 
-            return map;
-        } ) );
+                return map;
+            } );
+
+            return p -> p.setProgramWithOrgUnitsMap( programWithOrgUnitsMap );
+        };
     }
 }
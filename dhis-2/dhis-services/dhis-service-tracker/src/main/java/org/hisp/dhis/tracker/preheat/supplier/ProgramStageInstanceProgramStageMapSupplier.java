@@ -30,6 +30,8 @@ package org.hisp.dhis.tracker.preheat.supplier;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.tuple.Pair;
@@ -50,6 +52,7 @@ import org.springframework.stereotype.Component;
  * @author Luciano Fiandesio
  */
 @Component
+@SupplierDependsOn( ClassBasedSupplier.class )
 public class ProgramStageInstanceProgramStageMapSupplier
     extends JdbcAbstractPreheatSupplier
 {
@@ -73,11 +76,11 @@ public class ProgramStageInstanceProgramStageMapSupplier
     }
 
     @Override
-    public void preheatAdd( TrackerImportParams params, TrackerPreheat preheat )
+    public Supplier<Consumer<TrackerPreheat>> prepare( TrackerImportParams params, TrackerPreheat preheat )
     {
         if ( params.getEvents().size() == 0 )
         {
-            return;
+            return NO_QUERY;
         }
 
         List<String> notRepeatableProgramStageUids = params.getEvents().stream()
@@ -96,8 +99,12 @@ public class ProgramStageInstanceProgramStageMapSupplier
             .distinct()
             .collect( Collectors.toList() );
 
-        if ( !notRepeatableProgramStageUids.isEmpty() && !programInstanceUids.isEmpty() )
+        if ( notRepeatableProgramStageUids.isEmpty() || programInstanceUids.isEmpty() )
         {
+            return NO_QUERY;
+        }
+
+        return () -> {
             List<Pair<String, String>> programStageWithEvents = new ArrayList<>();
 
             MapSqlParameterSource parameters = new MapSqlParameterSource();
@@ -109,7 +116,7 @@ public class ProgramStageInstanceProgramStageMapSupplier
 
             } );
 
-            preheat.setProgramStageWithEvents( programStageWithEvents );
-        }
+            return p -> p.setProgramStageWithEvents( programStageWithEvents );
+        };
     }
 }
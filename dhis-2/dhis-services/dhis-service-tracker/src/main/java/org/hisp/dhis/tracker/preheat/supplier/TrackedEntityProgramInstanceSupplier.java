@@ -31,6 +31,8 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import org.hisp.dhis.common.BaseIdentifiableObject;
@@ -53,6 +55,7 @@ import com.google.common.collect.Lists;
  * @author Luca Cambi
  */
 @Component
+@SupplierDependsOn( ClassBasedSupplier.class )
 public class TrackedEntityProgramInstanceSupplier extends JdbcAbstractPreheatSupplier
 {
 
@@ -89,7 +92,7 @@ public class TrackedEntityProgramInstanceSupplier extends JdbcAbstractPreheatSup
     }
 
     @Override
-    public void preheatAdd( TrackerImportParams params, TrackerPreheat preheat )
+    public Supplier<Consumer<TrackerPreheat>> prepare( TrackerImportParams params, TrackerPreheat preheat )
     {
         List<String> trackedEntityList = params.getEnrollments().stream().map( Enrollment::getTrackedEntity )
             .collect( Collectors.toList() );
@@ -101,19 +104,21 @@ public class TrackedEntityProgramInstanceSupplier extends JdbcAbstractPreheatSup
             Constant.SPLIT_LIST_PARTITION_SIZE );
 
         if ( programList.isEmpty() || teiList.isEmpty() )
-            return;
-
-        Map<String, List<ProgramInstance>> trackedEntityToProgramInstanceMap = new HashMap<>();
+            return NO_QUERY;
 
         if ( params.getEnrollments().isEmpty() )
-            return;
+            return NO_QUERY;
+
+        return () -> {
+            Map<String, List<ProgramInstance>> trackedEntityToProgramInstanceMap = new HashMap<>();
 
-        for ( List<String> trackedEntityListSubList : teiList )
-        {
-            queryTeiAndAddToMap( trackedEntityToProgramInstanceMap, trackedEntityListSubList, programList );
-        }
+            for ( List<String> trackedEntityListSubList : teiList )
+            {
+                queryTeiAndAddToMap( trackedEntityToProgramInstanceMap, trackedEntityListSubList, programList );
+            }
 
-        preheat.setTrackedEntityToProgramInstanceMap( trackedEntityToProgramInstanceMap );
+            return p -> p.setTrackedEntityToProgramInstanceMap( trackedEntityToProgramInstanceMap );
+        };
     }
 
     private void queryTeiAndAddToMap( Map<String, List<ProgramInstance>> trackedEntityToProgramInstanceMap,
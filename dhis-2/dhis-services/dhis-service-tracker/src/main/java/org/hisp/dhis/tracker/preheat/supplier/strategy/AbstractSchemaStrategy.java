@@ -140,7 +140,7 @@ public abstract class AbstractSchemaStrategy implements ClassBasedSupplierStrate
         {
             if ( isLoadAllEntities( ids ) )
             {
-                return map( cacheAndReturnLookupData( schema ), mapper );
+                return map( fetchAllAndCache( schema ), mapper );
             }
             else
             {
@@ -231,22 +231,19 @@ public abstract class AbstractSchemaStrategy implements ClassBasedSupplierStrate
         }
     }
 
+    /**
+     * Fetches all objects of the schema class from the database. The cache is
+     * bounded and may have evicted some of the objects, so it can not tell
+     * whether it holds all of them. The fetched objects are still cached for
+     * lookups by identifier.
+     */
     @SuppressWarnings( "unchecked" )
-    private List<IdentifiableObject> cacheAndReturnLookupData( Schema schema )
+    private List<IdentifiableObject> fetchAllAndCache( Schema schema )
     {
-        List<IdentifiableObject> objects;
-        if ( cache.hasKey( buildCacheKey( schema ) ) && !cache.getAll( buildCacheKey( schema ) ).isEmpty() )
-        {
-            objects = new ArrayList<>( cache.getAll( buildCacheKey( schema ) ) );
+        List<IdentifiableObject> objects = manager.getAll( (Class<IdentifiableObject>) schema.getKlass() );
 
-        }
-        else
-        {
-            objects = manager.getAll( (Class<IdentifiableObject>) schema.getKlass() );
-
-            objects.forEach( rt -> cache.put( HibernateProxyUtils.getRealClass( rt ).getSimpleName(),
-                rt.getUid(), rt, getCacheTTL(), getCapacity() ) );
-        }
+        objects.forEach( rt -> cache.put( HibernateProxyUtils.getRealClass( rt ).getSimpleName(),
+            rt.getUid(), rt, getCacheTTL(), getCapacity() ) );
 
         return objects;
     }
@@ -31,6 +31,8 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -38,6 +40,8 @@ import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 
 import org.apache.commons.lang3.StringUtils;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
 import org.hisp.dhis.program.Program;
 import org.hisp.dhis.program.ProgramInstance;
 import org.hisp.dhis.program.ProgramStageInstance;
@@ -81,10 +85,18 @@ public class DefaultTrackerProgramRuleService
     @NonNull
     private final TrackerConverterService<Attribute, TrackedEntityAttributeValue> attributeValueTrackerConverterService;
 
+    @NonNull
+    private final DhisConfigurationProvider config;
+
     /**
      * This method is calling rule engine for every enrollment and all the
      * linked events, for all events linked to an enrollment not present in the
      * payload and for all the program events.
+     * <p>
+     * The rule engine input of every enrollment is prepared sequentially, as it
+     * depends on the persistence session. The evaluations are independent of
+     * each other and run concurrently when
+     * {@link ConfigurationKey#TRACKER_IMPORT_PROGRAM_RULE_PARALLEL} is enabled.
      *
      * @param bundle The bundle to build the context for rule engine
      * @return A list of rule effects for every enrollment and event present in
@@ -94,22 +106,45 @@ public class DefaultTrackerProgramRuleService
     @Transactional( readOnly = true )
     public List<RuleEffects> calculateRuleEffects( TrackerBundle bundle )
     {
-        Stream<RuleEffects> enrollmentStream = bundle.getEnrollments()
+        Stream<Supplier<List<RuleEffects>>> enrollmentEvaluations = bundle.getEnrollments()
             .stream()
-            .flatMap( e -> {
+            .map( e -> {
                 ProgramInstance enrollment = enrollmentTrackerConverterService.fromForRuleEngine( bundle.getPreheat(),
                     e );
 
                 return programRuleEngine
-                    .evaluateEnrollmentAndEvents( enrollment,
+                    .prepareEnrollmentAndEvents( enrollment,
                         getEventsFromEnrollment( enrollment.getUid(), bundle ),
-                        getAttributes( e, bundle ) )
-                    .stream();
+                        getAttributes( e, bundle ) );
             } );
 
-        return Stream.concat(
-            enrollmentStream,
-            calculateEventRuleEffects( bundle ).stream() )
+        List<Supplier<List<RuleEffects>>> evaluations = Stream.concat(
+            enrollmentEvaluations,
+            prepareEventRuleEffects( bundle ).stream() )
+            .collect( Collectors.toList() );
+
+        return evaluate( evaluations );
+    }
+
+    /**
+     * Runs the given evaluations and returns the rule effects in the order of
+     * the evaluations, regardless of whether they run concurrently.
+     */
+    private List<RuleEffects> evaluate( List<Supplier<List<RuleEffects>>> evaluations )
+    {
+        if ( evaluations.size() > 1 && config.isEnabled( ConfigurationKey.TRACKER_IMPORT_PROGRAM_RULE_PARALLEL ) )
+        {
+            List<CompletableFuture<List<RuleEffects>>> futures = evaluations.stream()
+                .map( CompletableFuture::supplyAsync )
+                .collect( Collectors.toList() );
+
+            return futures.stream()
+                .flatMap( future -> future.join().stream() )
+                .collect( Collectors.toList() );
+        }
+
+        return evaluations.stream()
+            .flatMap( evaluation -> evaluation.get().stream() )
             .collect( Collectors.toList() );
     }
 
@@ -144,7 +179,7 @@ public class DefaultTrackerProgramRuleService
         return attributeValues;
     }
 
-    private List<RuleEffects> calculateEventRuleEffects( TrackerBundle bundle )
+    private List<Supplier<List<RuleEffects>>> prepareEventRuleEffects( TrackerBundle bundle )
     {
         List<String> enrollmentUids = bundle.getEnrollments()
             .stream()
@@ -160,15 +195,14 @@ public class DefaultTrackerProgramRuleService
         return eventsByEnrollment
             .entrySet()
             .stream()
-            .flatMap( entry -> {
+            .map( entry -> {
                 ProgramInstance enrollment = getEnrollment( bundle, entry.getKey() );
                 List<ProgramStageInstance> programStageInstances = eventTrackerConverterService
                     .fromForRuleEngine( bundle.getPreheat(), entry.getValue() );
                 if ( enrollment == null )
                 {
-                    return programRuleEngine.evaluateProgramEvents( Sets.newHashSet( programStageInstances ),
-                        getProgramFromEvent( bundle.getPreheat(), entry.getValue().get( 0 ) ) )
-                        .stream();
+                    return programRuleEngine.prepareProgramEvents( Sets.newHashSet( programStageInstances ),
+                        getProgramFromEvent( bundle.getPreheat(), entry.getValue().get( 0 ) ) );
                 }
                 else
                 {
@@ -178,9 +212,8 @@ public class DefaultTrackerProgramRuleService
                         .findAny()
                         .map( e -> getAttributes( e, bundle ) )
                         .orElse( Collections.EMPTY_LIST );
-                    return programRuleEngine.evaluateEnrollmentAndEvents( enrollment,
-                        getEventsFromEnrollment( enrollment.getUid(), bundle ), attributeValues )
-                        .stream();
+                    return programRuleEngine.prepareEnrollmentAndEvents( enrollment,
+                        getEventsFromEnrollment( enrollment.getUid(), bundle ), attributeValues );
                 }
             } )
             .collect( Collectors.toList() );
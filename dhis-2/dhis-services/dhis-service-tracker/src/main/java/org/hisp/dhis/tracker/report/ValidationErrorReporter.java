@@ -137,6 +137,19 @@ public class ValidationErrorReporter
         getWarningsReportList().add( warning );
     }
 
+    /**
+     * Adds the warnings and errors collected by the given reporter to this
+     * reporter. In fail fast mode a {@link ValidationFailFastException} is
+     * thrown on the first error.
+     *
+     * @param reporter the reporter to merge into this reporter.
+     */
+    public void merge( ValidationErrorReporter reporter )
+    {
+        reporter.getWarningsReportList().forEach( this::addWarning );
+        reporter.getReportList().forEach( this::addError );
+    }
+
     /**
      * Checks if the provided uid and Tracker Type is part of the invalid
      * entities
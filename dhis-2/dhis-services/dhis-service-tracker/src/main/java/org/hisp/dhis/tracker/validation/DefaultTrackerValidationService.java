@@ -27,13 +27,19 @@
  */
 package org.hisp.dhis.tracker.validation;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.stream.Collectors;
 
 import lombok.RequiredArgsConstructor;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 
 import org.hisp.dhis.commons.timer.Timer;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
 import org.hisp.dhis.tracker.ValidationMode;
 import org.hisp.dhis.tracker.bundle.TrackerBundle;
 import org.hisp.dhis.tracker.report.Timing;
@@ -59,6 +65,8 @@ public class DefaultTrackerValidationService
     @Qualifier( "ruleEngineValidationHooks" )
     private final List<TrackerValidationHook> ruleEngineValidationHooks;
 
+    private final DhisConfigurationProvider config;
+
     @Override
     public TrackerValidationReport validate( TrackerBundle bundle )
     {
@@ -88,17 +96,28 @@ public class DefaultTrackerValidationService
         // is always available
         ValidationErrorReporter reporter = new ValidationErrorReporter( bundle );
 
+        boolean parallel = config.isEnabled( ConfigurationKey.TRACKER_IMPORT_VALIDATION_PARALLEL );
+
         try
         {
-            for ( TrackerValidationHook hook : hooks )
+            for ( List<TrackerValidationHook> stage : getStages( hooks, parallel ) )
             {
-                Timer hookTimer = Timer.startTimer();
-
-                hook.validate( reporter, bundle );
-
-                validationReport.addTiming( new Timing(
-                    hook.getClass().getName(),
-                    hookTimer.toString() ) );
+                if ( stage.size() == 1 )
+                {
+                    TrackerValidationHook hook = stage.get( 0 );
+
+                    Timer hookTimer = Timer.startTimer();
+
+                    hook.validate( reporter, bundle );
+
+                    validationReport.addTiming( new Timing(
+                        hook.getClass().getName(),
+                        hookTimer.toString() ) );
+                }
+                else
+                {
+                    validateConcurrently( stage, bundle, reporter, validationReport );
+                }
             }
         }
         catch ( ValidationFailFastException e )
@@ -114,6 +133,84 @@ public class DefaultTrackerValidationService
         return validationReport;
     }
 
+    /**
+     * Groups the given hooks into stages which are run one after another. If
+     * parallel, consecutive independent hooks are grouped into one stage,
+     * otherwise each hook is a stage of its own.
+     */
+    private List<List<TrackerValidationHook>> getStages( List<TrackerValidationHook> hooks, boolean parallel )
+    {
+        List<List<TrackerValidationHook>> stages = new ArrayList<>();
+        List<TrackerValidationHook> stage = null;
+
+        for ( TrackerValidationHook hook : hooks )
+        {
+            if ( stage == null || !parallel || !hook.isIndependent() || !stage.get( 0 ).isIndependent() )
+            {
+                stage = new ArrayList<>();
+                stages.add( stage );
+            }
+
+            stage.add( hook );
+        }
+
+        return stages;
+    }
+
+    /**
+     * Runs the given independent hooks concurrently, each with its own
+     * reporter. The reporters are merged into the given reporter in the order
+     * of the hooks once all hooks are done, which keeps the report independent
+     * of the order in which the hooks complete.
+     */
+    private void validateConcurrently( List<TrackerValidationHook> hooks, TrackerBundle bundle,
+        ValidationErrorReporter reporter, TrackerValidationReport validationReport )
+    {
+        List<ForkJoinTask<HookResult>> tasks = hooks.stream()
+            .map( hook -> ForkJoinPool.commonPool().submit( () -> validateHook( hook, bundle ) ) )
+            .collect( Collectors.toList() );
+
+        List<HookResult> results = tasks.stream()
+            .map( ForkJoinTask::join )
+            .collect( Collectors.toList() );
+
+        for ( HookResult result : results )
+        {
+            if ( result.getTiming() != null )
+            {
+                validationReport.addTiming( result.getTiming() );
+            }
+
+            reporter.merge( result.getReporter() );
+        }
+    }
+
+    private HookResult validateHook( TrackerValidationHook hook, TrackerBundle bundle )
+    {
+        ValidationErrorReporter reporter = new ValidationErrorReporter( bundle );
+
+        Timer hookTimer = Timer.startTimer();
+
+        try
+        {
+            hook.validate( reporter, bundle );
+        }
+        catch ( ValidationFailFastException e )
+        {
+            return new HookResult( reporter, null );
+        }
+
+        return new HookResult( reporter, new Timing( hook.getClass().getName(), hookTimer.toString() ) );
+    }
+
+    @Value
+    private static class HookResult
+    {
+        ValidationErrorReporter reporter;
+
+        Timing timing;
+    }
+
     private void removeInvalidObjects( TrackerBundle bundle, ValidationErrorReporter reporter )
     {
         bundle.setEvents( bundle.getEvents().stream().filter(
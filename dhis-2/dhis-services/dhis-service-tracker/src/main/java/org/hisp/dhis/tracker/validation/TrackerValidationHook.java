@@ -36,4 +36,17 @@ import org.hisp.dhis.tracker.report.ValidationErrorReporter;
 public interface TrackerValidationHook
 {
     void validate( ValidationErrorReporter report, TrackerBundle bundle );
+
+    /**
+     * Whether this hook is independent of the other hooks, meaning that it
+     * does not remove objects from the bundle, does not depend on the errors
+     * reported by other hooks and only reads the preheat. Consecutive
+     * independent hooks can be run concurrently.
+     *
+     * @return true if this hook is independent of the other hooks.
+     */
+    default boolean isIndependent()
+    {
+        return false;
+    }
 }
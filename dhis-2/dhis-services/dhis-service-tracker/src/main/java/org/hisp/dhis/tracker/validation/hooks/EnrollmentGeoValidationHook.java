@@ -56,4 +56,9 @@ public class EnrollmentGeoValidationHook
         }
     }
 
-}
\ No newline at end of file
+    @Override
+    public boolean isIndependent()
+    {
+        return true;
+    }
+}
@@ -153,4 +153,10 @@ public class EnrollmentInExistingValidationHook
         }
         return tei;
     }
-}
\ No newline at end of file
+
+    @Override
+    public boolean isIndependent()
+    {
+        return true;
+    }
+}
@@ -197,4 +197,10 @@ public class EventDataValuesValidationHook
                 E1009, dataValue.getValue() );
         }
     }
+
+    @Override
+    public boolean isIndependent()
+    {
+        return true;
+    }
 }
@@ -153,4 +153,10 @@ public class EventDateValidationHook
 
         return eventStatus == EventStatus.ACTIVE || eventStatus == EventStatus.COMPLETED;
     }
+
+    @Override
+    public boolean isIndependent()
+    {
+        return true;
+    }
 }
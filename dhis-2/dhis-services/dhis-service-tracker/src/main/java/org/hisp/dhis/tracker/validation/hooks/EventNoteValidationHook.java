@@ -43,4 +43,10 @@ public class EventNoteValidationHook extends AbstractTrackerDtoValidationHook
         event
             .setNotes( ValidationUtils.validateNotes( reporter, event, event.getNotes() ) );
     }
+
+    @Override
+    public boolean isIndependent()
+    {
+        return true;
+    }
 }
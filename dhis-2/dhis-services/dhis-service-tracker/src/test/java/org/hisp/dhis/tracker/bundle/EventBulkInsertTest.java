@@ -0,0 +1,288 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.tracker.bundle;
+
+import static org.hisp.dhis.external.conf.ConfigurationKey.TRACKER_IMPORT_EVENT_BULK_INSERT;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.event.service.spi.EventListenerGroup;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.internal.SessionFactoryImpl;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hisp.dhis.IntegrationTestBase;
+import org.hisp.dhis.audit.Auditable;
+import org.hisp.dhis.common.IdentifiableObject;
+import org.hisp.dhis.common.IdentifiableObjectManager;
+import org.hisp.dhis.dxf2.metadata.objectbundle.ObjectBundle;
+import org.hisp.dhis.dxf2.metadata.objectbundle.ObjectBundleMode;
+import org.hisp.dhis.dxf2.metadata.objectbundle.ObjectBundleParams;
+import org.hisp.dhis.dxf2.metadata.objectbundle.ObjectBundleService;
+import org.hisp.dhis.dxf2.metadata.objectbundle.ObjectBundleValidationService;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.hisp.dhis.importexport.ImportStrategy;
+import org.hisp.dhis.program.ProgramStageInstance;
+import org.hisp.dhis.render.RenderFormat;
+import org.hisp.dhis.render.RenderService;
+import org.hisp.dhis.tracker.TrackerImportParams;
+import org.hisp.dhis.tracker.TrackerImportStrategy;
+import org.hisp.dhis.tracker.TrackerType;
+import org.hisp.dhis.tracker.domain.Event;
+import org.hisp.dhis.tracker.report.TrackerBundleReport;
+import org.hisp.dhis.user.User;
+import org.hisp.dhis.user.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+
+/**
+ * Imports events through the JDBC bulk insert path, committing the import
+ * transaction, and verifies the stored events and that the post commit insert
+ * listeners, which create the CREATE audits, are invoked for each of them.
+ */
+class EventBulkInsertTest extends IntegrationTestBase
+{
+    @Autowired
+    private RenderService _renderService;
+
+    @Autowired
+    private UserService _userService;
+
+    @Autowired
+    private ObjectBundleService objectBundleService;
+
+    @Autowired
+    private ObjectBundleValidationService objectBundleValidationService;
+
+    @Autowired
+    private TrackerBundleService trackerBundleService;
+
+    @Autowired
+    private IdentifiableObjectManager manager;
+
+    @Autowired
+    private DhisConfigurationProvider config;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private RecordingInsertListener insertListener;
+
+    private User user;
+
+    @Override
+    protected void setUpTest()
+        throws IOException
+    {
+        renderService = _renderService;
+        userService = _userService;
+        user = createAndInjectAdminUser();
+
+        setUpMetadata( "tracker/event_metadata.json" );
+
+        insertListener = getRecordingInsertListener();
+        insertListener.clear();
+
+        config.getProperties().put( TRACKER_IMPORT_EVENT_BULK_INSERT.getKey(), "on" );
+    }
+
+    @Override
+    protected void tearDownTest()
+    {
+        config.getProperties().remove( TRACKER_IMPORT_EVENT_BULK_INSERT.getKey() );
+    }
+
+    @Test
+    void testBulkInsertStoresEventsAndFiresInsertListeners()
+        throws IOException
+    {
+        TrackerImportParams params = fromJson( "tracker/event_events_and_enrollment.json" );
+        params.setImportStrategy( TrackerImportStrategy.CREATE );
+        Map<String, Event> payload = params.getEvents().stream()
+            .collect( Collectors.toMap( Event::getEvent, Function.identity() ) );
+
+        TrackerBundleReport report = trackerBundleService.commit( trackerBundleService.create( params ) );
+
+        assertEquals( payload.size(), report.getTypeReportMap().get( TrackerType.EVENT ).getStats().getCreated() );
+
+        List<ProgramStageInstance> stored = manager.getAll( ProgramStageInstance.class );
+        assertEquals( payload.size(), stored.size() );
+
+        for ( ProgramStageInstance programStageInstance : stored )
+        {
+            Event event = payload.get( programStageInstance.getUid() );
+            assertNotNull( event );
+            assertEquals( event.getProgramStage(), programStageInstance.getProgramStage().getUid() );
+            assertEquals( event.getOrgUnit(), programStageInstance.getOrganisationUnit().getUid() );
+            assertEquals( event.getStatus(), programStageInstance.getStatus() );
+            assertEquals( event.getDataValues().size(), programStageInstance.getEventDataValues().size() );
+        }
+
+        assertTrue( ProgramStageInstance.class.isAnnotationPresent( Auditable.class ) );
+        assertEquals( payload.keySet(), insertListener.getCommitted().keySet() );
+
+        EntityPersister persister = entityManagerFactory.unwrap( SessionFactoryImpl.class ).getMetamodel()
+            .entityPersister( ProgramStageInstance.class );
+
+        for ( PostInsertEvent insertEvent : insertListener.getCommitted().values() )
+        {
+            ProgramStageInstance entity = (ProgramStageInstance) insertEvent.getEntity();
+            assertTrue( entity.getId() > 0 );
+            assertEquals( entity.getId(), insertEvent.getId() );
+            assertEquals( persister.getPropertyNames().length, insertEvent.getState().length );
+        }
+
+        assertTrue( insertListener.getFailed().isEmpty() );
+    }
+
+    @Test
+    void testBulkInsertFiresInsertListenersOnlyAfterCommit()
+        throws IOException
+    {
+        TrackerImportParams params = fromJson( "tracker/event_events_and_enrollment.json" );
+        params.setImportStrategy( TrackerImportStrategy.CREATE );
+
+        TrackerBundle bundle = trackerBundleService.create( params );
+
+        assertTrue( insertListener.getCommitted().isEmpty() );
+
+        trackerBundleService.commit( bundle );
+
+        assertFalse( insertListener.getCommitted().isEmpty() );
+    }
+
+    private void setUpMetadata( String path )
+        throws IOException
+    {
+        Map<Class<? extends IdentifiableObject>, List<IdentifiableObject>> metadata = renderService
+            .fromMetadata( new ClassPathResource( path ).getInputStream(), RenderFormat.JSON );
+        ObjectBundleParams params = new ObjectBundleParams();
+        params.setObjectBundleMode( ObjectBundleMode.COMMIT );
+        params.setImportStrategy( ImportStrategy.CREATE );
+        params.setObjects( metadata );
+        ObjectBundle bundle = objectBundleService.create( params );
+        assertFalse( objectBundleValidationService.validate( bundle ).hasErrorReports() );
+        objectBundleService.commit( bundle );
+    }
+
+    private TrackerImportParams fromJson( String path )
+        throws IOException
+    {
+        TrackerImportParams params = renderService.fromJson( new ClassPathResource( path ).getInputStream(),
+            TrackerImportParams.class );
+        params.setUser( user );
+        return params;
+    }
+
+    /**
+     * Returns the recording listener, registering it on first use. Hibernate
+     * allows only one listener of a class per event type, and the session
+     * factory is shared between tests.
+     */
+    private RecordingInsertListener getRecordingInsertListener()
+    {
+        EventListenerGroup<PostInsertEventListener> group = entityManagerFactory.unwrap( SessionFactoryImpl.class )
+            .getServiceRegistry().getService( EventListenerRegistry.class )
+            .getEventListenerGroup( EventType.POST_COMMIT_INSERT );
+
+        for ( PostInsertEventListener listener : group.listeners() )
+        {
+            if ( listener instanceof RecordingInsertListener )
+            {
+                return (RecordingInsertListener) listener;
+            }
+        }
+
+        RecordingInsertListener listener = new RecordingInsertListener();
+        group.appendListener( listener );
+        return listener;
+    }
+
+    private static class RecordingInsertListener implements PostCommitInsertEventListener
+    {
+        private final Map<String, PostInsertEvent> committed = new ConcurrentHashMap<>();
+
+        private final Set<String> failed = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public void onPostInsert( PostInsertEvent event )
+        {
+            if ( event.getEntity() instanceof ProgramStageInstance )
+            {
+                committed.put( ((ProgramStageInstance) event.getEntity()).getUid(), event );
+            }
+        }
+
+        @Override
+        public void onPostInsertCommitFailed( PostInsertEvent event )
+        {
+            if ( event.getEntity() instanceof ProgramStageInstance )
+            {
+                failed.add( ((ProgramStageInstance) event.getEntity()).getUid() );
+            }
+        }
+
+        @Override
+        public boolean requiresPostCommitHanding( EntityPersister persister )
+        {
+            return true;
+        }
+
+        Map<String, PostInsertEvent> getCommitted()
+        {
+            return committed;
+        }
+
+        Set<String> getFailed()
+        {
+            return failed;
+        }
+
+        void clear()
+        {
+            committed.clear();
+            failed.clear();
+        }
+    }
+}
@@ -27,26 +27,39 @@
  */
 package org.hisp.dhis.tracker.preheat;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doCallRealMethod;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 
 import org.hisp.dhis.common.IdentifiableObjectManager;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
 import org.hisp.dhis.tracker.TrackerImportParams;
 import org.hisp.dhis.tracker.domain.TrackedEntity;
 import org.hisp.dhis.tracker.preheat.supplier.ClassBasedSupplier;
 import org.hisp.dhis.tracker.preheat.supplier.PreheatSupplier;
+import org.hisp.dhis.tracker.preheat.supplier.ProgramOrgUnitsSupplier;
 import org.hisp.dhis.user.User;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
@@ -66,9 +79,15 @@ class DefaultTrackerPreheatServiceTest
     @Mock
     private IdentifiableObjectManager manager;
 
+    @Mock
+    private DhisConfigurationProvider config;
+
     @Mock
     private ClassBasedSupplier classBasedSupplier;
 
+    @Mock
+    private ProgramOrgUnitsSupplier programOrgUnitsSupplier;
+
     @Mock
     private ApplicationContext applicationContext;
 
@@ -88,13 +107,19 @@ class DefaultTrackerPreheatServiceTest
     @BeforeEach
     public void setUp()
     {
-        preheatService = new DefaultTrackerPreheatService( manager, ImmutableList.of(
+        preheatService = new DefaultTrackerPreheatService( manager, config, ImmutableList.of(
             ClassBasedSupplier.class.getSimpleName() ) );
 
         preheatService.setApplicationContext( applicationContext );
         when( manager.get( User.class, getUser().getUid() ) ).thenReturn( getUser() );
     }
 
+    @AfterEach
+    public void tearDown()
+    {
+        preheatService.shutdown();
+    }
+
     @Test
     void shouldGetFromContextAndAdd()
     {
@@ -136,6 +161,42 @@ class DefaultTrackerPreheatServiceTest
         verify( classBasedSupplier ).add( any(), any() );
     }
 
+    @Test
+    void shouldRunDependenciesFirstAndQueryConcurrently()
+    {
+        preheatService.shutdown();
+        preheatService = new DefaultTrackerPreheatService( manager, config, ImmutableList.of(
+            ProgramOrgUnitsSupplier.class.getSimpleName(), ClassBasedSupplier.class.getSimpleName() ) );
+        preheatService.setApplicationContext( applicationContext );
+
+        Map<String, List<String>> programWithOrgUnits = Collections.singletonMap( "program1",
+            Collections.singletonList( "orgUnit1" ) );
+
+        when( config.isEnabled( ConfigurationKey.TRACKER_IMPORT_PREHEAT_PARALLEL ) ).thenReturn( true );
+        when( applicationContext.getBean( "classBasedSupplier", PreheatSupplier.class ) )
+            .thenReturn( classBasedSupplier );
+        when( applicationContext.getBean( "programOrgUnitsSupplier", PreheatSupplier.class ) )
+            .thenReturn( programOrgUnitsSupplier );
+        AtomicReference<Thread> queryThread = new AtomicReference<>();
+        when( programOrgUnitsSupplier.prepare( any(), any() ) )
+            .thenReturn( () -> {
+                queryThread.set( Thread.currentThread() );
+                return p -> p.setProgramWithOrgUnitsMap( programWithOrgUnits );
+            } );
+
+        TrackerPreheat preheat = preheatService.preheat( preheatParams );
+
+        InOrder inOrder = inOrder( classBasedSupplier, programOrgUnitsSupplier );
+        inOrder.verify( classBasedSupplier ).add( any(), any() );
+        inOrder.verify( programOrgUnitsSupplier ).prepare( any(), any() );
+        verify( programOrgUnitsSupplier, times( 0 ) ).add( any(), any() );
+
+        assertSame( programWithOrgUnits, preheat.getProgramWithOrgUnitsMap() );
+        assertTrue( queryThread.get().getName().startsWith( "TRACKER-PREHEAT-" ) );
+        assertEquals( List.of( "ClassBasedSupplier", "ProgramOrgUnitsSupplier" ),
+            preheat.getSupplierTimings().stream().map( timing -> timing.name ).collect( Collectors.toList() ) );
+    }
+
     private User getUser()
     {
         User user = new User();
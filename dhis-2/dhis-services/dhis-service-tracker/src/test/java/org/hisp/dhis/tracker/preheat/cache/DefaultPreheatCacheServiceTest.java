@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.tracker.preheat.cache;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import org.hisp.dhis.common.CodeGenerator;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.hisp.dhis.program.Program;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.core.env.Environment;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@MockitoSettings( strictness = Strictness.LENIENT )
+@ExtendWith( MockitoExtension.class )
+class DefaultPreheatCacheServiceTest
+{
+    @Mock
+    private DhisConfigurationProvider config;
+
+    @Mock
+    private Environment environment;
+
+    private DefaultPreheatCacheService cacheService;
+
+    private MeterRegistry registry;
+
+    private String cacheKey;
+
+    @BeforeEach
+    public void setUp()
+    {
+        when( environment.getActiveProfiles() ).thenReturn( new String[] {} );
+        when( config.isEnabled( ConfigurationKey.TRACKER_IMPORT_PREHEAT_CACHE_ENABLED ) ).thenReturn( true );
+
+        cacheService = new DefaultPreheatCacheService( config, environment );
+        registry = new SimpleMeterRegistry();
+        cacheService.bindTo( registry );
+
+        // the caches are shared by all instances
+        cacheKey = CodeGenerator.generateUid();
+    }
+
+    @Test
+    void verifyCacheDisabled()
+    {
+        when( config.isEnabled( ConfigurationKey.TRACKER_IMPORT_PREHEAT_CACHE_ENABLED ) ).thenReturn( false );
+
+        cacheService.put( cacheKey, "A", createProgram(), 10, 10 );
+
+        assertFalse( cacheService.hasKey( cacheKey ) );
+        assertFalse( cacheService.get( cacheKey, "A" ).isPresent() );
+    }
+
+    @Test
+    void verifyGetCountsHitsAndMisses()
+    {
+        Program program = createProgram();
+
+        cacheService.put( cacheKey, "A", program, 10, 10 );
+
+        assertTrue( cacheService.hasKey( cacheKey ) );
+        assertEquals( program, cacheService.get( cacheKey, "A" ).get() );
+        assertEquals( program, cacheService.get( cacheKey, "A" ).get() );
+        assertFalse( cacheService.get( cacheKey, "B" ).isPresent() );
+
+        assertThat( count( "tracker.preheat.cache.gets", "result", "hit" ), is( 2.0 ) );
+        assertThat( count( "tracker.preheat.cache.gets", "result", "miss" ), is( 1.0 ) );
+    }
+
+    @Test
+    void verifyCapacityIsBounded()
+    {
+        for ( int i = 0; i < 50; i++ )
+        {
+            cacheService.put( cacheKey, String.valueOf( i ), createProgram(), 10, 10 );
+        }
+
+        assertTrue( cacheService.getAll( cacheKey ).size() <= 10 );
+        assertTrue( count( "tracker.preheat.cache.evictions" ) > 0 );
+    }
+
+    @Test
+    void verifyInvalidateCache()
+    {
+        cacheService.put( cacheKey, "A", createProgram(), 10, 10 );
+        cacheService.put( cacheKey, "B", createProgram(), 10, 10 );
+
+        assertThat( cacheService.getAll( cacheKey ), hasSize( 2 ) );
+
+        cacheService.invalidateCache();
+
+        assertThat( cacheService.getAll( cacheKey ), hasSize( 0 ) );
+    }
+
+    private double count( String name, String... tags )
+    {
+        return registry.get( name ).tag( "cache", cacheKey ).tags( tags ).functionCounter().count();
+    }
+
+    private Program createProgram()
+    {
+        Program program = new Program();
+        program.setUid( CodeGenerator.generateUid() );
+        return program;
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.tracker.preheat.cache;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.hisp.dhis.common.IdentifiableObject;
+import org.hisp.dhis.common.IdentifiableObjectManager;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.hisp.dhis.tracker.TrackerIdentifierCollector;
+import org.hisp.dhis.tracker.preheat.supplier.PreheatStrategyScanner;
+import org.hisp.dhis.tracker.preheat.supplier.strategy.StrategyFor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith( MockitoExtension.class )
+class PreheatCacheWarmUpRoutineTest
+{
+    @Mock
+    private PreheatCacheService cache;
+
+    @Mock
+    private IdentifiableObjectManager manager;
+
+    @Mock
+    private DhisConfigurationProvider config;
+
+    private PreheatCacheWarmUpRoutine routine;
+
+    @BeforeEach
+    public void setUp()
+    {
+        routine = new PreheatCacheWarmUpRoutine( cache, manager, config );
+    }
+
+    @Test
+    void verifyWarmUpLoadsAtMostCacheCapacity()
+    {
+        when( config.isEnabled( ConfigurationKey.TRACKER_IMPORT_PREHEAT_CACHE_WARMUP ) ).thenReturn( true );
+        when( cache.isCacheEnabled() ).thenReturn( true );
+
+        routine.executeInTransaction();
+
+        List<StrategyFor> strategies = new PreheatStrategyScanner().scanCacheableStrategies();
+        assertFalse( strategies.isEmpty() );
+
+        for ( StrategyFor strategy : strategies )
+        {
+            @SuppressWarnings( "unchecked" )
+            Class<IdentifiableObject> klass = (Class<IdentifiableObject>) strategy.value();
+
+            if ( TrackerIdentifierCollector.WILDCARD_CLASSES.contains( klass ) )
+            {
+                verify( manager, never() ).getBetweenSorted( eq( klass ), anyInt(), anyInt() );
+            }
+            else
+            {
+                verify( manager ).getBetweenSorted( klass, 0, (int) strategy.capacity() );
+            }
+        }
+
+        verify( manager, never() ).getAll( any() );
+    }
+
+    @Test
+    void verifyWarmUpSkippedWhenDisabled()
+    {
+        when( config.isEnabled( ConfigurationKey.TRACKER_IMPORT_PREHEAT_CACHE_WARMUP ) ).thenReturn( false );
+
+        routine.executeInTransaction();
+
+        verifyNoInteractions( manager );
+    }
+}
@@ -29,16 +29,19 @@ package org.hisp.dhis.tracker.preheat.supplier.strategy;
 
 import static java.util.Collections.singletonList;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hisp.dhis.tracker.TrackerIdentifierCollector.ID_WILDCARD;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -46,6 +49,8 @@ import java.util.stream.Collectors;
 import org.hisp.dhis.common.CodeGenerator;
 import org.hisp.dhis.common.IdentifiableObject;
 import org.hisp.dhis.common.IdentifiableObjectManager;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
 import org.hisp.dhis.program.Program;
 import org.hisp.dhis.query.Query;
 import org.hisp.dhis.query.QueryService;
@@ -55,17 +60,22 @@ import org.hisp.dhis.schema.Schema;
 import org.hisp.dhis.schema.SchemaService;
 import org.hisp.dhis.schema.descriptors.ProgramSchemaDescriptor;
 import org.hisp.dhis.schema.descriptors.RelationshipTypeSchemaDescriptor;
+import org.hisp.dhis.schema.descriptors.TrackedEntityTypeSchemaDescriptor;
+import org.hisp.dhis.trackedentity.TrackedEntityType;
 import org.hisp.dhis.tracker.TrackerIdSchemeParam;
 import org.hisp.dhis.tracker.preheat.TrackerPreheat;
+import org.hisp.dhis.tracker.preheat.cache.DefaultPreheatCacheService;
 import org.hisp.dhis.tracker.preheat.cache.PreheatCacheService;
 import org.hisp.dhis.tracker.preheat.mappers.CopyMapper;
 import org.hisp.dhis.tracker.preheat.mappers.ProgramMapper;
 import org.hisp.dhis.tracker.preheat.mappers.RelationshipTypeMapper;
+import org.hisp.dhis.tracker.preheat.mappers.TrackedEntityTypeMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.env.Environment;
 
 /**
  * @author Luciano Fiandesio
@@ -86,6 +96,12 @@ class AbstractSchemaStrategyCachingTest
     @Mock
     private SchemaService schemaService;
 
+    @Mock
+    private DhisConfigurationProvider config;
+
+    @Mock
+    private Environment environment;
+
     private TrackerPreheat preheat;
 
     private final BeanRandomizer rnd = BeanRandomizer.create();
@@ -116,11 +132,52 @@ class AbstractSchemaStrategyCachingTest
         // Then
         assertThat( preheat.getAll( RelationshipType.class ), hasSize( 5 ) );
 
-        verify( cache, times( 1 ) ).hasKey( "RelationshipType" );
+        verify( cache, never() ).getAll( "RelationshipType" );
 
         verify( cache, times( 5 ) ).put( eq( "RelationshipType" ), anyString(), any(), eq( 10 ), eq( 10L ) );
     }
 
+    @Test
+    void verifyWildcardObjectsAreFetchedFromDbWhenExceedingCacheCapacity()
+    {
+        // Given
+        final Schema schema = new TrackedEntityTypeSchemaDescriptor().getSchema();
+
+        when( environment.getActiveProfiles() ).thenReturn( new String[] {} );
+        when( config.isEnabled( ConfigurationKey.TRACKER_IMPORT_PREHEAT_CACHE_ENABLED ) ).thenReturn( true );
+
+        DefaultPreheatCacheService cacheService = new DefaultPreheatCacheService( config, environment );
+        cacheService.invalidateCache();
+
+        // more types than the capacity of 5 of the strategy cache
+        List<TrackedEntityType> trackedEntityTypes = rnd.objects( TrackedEntityType.class, 8 )
+            .collect( Collectors.toList() );
+        List<String> uids = trackedEntityTypes.stream().map( TrackedEntityType::getUid )
+            .collect( Collectors.toList() );
+
+        when( manager.getAll( (Class<IdentifiableObject>) schema.getKlass() ) )
+            .thenAnswer( invocation -> new ArrayList<>( trackedEntityTypes ) );
+
+        TrackedEntityTypeStrategy strategy = new TrackedEntityTypeStrategy( schemaService, queryService,
+            manager, cacheService );
+
+        for ( int i = 0; i < 2; i++ )
+        {
+            // When
+            TrackerPreheat trackerPreheat = new TrackerPreheat();
+
+            strategy.queryForIdentifiableObjects( trackerPreheat, schema, TrackerIdSchemeParam.UID,
+                singletonList( singletonList( ID_WILDCARD ) ), TrackedEntityTypeMapper.class );
+
+            // Then
+            assertThat( trackerPreheat.getAll( TrackedEntityType.class ).stream()
+                .map( TrackedEntityType::getUid ).collect( Collectors.toList() ),
+                containsInAnyOrder( uids.toArray() ) );
+        }
+
+        verify( manager, times( 2 ) ).getAll( (Class<IdentifiableObject>) schema.getKlass() );
+    }
+
     @Test
     void verifyObjectInCacheIsReturned()
     {
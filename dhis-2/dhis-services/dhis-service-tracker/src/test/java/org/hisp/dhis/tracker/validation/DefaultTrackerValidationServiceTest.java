@@ -49,6 +49,8 @@ import java.util.function.BiConsumer;
 import lombok.Builder;
 
 import org.hisp.dhis.common.CodeGenerator;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
 import org.hisp.dhis.tracker.TrackerImportStrategy;
 import org.hisp.dhis.tracker.ValidationMode;
 import org.hisp.dhis.tracker.bundle.TrackerBundle;
@@ -60,6 +62,7 @@ import org.hisp.dhis.tracker.report.TrackerValidationReport;
 import org.hisp.dhis.tracker.report.ValidationErrorReporter;
 import org.hisp.dhis.tracker.validation.hooks.AbstractTrackerDtoValidationHook;
 import org.hisp.dhis.user.User;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 class DefaultTrackerValidationServiceTest
@@ -67,6 +70,14 @@ class DefaultTrackerValidationServiceTest
 
     private DefaultTrackerValidationService service;
 
+    private DhisConfigurationProvider config;
+
+    @BeforeEach
+    public void setUp()
+    {
+        config = mock( DhisConfigurationProvider.class );
+    }
+
     @Test
     void shouldNotValidateMissingUser()
     {
@@ -76,7 +87,7 @@ class DefaultTrackerValidationServiceTest
             .build();
 
         TrackerValidationHook hook1 = mock( TrackerValidationHook.class );
-        service = new DefaultTrackerValidationService( List.of( hook1 ), Collections.emptyList() );
+        service = new DefaultTrackerValidationService( List.of( hook1 ), Collections.emptyList(), config );
 
         service.validate( bundle );
 
@@ -91,7 +102,7 @@ class DefaultTrackerValidationServiceTest
             .user( superUser() )
             .build();
         TrackerValidationHook hook1 = mock( TrackerValidationHook.class );
-        service = new DefaultTrackerValidationService( List.of( hook1 ), Collections.emptyList() );
+        service = new DefaultTrackerValidationService( List.of( hook1 ), Collections.emptyList(), config );
 
         service.validate( bundle );
 
@@ -107,7 +118,7 @@ class DefaultTrackerValidationServiceTest
             .build();
         TrackerValidationHook hook1 = mock( TrackerValidationHook.class );
         TrackerValidationHook hook2 = mock( TrackerValidationHook.class );
-        service = new DefaultTrackerValidationService( List.of( hook1, hook2 ), Collections.emptyList() );
+        service = new DefaultTrackerValidationService( List.of( hook1, hook2 ), Collections.emptyList(), config );
 
         service.validate( bundle );
 
@@ -129,6 +140,8 @@ class DefaultTrackerValidationServiceTest
 
         private Boolean needsToRun;
 
+        private boolean independent;
+
         private BiConsumer<ValidationErrorReporter, TrackedEntity> validateTrackedEntity;
 
         private BiConsumer<ValidationErrorReporter, Enrollment> validateEnrollment;
@@ -179,6 +192,12 @@ class DefaultTrackerValidationServiceTest
             // by default we delegate to AbstractTrackerDtoValidationHook
             return Objects.requireNonNullElseGet( this.needsToRun, () -> super.needsToRun( strategy ) );
         }
+
+        @Override
+        public boolean isIndependent()
+        {
+            return independent;
+        }
     }
 
     @Test
@@ -219,7 +238,7 @@ class DefaultTrackerValidationServiceTest
                 TrackerErrorCode.E9999 ) )
             .build();
         service = new DefaultTrackerValidationService( List.of( removeOnError, doNotRemoveOnError ),
-            Collections.emptyList() );
+            Collections.emptyList(), config );
 
         TrackerValidationReport report = service.validate( bundle );
 
@@ -257,7 +276,7 @@ class DefaultTrackerValidationServiceTest
             .validateEvent( ( reporter, event ) -> reporter.addErrorIf( () -> invalidEvent.equals( event ), event,
                 TrackerErrorCode.E9999 ) )
             .build();
-        service = new DefaultTrackerValidationService( List.of( hook1, hook2 ), Collections.emptyList() );
+        service = new DefaultTrackerValidationService( List.of( hook1, hook2 ), Collections.emptyList(), config );
 
         TrackerValidationReport report = service.validate( bundle );
 
@@ -288,7 +307,7 @@ class DefaultTrackerValidationServiceTest
                 TrackerErrorCode.E1032 ) )
             .build();
         TrackerValidationHook hook2 = mock( TrackerValidationHook.class );
-        service = new DefaultTrackerValidationService( List.of( hook1, hook2 ), Collections.emptyList() );
+        service = new DefaultTrackerValidationService( List.of( hook1, hook2 ), Collections.emptyList(), config );
 
         TrackerValidationReport report = service.validate( bundle );
 
@@ -318,7 +337,7 @@ class DefaultTrackerValidationServiceTest
             .validateEvent( ( reporter, event ) -> reporter.addErrorIf( () -> invalidEvent.equals( event ), event,
                 TrackerErrorCode.E1032 ) )
             .build();
-        service = new DefaultTrackerValidationService( List.of( hook1 ), Collections.emptyList() );
+        service = new DefaultTrackerValidationService( List.of( hook1 ), Collections.emptyList(), config );
 
         TrackerValidationReport report = service.validate( bundle );
 
@@ -339,7 +358,7 @@ class DefaultTrackerValidationServiceTest
             .validateEvent( ( reporter, event ) -> reporter.addErrorIf( () -> invalidEvent.equals( event ), event,
                 TrackerErrorCode.E1032 ) )
             .build();
-        service = new DefaultTrackerValidationService( List.of( hook1 ), Collections.emptyList() );
+        service = new DefaultTrackerValidationService( List.of( hook1 ), Collections.emptyList(), config );
 
         TrackerValidationReport report = service.validate( bundle );
 
@@ -360,7 +379,7 @@ class DefaultTrackerValidationServiceTest
             .validateEvent( ( reporter, event ) -> reporter.addErrorIf( () -> invalidEvent.equals( event ), event,
                 TrackerErrorCode.E1032 ) )
             .build();
-        service = new DefaultTrackerValidationService( List.of( hook1 ), Collections.emptyList() );
+        service = new DefaultTrackerValidationService( List.of( hook1 ), Collections.emptyList(), config );
 
         TrackerValidationReport report = service.validate( bundle );
 
@@ -386,7 +405,7 @@ class DefaultTrackerValidationServiceTest
                 }
             } )
             .build();
-        service = new DefaultTrackerValidationService( List.of( hook ), Collections.emptyList() );
+        service = new DefaultTrackerValidationService( List.of( hook ), Collections.emptyList(), config );
 
         TrackerValidationReport report = service.validate( bundle );
 
@@ -429,7 +448,7 @@ class DefaultTrackerValidationServiceTest
             .validateEvent( ( reporter, event ) -> reporter.addErrorIf( () -> invalidEvent.equals( event ), event,
                 TrackerErrorCode.E1032 ) )
             .build();
-        service = new DefaultTrackerValidationService( List.of( hook ), Collections.emptyList() );
+        service = new DefaultTrackerValidationService( List.of( hook ), Collections.emptyList(), config );
 
         TrackerValidationReport report = service.validate( bundle );
 
@@ -444,6 +463,79 @@ class DefaultTrackerValidationServiceTest
         assertTrue( bundle.getEvents().isEmpty() );
     }
 
+    @Test
+    void parallelValidationMergesErrorsOfIndependentHooksInHookOrder()
+    {
+        when( config.isEnabled( ConfigurationKey.TRACKER_IMPORT_VALIDATION_PARALLEL ) ).thenReturn( true );
+
+        Event validEvent = event();
+        Event invalidEvent = event();
+
+        TrackerBundle bundle = newBundle()
+            .events( events( invalidEvent, validEvent ) )
+            .build();
+
+        ValidationHook hook1 = ValidationHook.builder()
+            .independent( true )
+            .validateEvent( ( reporter, event ) -> reporter.addErrorIf( () -> invalidEvent.equals( event ), event,
+                TrackerErrorCode.E1032 ) )
+            .build();
+        ValidationHook hook2 = ValidationHook.builder()
+            .independent( true )
+            .validateEvent( ( reporter, event ) -> reporter.addErrorIf( () -> invalidEvent.equals( event ), event,
+                TrackerErrorCode.E9999 ) )
+            .build();
+        ValidationHook hook3 = ValidationHook.builder()
+            .validateEvent( ( reporter, event ) -> reporter.addErrorIf( () -> reporter.isInvalid( event ), event,
+                TrackerErrorCode.E1000 ) )
+            .build();
+        service = new DefaultTrackerValidationService( List.of( hook1, hook2, hook3 ), Collections.emptyList(),
+            config );
+
+        TrackerValidationReport report = service.validate( bundle );
+
+        assertEquals( 3, report.getErrors().size() );
+        assertEquals( TrackerErrorCode.E1032, report.getErrors().get( 0 ).getErrorCode() );
+        assertEquals( TrackerErrorCode.E9999, report.getErrors().get( 1 ).getErrorCode() );
+        assertEquals( TrackerErrorCode.E1000, report.getErrors().get( 2 ).getErrorCode() );
+        assertEquals( 3, report.getTimings().size() );
+
+        assertFalse( bundle.getEvents().contains( invalidEvent ) );
+        assertTrue( bundle.getEvents().contains( validEvent ) );
+    }
+
+    @Test
+    void parallelValidationHonoursFailFastMode()
+    {
+        when( config.isEnabled( ConfigurationKey.TRACKER_IMPORT_VALIDATION_PARALLEL ) ).thenReturn( true );
+
+        Event invalidEvent = event();
+
+        TrackerBundle bundle = newBundle()
+            .validationMode( ValidationMode.FAIL_FAST )
+            .events( events( invalidEvent ) )
+            .build();
+
+        ValidationHook hook1 = ValidationHook.builder()
+            .independent( true )
+            .validateEvent( ( reporter, event ) -> reporter.addError( event, TrackerErrorCode.E1032 ) )
+            .build();
+        ValidationHook hook2 = ValidationHook.builder()
+            .independent( true )
+            .validateEvent( ( reporter, event ) -> reporter.addError( event, TrackerErrorCode.E9999 ) )
+            .build();
+        TrackerValidationHook hook3 = mock( TrackerValidationHook.class );
+        service = new DefaultTrackerValidationService( List.of( hook1, hook2, hook3 ), Collections.emptyList(),
+            config );
+
+        TrackerValidationReport report = service.validate( bundle );
+
+        assertEquals( 1, report.getErrors().size() );
+        assertHasError( report, TrackerErrorCode.E1032, invalidEvent );
+
+        verifyNoInteractions( hook3 );
+    }
+
     private TrackedEntity trackedEntity()
     {
         return TrackedEntity.builder().trackedEntity( CodeGenerator.generateUid() ).build();
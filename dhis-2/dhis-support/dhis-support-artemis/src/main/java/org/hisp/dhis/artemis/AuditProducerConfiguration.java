@@ -42,4 +42,24 @@ public class AuditProducerConfiguration
      * being dispatched to the Message Broker
      */
     private boolean useQueue;
+
+    /**
+     * number of queued Audit messages which triggers a flush of the queue, also
+     * the max number of Audit messages dispatched as a single batch
+     */
+    @Builder.Default
+    private int queueBatchSize = 200;
+
+    /**
+     * max number of Audit messages held by the in-memory queue, in-excess
+     * messages are dispatched immediately
+     */
+    @Builder.Default
+    private int queueCapacity = 10_000;
+
+    /**
+     * max time in milliseconds an Audit message is held by the in-memory queue
+     */
+    @Builder.Default
+    private long queueFlushInterval = 5_000;
 }
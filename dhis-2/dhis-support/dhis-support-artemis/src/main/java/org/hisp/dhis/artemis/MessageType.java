@@ -34,6 +34,8 @@ public enum MessageType
 {
     AUDIT,
 
+    AUDIT_BATCH,
+
     TRACKER_JOB,
 
     TRACKER_SIDE_EFFECT
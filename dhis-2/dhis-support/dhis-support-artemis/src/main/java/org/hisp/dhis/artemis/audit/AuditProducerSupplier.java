@@ -27,6 +27,9 @@
  */
 package org.hisp.dhis.artemis.audit;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 import lombok.extern.slf4j.Slf4j;
@@ -75,6 +78,38 @@ public class AuditProducerSupplier
         }
     }
 
+    /**
+     * Publishes the given Audit messages, sending one {@link AuditBatch} per
+     * topic.
+     */
+    public void publish( List<Audit> audits )
+    {
+        Map<String, List<Audit>> auditsByTopic = new LinkedHashMap<>();
+
+        for ( Audit audit : audits )
+        {
+            String topic = getTopicName( audit );
+
+            if ( !Strings.isNullOrEmpty( topic ) )
+            {
+                auditsByTopic.computeIfAbsent( topic, k -> new ArrayList<>() ).add( audit );
+            }
+            else
+            {
+                log.error( String.format( "Unable to map AuditScope [%s] to a topic name. Sending aborted",
+                    audit.getAuditScope() ) );
+            }
+        }
+
+        auditsByTopic.forEach( ( topic, batch ) -> {
+            if ( log.isDebugEnabled() )
+            {
+                log.debug( "sending " + batch.size() + " auditing messages to topic: [" + topic + "]" );
+            }
+            this.messageManager.send( topic, new AuditBatch( batch ) );
+        } );
+    }
+
     private String getTopicName( Audit audit )
     {
         return auditScopeDestinationMap.get( audit.getAuditScope() );
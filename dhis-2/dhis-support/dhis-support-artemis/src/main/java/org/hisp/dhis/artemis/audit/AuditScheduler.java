@@ -28,44 +28,67 @@
 package org.hisp.dhis.artemis.audit;
 
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.DelayQueue;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 import lombok.extern.slf4j.Slf4j;
 
+import org.hisp.dhis.artemis.AuditProducerConfiguration;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
 /**
  * Buffers Audit messages prior to sending them to the Audit queue. This
  * scheduler is disabled by default (config key: audit.inmemory-queue.enabled)
  * and should be used only in very high-traffic environments. Note that upon a
  * JVM crash, the Audit messages in this queue will be lost.
  *
- * The buffer is based on a {@link DelayQueue} where messages are buffered for 5
- * seconds, before being de-queued to the Artemis broker.
+ * Audit messages are buffered in a lock-free queue, identical messages are
+ * queued only once. The queue is flushed when it holds the configured batch
+ * size or when the flush interval has elapsed: the buffered messages are sent
+ * to the Artemis broker as {@link AuditBatch} messages.
  *
- * To avoid excessive memory pressure, max 200 messages can stay in the queue:
- * in-excess messages are processed immediately.
+ * To avoid excessive memory pressure, the queue holds at most the configured
+ * capacity: in-excess messages are dropped from the queue and processed
+ * immediately.
  *
  * @author Luciano Fiandesio
  */
 @Slf4j
 @Component
-public class AuditScheduler
+public class AuditScheduler implements MeterBinder
 {
-    private final static long DELAY = 5_000; // 5 seconds
+    private final AuditProducerSupplier auditProducerSupplier;
 
-    private final static int MAX_SIZE = 200;
+    private final AuditProducerConfiguration config;
 
-    private final AuditProducerSupplier auditProducerSupplier;
+    private final Map<Audit, Boolean> queued = new ConcurrentHashMap<>();
+
+    private final Queue<Audit> delayed = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger size = new AtomicInteger();
 
-    private final BlockingQueue<QueuedAudit> delayed = new DelayQueue<>();
+    private final AtomicBoolean flushing = new AtomicBoolean();
 
-    public AuditScheduler( AuditProducerSupplier auditProducerSupplier )
+    private final LongAdder drops = new LongAdder();
+
+    private volatile long lastFlush = System.currentTimeMillis();
+
+    public AuditScheduler( AuditProducerSupplier auditProducerSupplier, AuditProducerConfiguration config )
     {
         this.auditProducerSupplier = auditProducerSupplier;
+        this.config = config;
     }
 
     public void addAuditItem( final Audit auditItem )
@@ -75,28 +98,97 @@ public class AuditScheduler
             log.debug( String.format( "add Audit object with content %s to delayed queue", auditItem.toLog() ) );
         }
 
-        final QueuedAudit postponed = new QueuedAudit( auditItem, DELAY );
-
-        if ( delayed.size() >= MAX_SIZE )
+        if ( size.get() >= config.getQueueCapacity() )
         {
+            drops.increment();
             auditProducerSupplier.publish( auditItem );
         }
-        else
+        else if ( queued.putIfAbsent( auditItem, Boolean.TRUE ) == null )
+        {
+            delayed.offer( auditItem );
+            size.incrementAndGet();
+        }
+    }
+
+    @Scheduled( fixedDelay = 1_000 )
+    public void process()
+    {
+        if ( size.get() >= config.getQueueBatchSize()
+            || System.currentTimeMillis() - lastFlush >= config.getQueueFlushInterval() )
+        {
+            flush();
+        }
+    }
+
+    /**
+     * Sends all queued Audit messages to the Audit queue, in batches of the
+     * configured batch size. Does nothing if a flush is already running.
+     */
+    public void flush()
+    {
+        if ( !flushing.compareAndSet( false, true ) )
         {
-            if ( !delayed.contains( postponed ) )
+            return;
+        }
+
+        try
+        {
+            lastFlush = System.currentTimeMillis();
+
+            List<Audit> batch = new ArrayList<>();
+
+            Audit audit;
+
+            while ( (audit = delayed.poll()) != null )
+            {
+                queued.remove( audit );
+                size.decrementAndGet();
+                batch.add( audit );
+
+                if ( batch.size() >= config.getQueueBatchSize() )
+                {
+                    auditProducerSupplier.publish( batch );
+                    batch = new ArrayList<>();
+                }
+            }
+
+            if ( !batch.isEmpty() )
             {
-                delayed.offer( postponed );
+                auditProducerSupplier.publish( batch );
             }
         }
+        finally
+        {
+            flushing.set( false );
+        }
     }
 
-    @Scheduled( fixedDelay = 5_000 )
-    public void process()
+    /**
+     * @return the number of Audit messages in the queue
+     */
+    public int getQueueSize()
     {
-        final Collection<QueuedAudit> expired = new ArrayList<>();
+        return size.get();
+    }
 
-        delayed.drainTo( expired );
+    /**
+     * @return the number of Audit messages which were not queued because the
+     *         queue was full
+     */
+    public long getDropCount()
+    {
+        return drops.sum();
+    }
+
+    @Override
+    public void bindTo( MeterRegistry registry )
+    {
+        Gauge.builder( "audit.queue.depth", size, AtomicInteger::get )
+            .description( "Number of audits held by the in-memory audit queue" )
+            .register( registry );
 
-        expired.stream().map( QueuedAudit::getAuditItem ).forEach( auditProducerSupplier::publish );
+        FunctionCounter.builder( "audit.queue.drops", drops, LongAdder::sum )
+            .description( "Number of audits not queued because the in-memory audit queue was full" )
+            .register( registry );
     }
 }
@@ -267,6 +267,12 @@ public class ArtemisConfig
     {
         return AuditProducerConfiguration.builder()
             .useQueue( dhisConfig.isEnabled( ConfigurationKey.AUDIT_USE_IN_MEMORY_QUEUE_ENABLED ) )
+            .queueBatchSize( Integer.parseInt(
+                dhisConfig.getProperty( ConfigurationKey.AUDIT_IN_MEMORY_QUEUE_BATCH_SIZE ) ) )
+            .queueCapacity( Integer.parseInt(
+                dhisConfig.getProperty( ConfigurationKey.AUDIT_IN_MEMORY_QUEUE_CAPACITY ) ) )
+            .queueFlushInterval( Long.parseLong(
+                dhisConfig.getProperty( ConfigurationKey.AUDIT_IN_MEMORY_QUEUE_FLUSH_INTERVAL ) ) )
             .build();
     }
 }
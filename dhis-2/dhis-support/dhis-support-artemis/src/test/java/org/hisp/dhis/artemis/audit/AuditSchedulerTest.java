@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.artemis.audit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+
+import org.hisp.dhis.artemis.AuditProducerConfiguration;
+import org.hisp.dhis.audit.AuditScope;
+import org.hisp.dhis.audit.AuditType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith( MockitoExtension.class )
+class AuditSchedulerTest
+{
+    @Mock
+    private AuditProducerSupplier auditProducerSupplier;
+
+    @Captor
+    private ArgumentCaptor<List<Audit>> batchCaptor;
+
+    @Test
+    void testIdenticalAuditsAreQueuedOnce()
+    {
+        AuditScheduler auditScheduler = createScheduler( 10, 100 );
+
+        auditScheduler.addAuditItem( createAudit( "uid1" ) );
+        auditScheduler.addAuditItem( createAudit( "uid1" ) );
+        auditScheduler.addAuditItem( createAudit( "uid2" ) );
+
+        assertEquals( 2, auditScheduler.getQueueSize() );
+
+        auditScheduler.flush();
+
+        verify( auditProducerSupplier ).publish( batchCaptor.capture() );
+        assertEquals( 2, batchCaptor.getValue().size() );
+        assertEquals( 0, auditScheduler.getQueueSize() );
+    }
+
+    @Test
+    void testFlushSplitsQueueIntoBatches()
+    {
+        AuditScheduler auditScheduler = createScheduler( 2, 100 );
+
+        for ( int i = 0; i < 5; i++ )
+        {
+            auditScheduler.addAuditItem( createAudit( "uid" + i ) );
+        }
+
+        auditScheduler.flush();
+
+        verify( auditProducerSupplier, times( 3 ) ).publish( batchCaptor.capture() );
+        assertEquals( 2, batchCaptor.getAllValues().get( 0 ).size() );
+        assertEquals( 2, batchCaptor.getAllValues().get( 1 ).size() );
+        assertEquals( 1, batchCaptor.getAllValues().get( 2 ).size() );
+    }
+
+    @Test
+    void testProcessWaitsForBatchSizeOrFlushInterval()
+    {
+        AuditScheduler auditScheduler = createScheduler( 3, 100 );
+
+        auditScheduler.addAuditItem( createAudit( "uid1" ) );
+        auditScheduler.process();
+
+        verify( auditProducerSupplier, never() ).publish( anyList() );
+
+        auditScheduler.addAuditItem( createAudit( "uid2" ) );
+        auditScheduler.addAuditItem( createAudit( "uid3" ) );
+        auditScheduler.process();
+
+        verify( auditProducerSupplier ).publish( anyList() );
+        assertEquals( 0, auditScheduler.getQueueSize() );
+    }
+
+    @Test
+    void testAuditsInExcessOfCapacityArePublishedImmediately()
+    {
+        AuditScheduler auditScheduler = createScheduler( 10, 2 );
+
+        auditScheduler.addAuditItem( createAudit( "uid1" ) );
+        auditScheduler.addAuditItem( createAudit( "uid2" ) );
+        auditScheduler.addAuditItem( createAudit( "uid3" ) );
+
+        assertEquals( 2, auditScheduler.getQueueSize() );
+        assertEquals( 1, auditScheduler.getDropCount() );
+        verify( auditProducerSupplier ).publish( any( Audit.class ) );
+    }
+
+    private AuditScheduler createScheduler( int batchSize, int capacity )
+    {
+        return new AuditScheduler( auditProducerSupplier, AuditProducerConfiguration.builder()
+            .useQueue( true )
+            .queueBatchSize( batchSize )
+            .queueCapacity( capacity )
+            .queueFlushInterval( 60_000 )
+            .build() );
+    }
+
+    private Audit createAudit( String uid )
+    {
+        return Audit.builder()
+            .auditType( AuditType.UPDATE )
+            .auditScope( AuditScope.METADATA )
+            .klass( "DataElement" )
+            .uid( uid )
+            .build();
+    }
+}
@@ -46,6 +46,7 @@ import org.hisp.dhis.cache.PaginationCacheManager;
 import org.hisp.dhis.cache.QueryCacheManager;
 import org.hisp.dhis.category.CategoryOptionCombo;
 import org.hisp.dhis.common.IdentifiableObjectManager;
+import org.hisp.dhis.common.event.ExternalEntityChangedEvent;
 import org.hisp.dhis.dataelement.DataElement;
 import org.hisp.dhis.datavalue.DataValue;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
@@ -57,6 +58,7 @@ import org.hisp.dhis.trackedentity.TrackedEntityInstance;
 import org.hisp.dhis.trackedentity.TrackedEntityInstanceService;
 import org.hisp.dhis.trackedentityattributevalue.TrackedEntityAttributeValue;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Conditional;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
@@ -109,6 +111,9 @@ public class DbChangeEventHandler
     @Autowired
     private PeriodService periodService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     /**
      * Called by the {@link io.debezium.embedded.EmbeddedEngine}'s event
      * handler. Configured in {@link DebeziumService#startDebeziumEngine()}
@@ -336,6 +341,8 @@ public class DbChangeEventHandler
             sessionFactory.getCache().evict( firstEntityClass, entityId );
             evictCollections( entityClasses, entityId );
         }
+
+        eventPublisher.publishEvent( new ExternalEntityChangedEvent( this, firstEntityClass ) );
     }
 
     private void tryFetchNewEntity( Serializable entityId, Class<?> entityClass )
@@ -74,6 +74,12 @@ public enum ConfigurationKey
      */
     SYSTEM_PROGRAM_RULE_SERVER_EXECUTION( "system.program_rule.server_execution", Constants.ON, false ),
 
+    /**
+     * Build the objects of unpaged metadata list responses one at a time while
+     * the response is written, can be 'on', 'off'. (default: off)
+     */
+    SYSTEM_METADATA_STREAMING_SERIALIZATION( "system.metadata.streaming_serialization", Constants.OFF, false ),
+
     /**
      * Set the maximum size for the cache instance to be built. If set to 0, no
      * caching will take place. Cannot be a negative value. (default: 0).
@@ -332,6 +338,56 @@ public enum ConfigurationKey
 
     PROGRAM_TEMPORARY_OWNERSHIP_TIMEOUT( "tracker.temporary.ownership.timeout", "3", false ),
 
+    /**
+     * Cache metadata looked up during tracker import preheat. (default: off)
+     */
+    TRACKER_IMPORT_PREHEAT_CACHE_ENABLED( "tracker.import.preheat.cache.enabled", Constants.OFF, false ),
+
+    /**
+     * Load cacheable tracker import preheat metadata on startup. Requires the
+     * preheat cache to be enabled. (default: off)
+     */
+    TRACKER_IMPORT_PREHEAT_CACHE_WARMUP( "tracker.import.preheat.cache.warmup", Constants.OFF, false ),
+
+    /**
+     * Run independent tracker import validation hooks concurrently. (default:
+     * off)
+     */
+    TRACKER_IMPORT_VALIDATION_PARALLEL( "tracker.import.validation.parallel", Constants.OFF, false ),
+
+    /**
+     * Evaluate program rules for the independent enrollments of a tracker
+     * import concurrently. (default: off)
+     */
+    TRACKER_IMPORT_PROGRAM_RULE_PARALLEL( "tracker.import.programrule.parallel", Constants.OFF, false ),
+
+    /**
+     * Run the JDBC queries of independent tracker preheat suppliers
+     * concurrently. (default: off)
+     */
+    TRACKER_IMPORT_PREHEAT_PARALLEL( "tracker.import.preheat.parallel", Constants.OFF, false ),
+
+    /**
+     * Write new events of tracker import bundles with the CREATE strategy using
+     * batched JDBC statements instead of Hibernate. PostgreSQL only. (default:
+     * off)
+     */
+    TRACKER_IMPORT_EVENT_BULK_INSERT( "tracker.import.event.bulk.insert", Constants.OFF, false ),
+
+    /**
+     * Run the independent work context suppliers of the event import
+     * concurrently. (default: off)
+     */
+    EVENT_IMPORT_CONTEXT_PARALLEL( "event.import.context.parallel", Constants.OFF, false ),
+
+    /**
+     * JDBC batch size used by Hibernate when committing a metadata import, 0
+     * leaves batching disabled. A positive size also makes Hibernate order
+     * inserts and updates by entity, so that they can be batched.
+     * (default: 0)
+     */
+    METADATA_IMPORT_JDBC_BATCH_SIZE( "metadata.import.jdbc_batch_size", "0", false ),
+
     LEADER_TIME_TO_LIVE( "leader.time.to.live.minutes", "2", false ),
 
     /**
@@ -339,6 +395,18 @@ public enum ConfigurationKey
      */
     ANALYTICS_CACHE_EXPIRATION( "analytics.cache.expiration", "0" ),
 
+    /**
+     * Maximum number of analytics queries executing concurrently. Additional
+     * queries are queued. (default: 16)
+     */
+    ANALYTICS_QUERY_MAX_CONCURRENT( "analytics.query.max_concurrent", "16", false ),
+
+    /**
+     * Maximum number of analytics queries executing concurrently for a single
+     * user. (default: 8)
+     */
+    ANALYTICS_QUERY_MAX_CONCURRENT_PER_USER( "analytics.query.max_concurrent_per_user", "8", false ),
+
     /**
      * Artemis support mode, 2 modes supported: EMBEDDED (starts up an embedded
      * Artemis which lives in the same process as your DHIS2 instance), NATIVE
@@ -455,6 +523,33 @@ public enum ConfigurationKey
      */
     MONITORING_CPU_ENABLED( "monitoring.cpu.enabled", Constants.OFF, false ),
 
+    /**
+     * Tracker import preheat cache monitoring. (default: off)
+     */
+    MONITORING_PREHEAT_CACHE_ENABLED( "monitoring.preheat.cache.enabled", Constants.OFF, false ),
+
+    /**
+     * Program rule engine context cache monitoring. (default: off)
+     */
+    MONITORING_PROGRAM_RULE_CACHE_ENABLED( "monitoring.programrule.cache.enabled", Constants.OFF, false ),
+
+    /**
+     * In-memory audit queue monitoring. (default: off)
+     */
+    MONITORING_AUDIT_QUEUE_ENABLED( "monitoring.audit.queue.enabled", Constants.OFF, false ),
+
+    /**
+     * Analytics cache hit, miss and coalesced request monitoring. (default:
+     * off)
+     */
+    MONITORING_ANALYTICS_CACHE_ENABLED( "monitoring.analytics.cache.enabled", Constants.OFF, false ),
+
+    /**
+     * Analytics query queue size, in flight and wait time monitoring. (default:
+     * off)
+     */
+    MONITORING_ANALYTICS_QUERY_ENABLED( "monitoring.analytics.query.enabled", Constants.OFF, false ),
+
     /**
      * AppHub base URL. (default: https://apps.dhis2.org).
      */
@@ -484,6 +579,24 @@ public enum ConfigurationKey
     AUDIT_USE_IN_MEMORY_QUEUE_ENABLED( "audit.in_memory-queue.enabled", Constants.OFF, false,
         new String[] { "audit.inmemory_queue.enabled" } ),
 
+    /**
+     * Number of buffered audits which triggers a flush of the in-memory audit
+     * queue, also the max number of audits sent in one message. (default: 200).
+     */
+    AUDIT_IN_MEMORY_QUEUE_BATCH_SIZE( "audit.in_memory-queue.batch_size", "200", false ),
+
+    /**
+     * Max number of audits held by the in-memory audit queue. Audits in excess
+     * are sent to the Artemis queue directly. (default: 10000).
+     */
+    AUDIT_IN_MEMORY_QUEUE_CAPACITY( "audit.in_memory-queue.capacity", "10000", false ),
+
+    /**
+     * Max time in milliseconds audits are held by the in-memory audit queue.
+     * (default: 5000).
+     */
+    AUDIT_IN_MEMORY_QUEUE_FLUSH_INTERVAL( "audit.in_memory-queue.flush_interval", "5000", false ),
+
     /**
      * Send audits to "logs/dhis-audit.log". (default: on).
      */
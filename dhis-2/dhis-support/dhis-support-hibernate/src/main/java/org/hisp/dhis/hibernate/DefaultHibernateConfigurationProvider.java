@@ -32,6 +32,8 @@ import static org.hibernate.cfg.AvailableSettings.CACHE_REGION_FACTORY;
 import static org.hibernate.cfg.AvailableSettings.DIALECT;
 import static org.hibernate.cfg.AvailableSettings.GENERATE_STATISTICS;
 import static org.hibernate.cfg.AvailableSettings.HBM2DDL_AUTO;
+import static org.hibernate.cfg.AvailableSettings.ORDER_INSERTS;
+import static org.hibernate.cfg.AvailableSettings.ORDER_UPDATES;
 import static org.hibernate.cfg.AvailableSettings.USE_QUERY_CACHE;
 import static org.hibernate.cfg.AvailableSettings.USE_SECOND_LEVEL_CACHE;
 
@@ -254,6 +256,15 @@ public class DefaultHibernateConfigurationProvider
             set( USE_QUERY_CACHE, "false", p );
         }
 
+        // Metadata imports are only batched if statements of the same entity
+        // follow each other, as a batch is flushed whenever the entity changes
+
+        if ( Integer.parseInt( configProvider.getProperty( ConfigurationKey.METADATA_IMPORT_JDBC_BATCH_SIZE ) ) > 0 )
+        {
+            set( ORDER_INSERTS, "true", p );
+            set( ORDER_UPDATES, "true", p );
+        }
+
         // Enable Hibernate statistics if Hibernate Monitoring is enabled
         if ( configProvider.isEnabled( ConfigurationKey.MONITORING_HIBERNATE_ENABLED ) )
         {
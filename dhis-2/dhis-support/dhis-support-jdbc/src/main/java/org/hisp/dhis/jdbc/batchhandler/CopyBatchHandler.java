@@ -0,0 +1,481 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.jdbc.batchhandler;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.hisp.quick.BatchHandler;
+import org.hisp.quick.JdbcConfiguration;
+import org.hisp.quick.StatementDialect;
+import org.hisp.quick.batchhandler.AbstractBatchHandler;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.support.SQLStateSQLExceptionTranslator;
+
+/**
+ * {@link BatchHandler} which writes added objects to PostgreSQL through
+ * {@code COPY FROM STDIN} instead of multi-row insert statements. Rows are
+ * streamed into a temporary staging table as they are added, and merged into
+ * the target table with a single insert statement once a batch is complete,
+ * where rows conflicting on the unique columns of the wrapped batch handler
+ * are updated. Lookups, updates and deletes are delegated to the wrapped batch
+ * handler.
+ * <p>
+ * Each COPY batch holds at most a fixed number of rows, and duplicates are
+ * only detected within a batch. A later duplicate in another batch updates
+ * the row written by the earlier one.
+ * <p>
+ * For any other database dialect, objects are added through the wrapped batch
+ * handler.
+ *
+ * @param <T> the object type.
+ */
+public class CopyBatchHandler<T>
+    implements BatchHandler<T>
+{
+    /**
+     * Max number of rows copied in one COPY batch.
+     */
+    private static final int MAX_ROWS = 50_000;
+
+    private static final String COLUMN_SEP = "\t";
+
+    private static final String ROW_SEP = "\n";
+
+    private static final String NULL_VALUE = "\\N";
+
+    private static final SQLStateSQLExceptionTranslator EXCEPTION_TRANSLATOR = new SQLStateSQLExceptionTranslator();
+
+    private final AbstractBatchHandler<T> batchHandler;
+
+    private final boolean copy;
+
+    private final int maxRows;
+
+    /**
+     * Unique values of the rows in the current COPY batch.
+     */
+    private final Set<String> uniqueObjects = new HashSet<>();
+
+    /**
+     * Connection of the current COPY batch, null if no batch is open.
+     */
+    private Connection connection;
+
+    private boolean autoCommit;
+
+    private PGCopyOutputStream copyStream;
+
+    private Writer writer;
+
+    private int rowCount = 0;
+
+    private int addObjectCount = 0;
+
+    // -------------------------------------------------------------------------
+    // Constructor
+    // -------------------------------------------------------------------------
+
+    public CopyBatchHandler( AbstractBatchHandler<T> batchHandler )
+    {
+        this( batchHandler, MAX_ROWS );
+    }
+
+    CopyBatchHandler( AbstractBatchHandler<T> batchHandler, int maxRows )
+    {
+        this.batchHandler = batchHandler;
+        this.copy = batchHandler.getConfiguration().getDialect() == StatementDialect.POSTGRESQL;
+        this.maxRows = maxRows;
+    }
+
+    /**
+     * @return the wrapped batch handler.
+     */
+    public AbstractBatchHandler<T> getBatchHandler()
+    {
+        return batchHandler;
+    }
+
+    /**
+     * @return true if objects are written through COPY, false if objects are
+     *         written through the wrapped batch handler.
+     */
+    public boolean isCopy()
+    {
+        return copy;
+    }
+
+    // -------------------------------------------------------------------------
+    // BatchHandler implementation
+    // -------------------------------------------------------------------------
+
+    @Override
+    public BatchHandler<T> init()
+    {
+        batchHandler.init();
+
+        return this;
+    }
+
+    @Override
+    public JdbcConfiguration getConfiguration()
+    {
+        return batchHandler.getConfiguration();
+    }
+
+    @Override
+    public boolean addObject( T object )
+    {
+        if ( !copy )
+        {
+            return batchHandler.addObject( object );
+        }
+
+        List<Object> uniqueValues = batchHandler.getUniqueValues( object );
+
+        if ( !uniqueValues.isEmpty() && !uniqueObjects.add( uniqueValues.toString() ) )
+        {
+            return false;
+        }
+
+        if ( connection == null )
+        {
+            beginCopy();
+        }
+
+        writeRow( batchHandler.getValues( object ) );
+
+        addObjectCount++;
+
+        if ( ++rowCount >= maxRows )
+        {
+            endCopy();
+        }
+
+        return true;
+    }
+
+    @Override
+    public boolean insertObject( T object )
+    {
+        return batchHandler.insertObject( object );
+    }
+
+    @Override
+    public T findObject( T object )
+    {
+        return batchHandler.findObject( object );
+    }
+
+    @Override
+    public void updateObject( T object )
+    {
+        batchHandler.updateObject( object );
+    }
+
+    @Override
+    public void deleteObject( T object )
+    {
+        batchHandler.deleteObject( object );
+    }
+
+    @Override
+    public boolean objectExists( T object )
+    {
+        return batchHandler.objectExists( object );
+    }
+
+    @Override
+    public int getAddObjectCount()
+    {
+        return copy ? addObjectCount : batchHandler.getAddObjectCount();
+    }
+
+    @Override
+    public void flush()
+    {
+        if ( connection != null )
+        {
+            endCopy();
+        }
+
+        batchHandler.flush();
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Opens a connection and a transaction for a new COPY batch, creates the
+     * staging table, which is dropped on commit, and starts copying into it.
+     */
+    private void beginCopy()
+    {
+        String stagingTable = getStagingTable();
+        String columns = getColumns();
+
+        try
+        {
+            connection = batchHandler.getConfiguration().getDataSource().getConnection();
+            autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit( false );
+
+            try ( Statement statement = connection.createStatement() )
+            {
+                statement.execute( "create temp table " + stagingTable + " on commit drop as select " +
+                    columns + " from " + batchHandler.getTableName() + " where false" );
+            }
+
+            copyStream = new PGCopyOutputStream( connection.unwrap( PGConnection.class ),
+                "copy " + stagingTable + " (" + columns + ") from stdin" );
+            writer = new BufferedWriter( new OutputStreamWriter( copyStream, UTF_8 ) );
+        }
+        catch ( SQLException ex )
+        {
+            throw abortCopy( EXCEPTION_TRANSLATOR.translate( "Copy objects", null, ex ) );
+        }
+    }
+
+    /**
+     * Writes a row in the COPY text format to the current COPY batch.
+     *
+     * @param values the column values of the row.
+     */
+    private void writeRow( List<Object> values )
+    {
+        try
+        {
+            for ( int i = 0; i < values.size(); i++ )
+            {
+                if ( i > 0 )
+                {
+                    writer.write( COLUMN_SEP );
+                }
+
+                Object value = values.get( i );
+
+                writer.write( value == null ? NULL_VALUE : escape( String.valueOf( value ) ) );
+            }
+
+            writer.write( ROW_SEP );
+        }
+        catch ( IOException ex )
+        {
+            throw abortCopy( new DataAccessResourceFailureException(
+                "Failed to copy objects to table: " + batchHandler.getTableName(), ex ) );
+        }
+    }
+
+    /**
+     * Completes the current COPY batch, merges the staging table into the
+     * target table and commits the transaction.
+     */
+    private void endCopy()
+    {
+        String mergeSql = getMergeSql( getStagingTable(), getColumns() );
+
+        try
+        {
+            writer.close(); // Ends the copy
+
+            try ( Statement statement = connection.createStatement() )
+            {
+                statement.execute( mergeSql );
+            }
+
+            connection.commit();
+        }
+        catch ( IOException ex )
+        {
+            throw abortCopy( new DataAccessResourceFailureException(
+                "Failed to copy objects to table: " + batchHandler.getTableName(), ex ) );
+        }
+        catch ( SQLException ex )
+        {
+            throw abortCopy( EXCEPTION_TRANSLATOR.translate( "Merge copied objects", mergeSql, ex ) );
+        }
+
+        closeConnection();
+    }
+
+    /**
+     * Cancels the current COPY batch, rolls back its transaction and releases
+     * the connection.
+     *
+     * @param ex the exception which caused the abort.
+     * @return the given exception.
+     */
+    private DataAccessException abortCopy( DataAccessException ex )
+    {
+        try
+        {
+            if ( copyStream != null && copyStream.isActive() )
+            {
+                copyStream.cancelCopy();
+            }
+
+            if ( connection != null )
+            {
+                connection.rollback();
+            }
+        }
+        catch ( SQLException rollbackEx )
+        {
+            ex.addSuppressed( rollbackEx );
+        }
+
+        try
+        {
+            closeConnection();
+        }
+        catch ( DataAccessException closeEx )
+        {
+            ex.addSuppressed( closeEx );
+        }
+
+        return ex;
+    }
+
+    private void closeConnection()
+    {
+        try
+        {
+            if ( connection != null )
+            {
+                connection.setAutoCommit( autoCommit );
+                connection.close();
+            }
+        }
+        catch ( SQLException ex )
+        {
+            throw EXCEPTION_TRANSLATOR.translate( "Close copy connection", null, ex );
+        }
+        finally
+        {
+            connection = null;
+            copyStream = null;
+            writer = null;
+            rowCount = 0;
+            uniqueObjects.clear();
+        }
+    }
+
+    private String getStagingTable()
+    {
+        return batchHandler.getTableName() + "_copy_staging";
+    }
+
+    private String getColumns()
+    {
+        return String.join( ",", batchHandler.getColumns() );
+    }
+
+    /**
+     * Returns SQL which inserts the rows of the staging table into the target
+     * table. Values of the auto increment column are taken from the id
+     * sequence. Rows conflicting on the unique columns update the existing
+     * rows.
+     *
+     * @param stagingTable the staging table name.
+     * @param columns the comma separated columns.
+     * @return an insert statement.
+     */
+    private String getMergeSql( String stagingTable, String columns )
+    {
+        String autoIncrementColumn = batchHandler.getAutoIncrementColumn();
+        List<String> uniqueColumns = batchHandler.getUniqueColumns();
+
+        String sql = autoIncrementColumn != null
+            ? "insert into " + batchHandler.getTableName() + " (" + autoIncrementColumn + "," + columns + ") " +
+                "select nextval('" + batchHandler.getIdSequenceName() + "')," + columns + " from " + stagingTable
+            : "insert into " + batchHandler.getTableName() + " (" + columns + ") " +
+                "select " + columns + " from " + stagingTable;
+
+        if ( uniqueColumns.isEmpty() )
+        {
+            return sql;
+        }
+
+        String updates = batchHandler.getColumns().stream()
+            .filter( column -> !uniqueColumns.contains( column ) )
+            .map( column -> column + " = excluded." + column )
+            .collect( Collectors.joining( "," ) );
+
+        return sql + " on conflict (" + String.join( ",", uniqueColumns ) + ") " +
+            (updates.isEmpty() ? "do nothing" : "do update set " + updates);
+    }
+
+    /**
+     * Escapes the given value according to the COPY text format.
+     *
+     * @param value the value.
+     * @return the escaped value.
+     */
+    private static String escape( String value )
+    {
+        StringBuilder builder = new StringBuilder( value.length() );
+
+        for ( char c : value.toCharArray() )
+        {
+            switch ( c )
+            {
+            case '\\':
+                builder.append( "\\\\" );
+                break;
+            case '\t':
+                builder.append( "\\t" );
+                break;
+            case '\n':
+                builder.append( "\\n" );
+                break;
+            case '\r':
+                builder.append( "\\r" );
+                break;
+            default:
+                builder.append( c );
+            }
+        }
+
+        return builder.toString();
+    }
+}
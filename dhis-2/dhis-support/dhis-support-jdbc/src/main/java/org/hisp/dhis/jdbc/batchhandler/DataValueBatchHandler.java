@@ -29,9 +29,15 @@ package org.hisp.dhis.jdbc.batchhandler;
 
 import static org.hisp.dhis.util.DateUtils.getLongDateString;
 
+import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import org.hisp.dhis.datavalue.DataValue;
 import org.hisp.quick.JdbcConfiguration;
@@ -43,6 +49,8 @@ import org.hisp.quick.batchhandler.AbstractBatchHandler;
 public class DataValueBatchHandler
     extends AbstractBatchHandler<DataValue>
 {
+    private static final String KEY_SEP = "-";
+
     // -------------------------------------------------------------------------
     // Constructor
     // -------------------------------------------------------------------------
@@ -169,4 +177,69 @@ public class DataValueBatchHandler
 
         return dv;
     }
+
+    // -------------------------------------------------------------------------
+    // Bulk lookup
+    // -------------------------------------------------------------------------
+
+    /**
+     * Finds the persisted data values matching the unique key of the given
+     * data values using a single query, as opposed to one query per data value
+     * with {@link #findObject(Object)}.
+     *
+     * @param values the data values to look up, all key properties must be set.
+     * @return a list of the same size as the given list, holding the persisted
+     *         data value at the index of the matching data value, or null if
+     *         no data value is persisted for the key.
+     */
+    public List<DataValue> findObjects( List<DataValue> values )
+    {
+        if ( values.isEmpty() )
+        {
+            return new ArrayList<>();
+        }
+
+        String sql = "select dataelementid, periodid, sourceid, categoryoptioncomboid, attributeoptioncomboid, " +
+            "value, storedby, created, comment, followup, deleted from datavalue " +
+            "where (dataelementid, periodid, sourceid, categoryoptioncomboid, attributeoptioncomboid) in (" +
+            values.stream()
+                .map( value -> "(" + getKey( value, "," ) + ")" )
+                .distinct()
+                .collect( Collectors.joining( "," ) ) + ")";
+
+        Map<String, DataValue> persisted = new HashMap<>();
+
+        try ( Connection connection = getConfiguration().getDataSource().getConnection();
+            Statement statement = connection.createStatement();
+            ResultSet resultSet = statement.executeQuery( sql ) )
+        {
+            while ( resultSet.next() )
+            {
+                String key = resultSet.getLong( "dataelementid" ) + KEY_SEP +
+                    resultSet.getLong( "periodid" ) + KEY_SEP +
+                    resultSet.getLong( "sourceid" ) + KEY_SEP +
+                    resultSet.getLong( "categoryoptioncomboid" ) + KEY_SEP +
+                    resultSet.getLong( "attributeoptioncomboid" );
+
+                persisted.put( key, mapRow( resultSet ) );
+            }
+        }
+        catch ( SQLException ex )
+        {
+            throw new RuntimeException( "Failed to find objects", ex );
+        }
+
+        return values.stream()
+            .map( value -> persisted.get( getKey( value, KEY_SEP ) ) )
+            .collect( Collectors.toList() );
+    }
+
+    private String getKey( DataValue value, String separator )
+    {
+        return value.getDataElement().getId() + separator +
+            value.getPeriod().getId() + separator +
+            value.getSource().getId() + separator +
+            value.getCategoryOptionCombo().getId() + separator +
+            value.getAttributeOptionCombo().getId();
+    }
 }
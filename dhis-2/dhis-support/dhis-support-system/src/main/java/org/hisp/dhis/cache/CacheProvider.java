@@ -48,6 +48,10 @@ public interface CacheProvider
 
     <V> Cache<V> createAnalyticsCache();
 
+    <V> Cache<V> createAnalyticsInFlightCache();
+
+    <V> Cache<V> createAnalyticsFragmentCache();
+
     <V> Cache<V> createDefaultObjectCache();
 
     <V> Cache<V> createIsDataApprovedCache();
@@ -100,6 +104,8 @@ public interface CacheProvider
 
     <V> Cache<V> createProgramRuleVariablesCache();
 
+    <V> Cache<V> createProgramRuleEngineContextCache();
+
     <V> Cache<V> createUserGroupNameCache();
 
     <V> Cache<V> createUserDisplayNameCache();
@@ -88,6 +88,8 @@ public class DefaultCacheProvider
     private enum Region
     {
         analyticsResponse,
+        analyticsInFlight,
+        analyticsFragment,
         defaultObjectCache,
         isDataApproved,
         allConstantsCache,
@@ -114,6 +116,7 @@ public class DefaultCacheProvider
         propertyTransformerCache,
         programHasRulesCache,
         programRuleVariablesCache,
+        programRuleEngineContextCache,
         userGroupNameCache,
         userDisplayNameCache,
         programWebHookNotificationTemplateCache,
@@ -183,6 +186,34 @@ public class DefaultCacheProvider
             .withMaximumSize( orZeroInTestRun( getActualSize( SIZE_10K ) ) ) );
     }
 
+    /**
+     * Cache marking the analytics queries which are currently being computed,
+     * so that other instances sharing the cache can wait for the result
+     * instead of running the same query. Entries expire to not block waiting
+     * instances when the computing instance goes away.
+     */
+    @Override
+    public <V> Cache<V> createAnalyticsInFlightCache()
+    {
+        return registerCache( this.<V> newBuilder()
+            .forRegion( Region.analyticsInFlight.name() )
+            .expireAfterWrite( 5, TimeUnit.MINUTES )
+            .withMaximumSize( getActualSize( SIZE_1K ) ) );
+    }
+
+    /**
+     * Cache for the value maps of planned analytics queries. The TTL of each
+     * entry is set on put.
+     */
+    @Override
+    public <V> Cache<V> createAnalyticsFragmentCache()
+    {
+        return registerCache( this.<V> newBuilder()
+            .forRegion( Region.analyticsFragment.name() )
+            .expireAfterWrite( 12, TimeUnit.HOURS )
+            .withMaximumSize( orZeroInTestRun( getActualSize( SIZE_10K ) ) ) );
+    }
+
     /**
      * Cache for default objects such as default category combination and
      * default category option combination which are permanent and will never
@@ -460,6 +491,17 @@ public class DefaultCacheProvider
             .withMaximumSize( orZeroInTestRun( getActualSize( SIZE_1K ) ) ) );
     }
 
+    @Override
+    public <V> Cache<V> createProgramRuleEngineContextCache()
+    {
+        return registerCache( this.<V> newBuilder()
+            .forRegion( Region.programRuleEngineContextCache.name() )
+            .expireAfterWrite( 3, TimeUnit.HOURS )
+            .withInitialCapacity( (int) getActualSize( 20 ) )
+            .forceInMemory()
+            .withMaximumSize( orZeroInTestRun( getActualSize( SIZE_1K ) ) ) );
+    }
+
     @Override
     public <V> Cache<V> createUserGroupNameCache()
     {
@@ -0,0 +1,976 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.system.grid;
+
+import static com.google.common.base.Preconditions.checkElementIndex;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import org.apache.commons.lang3.Validate;
+import org.hisp.dhis.common.Grid;
+import org.hisp.dhis.common.adapter.JacksonRowDataSerializer;
+import org.hisp.dhis.system.grid.ListGrid.GridRowComparator;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.google.common.collect.Iterables;
+
+/**
+ * {@link Grid} implementation which stores the cell values column by column.
+ * Columns holding only {@link Double} values are backed by a primitive array
+ * and a bitmap of the cells which are set, and columns holding only
+ * {@link String} values are dictionary encoded, so that repeated values such
+ * as dimension item identifiers are stored once. Columns holding other or
+ * mixed types fall back to an array of objects.
+ * <p>
+ * Rows are exposed as views on the columns, so values set through
+ * {@link #getRow(int)} and {@link #getRows()} are written to the grid, while
+ * the rows cannot be structurally modified. Unlike {@link ListGrid}, rows with
+ * fewer values than the width of the grid are padded with null values.
+ * <p>
+ * {@link #copy()} copies the column arrays directly, which is considerably
+ * cheaper than cloning the grid through serialization.
+ */
+public class ColumnarGrid
+    extends AbstractGrid
+{
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The columns of the grid, each holding one cell per row.
+     */
+    private List<Column> columns = new ArrayList<>();
+
+    /**
+     * The number of rows in the grid.
+     */
+    private int height;
+
+    /**
+     * The number of values written to the current row.
+     */
+    private int currentRowWidth;
+
+    /**
+     * Default constructor.
+     */
+    public ColumnarGrid()
+    {
+        this( new HashMap<>(), new HashMap<>() );
+    }
+
+    /**
+     * @param metaData meta data.
+     * @param internalMetaData internal meta data.
+     */
+    public ColumnarGrid( Map<String, Object> metaData, Map<String, Object> internalMetaData )
+    {
+        super( metaData, internalMetaData );
+    }
+
+    // ---------------------------------------------------------------------
+    // Public methods
+    // ---------------------------------------------------------------------
+
+    @Override
+    @JsonProperty
+    public int getHeight()
+    {
+        return height;
+    }
+
+    @Override
+    @JsonProperty
+    public int getWidth()
+    {
+        return columns.size();
+    }
+
+    @Override
+    public Grid addRow()
+    {
+        height++;
+
+        currentRowWidth = 0;
+
+        for ( Column column : columns )
+        {
+            column.setSize( height );
+        }
+
+        return this;
+    }
+
+    @Override
+    public Grid addRows( Grid grid )
+    {
+        int rows = grid.getHeight();
+
+        for ( int i = 0; i < rows; i++ )
+        {
+            addRow();
+            addValuesAsList( grid.getRow( i ) );
+        }
+
+        return this;
+    }
+
+    @Override
+    public Grid addValue( Object value )
+    {
+        if ( height == 0 )
+        {
+            throw new IllegalStateException( "A row must be added before adding values" );
+        }
+
+        if ( currentRowWidth == columns.size() )
+        {
+            columns.add( newColumn( value, height ) );
+        }
+
+        setValue( height - 1, currentRowWidth++, value );
+
+        return this;
+    }
+
+    @Override
+    public Grid addValues( Object[] values )
+    {
+        for ( Object value : values )
+        {
+            addValue( value );
+        }
+
+        return this;
+    }
+
+    @Override
+    public List<Object> getRow( int rowIndex )
+    {
+        checkElementIndex( rowIndex, height );
+
+        return new RowView( rowIndex );
+    }
+
+    @Override
+    @JsonProperty
+    @JsonSerialize( using = JacksonRowDataSerializer.class )
+    public List<List<Object>> getRows()
+    {
+        return new RowsView();
+    }
+
+    @Override
+    public List<Object> getColumn( int columnIndex )
+    {
+        List<Object> values = new ArrayList<>( height );
+
+        if ( height > 0 )
+        {
+            Column column = columns.get( columnIndex );
+
+            for ( int i = 0; i < height; i++ )
+            {
+                values.add( column.get( i ) );
+            }
+        }
+
+        return values;
+    }
+
+    @Override
+    public Object getValue( int rowIndex, int columnIndex )
+    {
+        if ( rowIndex < 0 || rowIndex >= height || columnIndex < 0 || columnIndex >= columns.size() )
+        {
+            throw new IllegalArgumentException( "Grid does not contain the requested row / column" );
+        }
+
+        return columns.get( columnIndex ).get( rowIndex );
+    }
+
+    @Override
+    public Grid addColumn( List<Object> columnValues )
+    {
+        return addColumn( columns.size(), columnValues );
+    }
+
+    @Override
+    public Grid addColumn( int columnIndex, List<Object> columnValues )
+    {
+        if ( height != columnValues.size() )
+        {
+            throw new IllegalStateException( "Number of column values (" + columnValues.size()
+                + ") is not equal to number of rows (" + height + ")" );
+        }
+
+        insertColumn( columnIndex, columnValues );
+
+        return this;
+    }
+
+    @Override
+    public Grid addAndPopulateColumnsBefore( int referenceColumnIndex, Map<Object, List<?>> valueMap, int newColumns )
+    {
+        Validate.inclusiveBetween( 0, getWidth() - 1, referenceColumnIndex );
+        Validate.notNull( valueMap );
+
+        List<Object> referenceValues = getColumn( referenceColumnIndex );
+
+        for ( int i = 0; i < newColumns; i++ )
+        {
+            List<Object> values = new ArrayList<>( height );
+
+            for ( Object referenceValue : referenceValues )
+            {
+                List<?> list = valueMap.get( referenceValue );
+                values.add( list == null ? null : Iterables.get( list, i, null ) );
+            }
+
+            insertColumn( referenceColumnIndex + i, values );
+        }
+
+        return this;
+    }
+
+    @Override
+    public boolean columnIsEmpty( int columnIndex )
+    {
+        return height == 0 || !columns.get( columnIndex ).hasValues();
+    }
+
+    @Override
+    public Grid removeColumn( int columnIndex )
+    {
+        if ( getHeaders().size() > 0 )
+        {
+            getHeaders().remove( columnIndex );
+        }
+
+        if ( height > 0 )
+        {
+            columns.remove( columnIndex );
+
+            currentRowWidth = Math.min( currentRowWidth, columns.size() );
+        }
+
+        updateColumnIndexMap();
+
+        return this;
+    }
+
+    @Override
+    public Grid removeCurrentWriteRow()
+    {
+        if ( height == 0 )
+        {
+            throw new IllegalStateException( "Grid does not contain any rows" );
+        }
+
+        setHeight( height - 1 );
+
+        return this;
+    }
+
+    @Override
+    public Grid limitGrid( int limit )
+    {
+        if ( limit < 0 )
+        {
+            throw new IllegalStateException( "Illegal limit: " + limit );
+        }
+
+        if ( limit > 0 && limit <= height )
+        {
+            setHeight( limit );
+        }
+
+        return this;
+    }
+
+    @Override
+    public Grid limitGrid( int startPos, int endPos )
+    {
+        if ( startPos < 0 || endPos < startPos || endPos > height )
+        {
+            throw new IllegalStateException(
+                "Illegal start / end pos: " + startPos + ", " + endPos + ", " + height );
+        }
+
+        selectRows( IntStream.range( startPos, endPos ).toArray() );
+
+        return this;
+    }
+
+    @Override
+    public Grid sortGrid( int columnIndex, int order )
+    {
+        if ( order == 0 )
+        {
+            return this; // No sorting
+        }
+
+        columnIndex--;
+
+        if ( columnIndex < 0 || columnIndex >= getWidth() )
+        {
+            throw new IllegalArgumentException( "Column index out of bounds: " + columnIndex );
+        }
+
+        GridRowComparator comparator = new GridRowComparator( columnIndex, order );
+
+        List<List<Object>> rows = getRows();
+
+        Integer[] sortedRows = IntStream.range( 0, height ).boxed().toArray( Integer[]::new );
+
+        Arrays.sort( sortedRows, ( r1, r2 ) -> comparator.compare( rows.get( r1 ), rows.get( r2 ) ) );
+
+        selectRows( Arrays.stream( sortedRows ).mapToInt( Integer::intValue ).toArray() );
+
+        return this;
+    }
+
+    @Override
+    public Grid substituteMetaData( int sourceColumnIndex, int targetColumnIndex,
+        Map<? extends Object, ? extends Object> metaDataMap )
+    {
+        if ( metaDataMap == null || height == 0 )
+        {
+            return this;
+        }
+
+        Column sourceColumn = columns.get( sourceColumnIndex );
+
+        // Substitute the dictionary instead of the cells when possible
+
+        if ( sourceColumnIndex == targetColumnIndex && sourceColumn instanceof StringColumn
+            && ((StringColumn) sourceColumn).substitute( metaDataMap ) )
+        {
+            return this;
+        }
+
+        List<Object> sourceValues = getColumn( sourceColumnIndex );
+
+        for ( int rowIndex = 0; rowIndex < sourceValues.size(); rowIndex++ )
+        {
+            Object metaValue = metaDataMap.get( sourceValues.get( rowIndex ) );
+
+            if ( metaValue != null )
+            {
+                setValue( rowIndex, targetColumnIndex, metaValue );
+            }
+        }
+
+        return this;
+    }
+
+    /**
+     * Based on the given column indexes, this method will order the current
+     * columns in the Grid. The new positions of the columns will respect the
+     * new indexes.
+     *
+     * @param newColumnsIndexes
+     */
+    @Override
+    public void repositionColumns( final Set<Integer> newColumnsIndexes )
+    {
+        final List<Integer> newIndexes = new ArrayList<>( newColumnsIndexes );
+        final List<Column> orderedColumns = new ArrayList<>();
+
+        for ( int i = 0; i < columns.size(); i++ )
+        {
+            orderedColumns.add( columns.get( newIndexes.get( i ) ) );
+        }
+
+        columns = orderedColumns;
+    }
+
+    /**
+     * Returns a copy of this grid which can be modified independently of this
+     * grid. The column arrays are copied directly, while the cell values
+     * themselves are shared, as they are immutable in practice.
+     *
+     * @return a copy of this grid.
+     */
+    public ColumnarGrid copy()
+    {
+        ColumnarGrid copy = new ColumnarGrid();
+
+        copyPropertiesTo( copy );
+
+        for ( Column column : columns )
+        {
+            copy.columns.add( column.copy() );
+        }
+
+        copy.height = height;
+        copy.currentRowWidth = currentRowWidth;
+
+        return copy;
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Columns always hold one cell per row, which makes the grid consistent by
+     * construction.
+     */
+    @Override
+    protected void verifyGridState()
+    {
+    }
+
+    /**
+     * Sets the value of the given cell, replacing the column with one which
+     * can hold the value if required.
+     */
+    private void setValue( int rowIndex, int columnIndex, Object value )
+    {
+        Column column = columns.get( columnIndex );
+
+        if ( !column.accepts( value ) )
+        {
+            column = column.hasValues() ? new ObjectColumn( column ) : newColumn( value, height );
+
+            columns.set( columnIndex, column );
+        }
+
+        column.set( rowIndex, value );
+    }
+
+    private void insertColumn( int columnIndex, List<?> values )
+    {
+        if ( height == 0 )
+        {
+            return;
+        }
+
+        columns.add( columnIndex, newColumn( null, height ) );
+
+        for ( int i = 0; i < height; i++ )
+        {
+            setValue( i, columnIndex, values.get( i ) );
+        }
+
+        currentRowWidth = columns.size();
+    }
+
+    /**
+     * Truncates the grid to the given number of rows.
+     */
+    private void setHeight( int newHeight )
+    {
+        for ( Column column : columns )
+        {
+            column.setSize( newHeight );
+        }
+
+        height = newHeight;
+
+        afterRowsChanged();
+    }
+
+    /**
+     * Replaces the rows of the grid with the given rows, in the given order.
+     */
+    private void selectRows( int[] rows )
+    {
+        columns.replaceAll( column -> column.select( rows ) );
+
+        height = rows.length;
+
+        afterRowsChanged();
+    }
+
+    private void afterRowsChanged()
+    {
+        if ( height == 0 )
+        {
+            columns.clear();
+        }
+
+        currentRowWidth = columns.size();
+    }
+
+    private static Column newColumn( Object value, int size )
+    {
+        Column column;
+
+        if ( value == null || value instanceof Double )
+        {
+            column = new DoubleColumn();
+        }
+        else if ( value instanceof String )
+        {
+            column = new StringColumn();
+        }
+        else
+        {
+            column = new ObjectColumn();
+        }
+
+        column.setSize( size );
+
+        return column;
+    }
+
+    private static int newCapacity( int capacity, int minCapacity )
+    {
+        return Math.max( minCapacity, Math.max( INITIAL_CAPACITY, capacity + (capacity >> 1) ) );
+    }
+
+    // -------------------------------------------------------------------------
+    // Row views
+    // -------------------------------------------------------------------------
+
+    private class RowView
+        extends AbstractList<Object>
+        implements RandomAccess, Serializable
+    {
+        private final int rowIndex;
+
+        RowView( int rowIndex )
+        {
+            this.rowIndex = rowIndex;
+        }
+
+        @Override
+        public Object get( int columnIndex )
+        {
+            checkElementIndex( columnIndex, columns.size() );
+
+            return columns.get( columnIndex ).get( rowIndex );
+        }
+
+        @Override
+        public Object set( int columnIndex, Object value )
+        {
+            Object previous = get( columnIndex );
+
+            setValue( rowIndex, columnIndex, value );
+
+            return previous;
+        }
+
+        @Override
+        public int size()
+        {
+            return columns.size();
+        }
+    }
+
+    private class RowsView
+        extends AbstractList<List<Object>>
+        implements RandomAccess
+    {
+        @Override
+        public List<Object> get( int rowIndex )
+        {
+            return getRow( rowIndex );
+        }
+
+        @Override
+        public int size()
+        {
+            return height;
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Columns
+    // -------------------------------------------------------------------------
+
+    /**
+     * A column of cells, where cells beyond the size of the column are always
+     * null, so that growing the column never requires clearing cells.
+     */
+    private abstract static class Column
+        implements Serializable
+    {
+        /**
+         * The number of cells in the column.
+         */
+        protected int size;
+
+        /**
+         * Indicates whether the given value can be stored in this column.
+         */
+        abstract boolean accepts( Object value );
+
+        abstract Object get( int rowIndex );
+
+        /**
+         * Sets the given value, which must be accepted by this column.
+         */
+        abstract void set( int rowIndex, Object value );
+
+        /**
+         * Sets the number of cells, where added cells are null.
+         */
+        abstract void setSize( int newSize );
+
+        /**
+         * Indicates whether any cell in this column is not null.
+         */
+        abstract boolean hasValues();
+
+        /**
+         * Returns a column with the cells at the given rows, in the given
+         * order.
+         */
+        abstract Column select( int[] rows );
+
+        abstract Column copy();
+    }
+
+    private static class DoubleColumn
+        extends Column
+    {
+        private double[] values = new double[0];
+
+        /**
+         * The cells which are not null.
+         */
+        private BitSet present = new BitSet();
+
+        @Override
+        boolean accepts( Object value )
+        {
+            return value == null || value instanceof Double;
+        }
+
+        @Override
+        Object get( int rowIndex )
+        {
+            return present.get( rowIndex ) ? Double.valueOf( values[rowIndex] ) : null;
+        }
+
+        @Override
+        void set( int rowIndex, Object value )
+        {
+            if ( value == null )
+            {
+                present.clear( rowIndex );
+            }
+            else
+            {
+                values[rowIndex] = (Double) value;
+                present.set( rowIndex );
+            }
+        }
+
+        @Override
+        void setSize( int newSize )
+        {
+            if ( newSize > values.length )
+            {
+                values = Arrays.copyOf( values, newCapacity( values.length, newSize ) );
+            }
+
+            if ( newSize < size )
+            {
+                present.clear( newSize, size );
+            }
+
+            size = newSize;
+        }
+
+        @Override
+        boolean hasValues()
+        {
+            return !present.isEmpty();
+        }
+
+        @Override
+        Column select( int[] rows )
+        {
+            DoubleColumn column = new DoubleColumn();
+            column.setSize( rows.length );
+
+            for ( int i = 0; i < rows.length; i++ )
+            {
+                if ( present.get( rows[i] ) )
+                {
+                    column.values[i] = values[rows[i]];
+                    column.present.set( i );
+                }
+            }
+
+            return column;
+        }
+
+        @Override
+        Column copy()
+        {
+            DoubleColumn column = new DoubleColumn();
+            column.values = Arrays.copyOf( values, size );
+            column.present = (BitSet) present.clone();
+            column.size = size;
+            return column;
+        }
+    }
+
+    private static class StringColumn
+        extends Column
+    {
+        private static final int NULL_CODE = -1;
+
+        /**
+         * Index of the value of each cell in the dictionary.
+         */
+        private int[] codes = new int[0];
+
+        private List<String> dictionary = new ArrayList<>();
+
+        private Map<String, Integer> dictionaryIndex = new HashMap<>();
+
+        @Override
+        boolean accepts( Object value )
+        {
+            return value == null || value instanceof String;
+        }
+
+        @Override
+        Object get( int rowIndex )
+        {
+            int code = codes[rowIndex];
+
+            return code == NULL_CODE ? null : dictionary.get( code );
+        }
+
+        @Override
+        void set( int rowIndex, Object value )
+        {
+            codes[rowIndex] = value == null ? NULL_CODE
+                : dictionaryIndex.computeIfAbsent( (String) value, v -> {
+                    dictionary.add( v );
+                    return dictionary.size() - 1;
+                } );
+        }
+
+        @Override
+        void setSize( int newSize )
+        {
+            if ( newSize > codes.length )
+            {
+                int capacity = codes.length;
+                codes = Arrays.copyOf( codes, newCapacity( capacity, newSize ) );
+                Arrays.fill( codes, capacity, codes.length, NULL_CODE );
+            }
+
+            if ( newSize < size )
+            {
+                Arrays.fill( codes, newSize, size, NULL_CODE );
+            }
+
+            size = newSize;
+        }
+
+        @Override
+        boolean hasValues()
+        {
+            for ( int i = 0; i < size; i++ )
+            {
+                if ( codes[i] != NULL_CODE )
+                {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        @Override
+        Column select( int[] rows )
+        {
+            StringColumn column = new StringColumn();
+            column.setSize( rows.length );
+            column.dictionary = new ArrayList<>( dictionary );
+            column.dictionaryIndex = new HashMap<>( dictionaryIndex );
+
+            for ( int i = 0; i < rows.length; i++ )
+            {
+                column.codes[i] = codes[rows[i]];
+            }
+
+            return column;
+        }
+
+        @Override
+        Column copy()
+        {
+            StringColumn column = new StringColumn();
+            column.codes = Arrays.copyOf( codes, size );
+            column.dictionary = new ArrayList<>( dictionary );
+            column.dictionaryIndex = new HashMap<>( dictionaryIndex );
+            column.size = size;
+            return column;
+        }
+
+        /**
+         * Substitutes the values in the dictionary with the corresponding
+         * values in the given map, which substitutes every cell holding the
+         * value at once.
+         *
+         * @return false if the map holds a substitute which is not a string,
+         *         in which case the column is left untouched.
+         */
+        boolean substitute( Map<?, ?> metaDataMap )
+        {
+            List<String> substituted = new ArrayList<>( dictionary.size() );
+
+            for ( String value : dictionary )
+            {
+                Object metaValue = metaDataMap.get( value );
+
+                if ( metaValue != null && !(metaValue instanceof String) )
+                {
+                    return false;
+                }
+
+                substituted.add( metaValue != null ? (String) metaValue : value );
+            }
+
+            dictionary = substituted;
+            dictionaryIndex = new HashMap<>();
+
+            for ( int i = 0; i < dictionary.size(); i++ )
+            {
+                dictionaryIndex.putIfAbsent( dictionary.get( i ), i );
+            }
+
+            return true;
+        }
+    }
+
+    private static class ObjectColumn
+        extends Column
+    {
+        private Object[] values = new Object[0];
+
+        ObjectColumn()
+        {
+        }
+
+        /**
+         * Creates a column holding the cells of the given column.
+         */
+        ObjectColumn( Column column )
+        {
+            setSize( column.size );
+
+            for ( int i = 0; i < size; i++ )
+            {
+                values[i] = column.get( i );
+            }
+        }
+
+        @Override
+        boolean accepts( Object value )
+        {
+            return true;
+        }
+
+        @Override
+        Object get( int rowIndex )
+        {
+            return values[rowIndex];
+        }
+
+        @Override
+        void set( int rowIndex, Object value )
+        {
+            values[rowIndex] = value;
+        }
+
+        @Override
+        void setSize( int newSize )
+        {
+            if ( newSize > values.length )
+            {
+                values = Arrays.copyOf( values, newCapacity( values.length, newSize ) );
+            }
+
+            if ( newSize < size )
+            {
+                Arrays.fill( values, newSize, size, null );
+            }
+
+            size = newSize;
+        }
+
+        @Override
+        boolean hasValues()
+        {
+            for ( int i = 0; i < size; i++ )
+            {
+                if ( values[i] != null )
+                {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        @Override
+        Column select( int[] rows )
+        {
+            ObjectColumn column = new ObjectColumn();
+            column.setSize( rows.length );
+
+            for ( int i = 0; i < rows.length; i++ )
+            {
+                column.values[i] = values[rows[i]];
+            }
+
+            return column;
+        }
+
+        @Override
+        Column copy()
+        {
+            ObjectColumn column = new ObjectColumn();
+            column.values = Arrays.copyOf( values, size );
+            column.size = size;
+            return column;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.system.grid;
+
+import static org.hisp.dhis.common.adapter.OutputFormatter.maybeFormat;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+import org.hisp.dhis.common.GridHeader;
+import org.hisp.dhis.common.GridStreamWriter;
+import org.hisp.dhis.common.Reference;
+
+import com.csvreader.CsvWriter;
+
+/**
+ * {@link GridStreamWriter} which writes CSV in the same format as
+ * {@link GridUtils#toCsv}. Meta data and references are not part of the CSV
+ * format and are ignored.
+ */
+public class CsvGridStreamWriter
+    implements GridStreamWriter
+{
+    private static final char CSV_DELIMITER = ',';
+
+    private final CsvWriter csvWriter;
+
+    /**
+     * @param writer the writer to write to, it is flushed but not closed.
+     */
+    public CsvGridStreamWriter( Writer writer )
+    {
+        this.csvWriter = new CsvWriter( writer, CSV_DELIMITER );
+    }
+
+    @Override
+    public void writeStart( List<GridHeader> headers, Map<String, Object> metaData )
+        throws IOException
+    {
+        if ( !headers.isEmpty() )
+        {
+            for ( GridHeader header : headers )
+            {
+                csvWriter.write( header.getColumn() );
+            }
+
+            csvWriter.endRecord();
+        }
+    }
+
+    @Override
+    public void writeRow( List<Object> row )
+        throws IOException
+    {
+        for ( Object value : row )
+        {
+            csvWriter.write( value != null ? String.valueOf( maybeFormat( value ) ) : StringUtils.EMPTY );
+        }
+
+        csvWriter.endRecord();
+    }
+
+    @Override
+    public void writeEnd( List<Reference> refs )
+        throws IOException
+    {
+        csvWriter.flush();
+    }
+}
@@ -29,6 +29,8 @@ package org.hisp.dhis.system.grid;
 
 import static org.hisp.dhis.common.DimensionalObject.DIMENSION_SEP;
 import static org.hisp.dhis.common.adapter.OutputFormatter.maybeFormat;
+import static org.hisp.dhis.feedback.ErrorCode.E7232;
+import static org.hisp.dhis.feedback.ErrorCode.E7233;
 import static org.hisp.dhis.system.util.PDFUtils.addTableToDocument;
 import static org.hisp.dhis.system.util.PDFUtils.closeDocument;
 import static org.hisp.dhis.system.util.PDFUtils.getEmptyCell;
@@ -50,6 +52,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import lombok.extern.slf4j.Slf4j;
 import net.sf.jasperreports.engine.JasperCompileManager;
@@ -61,6 +64,7 @@ import net.sf.jasperreports.engine.JasperReport;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.SpreadsheetVersion;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.CellType;
@@ -68,15 +72,19 @@ import org.apache.poi.ss.usermodel.Font;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.velocity.VelocityContext;
 import org.hisp.dhis.common.DimensionalItemObject;
 import org.hisp.dhis.common.DimensionalObjectUtils;
 import org.hisp.dhis.common.Grid;
 import org.hisp.dhis.common.GridHeader;
+import org.hisp.dhis.common.IllegalQueryException;
 import org.hisp.dhis.common.Reference;
 import org.hisp.dhis.commons.collection.ListUtils;
 import org.hisp.dhis.commons.util.Encoder;
 import org.hisp.dhis.commons.util.TextUtils;
+import org.hisp.dhis.feedback.ErrorCode;
+import org.hisp.dhis.feedback.ErrorMessage;
 import org.hisp.dhis.system.util.CodecUtils;
 import org.hisp.dhis.system.util.MathUtils;
 import org.hisp.dhis.system.velocity.VelocityManager;
@@ -96,6 +104,7 @@ import org.springframework.jdbc.support.rowset.SqlRowSet;
 
 import com.csvreader.CsvWriter;
 import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import com.google.common.collect.Lists;
 import com.lowagie.text.Document;
 import com.lowagie.text.pdf.PdfPTable;
 
@@ -113,6 +122,14 @@ public class GridUtils
 
     private static final int JXL_MAX_COLS = 256;
 
+    private static final int XLSX_MAX_COLS = 16384;
+
+    /**
+     * Number of rows kept in memory while writing XLSX, rows beyond the window
+     * are flushed to a temporary file.
+     */
+    private static final int XLSX_ROW_ACCESS_WINDOW = 500;
+
     private static final String FONT_ARIAL = "Arial";
 
     private static final NodeFilter HTML_ROW_FILTER = new OrFilter( new TagNameFilter( "td" ),
@@ -263,6 +280,59 @@ public class GridUtils
     {
         Workbook workbook = new HSSFWorkbook();
 
+        toWorkbook( grids, workbook, JXL_MAX_COLS );
+
+        workbook.write( out );
+        workbook.close();
+    }
+
+    /**
+     * Writes a XLS (Excel workbook) representation of the given Grid to the
+     * given OutputStream.
+     */
+    public static void toXls( Grid grid, OutputStream out )
+        throws Exception
+    {
+        toXls( Lists.newArrayList( grid ), out );
+    }
+
+    /**
+     * Writes a XLSX (Office Open XML workbook) representation of the given
+     * list of Grids to the given OutputStream. Rows are streamed to the
+     * workbook through a fixed window, so that memory use does not grow with
+     * the number of rows.
+     */
+    public static void toXlsx( List<Grid> grids, OutputStream out )
+        throws Exception
+    {
+        SXSSFWorkbook workbook = new SXSSFWorkbook( XLSX_ROW_ACCESS_WINDOW );
+        workbook.setCompressTempFiles( true );
+
+        try
+        {
+            toWorkbook( grids, workbook, XLSX_MAX_COLS );
+
+            workbook.write( out );
+        }
+        finally
+        {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    /**
+     * Writes a XLSX (Office Open XML workbook) representation of the given
+     * Grid to the given OutputStream.
+     */
+    public static void toXlsx( Grid grid, OutputStream out )
+        throws Exception
+    {
+        toXlsx( Lists.newArrayList( grid ), out );
+    }
+
+    private static void toWorkbook( List<Grid> grids, Workbook workbook, int maxCols )
+    {
         CellStyle headerCellStyle = createHeaderCellStyle( workbook );
         CellStyle cellStyle = createCellStyle( workbook );
 
@@ -270,36 +340,33 @@ public class GridUtils
         {
             Grid grid = grids.get( i );
 
-            String sheetName = CodecUtils
-                .filenameEncode( StringUtils.defaultIfEmpty( grid.getTitle(), XLS_SHEET_PREFIX + (i + 1) ) );
+            String sheetName = CodecUtils.filenameEncode( StringUtils.defaultIfEmpty(
+                grid != null ? grid.getTitle() : null, XLS_SHEET_PREFIX + (i + 1) ) );
 
-            toXlsInternal( grid, workbook.createSheet( sheetName ), headerCellStyle, cellStyle );
+            toXlsInternal( grid, workbook.createSheet( sheetName ), headerCellStyle, cellStyle, maxCols );
         }
-
-        workbook.write( out );
-        workbook.close();
     }
 
     /**
-     * Writes a XLS (Excel workbook) representation of the given Grid to the
-     * given OutputStream.
+     * Fails with an {@link IllegalQueryException} if the rows of the given
+     * grid do not fit in the sheet from the given first row, as opposed to
+     * failing after the workbook is partially written.
      */
-    public static void toXls( Grid grid, OutputStream out )
-        throws Exception
+    private static void validateMaxRows( Grid grid, Sheet sheet, int firstRow )
     {
-        Workbook workbook = new HSSFWorkbook();
-
-        String sheetName = CodecUtils
-            .filenameEncode( StringUtils.defaultIfEmpty( grid.getTitle(), XLS_SHEET_PREFIX + 1 ) );
+        SpreadsheetVersion version = sheet.getWorkbook().getSpreadsheetVersion();
 
-        toXlsInternal( grid, workbook.createSheet( sheetName ), createHeaderCellStyle( workbook ),
-            createCellStyle( workbook ) );
+        if ( firstRow + grid.getHeight() > version.getMaxRows() )
+        {
+            ErrorCode errorCode = version == SpreadsheetVersion.EXCEL97 ? E7232 : E7233;
 
-        workbook.write( out );
-        workbook.close();
+            throw new IllegalQueryException( new ErrorMessage( errorCode, grid.getHeight(),
+                version.getMaxRows() - firstRow ) );
+        }
     }
 
-    private static void toXlsInternal( Grid grid, Sheet sheet, CellStyle headerCellStyle, CellStyle cellStyle )
+    private static void toXlsInternal( Grid grid, Sheet sheet, CellStyle headerCellStyle, CellStyle cellStyle,
+        int maxCols )
     {
         if ( grid == null )
         {
@@ -308,10 +375,9 @@ public class GridUtils
 
         int cols = grid.getVisibleHeaders().size();
 
-        if ( cols > JXL_MAX_COLS )
+        if ( cols > maxCols )
         {
-            log.warn(
-                "Grid will be truncated, no of columns is greater than JXL max limit: " + cols + "/" + JXL_MAX_COLS );
+            log.warn( "Grid will be truncated, no of columns is greater than max limit: " + cols + "/" + maxCols );
         }
 
         int rowNumber = 0;
@@ -335,7 +401,7 @@ public class GridUtils
             rowNumber++;
         }
 
-        List<GridHeader> headers = ListUtils.subList( grid.getVisibleHeaders(), 0, JXL_MAX_COLS );
+        List<GridHeader> headers = ListUtils.subList( grid.getVisibleHeaders(), 0, maxCols );
         Row headerRow = sheet.createRow( ++rowNumber );
         for ( GridHeader header : headers )
         {
@@ -346,16 +412,23 @@ public class GridUtils
 
         rowNumber++;
 
-        for ( List<Object> row : grid.getVisibleRows() )
+        validateMaxRows( grid, sheet, rowNumber );
+
+        // Read visible cells directly off the grid rows, as opposed to
+        // through a copy of the visible rows, to keep memory use flat
+
+        List<Integer> visibleColumns = ListUtils.subList( getVisibleColumnIndexes( grid ), 0, maxCols );
+
+        for ( List<Object> row : grid.getRows() )
         {
             Row xlsRow = sheet.createRow( rowNumber );
             xlsRow.setRowStyle( cellStyle );
             columnIndex = 0;
 
-            List<Object> columns = ListUtils.subList( row, 0, JXL_MAX_COLS );
-
-            for ( Object column : columns )
+            for ( int visibleColumn : visibleColumns )
             {
+                Object column = row.get( visibleColumn );
+
                 if ( column != null && Number.class.isAssignableFrom( column.getClass() ) )
                 {
                     xlsRow.createCell( columnIndex++, CellType.STRING )
@@ -372,6 +445,20 @@ public class GridUtils
         }
     }
 
+    /**
+     * Returns the indexes of the columns of the given grid which are not
+     * hidden, consistent with {@link Grid#getVisibleRows()}.
+     */
+    private static List<Integer> getVisibleColumnIndexes( Grid grid )
+    {
+        List<GridHeader> headers = grid.getHeaders();
+
+        return IntStream.range( 0, headers.size() )
+            .filter( i -> !headers.get( i ).isHidden() )
+            .boxed()
+            .collect( Collectors.toList() );
+    }
+
     /**
      * Writes a CSV representation of the given Grid to the given OutputStream.
      */
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.system.grid;
+
+import static org.hisp.dhis.common.adapter.OutputFormatter.maybeFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+import org.hisp.dhis.common.GridHeader;
+import org.hisp.dhis.common.GridStreamWriter;
+import org.hisp.dhis.common.Reference;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * {@link GridStreamWriter} which writes JSON in the same structure as a
+ * serialized {@link ListGrid}. The height is written after the rows as it is
+ * only known when all rows are written.
+ */
+public class JsonGridStreamWriter
+    implements GridStreamWriter
+{
+    private final JsonGenerator generator;
+
+    private int height = 0;
+
+    /**
+     * @param jsonMapper the object mapper used for headers, meta data and
+     *        references.
+     * @param out the stream to write to, it is flushed but not closed.
+     * @throws IOException if the generator could not be created.
+     */
+    public JsonGridStreamWriter( ObjectMapper jsonMapper, OutputStream out )
+        throws IOException
+    {
+        this.generator = jsonMapper.getFactory().createGenerator( out )
+            .disable( JsonGenerator.Feature.AUTO_CLOSE_TARGET );
+    }
+
+    @Override
+    public void writeStart( List<GridHeader> headers, Map<String, Object> metaData )
+        throws IOException
+    {
+        generator.writeStartObject();
+        generator.writeObjectField( "headers", headers );
+
+        if ( metaData != null && !metaData.isEmpty() )
+        {
+            generator.writeObjectField( "metaData", metaData );
+        }
+
+        generator.writeNumberField( "headerWidth", headers.size() );
+        generator.writeNumberField( "width", headers.size() );
+        generator.writeArrayFieldStart( "rows" );
+    }
+
+    @Override
+    public void writeRow( List<Object> row )
+        throws IOException
+    {
+        generator.writeStartArray();
+
+        for ( Object value : row )
+        {
+            generator.writeString( value != null ? String.valueOf( maybeFormat( value ) ) : StringUtils.EMPTY );
+        }
+
+        generator.writeEndArray();
+
+        height++;
+    }
+
+    @Override
+    public void writeEnd( List<Reference> refs )
+        throws IOException
+    {
+        generator.writeEndArray();
+        generator.writeNumberField( "height", height );
+
+        if ( refs != null && !refs.isEmpty() )
+        {
+            generator.writeObjectField( "refs", refs );
+        }
+
+        generator.writeEndObject();
+        generator.flush();
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.system.grid;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.SerializationUtils;
+import org.hisp.dhis.common.Grid;
+import org.hisp.dhis.common.GridHeader;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs the {@link GridTest} suite against {@link ColumnarGrid}, along with
+ * tests of the behavior specific to the columnar storage.
+ */
+class ColumnarGridTest extends GridTest
+{
+    @Override
+    protected Grid newGrid()
+    {
+        return new ColumnarGrid();
+    }
+
+    @Test
+    void testCopyIsIndependentOfGrid()
+    {
+        ColumnarGrid grid = new ColumnarGrid();
+        grid.addHeader( new GridHeader( "Org unit", "ou" ) );
+        grid.addHeader( new GridHeader( "Value", "value" ) );
+        grid.addRow().addValue( "ouA" ).addValue( 12.5 );
+        grid.addRow().addValue( "ouB" ).addValue( null );
+        grid.addMetaData( "key", "value" );
+
+        ColumnarGrid copy = grid.copy();
+        copy.getRow( 0 ).set( 0, "ouC" );
+        copy.getRow( 1 ).set( 1, 3.0 );
+        copy.addRow().addValue( "ouD" ).addValue( 4.0 );
+        copy.getHeaders().get( 0 ).setName( "Organisation unit" );
+        copy.addMetaData( "key", "other" );
+
+        assertEquals( 2, grid.getHeight() );
+        assertEquals( "ouA", grid.getValue( 0, 0 ) );
+        assertEquals( 12.5, grid.getValue( 0, 1 ) );
+        assertNull( grid.getValue( 1, 1 ) );
+        assertEquals( "Org unit", grid.getHeaders().get( 0 ).getName() );
+        assertEquals( "value", grid.getMetaData().get( "key" ) );
+
+        assertEquals( 3, copy.getHeight() );
+        assertEquals( "ouC", copy.getValue( 0, 0 ) );
+        assertEquals( 3.0, copy.getValue( 1, 1 ) );
+    }
+
+    @Test
+    void testMixedTypesInColumn()
+    {
+        Grid grid = new ColumnarGrid();
+        grid.addRow().addValue( null ).addValue( 1.5 );
+        grid.addRow().addValue( "a" ).addValue( 2 );
+        grid.addRow().addValue( "b" ).addValue( "c" );
+
+        assertNull( grid.getValue( 0, 0 ) );
+        assertEquals( "a", grid.getValue( 1, 0 ) );
+        assertEquals( 1.5, grid.getValue( 0, 1 ) );
+        assertEquals( 2, grid.getValue( 1, 1 ) );
+        assertEquals( "c", grid.getValue( 2, 1 ) );
+    }
+
+    @Test
+    void testShortRowsArePadded()
+    {
+        Grid grid = new ColumnarGrid();
+        grid.addRow().addValue( "a" );
+        grid.addRow().addValue( "b" ).addValue( 2.0 ).addValue( 3.0 );
+        grid.addRow();
+
+        assertEquals( 3, grid.getWidth() );
+        assertEquals( List.of( "a" ), grid.getRow( 0 ).subList( 0, 1 ) );
+        assertNull( grid.getValue( 0, 2 ) );
+        assertNull( grid.getValue( 2, 0 ) );
+    }
+
+    @Test
+    void testSubstituteMetaDataInDictionary()
+    {
+        Grid grid = new ColumnarGrid();
+        grid.addHeader( new GridHeader( "Org unit", "ou", null, false, true ) );
+        grid.addRow().addValue( "ouA" );
+        grid.addRow().addValue( "ouB" );
+        grid.addRow().addValue( "ouA" );
+
+        grid.substituteMetaData( Map.of( "ouA", "Bo", "ouB", "Bombali" ) );
+
+        assertEquals( List.of( "Bo", "Bombali", "Bo" ), grid.getColumn( 0 ) );
+
+        grid.addRow().addValue( "ouA" );
+
+        assertEquals( "ouA", grid.getValue( 3, 0 ) );
+    }
+
+    @Test
+    void testSetValueThroughRows()
+    {
+        Grid grid = new ColumnarGrid();
+        grid.addRow().addValue( "a" ).addValue( 1.0 );
+        grid.addRow().addValue( "b" ).addValue( 2.0 );
+
+        for ( List<Object> row : grid.getRows() )
+        {
+            row.set( 1, ((Double) row.get( 1 )).intValue() );
+        }
+
+        assertEquals( List.of( 1, 2 ), grid.getColumn( 1 ) );
+    }
+
+    @Test
+    void testSerialization()
+    {
+        Grid grid = new ColumnarGrid();
+        grid.addRow().addValue( "a" ).addValue( 1.0 ).addValue( 1 );
+
+        Grid clone = SerializationUtils.clone( grid );
+
+        assertEquals( List.of( "a", 1.0, 1 ), clone.getRow( 0 ) );
+    }
+}
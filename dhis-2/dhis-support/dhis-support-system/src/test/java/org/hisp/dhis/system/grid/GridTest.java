@@ -81,8 +81,8 @@ class GridTest
     @BeforeEach
     void setUp()
     {
-        gridA = new ListGrid();
-        gridB = new ListGrid();
+        gridA = newGrid();
+        gridB = newGrid();
         headerA = new GridHeader( "ColA", "colA", ValueType.TEXT, false, true,
             null, null, "programStage", new RepeatableStageParams() );
         headerB = new GridHeader( "ColB", "colB", ValueType.TEXT, false, true );
@@ -122,7 +122,7 @@ class GridTest
     @Test
     void testAddHeaders()
     {
-        Grid grid = new ListGrid();
+        Grid grid = newGrid();
         GridHeader headerA = new GridHeader( "DataElementA", "Data element A" );
         GridHeader headerB = new GridHeader( "DataElementB", "Data element B" );
         GridHeader headerC = new GridHeader( "DataElementC", "Data element C" );
@@ -141,7 +141,7 @@ class GridTest
     @Test
     void testColumnIsEmpty()
     {
-        Grid grid = new ListGrid().addRow().addValuesVar( "A1", null, "A3", null ).addRow()
+        Grid grid = newGrid().addRow().addValuesVar( "A1", null, "A3", null ).addRow()
             .addValuesVar( "B1", null, "B3", null ).addRow().addValuesVar( null, null, "C3", null ).addRow()
             .addValuesVar( "D1", null, null, null );
         assertFalse( grid.columnIsEmpty( 0 ) );
@@ -153,7 +153,7 @@ class GridTest
     @Test
     void testRemoveEmptyColumns()
     {
-        Grid grid = new ListGrid().addHeader( new GridHeader( "H1" ) ).addHeader( new GridHeader( "H2" ) )
+        Grid grid = newGrid().addHeader( new GridHeader( "H1" ) ).addHeader( new GridHeader( "H2" ) )
             .addHeader( new GridHeader( "H3" ) ).addHeader( new GridHeader( "H4" ) ).addRow()
             .addValuesVar( "A1", null, "A3", null ).addRow().addValuesVar( "B1", null, "B3", null ).addRow()
             .addValuesVar( null, null, "C3", null ).addRow().addValuesVar( "D1", null, null, null );
@@ -166,7 +166,7 @@ class GridTest
     @Test
     void testRemoveEmptyColumnsWithoutHeaders()
     {
-        Grid grid = new ListGrid().addRow().addValuesVar( "A1", null, "A3", null ).addRow()
+        Grid grid = newGrid().addRow().addValuesVar( "A1", null, "A3", null ).addRow()
             .addValuesVar( "B1", null, "B3", null ).addRow().addValuesVar( null, null, "C3", null ).addRow()
             .addValuesVar( "D1", null, null, null );
         assertEquals( 4, grid.getWidth() );
@@ -177,7 +177,7 @@ class GridTest
     @Test
     void testAddHeaderList()
     {
-        Grid grid = new ListGrid();
+        Grid grid = newGrid();
         GridHeader headerA = new GridHeader( "DataElementA", "Data element A" );
         GridHeader headerB = new GridHeader( "DataElementB", "Data element B" );
         GridHeader headerC = new GridHeader( "DataElementC", "Data element C" );
@@ -517,7 +517,7 @@ class GridTest
     @Test
     void testSortA()
     {
-        Grid grid = new ListGrid();
+        Grid grid = newGrid();
         grid.addRow().addValue( 1 ).addValue( "a" );
         grid.addRow().addValue( 2 ).addValue( "b" );
         grid.addRow().addValue( 3 ).addValue( "c" );
@@ -533,7 +533,7 @@ class GridTest
     @Test
     void testSortB()
     {
-        Grid grid = new ListGrid();
+        Grid grid = newGrid();
         grid.addRow().addValue( 3 ).addValue( "a" );
         grid.addRow().addValue( 2 ).addValue( "b" );
         grid.addRow().addValue( 1 ).addValue( "c" );
@@ -549,7 +549,7 @@ class GridTest
     @Test
     void testSortC()
     {
-        Grid grid = new ListGrid();
+        Grid grid = newGrid();
         grid.addRow().addValue( 1 ).addValue( "c" );
         grid.addRow().addValue( 3 ).addValue( "a" );
         grid.addRow().addValue( 2 ).addValue( "b" );
@@ -565,7 +565,7 @@ class GridTest
     @Test
     void testSortD()
     {
-        Grid grid = new ListGrid();
+        Grid grid = newGrid();
         grid.addRow().addValue( "a" ).addValue( "a" ).addValue( 5.2 );
         grid.addRow().addValue( "b" ).addValue( "b" ).addValue( 0.0 );
         grid.addRow().addValue( "c" ).addValue( "c" ).addValue( 108.1 );
@@ -590,7 +590,7 @@ class GridTest
     @Test
     void testSortE()
     {
-        Grid grid = new ListGrid();
+        Grid grid = newGrid();
         grid.addRow().addValue( "two" ).addValue( 2 );
         grid.addRow().addValue( "null" ).addValue( null );
         grid.addRow().addValue( "three" ).addValue( 3 );
@@ -606,7 +606,7 @@ class GridTest
     @Test
     void testSortF()
     {
-        Grid grid = new ListGrid();
+        Grid grid = newGrid();
         grid.addRow().addValue( "two" ).addValue( 2 );
         grid.addRow().addValue( "null" ).addValue( null );
         grid.addRow().addValue( "one" ).addValue( 1 );
@@ -639,7 +639,7 @@ class GridTest
     @Test
     void testAddRegressionColumn()
     {
-        gridA = new ListGrid();
+        gridA = newGrid();
         gridA.addRow();
         gridA.addValue( 10.0 );
         gridA.addRow();
@@ -660,7 +660,7 @@ class GridTest
     @Test
     void testAddCumulativeColumn()
     {
-        gridA = new ListGrid();
+        gridA = newGrid();
         gridA.addRow();
         gridA.addValue( 10.0 );
         gridA.addRow();
@@ -739,7 +739,7 @@ class GridTest
     @Test
     void testAddValuesAsList()
     {
-        Grid grid = new ListGrid();
+        Grid grid = newGrid();
         grid.addRow().addValuesAsList( Lists.newArrayList( "colA1", "colB1", "colC1" ) );
         grid.addRow().addValuesAsList( Lists.newArrayList( "colA2", "colB2", "colC2" ) );
         assertEquals( 2, grid.getHeight() );
@@ -756,7 +756,7 @@ class GridTest
         final GridHeader headerB = new GridHeader( "headerB", "Header B" );
         final GridHeader headerC = new GridHeader( "headerC", "Header C" );
 
-        final Grid grid = new ListGrid();
+        final Grid grid = newGrid();
         grid.addHeader( headerA );
         grid.addHeader( headerB );
         grid.addHeader( headerC );
@@ -783,7 +783,7 @@ class GridTest
         final GridHeader headerB = new GridHeader( "headerB", "Header B" );
         final GridHeader headerC = new GridHeader( "headerC", "Header C" );
 
-        final Grid grid = new ListGrid();
+        final Grid grid = newGrid();
         grid.addHeader( headerA );
         grid.addHeader( headerB );
         grid.addHeader( headerC );
@@ -811,7 +811,7 @@ class GridTest
         final GridHeader headerB = new GridHeader( "headerB", "Header B" );
         final GridHeader headerC = new GridHeader( "headerC", "Header C" );
 
-        final Grid grid = new ListGrid();
+        final Grid grid = newGrid();
         grid.addHeader( headerA );
         grid.addHeader( headerB );
         grid.addHeader( headerC );
@@ -839,7 +839,7 @@ class GridTest
         final GridHeader headerB = new GridHeader( "headerB", "Header B" );
         final GridHeader headerC = new GridHeader( "headerC", "Header C" );
 
-        final Grid grid = new ListGrid();
+        final Grid grid = newGrid();
         grid.addHeader( headerA );
         grid.addHeader( headerB );
         grid.addHeader( headerC );
@@ -923,6 +923,12 @@ class GridTest
     // -------------------------------------------------------------------------
     // Supportive methods
     // -------------------------------------------------------------------------
+
+    protected Grid newGrid()
+    {
+        return new ListGrid();
+    }
+
     private static List<Object> getList( Object... items )
     {
         List<Object> list = new ArrayList<>();
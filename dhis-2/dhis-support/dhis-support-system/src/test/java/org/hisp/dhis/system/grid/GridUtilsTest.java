@@ -29,14 +29,22 @@ package org.hisp.dhis.system.grid;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.commons.io.IOUtils;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.hisp.dhis.common.CodeGenerator;
 import org.hisp.dhis.common.DimensionalItemObject;
 import org.hisp.dhis.common.Grid;
+import org.hisp.dhis.common.GridHeader;
+import org.hisp.dhis.common.IllegalQueryException;
+import org.hisp.dhis.feedback.ErrorCode;
 import org.hisp.dhis.period.Period;
 import org.hisp.dhis.period.PeriodType;
 import org.junit.jupiter.api.Test;
@@ -62,6 +70,54 @@ class GridUtilsTest
         assertEquals( "TitleA", grids.get( 0 ).getTitle() );
     }
 
+    @Test
+    void testToXlsx()
+        throws Exception
+    {
+        Grid grid = new ListGrid();
+        grid.addHeader( new GridHeader( "A", "colA" ) );
+        grid.addHeader( new GridHeader( "B", true, false ) );
+        grid.addHeader( new GridHeader( "C", "colC" ) );
+
+        for ( int i = 0; i < 2000; i++ )
+        {
+            grid.addRow().addValuesVar( "a" + i, "b" + i, "c" + i );
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GridUtils.toXlsx( grid, out );
+
+        try ( Workbook workbook = new XSSFWorkbook( new ByteArrayInputStream( out.toByteArray() ) ) )
+        {
+            Sheet sheet = workbook.getSheetAt( 0 );
+            assertEquals( "colA", sheet.getRow( 1 ).getCell( 0 ).getStringCellValue() );
+            assertEquals( "colC", sheet.getRow( 1 ).getCell( 1 ).getStringCellValue() );
+            assertEquals( 2001, sheet.getLastRowNum() );
+            assertEquals( 2, sheet.getRow( 2001 ).getLastCellNum() );
+            assertEquals( "a1999", sheet.getRow( 2001 ).getCell( 0 ).getStringCellValue() );
+            assertEquals( "c1999", sheet.getRow( 2001 ).getCell( 1 ).getStringCellValue() );
+        }
+    }
+
+    @Test
+    void testToXlsFailsAboveMaxRows()
+    {
+        Grid grid = new ListGrid();
+        grid.setTitle( "Title" );
+        grid.addHeader( new GridHeader( "A", "colA" ) );
+
+        for ( int i = 0; i < 65_534; i++ )
+        {
+            grid.addRow().addValue( "a" + i );
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        IllegalQueryException ex = assertThrows( IllegalQueryException.class, () -> GridUtils.toXls( grid, out ) );
+        assertEquals( ErrorCode.E7232, ex.getErrorCode() );
+        assertEquals( 0, out.size() );
+    }
+
     @Test
     void testGetGridIndexByDimensionItem()
     {
@@ -46,6 +46,7 @@ import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
@@ -105,7 +106,8 @@ class DataSetControllerMockTest
                 Mockito.same( exportParams ) ) )
             .thenReturn( rootNode );
 
-        final ResponseEntity<JsonNode> responseEntity = controller.getDataSetWithDependencies( "88dshgdga", download );
+        final ResponseEntity<JsonNode> responseEntity = controller.getDataSetWithDependencies( "88dshgdga", download,
+            new MockHttpServletResponse() );
         Assertions.assertEquals( HttpStatus.OK, responseEntity.getStatusCode() );
         Assertions.assertSame( rootNode, responseEntity.getBody() );
         if ( download )
@@ -45,6 +45,7 @@ import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
@@ -110,6 +111,46 @@ class MetadataExportControllerUtilsTest
             responseEntity.getHeaders().getFirst( HttpHeaders.CONTENT_DISPOSITION ) );
     }
 
+    @Test
+    void writeWithDependenciesWhenStreaming()
+        throws Exception
+    {
+        final Map<String, List<String>> parameterValuesMap = new HashMap<>();
+        final MetadataExportParams exportParams = new MetadataExportParams();
+        exportParams.setStreaming( true );
+        final Attribute attribute = new Attribute();
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        Mockito.when( contextService.getParameterValuesMap() ).thenReturn( parameterValuesMap );
+        Mockito.when( exportService.getParamsFromMap( Mockito.same( parameterValuesMap ) ) ).thenReturn( exportParams );
+
+        Assertions.assertTrue( MetadataExportControllerUtils.writeWithDependencies( contextService, exportService,
+            attribute, true, response ) );
+        Mockito.verify( exportService ).writeMetadataWithDependencies( Mockito.same( attribute ),
+            Mockito.same( exportParams ), Mockito.same( response.getOutputStream() ) );
+        Assertions.assertTrue( response.getContentType().startsWith( "application/json" ) );
+        Assertions.assertEquals( "attachment; filename=metadata.json",
+            response.getHeader( HttpHeaders.CONTENT_DISPOSITION ) );
+    }
+
+    @Test
+    void writeWithDependenciesWhenNotStreaming()
+        throws Exception
+    {
+        final Map<String, List<String>> parameterValuesMap = new HashMap<>();
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        Mockito.when( contextService.getParameterValuesMap() ).thenReturn( parameterValuesMap );
+        Mockito.when( exportService.getParamsFromMap( Mockito.same( parameterValuesMap ) ) )
+            .thenReturn( new MetadataExportParams() );
+
+        Assertions.assertFalse( MetadataExportControllerUtils.writeWithDependencies( contextService, exportService,
+            new Attribute(), false, response ) );
+        Mockito.verify( exportService, Mockito.never() ).writeMetadataWithDependencies( Mockito.any(),
+            Mockito.any(), Mockito.any() );
+        Assertions.assertFalse( response.isCommitted() );
+    }
+
     @Test
     void createResponseEntity()
     {
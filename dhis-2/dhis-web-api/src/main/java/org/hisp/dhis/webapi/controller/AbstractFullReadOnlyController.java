@@ -53,6 +53,8 @@ import org.hisp.dhis.common.UserContext;
 import org.hisp.dhis.dxf2.common.OrderParams;
 import org.hisp.dhis.dxf2.common.TranslateParams;
 import org.hisp.dhis.dxf2.webmessage.WebMessageException;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
 import org.hisp.dhis.fieldfilter.Defaults;
 import org.hisp.dhis.fieldfilter.FieldFilterParams;
 import org.hisp.dhis.fieldfilter.FieldFilterService;
@@ -149,6 +151,9 @@ public abstract class AbstractFullReadOnlyController<T extends IdentifiableObjec
     @Autowired
     protected AttributeService attributeService;
 
+    @Autowired
+    protected DhisConfigurationProvider dhisConfig;
+
     // --------------------------------------------------------------------------
     // Hooks
     // --------------------------------------------------------------------------
@@ -252,7 +257,9 @@ public abstract class AbstractFullReadOnlyController<T extends IdentifiableObjec
         }
 
         rootNode.addChild( oldFieldFilterService.toCollectionNode( getEntityClass(),
-            new FieldFilterParams( entities, fields, Defaults.valueOf( options.get( "defaults", DEFAULTS ) ) ) ) );
+            new FieldFilterParams( entities, fields, Defaults.valueOf( options.get( "defaults", DEFAULTS ) ) )
+                .setStreaming( !options.hasPaging()
+                    && dhisConfig.isEnabled( ConfigurationKey.SYSTEM_METADATA_STREAMING_SERIALIZATION ) ) ) );
 
         cachePrivate( response );
 
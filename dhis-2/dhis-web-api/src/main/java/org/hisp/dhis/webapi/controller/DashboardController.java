@@ -31,9 +31,12 @@ import static org.apache.commons.collections4.CollectionUtils.isNotEmpty;
 import static org.hisp.dhis.dxf2.webmessage.WebMessageUtils.conflict;
 import static org.hisp.dhis.dxf2.webmessage.WebMessageUtils.notFound;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Set;
 
+import javax.servlet.http.HttpServletResponse;
+
 import org.hisp.dhis.dashboard.Dashboard;
 import org.hisp.dhis.dashboard.DashboardItem;
 import org.hisp.dhis.dashboard.DashboardItemType;
@@ -100,8 +103,9 @@ public class DashboardController
 
     @GetMapping( "/{uid}/metadata" )
     public ResponseEntity<JsonNode> getDataSetWithDependencies( @PathVariable( "uid" ) String dashboardId,
-        @RequestParam( required = false, defaultValue = "false" ) boolean download )
-        throws WebMessageException
+        @RequestParam( required = false, defaultValue = "false" ) boolean download, HttpServletResponse response )
+        throws WebMessageException,
+        IOException
     {
         Dashboard dashboard = dashboardService.getDashboard( dashboardId );
 
@@ -110,6 +114,12 @@ public class DashboardController
             throw new WebMessageException( notFound( "Dashboard not found for uid: " + dashboardId ) );
         }
 
+        if ( MetadataExportControllerUtils.writeWithDependencies( contextService, exportService, dashboard, download,
+            response ) )
+        {
+            return null;
+        }
+
         return MetadataExportControllerUtils.getWithDependencies( contextService, exportService, dashboard, download );
     }
 
@@ -455,8 +455,9 @@ public class DataSetController
 
     @GetMapping( "/{uid}/metadata" )
     public ResponseEntity<JsonNode> getDataSetWithDependencies( @PathVariable( "uid" ) String pvUid,
-        @RequestParam( required = false, defaultValue = "false" ) boolean download )
-        throws WebMessageException
+        @RequestParam( required = false, defaultValue = "false" ) boolean download, HttpServletResponse response )
+        throws WebMessageException,
+        IOException
     {
         DataSet dataSet = dataSetService.getDataSet( pvUid );
 
@@ -465,6 +466,12 @@ public class DataSetController
             throw new WebMessageException( notFound( "DataSet not found for uid: " + pvUid ) );
         }
 
+        if ( MetadataExportControllerUtils.writeWithDependencies( contextService, exportService, dataSet, download,
+            response ) )
+        {
+            return null;
+        }
+
         return MetadataExportControllerUtils.getWithDependencies( contextService, exportService, dataSet, download );
     }
 
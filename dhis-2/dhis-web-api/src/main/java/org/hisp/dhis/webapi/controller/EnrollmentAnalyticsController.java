@@ -31,6 +31,7 @@ import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 
 import java.util.List;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.validation.constraints.NotNull;
 
@@ -53,7 +54,9 @@ import org.hisp.dhis.common.RequestTypeAware;
 import org.hisp.dhis.common.cache.CacheStrategy;
 import org.hisp.dhis.setting.SettingKey;
 import org.hisp.dhis.setting.SystemSettingManager;
+import org.hisp.dhis.system.grid.CsvGridStreamWriter;
 import org.hisp.dhis.system.grid.GridUtils;
+import org.hisp.dhis.system.grid.JsonGridStreamWriter;
 import org.hisp.dhis.webapi.mvc.annotation.ApiVersion;
 import org.hisp.dhis.webapi.utils.ContextUtils;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -63,7 +66,9 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
 /**
@@ -99,6 +104,9 @@ public class EnrollmentAnalyticsController
     @NotNull
     private final SystemSettingManager systemSettingManager;
 
+    @NotNull
+    private final ObjectMapper jsonMapper;
+
     @PreAuthorize( "hasRole('ALL') or hasRole('F_PERFORM_ANALYTICS_EXPLAIN')" )
     @GetMapping( value = "/query/{program}/explain", produces = { APPLICATION_JSON_VALUE, "application/javascript" } )
     public @ResponseBody Grid getExplainQueryJson( // JSON, JSONP
@@ -137,6 +145,25 @@ public class EnrollmentAnalyticsController
         return analyticsService.getEnrollments( params );
     }
 
+    @GetMapping( value = "/query/{program}", params = "stream=true", produces = APPLICATION_JSON_VALUE )
+    public void streamQueryJson(
+        @PathVariable String program,
+        EnrollmentAnalyticsQueryCriteria criteria,
+        DhisApiVersion apiVersion,
+        HttpServletRequest request,
+        HttpServletResponse response )
+        throws Exception
+    {
+        EventQueryParams params = getEventQueryParams( program, criteria, apiVersion, false );
+
+        ShallowEtagHeaderFilter.disableContentCaching( request );
+
+        contextUtils.configureResponse( response, ContextUtils.CONTENT_TYPE_JSON,
+            CacheStrategy.RESPECT_SYSTEM_SETTING );
+        analyticsService.streamEnrollments( params,
+            new JsonGridStreamWriter( jsonMapper, response.getOutputStream() ) );
+    }
+
     @GetMapping( "/query/{program}.xml" )
     public void getQueryXml(
         @PathVariable String program,
@@ -169,6 +196,22 @@ public class EnrollmentAnalyticsController
         GridUtils.toXls( grid, response.getOutputStream() );
     }
 
+    @GetMapping( "/query/{program}.xlsx" )
+    public void getQueryXlsx(
+        @PathVariable String program,
+        EnrollmentAnalyticsQueryCriteria criteria,
+        DhisApiVersion apiVersion,
+        HttpServletResponse response )
+        throws Exception
+    {
+        EventQueryParams params = getEventQueryParams( program, criteria, apiVersion, false );
+
+        contextUtils.configureResponse( response, ContextUtils.CONTENT_TYPE_EXCEL_XLSX,
+            CacheStrategy.RESPECT_SYSTEM_SETTING, "enrollments.xlsx", true );
+        Grid grid = analyticsService.getEnrollments( params );
+        GridUtils.toXlsx( grid, response.getOutputStream() );
+    }
+
     @GetMapping( "/query/{program}.csv" )
     public void getQueryCsv(
         @PathVariable String program,
@@ -185,6 +228,24 @@ public class EnrollmentAnalyticsController
         GridUtils.toCsv( grid, response.getWriter() );
     }
 
+    @GetMapping( value = "/query/{program}.csv", params = "stream=true" )
+    public void streamQueryCsv(
+        @PathVariable String program,
+        EnrollmentAnalyticsQueryCriteria criteria,
+        DhisApiVersion apiVersion,
+        HttpServletRequest request,
+        HttpServletResponse response )
+        throws Exception
+    {
+        EventQueryParams params = getEventQueryParams( program, criteria, apiVersion, false );
+
+        ShallowEtagHeaderFilter.disableContentCaching( request );
+
+        contextUtils.configureResponse( response, ContextUtils.CONTENT_TYPE_CSV, CacheStrategy.RESPECT_SYSTEM_SETTING,
+            "enrollments.csv", true );
+        analyticsService.streamEnrollments( params, new CsvGridStreamWriter( response.getWriter() ) );
+    }
+
     @GetMapping( "/query/{program}.html" )
     public void getQueryHtml(
         @PathVariable String program,
@@ -32,6 +32,7 @@ import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 
 import java.util.List;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.validation.constraints.NotNull;
 
@@ -56,7 +57,9 @@ import org.hisp.dhis.common.RequestTypeAware;
 import org.hisp.dhis.common.cache.CacheStrategy;
 import org.hisp.dhis.setting.SettingKey;
 import org.hisp.dhis.setting.SystemSettingManager;
+import org.hisp.dhis.system.grid.CsvGridStreamWriter;
 import org.hisp.dhis.system.grid.GridUtils;
+import org.hisp.dhis.system.grid.JsonGridStreamWriter;
 import org.hisp.dhis.webapi.mvc.annotation.ApiVersion;
 import org.hisp.dhis.webapi.utils.ContextUtils;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -65,7 +68,9 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
 /**
@@ -80,6 +85,8 @@ public class EventAnalyticsController
 
     private static final String EXPLAIN_PATH = "/explain";
 
+    private static final String STREAM_PARAM = "stream=true";
+
     @NonNull
     private final EventDataQueryService eventDataService;
 
@@ -104,6 +111,9 @@ public class EventAnalyticsController
     @NotNull
     private final SystemSettingManager systemSettingManager;
 
+    @NonNull
+    private final ObjectMapper jsonMapper;
+
     // -------------------------------------------------------------------------
     // Aggregate
     // -------------------------------------------------------------------------
@@ -175,6 +185,18 @@ public class EventAnalyticsController
             ContextUtils.CONTENT_TYPE_EXCEL, "events.xls", response ), response.getOutputStream() );
     }
 
+    @GetMapping( value = RESOURCE_PATH + "/aggregate/{program}.xlsx" )
+    public void getAggregateXlsx(
+        @PathVariable String program,
+        EventsAnalyticsQueryCriteria criteria,
+        DhisApiVersion apiVersion,
+        HttpServletResponse response )
+        throws Exception
+    {
+        GridUtils.toXlsx( getAggregatedGridWithAttachment( criteria, program, apiVersion,
+            ContextUtils.CONTENT_TYPE_EXCEL_XLSX, "events.xlsx", response ), response.getOutputStream() );
+    }
+
     @GetMapping( value = RESOURCE_PATH + "/aggregate/{program}.csv" )
     public void getAggregateCsv(
         @PathVariable String program,
@@ -319,6 +341,24 @@ public class EventAnalyticsController
         return analyticsService.getEvents( params );
     }
 
+    @GetMapping( value = RESOURCE_PATH + "/query/{program}", params = STREAM_PARAM, produces = APPLICATION_JSON_VALUE )
+    public void streamQueryJson(
+        @PathVariable String program,
+        EventsAnalyticsQueryCriteria criteria,
+        DhisApiVersion apiVersion,
+        HttpServletRequest request,
+        HttpServletResponse response )
+        throws Exception
+    {
+        EventQueryParams params = getEventQueryParams( program, criteria, apiVersion, false );
+
+        ShallowEtagHeaderFilter.disableContentCaching( request );
+
+        configResponseForJson( response );
+
+        analyticsService.streamEvents( params, new JsonGridStreamWriter( jsonMapper, response.getOutputStream() ) );
+    }
+
     @GetMapping( value = RESOURCE_PATH + "/query/{program}.xml" )
     public void getQueryXml(
         @PathVariable String program,
@@ -343,6 +383,18 @@ public class EventAnalyticsController
             "events.xls", true, response ), response.getOutputStream() );
     }
 
+    @GetMapping( value = RESOURCE_PATH + "/query/{program}.xlsx" )
+    public void getQueryXlsx(
+        @PathVariable String program,
+        EventsAnalyticsQueryCriteria criteria,
+        DhisApiVersion apiVersion,
+        HttpServletResponse response )
+        throws Exception
+    {
+        GridUtils.toXlsx( getListGridWithAttachment( criteria, program, apiVersion,
+            ContextUtils.CONTENT_TYPE_EXCEL_XLSX, "events.xlsx", true, response ), response.getOutputStream() );
+    }
+
     @GetMapping( value = RESOURCE_PATH + "/query/{program}.csv" )
     public void getQueryCsv(
         @PathVariable String program,
@@ -355,6 +407,25 @@ public class EventAnalyticsController
             "events.csv", true, response ), response.getWriter() );
     }
 
+    @GetMapping( value = RESOURCE_PATH + "/query/{program}.csv", params = STREAM_PARAM )
+    public void streamQueryCsv(
+        @PathVariable String program,
+        EventsAnalyticsQueryCriteria criteria,
+        DhisApiVersion apiVersion,
+        HttpServletRequest request,
+        HttpServletResponse response )
+        throws Exception
+    {
+        EventQueryParams params = getEventQueryParams( program, criteria, apiVersion, false );
+
+        ShallowEtagHeaderFilter.disableContentCaching( request );
+
+        contextUtils.configureResponse( response, ContextUtils.CONTENT_TYPE_CSV, CacheStrategy.RESPECT_SYSTEM_SETTING,
+            "events.csv", true );
+
+        analyticsService.streamEvents( params, new CsvGridStreamWriter( response.getWriter() ) );
+    }
+
     @GetMapping( value = RESOURCE_PATH + "/query/{program}.html" )
     public void getQueryHtml(
         @PathVariable String program,
@@ -150,6 +150,28 @@ public class SqlViewController
         GridUtils.toXls( grid, response.getOutputStream() );
     }
 
+    @GetMapping( "/{uid}/data.xlsx" )
+    public void getViewXlsx( @PathVariable( "uid" ) String uid,
+        @RequestParam( required = false ) Set<String> criteria, @RequestParam( required = false ) Set<String> var,
+        HttpServletResponse response )
+        throws Exception
+    {
+        SqlView sqlView = validateView( uid );
+
+        List<String> filters = Lists.newArrayList( contextService.getParameterValues( "filter" ) );
+        List<String> fields = Lists.newArrayList( contextService.getParameterValues( "fields" ) );
+
+        Grid grid = sqlViewService.getSqlViewGrid( sqlView, SqlView.getCriteria( criteria ), SqlView.getCriteria( var ),
+            filters, fields );
+
+        String filename = CodecUtils.filenameEncode( grid.getTitle() ) + ".xlsx";
+
+        contextUtils.configureResponse( response, ContextUtils.CONTENT_TYPE_EXCEL_XLSX, sqlView.getCacheStrategy(),
+            filename, true );
+
+        GridUtils.toXlsx( grid, response.getOutputStream() );
+    }
+
     @GetMapping( "/{uid}/data.html" )
     public void getViewHtml( @PathVariable( "uid" ) String uid,
         @RequestParam( required = false ) Set<String> criteria, @RequestParam( required = false ) Set<String> var,
@@ -31,6 +31,8 @@ import static org.hisp.dhis.dxf2.webmessage.WebMessageUtils.notFound;
 
 import java.io.IOException;
 
+import javax.servlet.http.HttpServletResponse;
+
 import org.hisp.dhis.category.CategoryCombo;
 import org.hisp.dhis.category.CategoryService;
 import org.hisp.dhis.dxf2.webmessage.WebMessageException;
@@ -60,7 +62,7 @@ public class CategoryComboController
 
     @GetMapping( "/{uid}/metadata" )
     public ResponseEntity<JsonNode> getDataSetWithDependencies( @PathVariable( "uid" ) String pvUid,
-        @RequestParam( required = false, defaultValue = "false" ) boolean download )
+        @RequestParam( required = false, defaultValue = "false" ) boolean download, HttpServletResponse response )
         throws WebMessageException,
         IOException
     {
@@ -71,6 +73,12 @@ public class CategoryComboController
             throw new WebMessageException( notFound( "CategoryCombo not found for uid: " + pvUid ) );
         }
 
+        if ( MetadataExportControllerUtils.writeWithDependencies( contextService, exportService, categoryCombo,
+            download, response ) )
+        {
+            return null;
+        }
+
         return MetadataExportControllerUtils.getWithDependencies( contextService, exportService, categoryCombo,
             download );
     }
@@ -164,7 +164,7 @@ public class DataElementGroupController
     @GetMapping( "/{uid}/metadata" )
     public ResponseEntity<JsonNode> getDataElementGroupWithDependencies(
         @PathVariable( "uid" ) String dataElementGroupId,
-        @RequestParam( required = false, defaultValue = "false" ) boolean download )
+        @RequestParam( required = false, defaultValue = "false" ) boolean download, HttpServletResponse response )
         throws WebMessageException,
         IOException
     {
@@ -176,6 +176,12 @@ public class DataElementGroupController
                 notFound( "DataElementGroup not found for uid: " + dataElementGroupId ) );
         }
 
+        if ( MetadataExportControllerUtils.writeWithDependencies( contextService, exportService, dataElementGroup,
+            download, response ) )
+        {
+            return null;
+        }
+
         return MetadataExportControllerUtils.getWithDependencies( contextService, exportService, dataElementGroup,
             download );
     }
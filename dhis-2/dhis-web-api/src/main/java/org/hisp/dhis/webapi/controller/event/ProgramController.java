@@ -29,12 +29,15 @@ package org.hisp.dhis.webapi.controller.event;
 
 import static org.hisp.dhis.dxf2.webmessage.WebMessageUtils.notFound;
 
+import java.io.IOException;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
+import javax.servlet.http.HttpServletResponse;
+
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.collections4.SetValuedMap;
 import org.hisp.dhis.dxf2.webmessage.WebMessageException;
@@ -107,8 +110,9 @@ public class ProgramController
 
     @GetMapping( "/{uid}/metadata" )
     public ResponseEntity<JsonNode> getProgramWithDependencies( @PathVariable( "uid" ) String pvUid,
-        @RequestParam( required = false, defaultValue = "false" ) boolean download )
-        throws WebMessageException
+        @RequestParam( required = false, defaultValue = "false" ) boolean download, HttpServletResponse response )
+        throws WebMessageException,
+        IOException
     {
         Program program = programService.getProgram( pvUid );
 
@@ -117,6 +121,12 @@ public class ProgramController
             throw new WebMessageException( notFound( "Program not found for uid: " + pvUid ) );
         }
 
+        if ( MetadataExportControllerUtils.writeWithDependencies( contextService, exportService, program, download,
+            response ) )
+        {
+            return null;
+        }
+
         return MetadataExportControllerUtils.getWithDependencies( contextService, exportService, program, download );
     }
 
@@ -27,13 +27,17 @@
  */
 package org.hisp.dhis.webapi.controller.metadata;
 
+import java.io.IOException;
+
 import javax.annotation.Nonnull;
+import javax.servlet.http.HttpServletResponse;
 
 import org.hisp.dhis.common.IdentifiableObject;
 import org.hisp.dhis.dxf2.metadata.MetadataExportParams;
 import org.hisp.dhis.dxf2.metadata.MetadataExportService;
 import org.hisp.dhis.node.types.RootNode;
 import org.hisp.dhis.webapi.service.ContextService;
+import org.hisp.dhis.webapi.utils.ContextUtils;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -74,6 +78,47 @@ public abstract class MetadataExportControllerUtils
         return createJsonNodeResponseEntity( rootNode, download );
     }
 
+    /**
+     * Writes the metadata with dependencies to the response as JSON, one class
+     * at a time, if streaming has been requested. The dependencies are still
+     * collected in memory before writing starts, so streaming only avoids
+     * building the JSON tree of the whole export.
+     *
+     * @param contextService the context service that is used to retrieve
+     *        request parameters.
+     * @param exportService the export service that is used to export metadata
+     *        with dependencies.
+     * @param identifiableObject the identifiable object that should be exported
+     *        with dependencies.
+     * @param download <code>true</code> if the data should be downloaded (as
+     *        attachment), <code>false</code> otherwise.
+     * @param response the response to which the metadata is written.
+     * @return <code>true</code> if the metadata has been written to the
+     *         response, <code>false</code> if streaming has not been requested
+     *         and the metadata should be returned by
+     *         {@link #getWithDependencies(ContextService, MetadataExportService, IdentifiableObject, boolean)}.
+     */
+    public static boolean writeWithDependencies( @Nonnull ContextService contextService,
+        @Nonnull MetadataExportService exportService, @Nonnull IdentifiableObject identifiableObject, boolean download,
+        @Nonnull HttpServletResponse response )
+        throws IOException
+    {
+        final MetadataExportParams exportParams = exportService
+            .getParamsFromMap( contextService.getParameterValuesMap() );
+
+        if ( !exportParams.isStreaming() )
+        {
+            return false;
+        }
+
+        exportService.validate( exportParams );
+
+        prepareStreamingResponse( response, download );
+        exportService.writeMetadataWithDependencies( identifiableObject, exportParams, response.getOutputStream() );
+
+        return true;
+    }
+
     /**
      * Creates the response entity for the root node. Optionally it can be
      * specified that the data should be downloaded.
@@ -111,6 +156,24 @@ public abstract class MetadataExportControllerUtils
         return new ResponseEntity<>( jsonNode, headers, HttpStatus.OK );
     }
 
+    /**
+     * Prepares the response for metadata which is written to it directly as
+     * JSON. Optionally it can be specified that the data should be downloaded.
+     *
+     * @param response the response to which the metadata is written.
+     * @param download <code>true</code> if the data should be downloaded (as
+     *        attachment), <code>false</code> otherwise.
+     */
+    public static void prepareStreamingResponse( @Nonnull HttpServletResponse response, boolean download )
+    {
+        response.setContentType( ContextUtils.CONTENT_TYPE_JSON );
+
+        if ( download )
+        {
+            response.setHeader( HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=metadata.json" );
+        }
+    }
+
     private MetadataExportControllerUtils()
     {
         super();
@@ -29,6 +29,8 @@ package org.hisp.dhis.webapi.controller.option;
 
 import static org.hisp.dhis.dxf2.webmessage.WebMessageUtils.notFound;
 
+import java.io.IOException;
+
 import javax.servlet.http.HttpServletResponse;
 
 import org.hisp.dhis.dxf2.webmessage.WebMessageException;
@@ -61,7 +63,8 @@ public class OptionSetController
     @GetMapping( "/{uid}/metadata" )
     public ResponseEntity<JsonNode> getOptionSetWithDependencies( @PathVariable( "uid" ) String pvUid,
         HttpServletResponse response, @RequestParam( required = false, defaultValue = "false" ) boolean download )
-        throws WebMessageException
+        throws WebMessageException,
+        IOException
     {
         OptionSet optionSet = optionService.getOptionSet( pvUid );
 
@@ -70,6 +73,12 @@ public class OptionSetController
             throw new WebMessageException( notFound( "OptionSet not found for uid: " + pvUid ) );
         }
 
+        if ( MetadataExportControllerUtils.writeWithDependencies( contextService, exportService, optionSet, download,
+            response ) )
+        {
+            return null;
+        }
+
         return MetadataExportControllerUtils.getWithDependencies( contextService, exportService, optionSet, download );
     }
 }